@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The class {@code AvailableSuggestionSnapshot} is a file holding the
+ * {@link AvailableSuggestionSet}s of an {@link AvailableSuggestionStore}, so that a client that is
+ * restarted does not have to intern and index again the sets that the new server sends unchanged.
+ *
+ * The file starts with a directory giving the id, the URI and the content hash of each set, and
+ * the position of its encoding, which is the {@link CborWriter} encoding of the set without its id.
+ * The content hash is the hash of that encoding, so comparing it to
+ * {@link #computeHash(AvailableSuggestionSet)} tells which sets a server sends unchanged, whatever
+ * ids it gives them. Opening a snapshot maps the file into memory and reads only the directory; a
+ * set is decoded when it is read, and the content hash of its encoding is checked first, so that a
+ * set whose encoding has been damaged is ignored rather than decoded. A snapshot is written to a
+ * temporary file that then replaces the file, so a snapshot is never seen partially written.
+ *
+ * The mapping of the file is only released when the snapshot is closed, and until then the file
+ * cannot be replaced on some platforms, such as Windows, so a snapshot should be closed before a
+ * new snapshot is written to its file.
+ *
+ * @coverage dart.server.client
+ */
+public class AvailableSuggestionSnapshot implements Closeable {
+
+  /**
+   * The value of the first four bytes of a snapshot file.
+   */
+  private static final int MAGIC = 0x44535353;
+
+  /**
+   * The version of the format of the snapshot files that are written.
+   */
+  private static final int VERSION = 2;
+
+  /**
+   * The contents of the file, or {@code null} if the snapshot has been closed.
+   */
+  private MappedByteBuffer buffer;
+
+  /**
+   * The ids of the sets.
+   */
+  private final int[] ids;
+
+  /**
+   * The URIs of the sets.
+   */
+  private final String[] uris;
+
+  /**
+   * The content hashes of the encodings of the sets.
+   */
+  private final long[] hashes;
+
+  /**
+   * The offsets in the file of the encodings of the sets.
+   */
+  private final int[] offsets;
+
+  /**
+   * The lengths of the encodings of the sets.
+   */
+  private final int[] lengths;
+
+  /**
+   * The indices of the sets, keyed by their URIs.
+   */
+  private final Map<String, Integer> indicesByUri;
+
+  /**
+   * Initialize a newly created snapshot with the given contents and directory.
+   */
+  private AvailableSuggestionSnapshot(MappedByteBuffer buffer, int[] ids, String[] uris,
+      long[] hashes, int[] offsets, int[] lengths) {
+    this.buffer = buffer;
+    this.ids = ids;
+    this.uris = uris;
+    this.hashes = hashes;
+    this.offsets = offsets;
+    this.lengths = lengths;
+    this.indicesByUri = new HashMap<String, Integer>(uris.length * 2);
+    for (int i = 0; i < uris.length; i++) {
+      indicesByUri.put(uris[i], i);
+    }
+  }
+
+  /**
+   * Release the mapping of the file, after which the sets can no longer be read.
+   */
+  @Override
+  public synchronized void close() {
+    if (buffer != null) {
+      unmap(buffer);
+      buffer = null;
+    }
+  }
+
+  /**
+   * Return the content hash of the set with the given index, as read from the directory.
+   */
+  public long getHash(int index) {
+    return hashes[index];
+  }
+
+  /**
+   * Return the id of the set with the given index. The ids are those assigned by the server that
+   * sent the sets, which assigns ids in the order in which it discovers the libraries, so a later
+   * server can give the same id to another library.
+   */
+  public int getId(int index) {
+    return ids[index];
+  }
+
+  /**
+   * Return the number of sets in this snapshot.
+   */
+  public int getSetCount() {
+    return ids.length;
+  }
+
+  /**
+   * Return the URI of the set with the given index.
+   */
+  public String getUri(int index) {
+    return uris[index];
+  }
+
+  /**
+   * Return the index of the set with the given URI, or {@code -1} if there is no such set.
+   */
+  public int indexOf(String uri) {
+    Integer index = indicesByUri.get(uri);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Return {@code true} if the encoding of the set with the given index has the content hash given
+   * by the directory, so that the set can be read, without decoding it.
+   *
+   * @throws IllegalStateException if the snapshot has been closed
+   */
+  public synchronized boolean isIntact(int index) {
+    return computeHash(getEncoding(index)) == hashes[index];
+  }
+
+  /**
+   * Return a snapshot of the sets in the given file.
+   *
+   * @throws IOException if the file cannot be read or is not a snapshot
+   */
+  public static AvailableSuggestionSnapshot open(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("Not a snapshot of the current version: " + file);
+      }
+      int count = buffer.getInt();
+      // each entry of the directory takes at least 24 bytes
+      if (count < 0 || count > buffer.remaining() / 24) {
+        throw new IOException("Invalid snapshot: " + file);
+      }
+      int[] ids = new int[count];
+      String[] uris = new String[count];
+      long[] hashes = new long[count];
+      int[] offsets = new int[count];
+      int[] lengths = new int[count];
+      for (int i = 0; i < count; i++) {
+        ids[i] = buffer.getInt();
+        hashes[i] = buffer.getLong();
+        offsets[i] = buffer.getInt();
+        lengths[i] = buffer.getInt();
+        int uriLength = buffer.getInt();
+        if (uriLength < 0 || uriLength > buffer.remaining()) {
+          throw new IOException("Invalid snapshot: " + file);
+        }
+        byte[] uriBytes = new byte[uriLength];
+        buffer.get(uriBytes);
+        uris[i] = new String(uriBytes, StandardCharsets.UTF_8);
+        if (offsets[i] < 0 || lengths[i] < 0 || offsets[i] > buffer.capacity() - lengths[i]) {
+          throw new IOException("Invalid snapshot: " + file);
+        }
+      }
+      return new AvailableSuggestionSnapshot(buffer, ids, uris, hashes, offsets, lengths);
+    } catch (RuntimeException exception) {
+      // a truncated directory
+      throw new IOException("Invalid snapshot: " + file, exception);
+    }
+  }
+
+  /**
+   * Return the set with the given index, decoded from the file, or {@code null} if its encoding
+   * does not have its content hash.
+   *
+   * @throws IllegalStateException if the snapshot has been closed
+   * @throws IOException if the encoding cannot be decoded
+   */
+  public synchronized AvailableSuggestionSet readSet(int index) throws IOException {
+    ByteBuffer encoding = getEncoding(index);
+    if (computeHash(encoding.duplicate()) != hashes[index]) {
+      return null;
+    }
+    AvailableSuggestionSet set =
+        AvailableSuggestionSet.fromJson(new CborReader(new BufferInputStream(encoding)));
+    return new AvailableSuggestionSet(ids[index], set.getUri(), set.getItems());
+  }
+
+  /**
+   * Write a snapshot of the given sets to the given file, replacing any existing file.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path file, Collection<AvailableSuggestionSet> sets) throws IOException {
+    int count = sets.size();
+    byte[][] uris = new byte[count][];
+    byte[][] encodings = new byte[count][];
+    int directoryLength = 12;
+    int i = 0;
+    for (AvailableSuggestionSet set : sets) {
+      uris[i] = set.getUri().getBytes(StandardCharsets.UTF_8);
+      encodings[i] = encode(set);
+      directoryLength += 24 + uris[i].length;
+      i++;
+    }
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    boolean isWritten = false;
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(count);
+        int offset = directoryLength;
+        i = 0;
+        for (AvailableSuggestionSet set : sets) {
+          out.writeInt(set.getId());
+          out.writeLong(computeHash(ByteBuffer.wrap(encodings[i])));
+          out.writeInt(offset);
+          out.writeInt(encodings[i].length);
+          out.writeInt(uris[i].length);
+          out.write(uris[i]);
+          offset += encodings[i].length;
+          i++;
+        }
+        for (byte[] encoding : encodings) {
+          out.write(encoding);
+        }
+      }
+      try {
+        Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException exception) {
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      isWritten = true;
+    } finally {
+      if (!isWritten) {
+        deleteQuietly(temporaryFile);
+      }
+    }
+  }
+
+  /**
+   * An input stream that reads the remaining bytes of a buffer.
+   */
+  private static class BufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    BufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      length = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, length);
+      return length;
+    }
+  }
+
+  /**
+   * Return the content hash of the given set, which is the hash of its encoding in a snapshot and
+   * does not depend on its id.
+   *
+   * @throws IOException if the set cannot be encoded
+   */
+  public static long computeHash(AvailableSuggestionSet set) throws IOException {
+    return computeHash(ByteBuffer.wrap(encode(set)));
+  }
+
+  /**
+   * Return the 64-bit FNV-1a hash of the remaining bytes of the given buffer.
+   */
+  private static long computeHash(ByteBuffer bytes) {
+    long hash = 0xcbf29ce484222325L;
+    while (bytes.hasRemaining()) {
+      hash ^= bytes.get() & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /**
+   * Return the encoding of the given set in a snapshot, which leaves out its id because the id is
+   * given by the directory.
+   */
+  private static byte[] encode(AvailableSuggestionSet set) throws IOException {
+    ByteArrayOutputStream encoding = new ByteArrayOutputStream();
+    new AvailableSuggestionSet(0, set.getUri(), set.getItems()).writeTo(new CborWriter(encoding));
+    return encoding.toByteArray();
+  }
+
+  /**
+   * Delete the given file, if it exists, ignoring any exception so that it does not replace the
+   * exception being thrown.
+   */
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException exception) {
+      // ignored
+    }
+  }
+
+  /**
+   * Return the encoding of the set with the given index.
+   *
+   * @throws IllegalStateException if the snapshot has been closed
+   */
+  private ByteBuffer getEncoding(int index) {
+    if (buffer == null) {
+      throw new IllegalStateException("The snapshot has been closed");
+    }
+    ByteBuffer encoding = buffer.duplicate();
+    encoding.position(offsets[index]);
+    encoding.limit(offsets[index] + lengths[index]);
+    return encoding;
+  }
+
+  /**
+   * Release the mapping of the given buffer, which must not be used afterwards.
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    // there is no public API to release a mapping, which is otherwise only released when the buffer
+    // is garbage collected, so the cleaner of the buffer is invoked reflectively
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      invokeCleaner.invoke(field.get(null), buffer);
+      return;
+    } catch (ReflectiveOperationException | RuntimeException exception) {
+      // before Java 9, the cleaner is reached through the buffer
+    }
+    try {
+      Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+      cleanerMethod.setAccessible(true);
+      Object cleaner = cleanerMethod.invoke(buffer);
+      cleaner.getClass().getMethod("clean").invoke(cleaner);
+    } catch (ReflectiveOperationException | RuntimeException exception) {
+      // the mapping is released when the buffer is garbage collected
+    }
+  }
+
+}
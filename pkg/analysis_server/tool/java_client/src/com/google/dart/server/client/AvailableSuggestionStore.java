@@ -0,0 +1,536 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * The class {@code AvailableSuggestionStore} keeps the {@link AvailableSuggestionSet}s delivered by
+ * {@code completion.availableSuggestions} notifications, applying the changed and removed sets of
+ * each notification incrementally, and indexes their suggestions by label so that the suggestions
+ * of the sets included in a completion that match a prefix can be found without scanning every
+ * suggestion of every library.
+ *
+ * The labels, relevance tags and elements of the suggestions are interned, so that an element
+ * exported by several libraries, such as the widgets of a framework, is kept once. The index is a
+ * sorted map from the lower case labels to the suggestions with those labels, in which the labels
+ * that start with a prefix form a contiguous range, as the subtree of a node does in a trie.
+ *
+ * The sets can be saved to an {@link AvailableSuggestionSnapshot} and loaded from it when the
+ * client is restarted. The ids of the sets are only meaningful to the server that assigned them,
+ * so the sets loaded from a snapshot are matched with the sets sent by the new server by their URIs
+ * and content hashes. When the server sends a set with the URI and the content hash of a loaded
+ * set, the loaded set is served under the id given by the server, and it is only decoded when it
+ * is first needed, by {@link #getSet(int)} or because it is included in a completion, instead of
+ * the set sent by the server being interned and indexed. In the same way, a set that is sent again
+ * unchanged, under the same or another id, is kept rather than indexed again. The loaded sets that
+ * the server has not sent are not served, and can be removed once it has sent all of its sets. The
+ * snapshot is closed once all of its sets have been decoded or removed.
+ *
+ * @coverage dart.server.client
+ */
+public class AvailableSuggestionStore {
+
+  /**
+   * The sets, keyed by id.
+   */
+  private final Map<Integer, AvailableSuggestionSet> sets =
+      new HashMap<Integer, AvailableSuggestionSet>();
+
+  /**
+   * The ids of the sets, keyed by their URIs.
+   */
+  private final Map<String, Integer> idsByUri = new HashMap<String, Integer>();
+
+  /**
+   * The content hashes of the sets whose hashes are known, keyed by id.
+   */
+  private final Map<Integer, Long> hashes = new HashMap<Integer, Long>();
+
+  /**
+   * The sets loaded from a snapshot that the server has not sent yet, keyed by URI.
+   */
+  private final Map<String, SnapshotSet> pendingSets = new HashMap<String, SnapshotSet>();
+
+  /**
+   * The sets loaded from a snapshot that the server has sent but that have not been decoded yet,
+   * keyed by the ids given to them by the server.
+   */
+  private final Map<Integer, SnapshotSet> undecodedSets = new HashMap<Integer, SnapshotSet>();
+
+  /**
+   * The number of sets of each snapshot that have not been decoded yet.
+   */
+  private final Map<AvailableSuggestionSnapshot, Integer> undecodedCounts =
+      new HashMap<AvailableSuggestionSnapshot, Integer>();
+
+  /**
+   * The suggestions of all of the decoded sets, keyed by their lower case labels.
+   */
+  private final TreeMap<String, List<Entry>> index = new TreeMap<String, List<Entry>>();
+
+  /**
+   * The canonical instances of the interned strings.
+   */
+  private final WeakHashMap<String, WeakReference<String>> strings =
+      new WeakHashMap<String, WeakReference<String>>();
+
+  /**
+   * The canonical instances of the interned elements.
+   */
+  private final WeakHashMap<Element, WeakReference<Element>> elements =
+      new WeakHashMap<Element, WeakReference<Element>>();
+
+  /**
+   * Add to the given accumulator the suggestions of the given included sets whose labels start
+   * with the given prefix, ignoring case.
+   */
+  public synchronized void addMatches(CompletionAccumulator accumulator,
+      List<IncludedSuggestionSet> includedSets, String prefix) {
+    Map<Integer, IncludedSuggestionSet> includedById =
+        new HashMap<Integer, IncludedSuggestionSet>(includedSets.size() * 2);
+    for (IncludedSuggestionSet includedSet : includedSets) {
+      includedById.put(includedSet.getId(), includedSet);
+      if (undecodedSets.containsKey(includedSet.getId())) {
+        decodeSet(includedSet.getId());
+      }
+    }
+    for (List<Entry> entries : getPrefixRange(toKey(prefix)).values()) {
+      for (Entry entry : entries) {
+        IncludedSuggestionSet includedSet = includedById.get(entry.set.getId());
+        if (includedSet != null) {
+          accumulator.addAvailableSuggestion(entry.item, entry.set, includedSet);
+        }
+      }
+    }
+  }
+
+  /**
+   * Apply the given changes, such as those of a {@code completion.availableSuggestions}
+   * notification. Either argument can be {@code null}. A changed set whose URI and content hash are
+   * those of a set in this store or of a set loaded from a snapshot is not indexed: the set that is
+   * already known is served under the id of the changed set instead.
+   */
+  public synchronized void applyChanges(List<AvailableSuggestionSet> changedLibraries,
+      int[] removedLibraries) {
+    if (removedLibraries != null) {
+      for (int id : removedLibraries) {
+        removeSet(id);
+      }
+    }
+    if (changedLibraries != null) {
+      for (AvailableSuggestionSet set : changedLibraries) {
+        Long hash = null;
+        if (idsByUri.containsKey(set.getUri()) || pendingSets.containsKey(set.getUri())) {
+          hash = computeHash(set);
+          if (hash != null && reuseSet(set, hash)) {
+            continue;
+          }
+        }
+        removeSet(set.getId());
+        Integer previousId = idsByUri.get(set.getUri());
+        if (previousId != null) {
+          removeSet(previousId);
+        }
+        SnapshotSet snapshotSet = pendingSets.remove(set.getUri());
+        if (snapshotSet != null) {
+          release(snapshotSet);
+        }
+        addSet(set);
+        if (hash != null) {
+          hashes.put(set.getId(), hash);
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the number of distinct lower case labels in the index.
+   */
+  public synchronized int getLabelCount() {
+    return index.size();
+  }
+
+  /**
+   * Return the set with the given id, or {@code null} if there is no such set. The suggestions of
+   * the returned set share their interned labels and elements with the other sets.
+   */
+  public synchronized AvailableSuggestionSet getSet(int id) {
+    if (undecodedSets.containsKey(id)) {
+      return decodeSet(id);
+    }
+    return sets.get(id);
+  }
+
+  /**
+   * Return the number of sets that are served, including the sets loaded from a snapshot that have
+   * not been decoded yet, but not the loaded sets that the server has not sent.
+   */
+  public synchronized int getSetCount() {
+    return sets.size() + undecodedSets.size();
+  }
+
+  /**
+   * Load the sets of the given snapshot whose URIs are not those of sets in this store, without
+   * decoding them, and take ownership of the snapshot, which is closed once none of its sets are
+   * left to decode. The loaded sets are not served until the server sends sets with the same URIs
+   * and content hashes, because the ids in the snapshot were assigned by a previous server. Return
+   * the number of sets loaded.
+   */
+  public synchronized int loadSnapshot(AvailableSuggestionSnapshot snapshot) {
+    int loadedCount = 0;
+    for (int i = 0; i < snapshot.getSetCount(); i++) {
+      String uri = snapshot.getUri(i);
+      if (idsByUri.containsKey(uri) || pendingSets.containsKey(uri)) {
+        continue;
+      }
+      pendingSets.put(uri, new SnapshotSet(uri, snapshot, i, snapshot.getHash(i)));
+      loadedCount++;
+    }
+    if (loadedCount == 0) {
+      snapshot.close();
+    } else {
+      undecodedCounts.put(snapshot, loadedCount);
+    }
+    return loadedCount;
+  }
+
+  /**
+   * Remove the sets that were loaded from a snapshot and have not been sent by the server, such as
+   * once the server has sent all of its sets. Return the number of sets removed.
+   */
+  public synchronized int removeSnapshotSets() {
+    int removedCount = pendingSets.size();
+    for (SnapshotSet snapshotSet : pendingSets.values()) {
+      release(snapshotSet);
+    }
+    pendingSets.clear();
+    return removedCount;
+  }
+
+  /**
+   * Write a snapshot of the sets in this store to the given file, replacing any existing file. The
+   * sets loaded from a snapshot are decoded first, so that the snapshots, which can be the file
+   * being replaced, are closed. The loaded sets that the server has not sent are saved with the ids
+   * they were loaded with.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public void saveSnapshot(Path file) throws IOException {
+    List<AvailableSuggestionSet> setsToSave;
+    synchronized (this) {
+      for (Integer id : new ArrayList<Integer>(undecodedSets.keySet())) {
+        decodeSet(id);
+      }
+      setsToSave = new ArrayList<AvailableSuggestionSet>(sets.values());
+      Iterator<SnapshotSet> iterator = pendingSets.values().iterator();
+      while (iterator.hasNext()) {
+        AvailableSuggestionSet set = read(iterator.next());
+        if (set == null) {
+          iterator.remove();
+        } else {
+          setsToSave.add(set);
+        }
+      }
+    }
+    AvailableSuggestionSnapshot.write(file, setsToSave);
+  }
+
+  /**
+   * A suggestion in the index, with the set that contains it.
+   */
+  private static class Entry {
+    final AvailableSuggestionSet set;
+    final AvailableSuggestion item;
+
+    Entry(AvailableSuggestionSet set, AvailableSuggestion item) {
+      this.set = set;
+      this.item = item;
+    }
+  }
+
+  /**
+   * A set loaded from a snapshot that has not been added to the index yet, which is read from the
+   * snapshot when it is first needed.
+   */
+  private static class SnapshotSet {
+    final String uri;
+    AvailableSuggestionSnapshot snapshot;
+    final int index;
+    final long hash;
+    AvailableSuggestionSet set;
+
+    SnapshotSet(String uri, AvailableSuggestionSnapshot snapshot, int index, long hash) {
+      this.uri = uri;
+      this.snapshot = snapshot;
+      this.index = index;
+      this.hash = hash;
+    }
+  }
+
+  /**
+   * Add the given set, whose id is not in the store, with interned suggestions.
+   */
+  private void addSet(AvailableSuggestionSet set) {
+    List<AvailableSuggestion> items = new ArrayList<AvailableSuggestion>(set.getItems().size());
+    for (AvailableSuggestion item : set.getItems()) {
+      items.add(intern(item));
+    }
+    AvailableSuggestionSet internedSet =
+        new AvailableSuggestionSet(set.getId(), set.getUri(), items);
+    sets.put(set.getId(), internedSet);
+    idsByUri.put(set.getUri(), set.getId());
+    for (AvailableSuggestion item : items) {
+      index.computeIfAbsent(toKey(item.getLabel()), key -> new ArrayList<Entry>(1))
+          .add(new Entry(internedSet, item));
+    }
+  }
+
+  /**
+   * Return the content hash of the given set, or {@code null} if it cannot be encoded.
+   */
+  private static Long computeHash(AvailableSuggestionSet set) {
+    try {
+      return AvailableSuggestionSnapshot.computeHash(set);
+    } catch (IOException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Decode the set with the given id, which was loaded from a snapshot, and add it to the index
+   * with that id. Return the decoded set, or {@code null} if its encoding has been damaged and it
+   * was dropped.
+   */
+  private AvailableSuggestionSet decodeSet(int id) {
+    SnapshotSet snapshotSet = undecodedSets.remove(id);
+    AvailableSuggestionSet set = read(snapshotSet);
+    if (set == null) {
+      idsByUri.remove(snapshotSet.uri);
+      hashes.remove(id);
+      return null;
+    }
+    addSet(new AvailableSuggestionSet(id, snapshotSet.uri, set.getItems()));
+    return sets.get(id);
+  }
+
+  /**
+   * Return the content hash of the set with the given id, which is in this store, computing it if
+   * it is not known, or {@code null} if it cannot be computed.
+   */
+  private Long getHash(int id) {
+    Long hash = hashes.get(id);
+    if (hash == null) {
+      hash = computeHash(sets.get(id));
+      if (hash != null) {
+        hashes.put(id, hash);
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Return the part of the index whose keys start with the given key.
+   */
+  private SortedMap<String, List<Entry>> getPrefixRange(String key) {
+    if (key.isEmpty()) {
+      return index;
+    }
+    // the keys that start with the given key are less than the key with its last character
+    // incremented
+    int last = key.length() - 1;
+    if (key.charAt(last) == Character.MAX_VALUE) {
+      return index.tailMap(key);
+    }
+    return index.subMap(key, key.substring(0, last) + (char) (key.charAt(last) + 1));
+  }
+
+  /**
+   * Return an equal suggestion whose label, relevance tags and element are interned.
+   */
+  private AvailableSuggestion intern(AvailableSuggestion item) {
+    List<String> relevanceTags = item.getRelevanceTags();
+    if (relevanceTags != null) {
+      List<String> internedTags = new ArrayList<String>(relevanceTags.size());
+      for (String tag : relevanceTags) {
+        internedTags.add(intern(strings, tag));
+      }
+      relevanceTags = internedTags;
+    }
+    return new AvailableSuggestion(
+        intern(strings, item.getLabel()),
+        intern(elements, item.getElement()),
+        item.getDefaultArgumentListString(),
+        item.getDefaultArgumentListTextRanges(),
+        item.getDocComplete(),
+        item.getDocSummary(),
+        item.getParameterNames(),
+        item.getParameterTypes(),
+        relevanceTags,
+        item.getRequiredParameterCount());
+  }
+
+  /**
+   * Return the canonical instance of the given value in the given table, which becomes the value
+   * if the table has none.
+   */
+  private static <T> T intern(WeakHashMap<T, WeakReference<T>> table, T value) {
+    if (value == null) {
+      return null;
+    }
+    WeakReference<T> reference = table.get(value);
+    T canonical = reference != null ? reference.get() : null;
+    if (canonical == null) {
+      table.put(value, new WeakReference<T>(value));
+      canonical = value;
+    }
+    return canonical;
+  }
+
+  /**
+   * Serve the set with the first given id, which is in this store, under the second given id,
+   * replacing the set with that id, if there is one.
+   */
+  private void moveSet(int id, int newId) {
+    removeSet(newId);
+    Long hash = hashes.remove(id);
+    SnapshotSet snapshotSet = undecodedSets.remove(id);
+    if (snapshotSet != null) {
+      undecodedSets.put(newId, snapshotSet);
+      idsByUri.put(snapshotSet.uri, newId);
+    } else {
+      AvailableSuggestionSet set = sets.get(id);
+      removeSet(id);
+      addSet(new AvailableSuggestionSet(newId, set.getUri(), set.getItems()));
+    }
+    hashes.put(newId, hash);
+  }
+
+  /**
+   * Return the given set loaded from a snapshot, reading it from the snapshot if it has not been
+   * read yet, or {@code null} if its encoding has been damaged.
+   */
+  private AvailableSuggestionSet read(SnapshotSet snapshotSet) {
+    if (snapshotSet.snapshot != null) {
+      try {
+        snapshotSet.set = snapshotSet.snapshot.readSet(snapshotSet.index);
+      } catch (IOException | RuntimeException exception) {
+        snapshotSet.set = null;
+      }
+      release(snapshotSet);
+    }
+    return snapshotSet.set;
+  }
+
+  /**
+   * Record that the given set loaded from a snapshot no longer needs to be read from it.
+   */
+  private void release(SnapshotSet snapshotSet) {
+    if (snapshotSet.snapshot != null) {
+      setDecoded(snapshotSet.snapshot);
+      snapshotSet.snapshot = null;
+    }
+  }
+
+  /**
+   * Remove the set with the given id, if there is one.
+   */
+  private void removeSet(int id) {
+    SnapshotSet snapshotSet = undecodedSets.remove(id);
+    hashes.remove(id);
+    if (snapshotSet != null) {
+      idsByUri.remove(snapshotSet.uri);
+      release(snapshotSet);
+      return;
+    }
+    AvailableSuggestionSet set = sets.remove(id);
+    if (set == null) {
+      return;
+    }
+    idsByUri.remove(set.getUri());
+    for (AvailableSuggestion item : set.getItems()) {
+      String key = toKey(item.getLabel());
+      List<Entry> entries = index.get(key);
+      if (entries != null) {
+        entries.removeIf(entry -> entry.set == set);
+        if (entries.isEmpty()) {
+          index.remove(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * If the given set has the URI and the given content hash of a set in this store, or of a set
+   * loaded from a snapshot that the server has not sent yet, serve that set under the id of the
+   * given set. Return {@code true} if it is served, or {@code false} if the given set needs to be
+   * added.
+   */
+  private boolean reuseSet(AvailableSuggestionSet set, long hash) {
+    Integer currentId = idsByUri.get(set.getUri());
+    if (currentId != null) {
+      Long currentHash = getHash(currentId);
+      if (currentHash == null || currentHash != hash) {
+        return false;
+      }
+      if (currentId != set.getId()) {
+        moveSet(currentId, set.getId());
+      }
+      return true;
+    }
+    SnapshotSet snapshotSet = pendingSets.get(set.getUri());
+    if (snapshotSet == null || snapshotSet.hash != hash) {
+      return false;
+    }
+    // a set that has been read, to be saved, is dropped if its encoding has been damaged
+    boolean isIntact = snapshotSet.snapshot != null
+        ? snapshotSet.snapshot.isIntact(snapshotSet.index) : snapshotSet.set != null;
+    if (!isIntact) {
+      return false;
+    }
+    pendingSets.remove(set.getUri());
+    removeSet(set.getId());
+    undecodedSets.put(set.getId(), snapshotSet);
+    idsByUri.put(set.getUri(), set.getId());
+    hashes.put(set.getId(), hash);
+    return true;
+  }
+
+  /**
+   * Record that one of the sets of the given snapshot is no longer waiting to be decoded, and close
+   * the snapshot if it was the last one.
+   */
+  private void setDecoded(AvailableSuggestionSnapshot snapshot) {
+    int remainingCount = undecodedCounts.get(snapshot) - 1;
+    if (remainingCount == 0) {
+      undecodedCounts.remove(snapshot);
+      snapshot.close();
+    } else {
+      undecodedCounts.put(snapshot, remainingCount);
+    }
+  }
+
+  /**
+   * Return the key of the given label in the index.
+   */
+  private static String toKey(String label) {
+    return label.toLowerCase(Locale.ROOT);
+  }
+
+}
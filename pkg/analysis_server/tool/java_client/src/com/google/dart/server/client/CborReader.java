@@ -0,0 +1,522 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The class {@code CborReader} is a {@link JsonReader} that decodes values encoded in the Concise
+ * Binary Object Representation (CBOR, RFC 7049), such as those written by a {@link CborWriter},
+ * rather than JSON text. Because the {@code fromJson(JsonReader)} methods generated for the
+ * protocol types only use the streaming methods of {@link JsonReader}, every protocol type can be
+ * decoded with this reader without a separate decoder per type.
+ *
+ * Arrays, maps and text strings of both definite and indefinite length are accepted, tags are
+ * ignored, and map keys must be text strings. As with {@link JsonReader}, numbers can be read as
+ * strings and strings containing numbers can be read as numbers. A stream holds a sequence of data
+ * items, one per message, which should be buffered.
+ *
+ * @coverage dart.server.client
+ */
+public class CborReader extends JsonReader {
+
+  /**
+   * The reader passed to the superclass, which is never used.
+   */
+  private static final Reader UNREADABLE_READER = new Reader() {
+    @Override
+    public void close() {
+      throw new AssertionError();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      throw new AssertionError();
+    }
+  };
+
+  /**
+   * The byte that ends an array, a map or a string of indefinite length.
+   */
+  private static final int BREAK = 0xff;
+
+  /**
+   * The largest number of bytes allocated for a string before any of its bytes have been read.
+   */
+  private static final int INITIAL_BYTES_LENGTH = 8192;
+
+  /**
+   * The stream from which the encoded values are read.
+   */
+  private final InputStream in;
+
+  /**
+   * The initial byte of the next data item, or {@code -1} if it has not been read yet.
+   */
+  private int head = -1;
+
+  /**
+   * The number of open arrays and maps.
+   */
+  private int depth;
+
+  /**
+   * For each open array and map, the number of data items remaining in it, counting both the keys
+   * and the values of a map, or {@code -1} if it has an indefinite length.
+   */
+  private long[] remaining = new long[32];
+
+  /**
+   * For each open array and map, {@code true} if it is a map.
+   */
+  private boolean[] isMap = new boolean[32];
+
+  /**
+   * For each open map, {@code true} if the next data item is a key.
+   */
+  private boolean[] isKeyNext = new boolean[32];
+
+  /**
+   * Initialize a newly created reader to decode values from the given stream.
+   */
+  public CborReader(InputStream in) {
+    super(UNREADABLE_READER);
+    this.in = in;
+  }
+
+  @Override
+  public void beginArray() throws IOException {
+    expect(JsonToken.BEGIN_ARRAY);
+    push(readArgument(takeHead()), false);
+  }
+
+  @Override
+  public void beginObject() throws IOException {
+    expect(JsonToken.BEGIN_OBJECT);
+    long count = readArgument(takeHead());
+    push(count < 0 ? -1 : count * 2, true);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  @Override
+  public void endArray() throws IOException {
+    expect(JsonToken.END_ARRAY);
+    pop();
+  }
+
+  @Override
+  public void endObject() throws IOException {
+    expect(JsonToken.END_OBJECT);
+    pop();
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    JsonToken token = peek();
+    return token != JsonToken.END_ARRAY && token != JsonToken.END_OBJECT
+        && token != JsonToken.END_DOCUMENT;
+  }
+
+  @Override
+  public boolean nextBoolean() throws IOException {
+    expect(JsonToken.BOOLEAN);
+    boolean value = takeHead() == 0xf5;
+    advance();
+    return value;
+  }
+
+  @Override
+  public double nextDouble() throws IOException {
+    JsonToken token = peek();
+    if (token == JsonToken.STRING) {
+      return Double.parseDouble(nextString());
+    }
+    expect(JsonToken.NUMBER);
+    int initialByte = takeHead();
+    double value;
+    switch (initialByte) {
+      case 0xf9:
+        value = decodeHalf((int) readUnsigned(2));
+        break;
+      case 0xfa:
+        value = Float.intBitsToFloat((int) readUnsigned(4));
+        break;
+      case 0xfb:
+        value = Double.longBitsToDouble(readUnsigned(8));
+        break;
+      default:
+        value = readInteger(initialByte);
+    }
+    advance();
+    return value;
+  }
+
+  @Override
+  public int nextInt() throws IOException {
+    long value = nextLong();
+    if (value != (int) value) {
+      throw new NumberFormatException("Expected an int but was " + value);
+    }
+    return (int) value;
+  }
+
+  @Override
+  public long nextLong() throws IOException {
+    JsonToken token = peek();
+    if (token == JsonToken.STRING) {
+      return Long.parseLong(nextString());
+    }
+    expect(JsonToken.NUMBER);
+    int majorType = peekHead() >> 5;
+    if (majorType == 7) {
+      double value = nextDouble();
+      if (value != (long) value) {
+        throw new NumberFormatException("Expected a long but was " + value);
+      }
+      return (long) value;
+    }
+    long value = readInteger(takeHead());
+    advance();
+    return value;
+  }
+
+  @Override
+  public String nextName() throws IOException {
+    expect(JsonToken.NAME);
+    String name = readString(takeHead());
+    advance();
+    return name;
+  }
+
+  @Override
+  public void nextNull() throws IOException {
+    expect(JsonToken.NULL);
+    takeHead();
+    advance();
+  }
+
+  @Override
+  public String nextString() throws IOException {
+    JsonToken token = peek();
+    if (token == JsonToken.NUMBER) {
+      if (peekHead() >> 5 == 7) {
+        return Double.toString(nextDouble());
+      }
+      return Long.toString(nextLong());
+    }
+    expect(JsonToken.STRING);
+    String value = readString(takeHead());
+    advance();
+    return value;
+  }
+
+  @Override
+  public JsonToken peek() throws IOException {
+    if (depth > 0) {
+      int container = depth - 1;
+      if (remaining[container] == 0
+          || (remaining[container] < 0 && peekHead() == BREAK)) {
+        return isMap[container] ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+      }
+      if (isMap[container] && isKeyNext[container]) {
+        return JsonToken.NAME;
+      }
+    }
+    int initialByte = peekHead();
+    if (initialByte < 0) {
+      return JsonToken.END_DOCUMENT;
+    }
+    switch (initialByte >> 5) {
+      case 0:
+      case 1:
+        return JsonToken.NUMBER;
+      case 3:
+        return JsonToken.STRING;
+      case 4:
+        return JsonToken.BEGIN_ARRAY;
+      case 5:
+        return JsonToken.BEGIN_OBJECT;
+      case 7:
+        switch (initialByte & 0x1f) {
+          case 20:
+          case 21:
+            return JsonToken.BOOLEAN;
+          case 22:
+          case 23:
+            return JsonToken.NULL;
+          case 25:
+          case 26:
+          case 27:
+            return JsonToken.NUMBER;
+        }
+    }
+    throw new IOException("Unsupported CBOR data item 0x" + Integer.toHexString(initialByte));
+  }
+
+  @Override
+  public void skipValue() throws IOException {
+    int count = 0;
+    do {
+      switch (peek()) {
+        case BEGIN_ARRAY:
+          beginArray();
+          count++;
+          break;
+        case BEGIN_OBJECT:
+          beginObject();
+          count++;
+          break;
+        case END_ARRAY:
+          endArray();
+          count--;
+          break;
+        case END_OBJECT:
+          endObject();
+          count--;
+          break;
+        case NAME:
+          nextName();
+          break;
+        case STRING:
+          nextString();
+          break;
+        case NUMBER:
+          nextDouble();
+          break;
+        case BOOLEAN:
+          nextBoolean();
+          break;
+        case NULL:
+          nextNull();
+          break;
+        case END_DOCUMENT:
+          return;
+      }
+    } while (count > 0);
+  }
+
+  /**
+   * Record that a data item has been read from the innermost open array or map.
+   */
+  private void advance() {
+    if (depth > 0) {
+      int container = depth - 1;
+      if (remaining[container] > 0) {
+        remaining[container]--;
+      }
+      if (isMap[container]) {
+        isKeyNext[container] = !isKeyNext[container];
+      }
+    }
+  }
+
+  /**
+   * Return the value of the half precision float with the given bits.
+   */
+  private static double decodeHalf(int bits) {
+    int exponent = (bits >> 10) & 0x1f;
+    int mantissa = bits & 0x3ff;
+    double value;
+    if (exponent == 0) {
+      value = mantissa * Math.pow(2, -24);
+    } else if (exponent == 31) {
+      value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+    } else {
+      value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+    }
+    return (bits & 0x8000) != 0 ? -value : value;
+  }
+
+  /**
+   * Check that the next token is the given token.
+   *
+   * @throws IllegalStateException if the next token is a different token
+   */
+  private void expect(JsonToken expected) throws IOException {
+    JsonToken token = peek();
+    if (token != expected) {
+      throw new IllegalStateException("Expected " + expected + " but was " + token);
+    }
+  }
+
+  /**
+   * Return the initial byte of the next data item, skipping any tags, or {@code -1} if the end of
+   * the stream has been reached between top level data items.
+   */
+  private int peekHead() throws IOException {
+    while (head < 0) {
+      int initialByte = in.read();
+      if (initialByte < 0) {
+        if (depth > 0) {
+          throw new EOFException("End of stream inside a CBOR data item");
+        }
+        return -1;
+      }
+      if (initialByte >> 5 == 6) {
+        readArgument(initialByte);
+      } else {
+        head = initialByte;
+      }
+    }
+    return head;
+  }
+
+  /**
+   * Close the innermost open array or map, consuming its break byte if it has an indefinite length.
+   */
+  private void pop() {
+    depth--;
+    if (remaining[depth] < 0) {
+      head = -1;
+    }
+    advance();
+  }
+
+  /**
+   * Open an array or a map with the given number of data items, or {@code -1} if it has an
+   * indefinite length.
+   */
+  private void push(long count, boolean map) {
+    if (depth == remaining.length) {
+      remaining = Arrays.copyOf(remaining, depth * 2);
+      isMap = Arrays.copyOf(isMap, depth * 2);
+      isKeyNext = Arrays.copyOf(isKeyNext, depth * 2);
+    }
+    remaining[depth] = count;
+    isMap[depth] = map;
+    isKeyNext[depth] = true;
+    depth++;
+  }
+
+  /**
+   * Return the argument of the data item with the given initial byte, reading it from the stream,
+   * or {@code -1} if the data item has an indefinite length.
+   */
+  private long readArgument(int initialByte) throws IOException {
+    int additionalInformation = initialByte & 0x1f;
+    if (additionalInformation < 24) {
+      return additionalInformation;
+    }
+    switch (additionalInformation) {
+      case 24:
+        return readUnsigned(1);
+      case 25:
+        return readUnsigned(2);
+      case 26:
+        return readUnsigned(4);
+      case 27:
+        long argument = readUnsigned(8);
+        if (argument < 0) {
+          // an argument of 2^63 or more cannot be represented, and would be taken as indefinite
+          throw new IOException("CBOR argument out of range");
+        }
+        return argument;
+      case 31:
+        return -1;
+    }
+    throw new IOException("Malformed CBOR data item 0x" + Integer.toHexString(initialByte));
+  }
+
+  /**
+   * Return the byte array of the given length read from the stream. The length is declared by the
+   * data item, so the array grows with the bytes actually read rather than being allocated up
+   * front, and a corrupt or hostile length fails with an {@link EOFException} when the stream ends
+   * instead of exhausting the memory.
+   */
+  private byte[] readBytes(long length) throws IOException {
+    if (length < 0 || length > Integer.MAX_VALUE - 8) {
+      throw new IOException("Unsupported CBOR string length " + length);
+    }
+    byte[] bytes = new byte[(int) Math.min(length, INITIAL_BYTES_LENGTH)];
+    int offset = 0;
+    while (offset < length) {
+      if (offset == bytes.length) {
+        bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+      }
+      int count = in.read(bytes, offset, bytes.length - offset);
+      if (count < 0) {
+        throw new EOFException("End of stream inside a CBOR data item");
+      }
+      offset += count;
+    }
+    return bytes;
+  }
+
+  /**
+   * Return the value of the integer data item with the given initial byte.
+   */
+  private long readInteger(int initialByte) throws IOException {
+    long argument = readArgument(initialByte);
+    if (argument < 0) {
+      // an integer cannot have an indefinite length
+      throw new IOException("Malformed CBOR data item 0x" + Integer.toHexString(initialByte));
+    }
+    return initialByte >> 5 == 1 ? -1 - argument : argument;
+  }
+
+  /**
+   * Return the value of the text string data item with the given initial byte.
+   */
+  private String readString(int initialByte) throws IOException {
+    if (initialByte >> 5 != 3) {
+      throw new IOException("Expected a CBOR text string but was 0x"
+          + Integer.toHexString(initialByte));
+    }
+    long length = readArgument(initialByte);
+    if (length >= 0) {
+      return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+    // concatenate the chunks of a string of indefinite length
+    StringBuilder builder = new StringBuilder();
+    while (true) {
+      int chunkHead = in.read();
+      if (chunkHead == BREAK) {
+        return builder.toString();
+      }
+      if (chunkHead >> 5 != 3 || (chunkHead & 0x1f) == 31) {
+        throw new IOException("Malformed CBOR text string chunk");
+      }
+      builder.append(new String(readBytes(readArgument(chunkHead)), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Return the big-endian unsigned integer of the given number of bytes read from the stream.
+   */
+  private long readUnsigned(int size) throws IOException {
+    long value = 0;
+    for (int i = 0; i < size; i++) {
+      int next = in.read();
+      if (next < 0) {
+        throw new EOFException("End of stream inside a CBOR data item");
+      }
+      value = (value << 8) | next;
+    }
+    return value;
+  }
+
+  /**
+   * Return the initial byte of the next data item, which is consumed.
+   */
+  private int takeHead() throws IOException {
+    int initialByte = peekHead();
+    head = -1;
+    return initialByte;
+  }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The class {@code CborWriter} is a {@link JsonWriter} that encodes the values written to it in the
+ * Concise Binary Object Representation (CBOR, RFC 7049) rather than as JSON text. Because the
+ * {@code writeTo} methods generated for the protocol types and the methods of
+ * {@link com.google.dart.server.generated.client.RequestWriter} only use the streaming methods of
+ * {@link JsonWriter}, every protocol type and request can be encoded with this writer without a
+ * separate encoder per type.
+ *
+ * Objects and arrays are written with indefinite lengths, so values are streamed without being
+ * buffered. Each top level value is a single self-delimiting data item, so no separator is written
+ * between messages. The output stream should be buffered.
+ *
+ * @coverage dart.server.client
+ */
+public class CborWriter extends JsonWriter {
+
+  /**
+   * The writer passed to the superclass, which is never used.
+   */
+  private static final Writer UNWRITABLE_WRITER = new Writer() {
+    @Override
+    public void close() {
+      throw new AssertionError();
+    }
+
+    @Override
+    public void flush() {
+      throw new AssertionError();
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      throw new AssertionError();
+    }
+  };
+
+  /**
+   * The initial byte of an array of indefinite length.
+   */
+  private static final int BEGIN_INDEFINITE_ARRAY = 0x9f;
+
+  /**
+   * The initial byte of a map of indefinite length.
+   */
+  private static final int BEGIN_INDEFINITE_MAP = 0xbf;
+
+  /**
+   * The byte that ends an array or a map of indefinite length.
+   */
+  private static final int BREAK = 0xff;
+
+  /**
+   * The stream to which the encoded values are written.
+   */
+  private final OutputStream out;
+
+  /**
+   * The buffer used to encode the head of a data item.
+   */
+  private final byte[] headBuffer = new byte[9];
+
+  /**
+   * Initialize a newly created writer to encode values into the given stream.
+   */
+  public CborWriter(OutputStream out) {
+    super(UNWRITABLE_WRITER);
+    this.out = out;
+  }
+
+  @Override
+  public JsonWriter beginArray() throws IOException {
+    out.write(BEGIN_INDEFINITE_ARRAY);
+    return this;
+  }
+
+  @Override
+  public JsonWriter beginObject() throws IOException {
+    out.write(BEGIN_INDEFINITE_MAP);
+    return this;
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  @Override
+  public JsonWriter endArray() throws IOException {
+    out.write(BREAK);
+    return this;
+  }
+
+  @Override
+  public JsonWriter endObject() throws IOException {
+    out.write(BREAK);
+    return this;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  /**
+   * Raw JSON text cannot be embedded in CBOR.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public JsonWriter jsonValue(String value) throws IOException {
+    throw new UnsupportedOperationException("JSON text cannot be written as CBOR");
+  }
+
+  @Override
+  public JsonWriter name(String name) throws IOException {
+    writeString(name);
+    return this;
+  }
+
+  @Override
+  public JsonWriter nullValue() throws IOException {
+    out.write(0xf6);
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(boolean value) throws IOException {
+    out.write(value ? 0xf5 : 0xf4);
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(Boolean value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    return value(value.booleanValue());
+  }
+
+  @Override
+  public JsonWriter value(double value) throws IOException {
+    long bits = Double.doubleToLongBits(value);
+    headBuffer[0] = (byte) 0xfb;
+    for (int i = 8; i > 0; i--) {
+      headBuffer[i] = (byte) bits;
+      bits >>>= 8;
+    }
+    out.write(headBuffer, 0, 9);
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(float value) throws IOException {
+    int bits = Float.floatToIntBits(value);
+    headBuffer[0] = (byte) 0xfa;
+    for (int i = 4; i > 0; i--) {
+      headBuffer[i] = (byte) bits;
+      bits >>>= 8;
+    }
+    out.write(headBuffer, 0, 5);
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(long value) throws IOException {
+    if (value >= 0) {
+      writeHead(0, value);
+    } else {
+      writeHead(1, -1 - value);
+    }
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(Number value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte) {
+      return value(value.longValue());
+    }
+    if (value instanceof Float) {
+      return value(value.floatValue());
+    }
+    return value(value.doubleValue());
+  }
+
+  @Override
+  public JsonWriter value(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    writeString(value);
+    return this;
+  }
+
+  /**
+   * Write the head of a data item with the given major type and argument, using the shortest
+   * encoding of the argument, which is treated as unsigned.
+   */
+  private void writeHead(int majorType, long argument) throws IOException {
+    int type = majorType << 5;
+    if (argument >= 0 && argument < 24) {
+      out.write(type | (int) argument);
+      return;
+    }
+    int size;
+    if (argument >= 0 && argument < 0x100) {
+      headBuffer[0] = (byte) (type | 24);
+      size = 1;
+    } else if (argument >= 0 && argument < 0x10000) {
+      headBuffer[0] = (byte) (type | 25);
+      size = 2;
+    } else if (argument >= 0 && argument < 0x100000000L) {
+      headBuffer[0] = (byte) (type | 26);
+      size = 4;
+    } else {
+      headBuffer[0] = (byte) (type | 27);
+      size = 8;
+    }
+    for (int i = size; i > 0; i--) {
+      headBuffer[i] = (byte) argument;
+      argument >>>= 8;
+    }
+    out.write(headBuffer, 0, size + 1);
+  }
+
+  /**
+   * Write the given string as a text string.
+   */
+  private void writeString(String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeHead(3, bytes.length);
+    out.write(bytes);
+  }
+
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The class {@code CompletionAccumulator} keeps the best completion candidates that match a prefix
+ * as the results of a completion request arrive, in a bounded heap, so that the first page of
+ * candidates can be displayed before all of the results have been received, and selecting the
+ * best {@code k} of {@code n} candidates takes {@code O(n log k)} time rather than a full sort.
+ *
+ * The candidates are either the {@link CompletionSuggestion}s of {@code completion.results}
+ * notifications, or the {@link AvailableSuggestion}s of the {@link AvailableSuggestionSet}s
+ * referred to by their {@link IncludedSuggestionSet}s. The relevance of an available suggestion is
+ * the relevance of its included set plus the largest boost of the included relevance tags that it
+ * has. Candidates are ranked by relevance, then by how well they match the prefix, then by the
+ * order in which they were added.
+ *
+ * @coverage dart.server.client
+ */
+public class CompletionAccumulator {
+
+  /**
+   * The score of a candidate that matches the prefix exactly, including its case.
+   */
+  public static final int EXACT_PREFIX_MATCH = 2;
+
+  /**
+   * The score of a candidate that matches the prefix if case is ignored.
+   */
+  public static final int CASE_INSENSITIVE_PREFIX_MATCH = 1;
+
+  /**
+   * The largest number of candidates that are kept.
+   */
+  private final int capacity;
+
+  /**
+   * The prefix that the candidates must match.
+   */
+  private final String prefix;
+
+  /**
+   * The candidates that are kept, as a heap whose root is the worst of them.
+   */
+  private final Candidate[] heap;
+
+  /**
+   * The number of candidates in the heap.
+   */
+  private int size;
+
+  /**
+   * The boosts of the included relevance tags, keyed by tag.
+   */
+  private final Map<String, Integer> relevanceTagBoosts = new HashMap<String, Integer>();
+
+  /**
+   * The kinds of the elements of the available suggestions that are included, or {@code null} if
+   * all of them are included.
+   */
+  private Set<String> includedElementKinds;
+
+  /**
+   * The number of candidates that have been added.
+   */
+  private int addedCount;
+
+  /**
+   * The number of candidates that have been added and match the prefix.
+   */
+  private int matchedCount;
+
+  /**
+   * Initialize a newly created accumulator to keep the given number of the best candidates that
+   * match the given prefix.
+   */
+  public CompletionAccumulator(int capacity, String prefix) {
+    this.capacity = capacity;
+    this.prefix = prefix;
+    this.heap = new Candidate[capacity];
+  }
+
+  /**
+   * A completion candidate, which is either a {@link CompletionSuggestion} or an
+   * {@link AvailableSuggestion}.
+   */
+  public static class Candidate {
+    private final CompletionSuggestion suggestion;
+    private final AvailableSuggestion availableSuggestion;
+    private final AvailableSuggestionSet suggestionSet;
+    private final IncludedSuggestionSet includedSet;
+    private final int relevance;
+    private final int matchScore;
+    private final int order;
+
+    private Candidate(CompletionSuggestion suggestion, AvailableSuggestion availableSuggestion,
+        AvailableSuggestionSet suggestionSet, IncludedSuggestionSet includedSet, int relevance,
+        int matchScore, int order) {
+      this.suggestion = suggestion;
+      this.availableSuggestion = availableSuggestion;
+      this.suggestionSet = suggestionSet;
+      this.includedSet = includedSet;
+      this.relevance = relevance;
+      this.matchScore = matchScore;
+      this.order = order;
+    }
+
+    /**
+     * Return the available suggestion, or {@code null} if this candidate is a
+     * {@link CompletionSuggestion}.
+     */
+    public AvailableSuggestion getAvailableSuggestion() {
+      return availableSuggestion;
+    }
+
+    /**
+     * Return the reference with which the set of the available suggestion was included, or
+     * {@code null} if this candidate is a {@link CompletionSuggestion}.
+     */
+    public IncludedSuggestionSet getIncludedSet() {
+      return includedSet;
+    }
+
+    /**
+     * Return the text that is inserted for this candidate.
+     */
+    public String getLabel() {
+      return suggestion != null ? suggestion.getCompletion() : availableSuggestion.getLabel();
+    }
+
+    /**
+     * Return how well this candidate matches the prefix, such as {@link #EXACT_PREFIX_MATCH}.
+     */
+    public int getMatchScore() {
+      return matchScore;
+    }
+
+    /**
+     * Return the relevance of this candidate, including any boost.
+     */
+    public int getRelevance() {
+      return relevance;
+    }
+
+    /**
+     * Return the suggestion, or {@code null} if this candidate is an {@link AvailableSuggestion}.
+     */
+    public CompletionSuggestion getSuggestion() {
+      return suggestion;
+    }
+
+    /**
+     * Return the set of the available suggestion, or {@code null} if this candidate is a
+     * {@link CompletionSuggestion}.
+     */
+    public AvailableSuggestionSet getSuggestionSet() {
+      return suggestionSet;
+    }
+  }
+
+  /**
+   * Add the given available suggestion of the given set, which is included with the given
+   * reference. The suggestion is ignored if the kind of its element is not included.
+   */
+  public void addAvailableSuggestion(AvailableSuggestion item, AvailableSuggestionSet set,
+      IncludedSuggestionSet includedSet) {
+    addedCount++;
+    if (includedElementKinds != null
+        && !includedElementKinds.contains(item.getElement().getKind())) {
+      return;
+    }
+    int matchScore = computeMatchScore(item.getLabel());
+    if (matchScore == 0) {
+      return;
+    }
+    matchedCount++;
+    int relevance = includedSet.getRelevance() + computeRelevanceBoost(item.getRelevanceTags());
+    if (isCompetitive(relevance, matchScore)) {
+      offer(new Candidate(null, item, set, includedSet, relevance, matchScore, addedCount));
+    }
+  }
+
+  /**
+   * Add the available suggestions of the given set, which is included with the given reference.
+   * Suggestions whose element kinds are not included are ignored.
+   */
+  public void addSuggestionSet(AvailableSuggestionSet set, IncludedSuggestionSet includedSet) {
+    for (AvailableSuggestion item : set.getItems()) {
+      addAvailableSuggestion(item, set, includedSet);
+    }
+  }
+
+  /**
+   * Add the given suggestions, such as the results of a {@code completion.results} notification.
+   */
+  public void addSuggestions(List<CompletionSuggestion> suggestions) {
+    for (CompletionSuggestion suggestion : suggestions) {
+      addedCount++;
+      int matchScore = computeMatchScore(suggestion.getCompletion());
+      if (matchScore == 0) {
+        continue;
+      }
+      matchedCount++;
+      int relevance = suggestion.getRelevance();
+      if (isCompetitive(relevance, matchScore)) {
+        offer(new Candidate(suggestion, null, null, null, relevance, matchScore, addedCount));
+      }
+    }
+  }
+
+  /**
+   * Return the number of candidates that have been added.
+   */
+  public int getAddedCount() {
+    return addedCount;
+  }
+
+  /**
+   * Return the best candidates that have been added so far, best first. The accumulator is not
+   * changed, so more candidates can be added afterwards.
+   */
+  public List<Candidate> getBestCandidates() {
+    Candidate[] candidates = Arrays.copyOf(heap, size);
+    Arrays.sort(candidates, (first, second) -> compare(second, first));
+    return Arrays.asList(candidates);
+  }
+
+  /**
+   * Return the number of candidates that have been added and match the prefix.
+   */
+  public int getMatchedCount() {
+    return matchedCount;
+  }
+
+  /**
+   * Set the kinds of the elements of the available suggestions to include, or {@code null} to
+   * include all of them, as given by the {@code includedElementKinds} of a
+   * {@code completion.results} notification.
+   */
+  public void setIncludedElementKinds(List<String> kinds) {
+    includedElementKinds = kinds != null ? new HashSet<String>(kinds) : null;
+  }
+
+  /**
+   * Set the relevance tags that boost the relevance of the available suggestions that have them,
+   * as given by the {@code includedSuggestionRelevanceTags} of a {@code completion.results}
+   * notification.
+   */
+  public void setRelevanceTags(List<IncludedSuggestionRelevanceTag> tags) {
+    relevanceTagBoosts.clear();
+    if (tags != null) {
+      for (IncludedSuggestionRelevanceTag tag : tags) {
+        relevanceTagBoosts.merge(tag.getTag(), tag.getRelevanceBoost(), Math::max);
+      }
+    }
+  }
+
+  /**
+   * Return a negative number, zero, or a positive number if the first candidate is worse than, the
+   * same as, or better than the second candidate.
+   */
+  private static int compare(Candidate first, Candidate second) {
+    if (first.relevance != second.relevance) {
+      return Integer.compare(first.relevance, second.relevance);
+    }
+    if (first.matchScore != second.matchScore) {
+      return Integer.compare(first.matchScore, second.matchScore);
+    }
+    // the candidate that was added first is better
+    return Integer.compare(second.order, first.order);
+  }
+
+  /**
+   * Return how well the given label matches the prefix, or {@code 0} if it does not match.
+   */
+  private int computeMatchScore(String label) {
+    if (label.startsWith(prefix)) {
+      return EXACT_PREFIX_MATCH;
+    }
+    if (label.regionMatches(true, 0, prefix, 0, prefix.length())) {
+      return CASE_INSENSITIVE_PREFIX_MATCH;
+    }
+    return 0;
+  }
+
+  /**
+   * Return the largest boost of the included relevance tags among the given tags.
+   */
+  private int computeRelevanceBoost(List<String> tags) {
+    int boost = 0;
+    if (tags != null && !relevanceTagBoosts.isEmpty()) {
+      for (String tag : tags) {
+        Integer tagBoost = relevanceTagBoosts.get(tag);
+        if (tagBoost != null && tagBoost > boost) {
+          boost = tagBoost;
+        }
+      }
+    }
+    return boost;
+  }
+
+  /**
+   * Return {@code true} if a candidate with the given relevance and match score would be kept,
+   * which is checked before the candidate is created.
+   */
+  private boolean isCompetitive(int relevance, int matchScore) {
+    if (size < capacity) {
+      return true;
+    }
+    if (capacity == 0) {
+      return false;
+    }
+    // a new candidate is worse than an existing one with the same relevance and match score
+    Candidate worst = heap[0];
+    return relevance > worst.relevance
+        || (relevance == worst.relevance && matchScore > worst.matchScore);
+  }
+
+  /**
+   * Add the given candidate, which is better than the worst kept candidate if the heap is full.
+   */
+  private void offer(Candidate candidate) {
+    if (size < capacity) {
+      // sift the new candidate up from the end of the heap
+      int index = size++;
+      while (index > 0) {
+        int parent = (index - 1) >>> 1;
+        if (compare(heap[parent], candidate) <= 0) {
+          break;
+        }
+        heap[index] = heap[parent];
+        index = parent;
+      }
+      heap[index] = candidate;
+      return;
+    }
+    // replace the worst candidate and sift the new candidate down
+    int index = 0;
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) {
+        child++;
+      }
+      if (compare(candidate, heap[child]) <= 0) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = candidate;
+  }
+
+}
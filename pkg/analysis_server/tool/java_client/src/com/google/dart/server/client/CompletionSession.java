@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code CompletionSession} keeps the suggestions returned for a completion request, so
+ * that as more characters of an identifier are typed they can be filtered and ranked again on the
+ * client instead of sending another {@code completion.getSuggestions} request. The suggestions for
+ * a completion offset include those for the longer prefixes typed at the same replacement offset,
+ * so the session can answer as long as the typed prefix only extends the original prefix with
+ * identifier characters, in the same file.
+ *
+ * The labels, display texts and relevances of the suggestions are kept in arrays. A suggestion
+ * matches the typed prefix if it starts with it, ignoring case or not, or if the characters of the
+ * prefix occur in order in its completion or display text, starting with the first character.
+ * Matches are ranked by how well they match, giving a higher score to consecutive characters and
+ * to characters at the start of words, then by relevance.
+ *
+ * @coverage dart.server.client
+ */
+public class CompletionSession {
+
+  /**
+   * The score of a suggestion that starts with the prefix, including its case.
+   */
+  private static final int EXACT_PREFIX_SCORE = 3000;
+
+  /**
+   * The score of a suggestion that starts with the prefix if case is ignored.
+   */
+  private static final int CASE_INSENSITIVE_PREFIX_SCORE = 2000;
+
+  /**
+   * The base score of a suggestion that contains the characters of the prefix in order.
+   */
+  private static final int SUBSEQUENCE_SCORE = 1000;
+
+  /**
+   * The file in which the completion was requested.
+   */
+  private final String file;
+
+  /**
+   * The offset at which the completion was requested.
+   */
+  private final int requestOffset;
+
+  /**
+   * The offset of the text replaced by a suggestion.
+   */
+  private final int replacementOffset;
+
+  /**
+   * The length of the text replaced by a suggestion when the completion was requested.
+   */
+  private final int replacementLength;
+
+  /**
+   * The text between the replacement offset and the offset at which the completion was requested.
+   */
+  private final String prefix;
+
+  /**
+   * The suggestions.
+   */
+  private final List<CompletionSuggestion> suggestions = new ArrayList<CompletionSuggestion>();
+
+  /**
+   * The completions of the suggestions.
+   */
+  private String[] labels = new String[16];
+
+  /**
+   * The display texts of the suggestions, or {@code null} for those that have none.
+   */
+  private String[] displayTexts = new String[16];
+
+  /**
+   * The relevances of the suggestions.
+   */
+  private int[] relevances = new int[16];
+
+  /**
+   * The prefix of the last refiltering, or {@code null} if the suggestions have changed since.
+   */
+  private String lastPrefix;
+
+  /**
+   * The indices of the suggestions that matched the prefix of the last refiltering. A suggestion
+   * that does not match a prefix does not match any longer prefix either.
+   */
+  private int[] lastMatches;
+
+  /**
+   * Initialize a newly created session for the completion requested at the given offset of the
+   * given file, whose results have the given replacement offset and length. The given prefix is
+   * the text between the replacement offset and the request offset.
+   */
+  public CompletionSession(String file, int requestOffset, int replacementOffset,
+      int replacementLength, String prefix) {
+    this.file = file;
+    this.requestOffset = requestOffset;
+    this.replacementOffset = replacementOffset;
+    this.replacementLength = replacementLength;
+    this.prefix = prefix;
+  }
+
+  /**
+   * Add the given suggestions, such as the results of a {@code completion.results} notification.
+   */
+  public void addSuggestions(List<CompletionSuggestion> newSuggestions) {
+    lastPrefix = null;
+    int count = suggestions.size();
+    int capacity = labels.length;
+    if (count + newSuggestions.size() > capacity) {
+      capacity = Math.max(capacity * 2, count + newSuggestions.size());
+      labels = Arrays.copyOf(labels, capacity);
+      displayTexts = Arrays.copyOf(displayTexts, capacity);
+      relevances = Arrays.copyOf(relevances, capacity);
+    }
+    for (CompletionSuggestion suggestion : newSuggestions) {
+      labels[count] = suggestion.getCompletion();
+      displayTexts[count] = suggestion.getDisplayText();
+      relevances[count] = suggestion.getRelevance();
+      suggestions.add(suggestion);
+      count++;
+    }
+  }
+
+  /**
+   * Return the length of the text replaced by a suggestion when the cursor is at the given offset,
+   * which includes the characters typed since the completion was requested.
+   */
+  public int getReplacementLength(int offset) {
+    return replacementLength + offset - requestOffset;
+  }
+
+  /**
+   * Return the offset of the text replaced by a suggestion.
+   */
+  public int getReplacementOffset() {
+    return replacementOffset;
+  }
+
+  /**
+   * Return the number of suggestions in this session.
+   */
+  public int getSuggestionCount() {
+    return suggestions.size();
+  }
+
+  /**
+   * Return {@code true} if this session can answer a completion at the given offset of the given
+   * file, where the given prefix is the text between the replacement offset and the given offset.
+   */
+  public boolean isValidFor(String file, int offset, String typedPrefix) {
+    if (!this.file.equals(file) || offset < requestOffset
+        || offset - replacementOffset != typedPrefix.length() || !typedPrefix.startsWith(prefix)) {
+      return false;
+    }
+    for (int i = prefix.length(); i < typedPrefix.length(); i++) {
+      char c = typedPrefix.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '$') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return at most the given number of the suggestions that match the given prefix, best first, or
+   * {@code null} if this session cannot answer a completion at the given offset of the given file,
+   * in which case the suggestions should be requested from the server.
+   */
+  public List<CompletionSuggestion> refilter(String file, int offset, String typedPrefix,
+      int limit) {
+    if (!isValidFor(file, offset, typedPrefix)) {
+      return null;
+    }
+    // only the suggestions that matched a shorter prefix can match this one
+    int[] candidates = null;
+    int count = suggestions.size();
+    if (lastPrefix != null && typedPrefix.startsWith(lastPrefix)) {
+      candidates = lastMatches;
+      count = candidates.length;
+    }
+    // sort the matches by score, then relevance, then order, without boxing them
+    long[] keys = new long[count];
+    int[] matches = new int[count];
+    int matchCount = 0;
+    for (int j = 0; j < count; j++) {
+      int i = candidates != null ? candidates[j] : j;
+      int score = computeScore(typedPrefix, labels[i]);
+      if (displayTexts[i] != null) {
+        score = Math.max(score, computeScore(typedPrefix, displayTexts[i]));
+      }
+      if (score > 0) {
+        int relevance = Math.max(0, Math.min(relevances[i], 0xffff));
+        long rank = ((long) score << 16) | relevance;
+        matches[matchCount] = i;
+        keys[matchCount++] = (rank << 32) | (Integer.MAX_VALUE - i);
+      }
+    }
+    lastPrefix = typedPrefix;
+    lastMatches = Arrays.copyOf(matches, matchCount);
+    Arrays.sort(keys, 0, matchCount);
+    int resultCount = Math.min(limit, matchCount);
+    List<CompletionSuggestion> result = new ArrayList<CompletionSuggestion>(resultCount);
+    for (int i = 0; i < resultCount; i++) {
+      int index = Integer.MAX_VALUE - (int) keys[matchCount - 1 - i];
+      result.add(suggestions.get(index));
+    }
+    return result;
+  }
+
+  /**
+   * Return the score of the given candidate for the given pattern, or {@code 0} if it does not
+   * match.
+   */
+  private static int computeScore(String pattern, String candidate) {
+    int patternLength = pattern.length();
+    if (patternLength == 0) {
+      return EXACT_PREFIX_SCORE;
+    }
+    if (candidate.startsWith(pattern)) {
+      return EXACT_PREFIX_SCORE + (candidate.length() == patternLength ? 1 : 0);
+    }
+    if (candidate.regionMatches(true, 0, pattern, 0, patternLength)) {
+      return CASE_INSENSITIVE_PREFIX_SCORE;
+    }
+    // the first character must match, then the others in order
+    int candidateLength = candidate.length();
+    if (candidateLength == 0 || !equalsIgnoreCase(pattern.charAt(0), candidate.charAt(0))) {
+      return 0;
+    }
+    int score = SUBSEQUENCE_SCORE;
+    int candidateIndex = 1;
+    boolean previousMatched = true;
+    for (int i = 1; i < patternLength; i++) {
+      char c = pattern.charAt(i);
+      while (candidateIndex < candidateLength
+          && !equalsIgnoreCase(c, candidate.charAt(candidateIndex))) {
+        candidateIndex++;
+        previousMatched = false;
+      }
+      if (candidateIndex == candidateLength) {
+        return 0;
+      }
+      if (previousMatched) {
+        score += 10;
+      }
+      if (isWordStart(candidate, candidateIndex)) {
+        score += 20;
+      }
+      if (c == candidate.charAt(candidateIndex)) {
+        score += 1;
+      }
+      candidateIndex++;
+      previousMatched = true;
+    }
+    // prefer shorter candidates
+    return Math.max(1, score - (candidateLength - patternLength));
+  }
+
+  /**
+   * Return {@code true} if the given characters are equal if case is ignored.
+   */
+  private static boolean equalsIgnoreCase(char first, char second) {
+    return first == second || Character.toLowerCase(first) == Character.toLowerCase(second);
+  }
+
+  /**
+   * Return {@code true} if the character at the given index of the given text starts a word, such
+   * as the {@code B} of {@code fooBar} or the {@code b} of {@code foo_bar}.
+   */
+  private static boolean isWordStart(String text, int index) {
+    char c = text.charAt(index);
+    char previous = text.charAt(index - 1);
+    if (previous == '_' || previous == '$') {
+      return c != '_' && c != '$';
+    }
+    return Character.isUpperCase(c) && !Character.isUpperCase(previous);
+  }
+
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The class {@code CompressingTransport} is a {@link Transport} that compresses the large messages
+ * sent over another transport, such as a TCP connection to a server on a remote machine, and
+ * decompresses the compressed messages received from it.
+ *
+ * The messages sent compressed over a connection are deflated as a single stream, which is flushed
+ * with {@link Deflater#SYNC_FLUSH} at the end of each message, so that the keys and values that the
+ * JSON texts repeat are compressed against the previous messages. A compressed message is sent as
+ * a line that starts with {@link #COMPRESSED_MESSAGE_PREFIX} followed by the Base64 encoding of its
+ * part of the stream, so it can be carried by any transport, whose messages are text lines, and
+ * lines that do not start with the prefix, which a JSON text cannot, are passed through unchanged.
+ * Messages are only sent compressed once compression has been enabled, after the other end has
+ * agreed to it, and only if they are at least as long as the threshold.
+ *
+ * The other end is asked to agree by {@link #negotiateCompression()}, which sends a
+ * {@code transport.enableCompression} request. A {@code CompressingTransport} that receives the
+ * request answers it and enables compression, so two of them agree with each other. The analysis
+ * server does not know the request and answers it with an error, so the messages sent to it stay
+ * uncompressed.
+ *
+ * @coverage dart.server.client
+ */
+public class CompressingTransport implements Transport {
+
+  /**
+   * The character that starts a compressed message.
+   */
+  public static final char COMPRESSED_MESSAGE_PREFIX = '~';
+
+  /**
+   * The request asking the other end of the connection to agree to receive compressed messages.
+   */
+  private static final String NEGOTIATION_REQUEST =
+      "{\"id\":\"compression\",\"method\":\"transport.enableCompression\"}";
+
+  /**
+   * The start of the response to the {@link #NEGOTIATION_REQUEST}.
+   */
+  private static final String NEGOTIATION_RESPONSE_PREFIX = "{\"id\":\"compression\",";
+
+  /**
+   * The response agreeing to the {@link #NEGOTIATION_REQUEST}.
+   */
+  private static final String NEGOTIATION_RESULT = NEGOTIATION_RESPONSE_PREFIX + "\"result\":{}}";
+
+  /**
+   * The transport over which the messages are carried, or {@code null} while it is being opened.
+   */
+  private volatile Transport transport;
+
+  /**
+   * The listener to which the decompressed messages are delivered.
+   */
+  private final Listener listener;
+
+  /**
+   * The length, in characters, of the shortest message that is compressed.
+   */
+  private final int threshold;
+
+  /**
+   * The compressor of the messages sent, which is also used as the lock for sending the compressed
+   * messages in the order of the stream.
+   */
+  private final Deflater deflater = new Deflater();
+
+  /**
+   * The decompressor of the messages received, which is also used as the lock for receiving.
+   */
+  private final Inflater inflater = new Inflater();
+
+  /**
+   * {@code true} if messages are sent compressed.
+   */
+  private volatile boolean compressionEnabled;
+
+  /**
+   * The future for whether the other end agreed to receive compressed messages, or {@code null}
+   * if it has not been asked or has answered.
+   */
+  private volatile CompletableFuture<Boolean> negotiation;
+
+  /**
+   * {@code true} if the other end has asked to receive compressed messages and the request has not
+   * been answered yet. The flag is set before the transport is read, and the request is answered
+   * by whichever of the listener and the constructor clears the flag, so a request received while
+   * the transport is being returned is answered exactly once.
+   */
+  private final AtomicBoolean isAnswerPending = new AtomicBoolean();
+
+  /**
+   * {@code true} if a corrupted message has been received, after which the messages received are
+   * ignored.
+   */
+  private volatile boolean isCorrupted;
+
+  /**
+   * {@code true} if the connection has been closed, after which the compressor and decompressor
+   * are released.
+   */
+  private volatile boolean isClosed;
+
+  /**
+   * The number of bytes of the messages sent compressed, before they were compressed.
+   */
+  private final AtomicLong sentRawBytes = new AtomicLong();
+
+  /**
+   * The number of characters of the messages sent compressed, as they were sent.
+   */
+  private final AtomicLong sentCompressedBytes = new AtomicLong();
+
+  /**
+   * The number of bytes of the compressed messages received, once they were decompressed.
+   */
+  private final AtomicLong receivedRawBytes = new AtomicLong();
+
+  /**
+   * The number of characters of the compressed messages received, as they were received.
+   */
+  private final AtomicLong receivedCompressedBytes = new AtomicLong();
+
+  /**
+   * Initialize a newly created transport to carry messages over the transport returned by the
+   * given connector, delivering the messages received to the given listener. Messages that are
+   * shorter than the given number of characters are never compressed.
+   */
+  public CompressingTransport(Connector connector, Listener listener, int threshold)
+      throws IOException {
+    this.listener = listener;
+    this.threshold = threshold;
+    this.transport = connector.connect(new Listener() {
+      @Override
+      public void closed(IOException exception) {
+        CompressingTransport.this.closed(exception);
+      }
+
+      @Override
+      public void messageReceived(String message) {
+        CompressingTransport.this.messageReceived(message);
+      }
+    });
+    if (isCorrupted) {
+      // a corrupted message was received before the transport was returned
+      transport.close();
+    } else {
+      answerPendingNegotiation();
+    }
+  }
+
+  /**
+   * The interface {@code Connector} defines the behavior of objects that open the transport over
+   * which a {@link CompressingTransport} carries its messages.
+   */
+  public interface Connector {
+    /**
+     * Open a transport whose messages are delivered to the given listener.
+     */
+    Transport connect(Listener listener) throws IOException;
+  }
+
+  @Override
+  public void close() {
+    transport.close();
+    end();
+  }
+
+  @Override
+  public long getPendingWriteBytes() {
+    return transport.getPendingWriteBytes();
+  }
+
+  /**
+   * Return the number of characters of the compressed messages received, as they were received.
+   */
+  public long getReceivedCompressedBytes() {
+    return receivedCompressedBytes.get();
+  }
+
+  /**
+   * Return the number of bytes of the compressed messages received, once they were decompressed.
+   */
+  public long getReceivedRawBytes() {
+    return receivedRawBytes.get();
+  }
+
+  /**
+   * Return the number of characters of the messages sent compressed, as they were sent, which are
+   * also their number of bytes.
+   */
+  public long getSentCompressedBytes() {
+    return sentCompressedBytes.get();
+  }
+
+  /**
+   * Return the number of bytes of the UTF-8 encoding of the messages sent compressed, before they
+   * were compressed.
+   */
+  public long getSentRawBytes() {
+    return sentRawBytes.get();
+  }
+
+  /**
+   * Return {@code true} if messages are sent compressed.
+   */
+  public boolean isCompressionEnabled() {
+    return compressionEnabled;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return transport.isOpen();
+  }
+
+  /**
+   * Ask the other end of the connection to agree to receive compressed messages, and enable
+   * compression once it has. Return a future that is completed with whether it agreed, which is
+   * {@code false} if the connection is closed first.
+   *
+   * @throws IOException if the request cannot be sent
+   */
+  public CompletableFuture<Boolean> negotiateCompression() throws IOException {
+    CompletableFuture<Boolean> future = new CompletableFuture<Boolean>();
+    negotiation = future;
+    transport.send(NEGOTIATION_REQUEST);
+    return future;
+  }
+
+  @Override
+  public void send(String message) throws IOException {
+    if (compressionEnabled && message.length() >= threshold) {
+      byte[] raw = message.getBytes(StandardCharsets.UTF_8);
+      synchronized (deflater) {
+        if (isClosed) {
+          throw new ClosedChannelException();
+        }
+        // the message is part of the stream once deflated, so it is sent compressed even if it
+        // did not get smaller, and before any later compressed message
+        String compressed =
+            COMPRESSED_MESSAGE_PREFIX + Base64.getEncoder().encodeToString(deflate(raw));
+        sentRawBytes.addAndGet(raw.length);
+        sentCompressedBytes.addAndGet(compressed.length());
+        transport.send(compressed);
+      }
+      return;
+    }
+    transport.send(message);
+  }
+
+  /**
+   * Set whether messages are sent compressed, which should only be enabled once the other end of
+   * the connection has agreed to receive compressed messages, such as through
+   * {@link #negotiateCompression()}. Compressed messages are received whether or not this is
+   * enabled.
+   */
+  public void setCompressionEnabled(boolean compressionEnabled) {
+    this.compressionEnabled = compressionEnabled;
+  }
+
+  /**
+   * Answer the {@link #NEGOTIATION_REQUEST} and enable compression, if a request has been received
+   * and has not been answered yet.
+   */
+  private void answerPendingNegotiation() {
+    if (!isAnswerPending.compareAndSet(true, false)) {
+      return;
+    }
+    try {
+      transport.send(NEGOTIATION_RESULT);
+      compressionEnabled = true;
+    } catch (IOException exception) {
+      // the connection is closed, so there is nothing to agree to
+    }
+  }
+
+  /**
+   * The underlying transport was closed because of the given exception, or {@code null} if it was
+   * closed by either end.
+   */
+  private void closed(IOException exception) {
+    end();
+    CompletableFuture<Boolean> future = negotiation;
+    if (future != null) {
+      future.complete(false);
+    }
+    listener.closed(exception);
+  }
+
+  /**
+   * Return the part of the stream of the messages sent that holds the given bytes, which ends with
+   * a sync flush. The caller must hold the lock of the deflater.
+   */
+  private byte[] deflate(byte[] bytes) {
+    deflater.setInput(bytes);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 16);
+    byte[] buffer = new byte[8192];
+    while (true) {
+      int count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+      out.write(buffer, 0, count);
+      if (count < buffer.length) {
+        // the output buffer was not filled, so the input has been consumed and flushed
+        return out.toByteArray();
+      }
+    }
+  }
+
+  /**
+   * Release the compressor and the decompressor, which cannot be used after the connection has
+   * been closed.
+   */
+  private void end() {
+    isClosed = true;
+    synchronized (deflater) {
+      deflater.end();
+    }
+    synchronized (inflater) {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Return the inflated form of the given part of the stream of the messages received. The caller
+   * must hold the lock of the inflater.
+   */
+  private byte[] inflate(byte[] bytes) throws DataFormatException {
+    // each message ends with the empty stored block of a sync flush
+    int length = bytes.length;
+    if (length < 4 || bytes[length - 4] != 0 || bytes[length - 3] != 0
+        || bytes[length - 2] != (byte) 0xff || bytes[length - 1] != (byte) 0xff) {
+      throw new DataFormatException("Truncated compressed message");
+    }
+    inflater.setInput(bytes);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+    byte[] buffer = new byte[8192];
+    while (true) {
+      int count = inflater.inflate(buffer);
+      out.write(buffer, 0, count);
+      if (count == 0) {
+        if (inflater.needsInput()) {
+          return out.toByteArray();
+        }
+        // the stream of a connection never ends and has no dictionary
+        throw new DataFormatException("Malformed compressed message");
+      }
+    }
+  }
+
+  /**
+   * The given message was received over the underlying transport.
+   */
+  private void messageReceived(String message) {
+    if (isCorrupted) {
+      return;
+    }
+    if (message.isEmpty() || message.charAt(0) != COMPRESSED_MESSAGE_PREFIX) {
+      if (!negotiationReceived(message)) {
+        listener.messageReceived(message);
+      }
+      return;
+    }
+    byte[] raw;
+    try {
+      byte[] compressed = Base64.getDecoder().decode(message.substring(1));
+      synchronized (inflater) {
+        if (isClosed) {
+          return;
+        }
+        raw = inflate(compressed);
+      }
+    } catch (IllegalArgumentException | DataFormatException exception) {
+      // the connection cannot be trusted once a message has been corrupted
+      isCorrupted = true;
+      Transport transport = this.transport;
+      if (transport != null) {
+        transport.close();
+      }
+      return;
+    }
+    receivedRawBytes.addAndGet(raw.length);
+    receivedCompressedBytes.addAndGet(message.length());
+    listener.messageReceived(new String(raw, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Handle the given message if it is the {@link #NEGOTIATION_REQUEST} or the response to it, and
+   * return {@code true} if it was.
+   */
+  private boolean negotiationReceived(String message) {
+    if (message.equals(NEGOTIATION_REQUEST)) {
+      isAnswerPending.set(true);
+      if (transport != null) {
+        answerPendingNegotiation();
+      }
+      // otherwise the request is answered by the constructor once the transport has been returned
+      return true;
+    }
+    CompletableFuture<Boolean> future = negotiation;
+    if (future != null && message.startsWith(NEGOTIATION_RESPONSE_PREFIX)) {
+      negotiation = null;
+      boolean agreed = message.equals(NEGOTIATION_RESULT);
+      compressionEnabled = agreed;
+      future.complete(agreed);
+      return true;
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code ContentOverlayBuffer} buffers the content overlays for files and sends them to
+ * the server in a single {@code analysis.updateContent} request per window, rather than one request
+ * per keystroke, so that the server analyzes each burst of typing once.
+ *
+ * The window starts when the first overlay is buffered, so an update is never delayed by more than
+ * the window. The overlays buffered for a file are merged: consecutive
+ * {@link ChangeContentOverlay}s are merged by concatenating their edits, a change to an
+ * {@link AddContentOverlay} is merged by applying its edits to the content, and an
+ * {@link AddContentOverlay} or {@link RemoveContentOverlay} replaces any buffered overlay.
+ * Requests whose results depend on the current content of a file, such as completion, should be
+ * preceded by {@link #flush()}. If the buffer is given a {@link ResponseCache}, the overlays are
+ * sent through it, so that the cached results for their files are invalidated.
+ *
+ * @coverage dart.server.client
+ */
+public class ContentOverlayBuffer {
+
+  /**
+   * The server to which the overlays are sent.
+   */
+  private final AsyncAnalysisServer server;
+
+  /**
+   * The cache through which the overlays are sent, or {@code null} if they are sent directly.
+   */
+  private final ResponseCache cache;
+
+  /**
+   * The executor used to send the overlays at the end of each window.
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * The length of the window, in milliseconds.
+   */
+  private final long windowMillis;
+
+  /**
+   * The merged overlays that have not yet been sent, keyed by file, in the order in which the files
+   * were first updated in the current window.
+   */
+  private Map<String, Object> pendingOverlays = new LinkedHashMap<String, Object>();
+
+  /**
+   * The scheduled sending of the pending overlays, or {@code null} if there are none.
+   */
+  private ScheduledFuture<?> pendingFlush;
+
+  /**
+   * Initialize a newly created buffer to send the overlays to the given server, at the end of
+   * windows of the given number of milliseconds, using the given executor.
+   */
+  public ContentOverlayBuffer(AsyncAnalysisServer server, ScheduledExecutorService scheduler,
+      long windowMillis) {
+    this(server, null, scheduler, windowMillis);
+  }
+
+  /**
+   * Initialize a newly created buffer to send the overlays to the given server through the given
+   * cache, which can be {@code null}, at the end of windows of the given number of milliseconds,
+   * using the given executor.
+   */
+  public ContentOverlayBuffer(AsyncAnalysisServer server, ResponseCache cache,
+      ScheduledExecutorService scheduler, long windowMillis) {
+    this.server = server;
+    this.cache = cache;
+    this.scheduler = scheduler;
+    this.windowMillis = windowMillis;
+  }
+
+  /**
+   * Send the pending overlays now, and return the future for the result of the request, or a
+   * completed future if there were no pending overlays.
+   */
+  public synchronized CompletableFuture<Void> flush() {
+    if (pendingFlush != null) {
+      pendingFlush.cancel(false);
+      pendingFlush = null;
+    }
+    if (pendingOverlays.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    // the request is sent while holding the lock so that requests are sent in order
+    Map<String, Object> overlays = pendingOverlays;
+    pendingOverlays = new LinkedHashMap<String, Object>();
+    if (cache != null) {
+      return cache.analysis_updateContent(server, overlays);
+    }
+    return server.analysis_updateContent(overlays);
+  }
+
+  /**
+   * Return the number of files with pending overlays.
+   */
+  public synchronized int getPendingFileCount() {
+    return pendingOverlays.size();
+  }
+
+  /**
+   * Return the overlay equivalent to sending the given overlays one after the other, or
+   * {@code null} if they cannot be merged, which happens when a change follows a removal.
+   */
+  public static Object merge(Object first, Object second) {
+    if (!(second instanceof ChangeContentOverlay)) {
+      return second;
+    }
+    List<SourceEdit> edits = ((ChangeContentOverlay) second).getEdits();
+    if (first instanceof AddContentOverlay) {
+      String content = ((AddContentOverlay) first).getContent();
+      return new AddContentOverlay(SourceEditUtilities.applySequence(content, edits));
+    } else if (first instanceof ChangeContentOverlay) {
+      List<SourceEdit> firstEdits = ((ChangeContentOverlay) first).getEdits();
+      List<SourceEdit> mergedEdits = new ArrayList<SourceEdit>(firstEdits.size() + edits.size());
+      mergedEdits.addAll(firstEdits);
+      mergedEdits.addAll(edits);
+      return new ChangeContentOverlay(mergedEdits);
+    }
+    return null;
+  }
+
+  /**
+   * Buffer the given overlay, which is an {@link AddContentOverlay}, a {@link ChangeContentOverlay}
+   * or a {@link RemoveContentOverlay}, for the given file.
+   */
+  public synchronized void updateContent(String file, Object overlay) {
+    Object pendingOverlay = pendingOverlays.get(file);
+    if (pendingOverlay != null) {
+      Object mergedOverlay = merge(pendingOverlay, overlay);
+      if (mergedOverlay != null) {
+        pendingOverlays.put(file, mergedOverlay);
+        return;
+      }
+      // the buffered overlays must be sent before this one
+      flush();
+    }
+    pendingOverlays.put(file, overlay);
+    if (pendingFlush == null) {
+      pendingFlush = scheduler.schedule(() -> {
+        flush();
+      }, windowMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+}
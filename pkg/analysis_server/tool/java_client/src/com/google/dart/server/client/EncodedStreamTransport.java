@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class {@code EncodedStreamTransport} is a {@link Transport} that carries the messages of the
+ * analysis server protocol over a pair of byte streams in the encoding agreed with the other end:
+ * newline separated JSON text, which every server accepts, or the {@link CborWriter} encoding,
+ * which is cheaper to decode for large notifications such as
+ * {@code completion.availableSuggestions}.
+ *
+ * A connection starts in JSON. Before the transport is started, {@link #negotiateEncoding(String)}
+ * sends a {@code transport.setEncoding} request asking the other end to switch to another
+ * encoding, and both ends switch after the successful response. The analysis server does not know
+ * the request and answers it with an error, so the connection stays in JSON. A transport that
+ * receives the request answers it and switches, so the {@code ProtocolStandInServer} of the tests
+ * speaks either encoding.
+ *
+ * The messages sent are written by a {@link MessageWriter} into a buffer before they are written
+ * to the stream, so a message whose encoding fails writes nothing, and the JSON texts sent through
+ * {@link #send(String)} are converted to the encoding. The messages received are read by a daemon
+ * thread, which passes them to a {@link Transport.Listener} as JSON texts, or to a
+ * {@link Listener} as a {@link JsonReader} whose next value is the message, without converting
+ * them, such as to the {@code fromJson(JsonReader)} methods of the protocol types.
+ *
+ * @coverage dart.server.client
+ */
+public class EncodedStreamTransport implements Transport {
+
+  /**
+   * The encoding of the messages as newline separated JSON text.
+   */
+  public static final String JSON = "json";
+
+  /**
+   * The encoding of the messages as CBOR data items.
+   */
+  public static final String CBOR = "cbor";
+
+  /**
+   * The start of the request asking the other end of the connection to switch encodings, which is
+   * followed by the encoding and {@link #NEGOTIATION_REQUEST_SUFFIX}.
+   */
+  private static final String NEGOTIATION_REQUEST_PREFIX =
+      "{\"id\":\"encoding\",\"method\":\"transport.setEncoding\",\"params\":{\"encoding\":\"";
+
+  /**
+   * The end of the request asking the other end of the connection to switch encodings.
+   */
+  private static final String NEGOTIATION_REQUEST_SUFFIX = "\"}}";
+
+  /**
+   * The start of the response to the negotiation request.
+   */
+  private static final String NEGOTIATION_RESPONSE_PREFIX = "{\"id\":\"encoding\",";
+
+  /**
+   * The response agreeing to the negotiation request.
+   */
+  private static final String NEGOTIATION_RESULT = NEGOTIATION_RESPONSE_PREFIX + "\"result\":{}}";
+
+  /**
+   * The response refusing the negotiation request.
+   */
+  private static final String NEGOTIATION_ERROR = NEGOTIATION_RESPONSE_PREFIX
+      + "\"error\":{\"code\":\"INVALID_PARAMETER\",\"message\":\"Unsupported encoding\"}}";
+
+  /**
+   * The stream from which the messages are received.
+   */
+  private final InputStream input;
+
+  /**
+   * The stream to which the messages are sent, which is also used as the lock for sending.
+   */
+  private final OutputStream output;
+
+  /**
+   * The messages received while the encoding was negotiated, which are delivered once the
+   * transport is started.
+   */
+  private final List<String> earlyMessages = new ArrayList<String>();
+
+  /**
+   * The encoding of the messages, which is only changed while holding the lock for sending.
+   */
+  private volatile String encoding = JSON;
+
+  /**
+   * The listener to which the messages received are delivered, or {@code null} if the transport
+   * has not been started.
+   */
+  private Transport.Listener listener;
+
+  /**
+   * {@code true} if the transport has been closed.
+   */
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  /**
+   * Initialize a newly created transport to receive messages from the given input stream and send
+   * them to the given output stream.
+   */
+  public EncodedStreamTransport(InputStream input, OutputStream output) {
+    this.input = new BufferedInputStream(input);
+    this.output = output;
+  }
+
+  /**
+   * The interface {@code Listener} defines the behavior of objects that are notified of the
+   * messages received over an {@link EncodedStreamTransport} without the messages being converted
+   * to JSON texts. The messages are passed to {@link #messageReceived(JsonReader)} rather than to
+   * {@link Transport.Listener#messageReceived(String)}. The methods are invoked on the thread of
+   * the transport.
+   */
+  public interface Listener extends Transport.Listener {
+    /**
+     * A message was received, which is the next value of the given reader. The value must be read
+     * completely before this method returns.
+     */
+    void messageReceived(JsonReader reader) throws IOException;
+  }
+
+  /**
+   * The interface {@code MessageWriter} defines the behavior of objects that write a message, such
+   * as a request written by a {@link RequestWriter} or a protocol type written by its
+   * {@code writeTo} method.
+   */
+  public interface MessageWriter {
+    /**
+     * Write the message, as a single value, using the given writer.
+     */
+    void write(JsonWriter writer) throws IOException;
+  }
+
+  @Override
+  public void close() {
+    close(null);
+  }
+
+  /**
+   * Copy the next value of the given reader to the given writer, such as to convert a message from
+   * one encoding to the other.
+   */
+  public static void copyValue(JsonReader reader, JsonWriter writer) throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_ARRAY:
+        reader.beginArray();
+        writer.beginArray();
+        while (reader.hasNext()) {
+          copyValue(reader, writer);
+        }
+        reader.endArray();
+        writer.endArray();
+        break;
+      case BEGIN_OBJECT:
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+          writer.name(reader.nextName());
+          copyValue(reader, writer);
+        }
+        reader.endObject();
+        writer.endObject();
+        break;
+      case BOOLEAN:
+        writer.value(reader.nextBoolean());
+        break;
+      case NULL:
+        reader.nextNull();
+        writer.nullValue();
+        break;
+      case NUMBER:
+        String number = reader.nextString();
+        try {
+          writer.value(Long.parseLong(number));
+        } catch (NumberFormatException exception) {
+          writer.value(Double.parseDouble(number));
+        }
+        break;
+      case STRING:
+        writer.value(reader.nextString());
+        break;
+      default:
+        throw new IllegalStateException("Unexpected " + reader.peek());
+    }
+  }
+
+  /**
+   * Return a transport over the standard input and output of the given server process.
+   */
+  public static EncodedStreamTransport forProcess(Process process) {
+    return new EncodedStreamTransport(process.getInputStream(), process.getOutputStream());
+  }
+
+  /**
+   * Return the encoding of the messages, which is either {@link #JSON} or {@link #CBOR}.
+   */
+  public String getEncoding() {
+    return encoding;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return !closed.get();
+  }
+
+  /**
+   * Ask the other end of the connection to switch to the given encoding, which is either
+   * {@link #JSON} or {@link #CBOR}, and wait for its answer. Return the encoding used from now on,
+   * which is {@link #JSON} if the other end refused. The messages received before the answer are
+   * delivered once the transport is started.
+   *
+   * @throws IllegalArgumentException if the encoding is not known
+   * @throws IllegalStateException if the transport has been started
+   * @throws IOException if the request cannot be sent or the connection is closed
+   */
+  public synchronized String negotiateEncoding(String requestedEncoding) throws IOException {
+    if (!isSupported(requestedEncoding)) {
+      throw new IllegalArgumentException("Unknown encoding: " + requestedEncoding);
+    }
+    if (listener != null) {
+      throw new IllegalStateException("The encoding must be negotiated before the start");
+    }
+    if (requestedEncoding.equals(encoding)) {
+      return encoding;
+    }
+    synchronized (output) {
+      writeLine(NEGOTIATION_REQUEST_PREFIX + requestedEncoding + NEGOTIATION_REQUEST_SUFFIX);
+    }
+    while (true) {
+      String message = readLine();
+      if (message == null) {
+        throw new EOFException("The connection was closed before the encoding was agreed");
+      }
+      if (message.startsWith(NEGOTIATION_RESPONSE_PREFIX)) {
+        if (message.equals(NEGOTIATION_RESULT)) {
+          synchronized (output) {
+            encoding = requestedEncoding;
+          }
+        }
+        return encoding;
+      }
+      earlyMessages.add(message);
+    }
+  }
+
+  /**
+   * Send the message written by the given writer.
+   *
+   * @throws IOException if the transport is closed or the message cannot be written
+   */
+  public void send(MessageWriter message) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    synchronized (output) {
+      if (closed.get()) {
+        throw new IOException("The transport is closed");
+      }
+      boolean isJson = JSON.equals(encoding);
+      JsonWriter writer = isJson
+          ? new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8))
+          : new CborWriter(buffer);
+      message.write(writer);
+      writer.flush();
+      if (isJson) {
+        buffer.write('\n');
+      }
+      buffer.writeTo(output);
+      output.flush();
+    }
+  }
+
+  /**
+   * Send the given JSON text, which does not contain a newline, converting it to the encoding.
+   *
+   * @throws IOException if the transport is closed or the message cannot be written
+   */
+  @Override
+  public void send(String message) throws IOException {
+    synchronized (output) {
+      if (JSON.equals(encoding)) {
+        if (closed.get()) {
+          throw new IOException("The transport is closed");
+        }
+        writeLine(message);
+        return;
+      }
+      send(writer -> {
+        copyValue(new JsonReader(new StringReader(message)), writer);
+      });
+    }
+  }
+
+  /**
+   * Start delivering the messages received to the given listener, as {@link JsonReader}s if it is
+   * a {@link Listener}, or as JSON texts otherwise.
+   *
+   * @throws IllegalStateException if the transport has already been started
+   */
+  public synchronized void start(Transport.Listener listener) {
+    if (this.listener != null) {
+      throw new IllegalStateException("The transport has already been started");
+    }
+    this.listener = listener;
+    Thread readerThread = new Thread(this::readMessages, "Analysis server encoded stream reader");
+    readerThread.setDaemon(true);
+    readerThread.start();
+  }
+
+  /**
+   * Close the transport, if it is not already closed, and notify the listener that it was closed
+   * because of the given exception, or {@code null} if it was closed by either end.
+   */
+  private void close(IOException exception) {
+    if (closed.compareAndSet(false, true)) {
+      try {
+        input.close();
+      } catch (IOException e) {
+        // ignored
+      }
+      synchronized (output) {
+        try {
+          output.close();
+        } catch (IOException e) {
+          // ignored
+        }
+      }
+      if (listener != null) {
+        listener.closed(exception);
+      }
+    }
+  }
+
+  /**
+   * Deliver to the listener the message that is the next value of the given reader.
+   */
+  private void deliver(JsonReader reader) throws IOException {
+    if (listener instanceof Listener) {
+      ((Listener) listener).messageReceived(reader);
+    } else {
+      StringWriter text = new StringWriter();
+      JsonWriter writer = new JsonWriter(text);
+      copyValue(reader, writer);
+      writer.flush();
+      listener.messageReceived(text.toString());
+    }
+  }
+
+  /**
+   * Deliver to the listener the given message, which is a JSON text.
+   */
+  private void deliver(String message) throws IOException {
+    if (listener instanceof Listener) {
+      ((Listener) listener).messageReceived(new JsonReader(new StringReader(message)));
+    } else {
+      listener.messageReceived(message);
+    }
+  }
+
+  /**
+   * Return {@code true} if the given encoding is known.
+   */
+  private static boolean isSupported(String encoding) {
+    return JSON.equals(encoding) || CBOR.equals(encoding);
+  }
+
+  /**
+   * Answer the given message and switch encodings if it is a request to switch encodings, and
+   * return {@code true} if it was.
+   */
+  private boolean negotiationReceived(String message) throws IOException {
+    if (!message.startsWith(NEGOTIATION_REQUEST_PREFIX)
+        || !message.endsWith(NEGOTIATION_REQUEST_SUFFIX)) {
+      return false;
+    }
+    String requestedEncoding = message.substring(NEGOTIATION_REQUEST_PREFIX.length(),
+        message.length() - NEGOTIATION_REQUEST_SUFFIX.length());
+    synchronized (output) {
+      if (isSupported(requestedEncoding)) {
+        writeLine(NEGOTIATION_RESULT);
+        // the other end sends nothing more until it has read the response
+        encoding = requestedEncoding;
+      } else {
+        writeLine(NEGOTIATION_ERROR);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the next line of the input stream, without its newline, or {@code null} if the stream
+   * has ended.
+   */
+  private String readLine() throws IOException {
+    // the bytes are read one at a time, so that none of the bytes after the line are consumed
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int next;
+    while ((next = input.read()) != '\n') {
+      if (next < 0) {
+        return line.size() == 0 ? null : line.toString("UTF-8");
+      }
+      line.write(next);
+    }
+    return line.toString("UTF-8");
+  }
+
+  /**
+   * Deliver the messages received to the listener until the input stream ends or fails. The
+   * transport is closed however the reading ends, including by an {@link Error}, so that the
+   * listener always learns that the connection is no longer usable.
+   */
+  private void readMessages() {
+    IOException failure = null;
+    try {
+      for (String message : earlyMessages) {
+        deliver(message);
+      }
+      earlyMessages.clear();
+      CborReader cborReader = null;
+      while (true) {
+        if (CBOR.equals(encoding)) {
+          if (cborReader == null) {
+            cborReader = new CborReader(input);
+          }
+          if (cborReader.peek() == JsonToken.END_DOCUMENT) {
+            break;
+          }
+          deliver(cborReader);
+        } else {
+          String message = readLine();
+          if (message == null) {
+            break;
+          }
+          if (!negotiationReceived(message)) {
+            deliver(message);
+          }
+        }
+      }
+    } catch (IOException exception) {
+      // if the transport was closed by the client the exception is ignored
+      failure = exception;
+    } catch (RuntimeException exception) {
+      // the messages after one that could not be read cannot be trusted
+      failure = new IOException("A message could not be read", exception);
+    } catch (Error error) {
+      failure = new IOException("A message could not be read", error);
+      throw error;
+    } finally {
+      close(failure);
+    }
+  }
+
+  /**
+   * Write the given message followed by a newline. The caller must hold the lock for sending.
+   */
+  private void writeLine(String message) throws IOException {
+    output.write((message + '\n').getBytes(StandardCharsets.UTF_8));
+    output.flush();
+  }
+
+}
@@ -0,0 +1,750 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code LazyCompletionSuggestion} is a {@link CompletionSuggestion} that is read from
+ * the text of a {@code completion.results} notification without decoding its heavy fields, which
+ * are the documentation, the element, the default argument ranges and the parameter lists. The
+ * suggestion keeps a reference to the text, which is shared by all of the suggestions of the
+ * notification, and the offset at which each heavy field starts. The heavy fields are skipped
+ * without allocating anything, and are decoded from the text when one of their getters is first
+ * invoked. Completion results often hold thousands of suggestions of which only the first few are
+ * ever displayed, so most of the heavy fields are never decoded.
+ *
+ * A {@link JsonReader} does not expose the offsets of the values it reads, so suggestions that are
+ * received as a {@link JsonReader}, such as in CBOR, should be decoded by
+ * {@link CompletionSuggestion#fromJsonArray(JsonReader)} instead. The allocations of both are
+ * compared by the {@code LazyCompletionSuggestionBenchmark} of the tests.
+ *
+ * The methods that use all of the fields, such as {@link #equals(Object)} and {@link #toJson()},
+ * decode the heavy fields first. Because {@link CompletionSuggestion#equals(Object)} does not, use
+ * {@link #toCompletionSuggestion()} to compare a {@link CompletionSuggestion} with an instance of
+ * this class.
+ *
+ * @coverage dart.server.client
+ */
+public class LazyCompletionSuggestion extends CompletionSuggestion {
+
+  /**
+   * The offset of a heavy field that is absent.
+   */
+  private static final int ABSENT = -1;
+
+  /**
+   * The names of the fields of a suggestion, which are returned by
+   * {@link JsonText#nextName(String[])} instead of new strings.
+   */
+  private static final String[] FIELD_NAMES = {
+      "kind",
+      "relevance",
+      "completion",
+      "displayText",
+      "selectionOffset",
+      "selectionLength",
+      "isDeprecated",
+      "isPotential",
+      "docSummary",
+      "docComplete",
+      "declaringType",
+      "defaultArgumentListString",
+      "defaultArgumentListTextRanges",
+      "element",
+      "returnType",
+      "parameterNames",
+      "parameterTypes",
+      "requiredParameterCount",
+      "hasNamedParameters",
+      "parameterName",
+      "parameterType"};
+
+  /**
+   * The kinds of suggestions, which are returned by {@link JsonText#nextString(String[])} instead
+   * of new strings.
+   */
+  private static final String[] KINDS = {
+      CompletionSuggestionKind.ARGUMENT_LIST,
+      CompletionSuggestionKind.IMPORT,
+      CompletionSuggestionKind.IDENTIFIER,
+      CompletionSuggestionKind.INVOCATION,
+      CompletionSuggestionKind.KEYWORD,
+      CompletionSuggestionKind.NAMED_ARGUMENT,
+      CompletionSuggestionKind.OPTIONAL_ARGUMENT,
+      CompletionSuggestionKind.OVERRIDE,
+      CompletionSuggestionKind.PARAMETER};
+
+  /**
+   * The text from which the heavy fields are decoded, or {@code null} if they have been decoded.
+   */
+  private String text;
+
+  /**
+   * The offsets in the text of the values of the heavy fields, or {@link #ABSENT}.
+   */
+  private final int docSummaryOffset;
+  private final int docCompleteOffset;
+  private final int defaultArgumentListTextRangesOffset;
+  private final int elementOffset;
+  private final int parameterNamesOffset;
+  private final int parameterTypesOffset;
+
+  /**
+   * The decoded heavy fields.
+   */
+  private String docSummary;
+  private String docComplete;
+  private int[] defaultArgumentListTextRanges;
+  private Element element;
+  private List<String> parameterNames;
+  private List<String> parameterTypes;
+
+  /**
+   * Initialize a newly created suggestion with the given fields, whose heavy fields are decoded
+   * from the given text at the given offsets.
+   */
+  private LazyCompletionSuggestion(String kind, int relevance, String completion,
+      String displayText, int selectionOffset, int selectionLength, boolean isDeprecated,
+      boolean isPotential, String declaringType, String defaultArgumentListString,
+      String returnType, Integer requiredParameterCount, Boolean hasNamedParameters,
+      String parameterName, String parameterType, String text, int[] offsets) {
+    super(
+        kind,
+        relevance,
+        completion,
+        displayText,
+        selectionOffset,
+        selectionLength,
+        isDeprecated,
+        isPotential,
+        null,
+        null,
+        declaringType,
+        defaultArgumentListString,
+        null,
+        null,
+        returnType,
+        null,
+        null,
+        requiredParameterCount,
+        hasNamedParameters,
+        parameterName,
+        parameterType);
+    this.text = text;
+    this.docSummaryOffset = offsets[0];
+    this.docCompleteOffset = offsets[1];
+    this.defaultArgumentListTextRangesOffset = offsets[2];
+    this.elementOffset = offsets[3];
+    this.parameterNamesOffset = offsets[4];
+    this.parameterTypesOffset = offsets[5];
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof LazyCompletionSuggestion) {
+      obj = ((LazyCompletionSuggestion) obj).toCompletionSuggestion();
+    }
+    return toCompletionSuggestion().equals(obj);
+  }
+
+  /**
+   * Return the suggestions of the JSON array that starts at the given offset of the given text.
+   *
+   * @throws MalformedJsonException if the array is not a well-formed array of suggestions
+   */
+  public static List<CompletionSuggestion> fromJsonArray(String text, int offset)
+      throws MalformedJsonException {
+    JsonText json = new JsonText(text, offset);
+    ArrayList<CompletionSuggestion> list = new ArrayList<CompletionSuggestion>();
+    json.beginArray();
+    while (json.hasNext()) {
+      list.add(read(json));
+    }
+    json.endArray();
+    return list;
+  }
+
+  /**
+   * Return the suggestions of the given {@code completion.results} notification, which is the text
+   * of a whole message, or an empty list if it has no results.
+   *
+   * @throws MalformedJsonException if the notification is not well-formed
+   */
+  public static List<CompletionSuggestion> fromNotification(String message)
+      throws MalformedJsonException {
+    JsonText json = new JsonText(message, 0);
+    if (!json.findField("params") || !json.findField("results")) {
+      return new ArrayList<CompletionSuggestion>();
+    }
+    return fromJsonArray(message, json.pos);
+  }
+
+  @Override
+  public int[] getDefaultArgumentListTextRanges() {
+    decode();
+    return defaultArgumentListTextRanges;
+  }
+
+  @Override
+  public String getDocComplete() {
+    decode();
+    return docComplete;
+  }
+
+  @Override
+  public String getDocSummary() {
+    decode();
+    return docSummary;
+  }
+
+  @Override
+  public Element getElement() {
+    decode();
+    return element;
+  }
+
+  @Override
+  public List<String> getParameterNames() {
+    decode();
+    return parameterNames;
+  }
+
+  @Override
+  public List<String> getParameterTypes() {
+    decode();
+    return parameterTypes;
+  }
+
+  @Override
+  public int hashCode() {
+    return toCompletionSuggestion().hashCode();
+  }
+
+  /**
+   * Return {@code true} if the heavy fields have been decoded.
+   */
+  public synchronized boolean isDecoded() {
+    return text == null;
+  }
+
+  /**
+   * Return a new {@link CompletionSuggestion} with all of the fields of this suggestion.
+   */
+  public CompletionSuggestion toCompletionSuggestion() {
+    return new CompletionSuggestion(
+        getKind(),
+        getRelevance(),
+        getCompletion(),
+        getDisplayText(),
+        getSelectionOffset(),
+        getSelectionLength(),
+        isDeprecated(),
+        isPotential(),
+        getDocSummary(),
+        getDocComplete(),
+        getDeclaringType(),
+        getDefaultArgumentListString(),
+        getDefaultArgumentListTextRanges(),
+        getElement(),
+        getReturnType(),
+        getParameterNames(),
+        getParameterTypes(),
+        getRequiredParameterCount(),
+        getHasNamedParameters(),
+        getParameterName(),
+        getParameterType());
+  }
+
+  @Override
+  public JsonObject toJson() {
+    return toCompletionSuggestion().toJson();
+  }
+
+  @Override
+  public String toString() {
+    return toCompletionSuggestion().toString();
+  }
+
+  @Override
+  public void writeTo(JsonWriter writer) throws IOException {
+    toCompletionSuggestion().writeTo(writer);
+  }
+
+  /**
+   * Decode the heavy fields from the text, if they have not been decoded yet.
+   */
+  private synchronized void decode() {
+    if (text == null) {
+      return;
+    }
+    try {
+      if (docSummaryOffset != ABSENT) {
+        docSummary = new JsonText(text, docSummaryOffset).nextString();
+      }
+      if (docCompleteOffset != ABSENT) {
+        docComplete = new JsonText(text, docCompleteOffset).nextString();
+      }
+      if (defaultArgumentListTextRangesOffset != ABSENT) {
+        defaultArgumentListTextRanges =
+            new JsonText(text, defaultArgumentListTextRangesOffset).nextIntArray();
+      }
+      if (elementOffset != ABSENT) {
+        // the element is decoded by its generated decoder, which needs a reader
+        StringReader reader = new StringReader(text);
+        reader.skip(elementOffset);
+        element = Element.fromJson(new JsonReader(reader));
+      }
+      if (parameterNamesOffset != ABSENT) {
+        parameterNames = new JsonText(text, parameterNamesOffset).nextStringList();
+      }
+      if (parameterTypesOffset != ABSENT) {
+        parameterTypes = new JsonText(text, parameterTypesOffset).nextStringList();
+      }
+    } catch (IOException exception) {
+      // the values were skipped as well-formed JSON, so they are only rejected for their shape
+      throw new IllegalStateException("Malformed completion suggestion", exception);
+    }
+    text = null;
+  }
+
+  /**
+   * Return the suggestion of the JSON object at which the given text is positioned.
+   */
+  private static LazyCompletionSuggestion read(JsonText json) throws MalformedJsonException {
+    String kind = null;
+    int relevance = 0;
+    String completion = null;
+    String displayText = null;
+    int selectionOffset = 0;
+    int selectionLength = 0;
+    boolean isDeprecated = false;
+    boolean isPotential = false;
+    String declaringType = null;
+    String defaultArgumentListString = null;
+    String returnType = null;
+    Integer requiredParameterCount = null;
+    Boolean hasNamedParameters = null;
+    String parameterName = null;
+    String parameterType = null;
+    int[] offsets = {ABSENT, ABSENT, ABSENT, ABSENT, ABSENT, ABSENT};
+    json.beginObject();
+    while (json.hasNext()) {
+      String fieldName = json.nextName(FIELD_NAMES);
+      if (json.skipNull()) {
+        continue;
+      }
+      if (fieldName.equals("kind")) {
+        kind = json.nextString(KINDS);
+      } else if (fieldName.equals("relevance")) {
+        relevance = json.nextInt();
+      } else if (fieldName.equals("completion")) {
+        completion = json.nextString();
+      } else if (fieldName.equals("displayText")) {
+        displayText = json.nextString();
+      } else if (fieldName.equals("selectionOffset")) {
+        selectionOffset = json.nextInt();
+      } else if (fieldName.equals("selectionLength")) {
+        selectionLength = json.nextInt();
+      } else if (fieldName.equals("isDeprecated")) {
+        isDeprecated = json.nextBoolean();
+      } else if (fieldName.equals("isPotential")) {
+        isPotential = json.nextBoolean();
+      } else if (fieldName.equals("docSummary")) {
+        offsets[0] = json.skipValue();
+      } else if (fieldName.equals("docComplete")) {
+        offsets[1] = json.skipValue();
+      } else if (fieldName.equals("declaringType")) {
+        declaringType = json.nextString();
+      } else if (fieldName.equals("defaultArgumentListString")) {
+        defaultArgumentListString = json.nextString();
+      } else if (fieldName.equals("defaultArgumentListTextRanges")) {
+        offsets[2] = json.skipValue();
+      } else if (fieldName.equals("element")) {
+        offsets[3] = json.skipValue();
+      } else if (fieldName.equals("returnType")) {
+        returnType = json.nextString();
+      } else if (fieldName.equals("parameterNames")) {
+        offsets[4] = json.skipValue();
+      } else if (fieldName.equals("parameterTypes")) {
+        offsets[5] = json.skipValue();
+      } else if (fieldName.equals("requiredParameterCount")) {
+        requiredParameterCount = json.nextInt();
+      } else if (fieldName.equals("hasNamedParameters")) {
+        hasNamedParameters = json.nextBoolean();
+      } else if (fieldName.equals("parameterName")) {
+        parameterName = json.nextString();
+      } else if (fieldName.equals("parameterType")) {
+        parameterType = json.nextString();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    return new LazyCompletionSuggestion(
+        kind,
+        relevance,
+        completion,
+        displayText,
+        selectionOffset,
+        selectionLength,
+        isDeprecated,
+        isPotential,
+        declaringType,
+        defaultArgumentListString,
+        returnType,
+        requiredParameterCount,
+        hasNamedParameters,
+        parameterName,
+        parameterType,
+        json.text,
+        offsets);
+  }
+
+  /**
+   * A cursor over JSON text that reads the values it needs and skips the others without allocating,
+   * returning their offsets. Only the syntax used by the protocol is accepted: the values of the
+   * fields read as ints must be integers.
+   */
+  private static class JsonText {
+    final String text;
+    int pos;
+
+    JsonText(String text, int pos) {
+      this.text = text;
+      this.pos = pos;
+    }
+
+    void beginArray() throws MalformedJsonException {
+      expect('[');
+    }
+
+    void beginObject() throws MalformedJsonException {
+      expect('{');
+    }
+
+    void endArray() throws MalformedJsonException {
+      expect(']');
+    }
+
+    void endObject() throws MalformedJsonException {
+      expect('}');
+    }
+
+    /**
+     * Move to the value of the field with the given name of the object at which the text is
+     * positioned, and return {@code true}, or move past the object and return {@code false} if it
+     * has no such field.
+     */
+    boolean findField(String name) throws MalformedJsonException {
+      beginObject();
+      while (hasNext()) {
+        if (nextName().equals(name)) {
+          skipWhitespace();
+          return true;
+        }
+        skipValue();
+      }
+      endObject();
+      return false;
+    }
+
+    /**
+     * Return {@code true} if the array or object at which the text is positioned has another
+     * element, moving past the comma that precedes it.
+     */
+    boolean hasNext() throws MalformedJsonException {
+      char c = peek();
+      if (c == ']' || c == '}') {
+        return false;
+      }
+      if (c == ',') {
+        pos++;
+      }
+      return true;
+    }
+
+    boolean nextBoolean() throws MalformedJsonException {
+      skipWhitespace();
+      if (text.startsWith("true", pos)) {
+        pos += 4;
+        return true;
+      }
+      if (text.startsWith("false", pos)) {
+        pos += 5;
+        return false;
+      }
+      throw syntaxError("Expected a boolean");
+    }
+
+    int nextInt() throws MalformedJsonException {
+      skipWhitespace();
+      boolean isNegative = text.startsWith("-", pos);
+      if (isNegative) {
+        pos++;
+      }
+      int start = pos;
+      long value = 0;
+      while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+        value = value * 10 + (text.charAt(pos++) - '0');
+        if (value > Integer.MAX_VALUE + 1L) {
+          throw syntaxError("Expected an int");
+        }
+      }
+      if (pos == start || (!isNegative && value > Integer.MAX_VALUE)) {
+        throw syntaxError("Expected an int");
+      }
+      return (int) (isNegative ? -value : value);
+    }
+
+    /**
+     * Return the int array at which the text is positioned.
+     */
+    int[] nextIntArray() throws MalformedJsonException {
+      int[] values = new int[8];
+      int count = 0;
+      beginArray();
+      while (hasNext()) {
+        if (count == values.length) {
+          values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = nextInt();
+      }
+      endArray();
+      return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    String nextName() throws MalformedJsonException {
+      return nextName(null);
+    }
+
+    /**
+     * Return the name of the field at which the text is positioned, which is the element of the
+     * given array that is equal to it, if any, and move to the value of the field.
+     */
+    String nextName(String[] names) throws MalformedJsonException {
+      String name = nextString(names);
+      expect(':');
+      skipWhitespace();
+      return name;
+    }
+
+    String nextString() throws MalformedJsonException {
+      return nextString(null);
+    }
+
+    /**
+     * Return the string at which the text is positioned, which is the element of the given array,
+     * if it is not {@code null}, that is equal to it, if any.
+     */
+    String nextString(String[] values) throws MalformedJsonException {
+      expect('"');
+      int start = pos;
+      while (pos < text.length()) {
+        char c = text.charAt(pos);
+        if (c == '"') {
+          int length = pos++ - start;
+          if (values != null) {
+            for (String value : values) {
+              if (value.length() == length && text.startsWith(value, start)) {
+                return value;
+              }
+            }
+          }
+          return text.substring(start, start + length);
+        }
+        if (c == '\\') {
+          return nextEscapedString(start);
+        }
+        pos++;
+      }
+      throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * Return the list of strings at which the text is positioned.
+     */
+    List<String> nextStringList() throws MalformedJsonException {
+      List<String> list = new ArrayList<String>();
+      beginArray();
+      while (hasNext()) {
+        list.add(nextString());
+      }
+      endArray();
+      return list;
+    }
+
+    /**
+     * Move past the null at which the text is positioned and return {@code true}, or return
+     * {@code false} if it is not positioned at a null.
+     */
+    boolean skipNull() {
+      skipWhitespace();
+      if (text.startsWith("null", pos)) {
+        pos += 4;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Move past the value at which the text is positioned, and return its offset.
+     */
+    int skipValue() throws MalformedJsonException {
+      int start = pos;
+      int depth = 0;
+      do {
+        char c = peek();
+        if (c == '[' || c == '{') {
+          depth++;
+          pos++;
+        } else if (c == ']' || c == '}') {
+          depth--;
+          pos++;
+        } else if (c == ',' || c == ':') {
+          pos++;
+        } else if (c == '"') {
+          skipString();
+        } else {
+          skipLiteral();
+        }
+      } while (depth > 0);
+      if (depth < 0) {
+        throw syntaxError("Unexpected end of value");
+      }
+      return start;
+    }
+
+    private void expect(char expected) throws MalformedJsonException {
+      if (peek() != expected) {
+        throw syntaxError("Expected '" + expected + "'");
+      }
+      pos++;
+    }
+
+    /**
+     * Return the string whose characters after the opening quote start at the given offset, and
+     * which has an escape sequence at the current position.
+     */
+    private String nextEscapedString(int start) throws MalformedJsonException {
+      StringBuilder builder = new StringBuilder();
+      builder.append(text, start, pos);
+      while (pos < text.length()) {
+        char c = text.charAt(pos++);
+        if (c == '"') {
+          return builder.toString();
+        }
+        if (c != '\\') {
+          builder.append(c);
+          continue;
+        }
+        if (pos >= text.length()) {
+          break;
+        }
+        char escaped = text.charAt(pos++);
+        switch (escaped) {
+          case 'b':
+            builder.append('\b');
+            break;
+          case 'f':
+            builder.append('\f');
+            break;
+          case 'n':
+            builder.append('\n');
+            break;
+          case 'r':
+            builder.append('\r');
+            break;
+          case 't':
+            builder.append('\t');
+            break;
+          case 'u':
+            if (pos + 4 > text.length()) {
+              throw syntaxError("Unterminated escape sequence");
+            }
+            try {
+              builder.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+            } catch (NumberFormatException exception) {
+              throw syntaxError("Malformed escape sequence");
+            }
+            pos += 4;
+            break;
+          default:
+            builder.append(escaped);
+        }
+      }
+      throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * Return the next character that is not whitespace, without moving past it.
+     */
+    private char peek() throws MalformedJsonException {
+      skipWhitespace();
+      if (pos >= text.length()) {
+        throw syntaxError("Unexpected end of text");
+      }
+      return text.charAt(pos);
+    }
+
+    private void skipLiteral() throws MalformedJsonException {
+      int start = pos;
+      while (pos < text.length()) {
+        char c = text.charAt(pos);
+        if (c == ',' || c == ']' || c == '}' || c == ':' || c == '"' || c <= ' ') {
+          break;
+        }
+        pos++;
+      }
+      if (pos == start) {
+        throw syntaxError("Expected a value");
+      }
+    }
+
+    private void skipString() throws MalformedJsonException {
+      int start = pos + 1;
+      int quote = start;
+      while (true) {
+        quote = text.indexOf('"', quote);
+        if (quote < 0) {
+          throw syntaxError("Unterminated string");
+        }
+        // the quote ends the string unless it is preceded by an odd number of backslashes
+        int backslash = quote;
+        while (backslash > start && text.charAt(backslash - 1) == '\\') {
+          backslash--;
+        }
+        if ((quote - backslash) % 2 == 0) {
+          pos = quote + 1;
+          return;
+        }
+        quote++;
+      }
+    }
+
+    private void skipWhitespace() {
+      while (pos < text.length() && text.charAt(pos) <= ' ') {
+        pos++;
+      }
+    }
+
+    private MalformedJsonException syntaxError(String message) {
+      return new MalformedJsonException(message + " at offset " + pos);
+    }
+  }
+
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code NavigationColumns} is a compact, columnar form of the parameters of an
+ * {@code analysis.navigation} notification. The regions and targets are stored in parallel
+ * primitive arrays, with the targets of all regions in one shared table, so that retaining the
+ * navigation information for many files does not require an object per region and per target.
+ *
+ * {@link NavigationRegion} and {@link NavigationTarget} objects are created on demand by
+ * {@link #getRegion(int)} and {@link #getTarget(int)}.
+ *
+ * @coverage dart.server.client
+ */
+public class NavigationColumns {
+
+  private static final int[] EMPTY_ARRAY = new int[0];
+
+  /**
+   * The file containing the navigation regions.
+   */
+  private String file;
+
+  /**
+   * The offsets of the regions.
+   */
+  private int[] regionOffsets = EMPTY_ARRAY;
+
+  /**
+   * The lengths of the regions.
+   */
+  private int[] regionLengths = EMPTY_ARRAY;
+
+  /**
+   * The position in {@link #regionTargets} of the first target of each region, followed by the
+   * total number of region targets, so that the targets of the region {@code i} are in the range
+   * {@code [regionTargetStarts[i], regionTargetStarts[i + 1])}.
+   */
+  private int[] regionTargetStarts = new int[1];
+
+  /**
+   * The indices into the target table of the targets of all of the regions.
+   */
+  private int[] regionTargets = EMPTY_ARRAY;
+
+  /**
+   * The kinds of the targets. Equal kinds share the same {@link String} instance.
+   */
+  private String[] targetKinds = new String[0];
+
+  /**
+   * The indices into {@link #files} of the files containing the targets.
+   */
+  private int[] targetFileIndices = EMPTY_ARRAY;
+
+  /**
+   * The offsets of the targets.
+   */
+  private int[] targetOffsets = EMPTY_ARRAY;
+
+  /**
+   * The lengths of the targets.
+   */
+  private int[] targetLengths = EMPTY_ARRAY;
+
+  /**
+   * The one-based line numbers of the starts of the targets.
+   */
+  private int[] targetStartLines = EMPTY_ARRAY;
+
+  /**
+   * The one-based column numbers of the starts of the targets.
+   */
+  private int[] targetStartColumns = EMPTY_ARRAY;
+
+  /**
+   * The files containing the targets.
+   */
+  private String[] files = new String[0];
+
+  /**
+   * The index over the regions, created when it is first requested.
+   */
+  private RegionIndex regionIndex;
+
+  private NavigationColumns() {
+  }
+
+  /**
+   * Return the navigation information read from the given reader, which is positioned at the
+   * parameters of an {@code analysis.navigation} notification or at the result of an
+   * {@code analysis.getNavigation} request. No intermediate region or target objects are created.
+   */
+  public static NavigationColumns fromJson(JsonReader reader) throws IOException {
+    NavigationColumns columns = new NavigationColumns();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("file")) {
+        columns.file = reader.nextString();
+      } else if (fieldName.equals("regions")) {
+        columns.readRegions(reader);
+      } else if (fieldName.equals("targets")) {
+        columns.readTargets(reader);
+      } else if (fieldName.equals("files")) {
+        List<String> files = new ArrayList<String>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          files.add(reader.nextString());
+        }
+        reader.endArray();
+        columns.files = files.toArray(new String[files.size()]);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return columns;
+  }
+
+  /**
+   * Return the columnar form of the given navigation information, which has already been decoded.
+   */
+  public static NavigationColumns fromLists(String file, List<NavigationRegion> regions,
+      List<NavigationTarget> targets, List<String> files) {
+    NavigationColumns columns = new NavigationColumns();
+    columns.file = file;
+    int regionCount = regions.size();
+    IntArrayBuilder regionTargets = new IntArrayBuilder();
+    columns.regionOffsets = new int[regionCount];
+    columns.regionLengths = new int[regionCount];
+    columns.regionTargetStarts = new int[regionCount + 1];
+    for (int i = 0; i < regionCount; i++) {
+      NavigationRegion region = regions.get(i);
+      columns.regionOffsets[i] = region.getOffset();
+      columns.regionLengths[i] = region.getLength();
+      columns.regionTargetStarts[i] = regionTargets.size;
+      for (int target : region.getTargets()) {
+        regionTargets.add(target);
+      }
+    }
+    columns.regionTargetStarts[regionCount] = regionTargets.size;
+    columns.regionTargets = regionTargets.toArray();
+    int targetCount = targets.size();
+    columns.allocateTargets(targetCount);
+    for (int i = 0; i < targetCount; i++) {
+      NavigationTarget target = targets.get(i);
+      columns.targetKinds[i] = target.getKind().intern();
+      columns.targetFileIndices[i] = target.getFileIndex();
+      columns.targetOffsets[i] = target.getOffset();
+      columns.targetLengths[i] = target.getLength();
+      columns.targetStartLines[i] = target.getStartLine();
+      columns.targetStartColumns[i] = target.getStartColumn();
+    }
+    columns.files = files.toArray(new String[files.size()]);
+    return columns;
+  }
+
+  /**
+   * Return the file containing the navigation regions.
+   */
+  public String getFile() {
+    return file;
+  }
+
+  /**
+   * Return the files containing the targets.
+   */
+  public String[] getFiles() {
+    return files;
+  }
+
+  /**
+   * Return a newly created {@link NavigationRegion} for the region with the given index, with its
+   * target objects already looked up. Only the targets of this region are materialized.
+   */
+  public NavigationRegion getRegion(int index) {
+    int start = regionTargetStarts[index];
+    int end = regionTargetStarts[index + 1];
+    NavigationRegion region = new NavigationRegion(regionOffsets[index], regionLengths[index],
+        Arrays.copyOfRange(regionTargets, start, end));
+    region.lookupTargets(new AbstractList<NavigationTarget>() {
+      @Override
+      public NavigationTarget get(int targetIndex) {
+        return getTarget(targetIndex);
+      }
+
+      @Override
+      public int size() {
+        return targetKinds.length;
+      }
+    });
+    return region;
+  }
+
+  /**
+   * Return the number of regions.
+   */
+  public int getRegionCount() {
+    return regionOffsets.length;
+  }
+
+  /**
+   * Return an index over the regions, which is created when it is first requested, by any thread.
+   * The values returned by its queries are region indices that can be passed to
+   * {@link #getRegion(int)}.
+   */
+  public synchronized RegionIndex getRegionIndex() {
+    if (regionIndex == null) {
+      regionIndex = RegionIndex.fromArrays(regionOffsets, regionLengths);
+    }
+    return regionIndex;
+  }
+
+  /**
+   * Return the length of the region with the given index.
+   */
+  public int getRegionLength(int index) {
+    return regionLengths[index];
+  }
+
+  /**
+   * Return the offset of the region with the given index.
+   */
+  public int getRegionOffset(int index) {
+    return regionOffsets[index];
+  }
+
+  /**
+   * Return the indices of the targets of the region with the given index.
+   */
+  public int[] getRegionTargets(int index) {
+    return Arrays.copyOfRange(regionTargets, regionTargetStarts[index],
+        regionTargetStarts[index + 1]);
+  }
+
+  /**
+   * Return a newly created {@link NavigationTarget} for the target with the given index, with its
+   * file already looked up.
+   */
+  public NavigationTarget getTarget(int index) {
+    NavigationTarget target = new NavigationTarget(targetKinds[index], targetFileIndices[index],
+        targetOffsets[index], targetLengths[index], targetStartLines[index],
+        targetStartColumns[index]);
+    target.lookupFile(files);
+    return target;
+  }
+
+  /**
+   * Return the number of targets.
+   */
+  public int getTargetCount() {
+    return targetKinds.length;
+  }
+
+  /**
+   * Return the file containing the target with the given index.
+   */
+  public String getTargetFile(int index) {
+    return files[targetFileIndices[index]];
+  }
+
+  /**
+   * Return the offset of the target with the given index.
+   */
+  public int getTargetOffset(int index) {
+    return targetOffsets[index];
+  }
+
+  /**
+   * A growable array of {@code int} values.
+   */
+  private static class IntArrayBuilder {
+    int[] values = new int[16];
+    int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  private void allocateTargets(int count) {
+    targetKinds = new String[count];
+    targetFileIndices = new int[count];
+    targetOffsets = new int[count];
+    targetLengths = new int[count];
+    targetStartLines = new int[count];
+    targetStartColumns = new int[count];
+  }
+
+  private void readRegions(JsonReader reader) throws IOException {
+    IntArrayBuilder offsets = new IntArrayBuilder();
+    IntArrayBuilder lengths = new IntArrayBuilder();
+    IntArrayBuilder targetStarts = new IntArrayBuilder();
+    IntArrayBuilder targets = new IntArrayBuilder();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      int offset = 0;
+      int length = 0;
+      targetStarts.add(targets.size);
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String fieldName = reader.nextName();
+        if (fieldName.equals("offset")) {
+          offset = reader.nextInt();
+        } else if (fieldName.equals("length")) {
+          length = reader.nextInt();
+        } else if (fieldName.equals("targets")) {
+          reader.beginArray();
+          while (reader.hasNext()) {
+            targets.add(reader.nextInt());
+          }
+          reader.endArray();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+      offsets.add(offset);
+      lengths.add(length);
+    }
+    reader.endArray();
+    targetStarts.add(targets.size);
+    regionOffsets = offsets.toArray();
+    regionLengths = lengths.toArray();
+    regionTargetStarts = targetStarts.toArray();
+    regionTargets = targets.toArray();
+  }
+
+  private void readTargets(JsonReader reader) throws IOException {
+    List<String> kinds = new ArrayList<String>();
+    IntArrayBuilder fileIndices = new IntArrayBuilder();
+    IntArrayBuilder offsets = new IntArrayBuilder();
+    IntArrayBuilder lengths = new IntArrayBuilder();
+    IntArrayBuilder startLines = new IntArrayBuilder();
+    IntArrayBuilder startColumns = new IntArrayBuilder();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      String kind = null;
+      int fileIndex = 0;
+      int offset = 0;
+      int length = 0;
+      int startLine = 0;
+      int startColumn = 0;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String fieldName = reader.nextName();
+        if (fieldName.equals("kind")) {
+          kind = reader.nextString().intern();
+        } else if (fieldName.equals("fileIndex")) {
+          fileIndex = reader.nextInt();
+        } else if (fieldName.equals("offset")) {
+          offset = reader.nextInt();
+        } else if (fieldName.equals("length")) {
+          length = reader.nextInt();
+        } else if (fieldName.equals("startLine")) {
+          startLine = reader.nextInt();
+        } else if (fieldName.equals("startColumn")) {
+          startColumn = reader.nextInt();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+      kinds.add(kind);
+      fileIndices.add(fileIndex);
+      offsets.add(offset);
+      lengths.add(length);
+      startLines.add(startLine);
+      startColumns.add(startColumn);
+    }
+    reader.endArray();
+    targetKinds = kinds.toArray(new String[kinds.size()]);
+    targetFileIndices = fileIndices.toArray();
+    targetOffsets = offsets.toArray();
+    targetLengths = lengths.toArray();
+    targetStartLines = startLines.toArray();
+    targetStartColumns = startColumns.toArray();
+  }
+
+}
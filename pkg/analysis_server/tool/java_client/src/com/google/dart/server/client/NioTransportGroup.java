@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class {@code NioTransportGroup} multiplexes the connections to many servers over a small
+ * number of selector threads, using non-blocking socket channels, instead of using a thread with a
+ * blocking reader per connection. Each connection is served by one of the threads, which are
+ * assigned in turn.
+ *
+ * The messages received over a connection are delivered to its listener on the selector thread.
+ * The messages sent over a connection are queued and written by the selector thread when the
+ * channel can accept them, so {@link Transport#send(String)} does not block. The bytes queued on a
+ * connection are bounded, and a message that would exceed the bound is refused, so a server that
+ * stops reading cannot make the client run out of memory. The number of bytes queued is returned
+ * by {@link Transport#getPendingWriteBytes()}, so that callers can throttle before that. An
+ * exception thrown by a listener, or while serving a connection, closes only that connection, and
+ * the selector thread goes on serving the other connections.
+ *
+ * @coverage dart.server.client
+ */
+public class NioTransportGroup {
+
+  /**
+   * The size of the buffer used to read from each connection.
+   */
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The initial size of the buffer in which each connection assembles the message being received.
+   * The buffer grows to hold a larger message, and is replaced by one of this size once a message
+   * larger than {@link #READ_BUFFER_SIZE} has been delivered, so that a single large message does
+   * not pin its size for the life of the connection.
+   */
+  private static final int INITIAL_MESSAGE_SIZE = 1024;
+
+  /**
+   * The number of bytes that can be queued on a connection, unless another number is given.
+   */
+  private static final long DEFAULT_MAX_PENDING_WRITE_BYTES = 64 * 1024 * 1024;
+
+  /**
+   * The selector threads.
+   */
+  private final SelectorThread[] threads;
+
+  /**
+   * The index of the thread to which the next connection is assigned.
+   */
+  private final AtomicInteger nextThread = new AtomicInteger();
+
+  /**
+   * The number of bytes of the messages that can be queued on a connection.
+   */
+  private final long maxPendingWriteBytes;
+
+  /**
+   * Initialize a newly created group with the given number of selector threads.
+   */
+  public NioTransportGroup(int threadCount) throws IOException {
+    this(threadCount, DEFAULT_MAX_PENDING_WRITE_BYTES);
+  }
+
+  /**
+   * Initialize a newly created group with the given number of selector threads, whose connections
+   * each queue at most the given number of bytes of messages that have not been written. A message
+   * sent while nothing is queued is accepted whatever its size.
+   */
+  public NioTransportGroup(int threadCount, long maxPendingWriteBytes) throws IOException {
+    this.maxPendingWriteBytes = maxPendingWriteBytes;
+    threads = new SelectorThread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      threads[i] = new SelectorThread("Analysis server transport " + i);
+    }
+  }
+
+  /**
+   * Close all of the connections and stop the selector threads.
+   */
+  public void close() {
+    for (SelectorThread thread : threads) {
+      thread.close();
+    }
+  }
+
+  /**
+   * Open a connection to the server at the given address, whose messages are delivered to the
+   * given listener. The connection is established asynchronously, and messages sent before it is
+   * established are queued.
+   */
+  public Transport connect(SocketAddress address, Transport.Listener listener) throws IOException {
+    return connect(SocketChannel.open(), address, listener);
+  }
+
+  /**
+   * Open a connection to the server listening on the Unix domain socket at the given path, whose
+   * messages are delivered to the given listener. A server on the same machine is reached without
+   * going through the TCP loopback stack.
+   *
+   * @throws UnsupportedOperationException if the runtime does not support Unix domain sockets,
+   *           which were added in Java 16
+   */
+  public Transport connectUnixDomain(Path path, Transport.Listener listener) throws IOException {
+    SocketAddress address;
+    SocketChannel channel;
+    try {
+      // the classes are looked up reflectively so that this class runs on older runtimes
+      Class<?> addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+      address = (SocketAddress) addressClass.getMethod("of", Path.class).invoke(null, path);
+      ProtocolFamily family = StandardProtocolFamily.valueOf("UNIX");
+      Method open = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+      channel = (SocketChannel) open.invoke(null, family);
+    } catch (InvocationTargetException exception) {
+      if (exception.getCause() instanceof IOException) {
+        throw (IOException) exception.getCause();
+      }
+      throw new UnsupportedOperationException("Unix domain sockets are not supported", exception);
+    } catch (ReflectiveOperationException | IllegalArgumentException exception) {
+      throw new UnsupportedOperationException("Unix domain sockets are not supported", exception);
+    }
+    return connect(channel, address, listener);
+  }
+
+  /**
+   * Return a transport over the given channel, which is connected or has a connection pending, and
+   * whose messages are delivered to the given listener.
+   */
+  public Transport register(SocketChannel channel, Transport.Listener listener) throws IOException {
+    channel.configureBlocking(false);
+    SelectorThread thread = threads[Math.floorMod(nextThread.getAndIncrement(), threads.length)];
+    Connection connection = new Connection(thread, channel, listener, maxPendingWriteBytes);
+    thread.execute(() -> {
+      connection.register();
+    });
+    return connection;
+  }
+
+  /**
+   * A connection served by a selector thread.
+   */
+  private static class Connection implements Transport {
+    private final SelectorThread thread;
+    private final SocketChannel channel;
+    private final Transport.Listener listener;
+    private final long maxPendingWriteBytes;
+
+    /**
+     * The encoded messages that have not yet been written, accessed only on the selector thread.
+     */
+    private final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<ByteBuffer>();
+
+    /**
+     * The number of bytes of the messages that have been sent but not yet written, which are
+     * counted before they are handed to the selector thread.
+     */
+    private final AtomicLong pendingWriteBytes = new AtomicLong();
+
+    /**
+     * The bytes of the message being received.
+     */
+    private byte[] message = new byte[INITIAL_MESSAGE_SIZE];
+    private int messageLength;
+
+    private SelectionKey key;
+    private volatile boolean open = true;
+
+    Connection(SelectorThread thread, SocketChannel channel, Transport.Listener listener,
+        long maxPendingWriteBytes) {
+      this.thread = thread;
+      this.channel = channel;
+      this.listener = listener;
+      this.maxPendingWriteBytes = maxPendingWriteBytes;
+    }
+
+    @Override
+    public void close() {
+      execute(() -> {
+        closeNow(null);
+      });
+    }
+
+    @Override
+    public long getPendingWriteBytes() {
+      return pendingWriteBytes.get();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
+      }
+      byte[] bytes = (message + '\n').getBytes(StandardCharsets.UTF_8);
+      long pending = pendingWriteBytes.addAndGet(bytes.length);
+      if (pending > maxPendingWriteBytes && pending > bytes.length) {
+        pendingWriteBytes.addAndGet(-bytes.length);
+        throw new IOException("The message was refused because " + (pending - bytes.length)
+            + " bytes are waiting to be written");
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      execute(() -> {
+        if (open) {
+          pendingWrites.add(buffer);
+          updateInterest();
+        }
+      });
+    }
+
+    void closeNow(IOException exception) {
+      if (!open) {
+        return;
+      }
+      open = false;
+      pendingWrites.clear();
+      if (key != null) {
+        key.cancel();
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // ignored, the connection is closed anyway
+      }
+      try {
+        listener.closed(exception);
+      } catch (RuntimeException e) {
+        // the connection is closed anyway, so the exception is only reported
+        Thread current = Thread.currentThread();
+        current.getUncaughtExceptionHandler().uncaughtException(current, e);
+      }
+    }
+
+    void handle() {
+      try {
+        if (key.isConnectable()) {
+          channel.finishConnect();
+        }
+        if (key.isReadable()) {
+          read();
+        }
+        if (open && key.isWritable()) {
+          write();
+        }
+        if (open) {
+          updateInterest();
+        }
+      } catch (IOException exception) {
+        closeNow(exception);
+      } catch (RuntimeException exception) {
+        fail(exception);
+      }
+    }
+
+    void register() {
+      if (!open) {
+        return;
+      }
+      try {
+        key = channel.register(thread.selector, 0, this);
+        updateInterest();
+      } catch (IOException exception) {
+        closeNow(exception);
+      } catch (RuntimeException exception) {
+        fail(exception);
+      }
+    }
+
+    /**
+     * Run the given task on the selector thread, closing the connection if the task throws.
+     */
+    private void execute(Runnable task) {
+      thread.execute(() -> {
+        try {
+          task.run();
+        } catch (RuntimeException exception) {
+          fail(exception);
+        }
+      });
+    }
+
+    /**
+     * Close the connection because of the given exception, which was thrown by the listener or
+     * while serving the connection.
+     */
+    private void fail(RuntimeException exception) {
+      closeNow(new IOException("The connection failed", exception));
+    }
+
+    private void read() throws IOException {
+      ByteBuffer buffer = thread.readBuffer;
+      buffer.clear();
+      int count = channel.read(buffer);
+      if (count < 0) {
+        closeNow(null);
+        return;
+      }
+      byte[] bytes = buffer.array();
+      int start = 0;
+      for (int i = 0; i < count; i++) {
+        // a newline byte cannot be part of a multi-byte character in UTF-8
+        if (bytes[i] == '\n') {
+          appendToMessage(bytes, start, i);
+          listener.messageReceived(new String(message, 0, messageLength, StandardCharsets.UTF_8));
+          messageLength = 0;
+          if (message.length > READ_BUFFER_SIZE) {
+            message = new byte[INITIAL_MESSAGE_SIZE];
+          }
+          start = i + 1;
+        }
+      }
+      appendToMessage(bytes, start, count);
+    }
+
+    private void appendToMessage(byte[] bytes, int start, int end) {
+      int length = end - start;
+      if (messageLength + length > message.length) {
+        message = Arrays.copyOf(message, Math.max(message.length * 2, messageLength + length));
+      }
+      System.arraycopy(bytes, start, message, messageLength, length);
+      messageLength += length;
+    }
+
+    private void updateInterest() {
+      if (key == null || !key.isValid()) {
+        return;
+      }
+      int interest;
+      if (channel.isConnectionPending()) {
+        interest = SelectionKey.OP_CONNECT;
+      } else {
+        interest = SelectionKey.OP_READ;
+        if (!pendingWrites.isEmpty()) {
+          interest |= SelectionKey.OP_WRITE;
+        }
+      }
+      key.interestOps(interest);
+    }
+
+    private void write() throws IOException {
+      while (!pendingWrites.isEmpty()) {
+        ByteBuffer buffer = pendingWrites.peek();
+        channel.write(buffer);
+        if (buffer.hasRemaining()) {
+          // the channel is full, wait until it can accept more
+          return;
+        }
+        pendingWrites.poll();
+        pendingWriteBytes.addAndGet(-buffer.capacity());
+      }
+    }
+  }
+
+  /**
+   * A thread that serves the connections registered with its selector.
+   */
+  private static class SelectorThread implements Runnable {
+    final Selector selector;
+    final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    SelectorThread(String name) throws IOException {
+      selector = Selector.open();
+      thread = new Thread(this, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        try {
+          selector.select();
+        } catch (IOException exception) {
+          break;
+        }
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+          task.run();
+        }
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          SelectionKey key = iterator.next();
+          iterator.remove();
+          if (key.isValid()) {
+            ((Connection) key.attachment()).handle();
+          }
+        }
+      }
+      for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys())) {
+        ((Connection) key.attachment()).closeNow(null);
+      }
+      try {
+        selector.close();
+      } catch (IOException exception) {
+        // ignored, the thread is stopping
+      }
+    }
+
+    void close() {
+      running = false;
+      selector.wakeup();
+    }
+
+    /**
+     * Run the given task on this thread.
+     */
+    void execute(Runnable task) {
+      if (Thread.currentThread() == thread) {
+        task.run();
+      } else {
+        tasks.add(task);
+        selector.wakeup();
+      }
+    }
+  }
+
+  /**
+   * Connect the given channel to the given address, and return a transport over it.
+   */
+  private Transport connect(SocketChannel channel, SocketAddress address,
+      Transport.Listener listener) throws IOException {
+    try {
+      channel.configureBlocking(false);
+      channel.connect(address);
+    } catch (IOException exception) {
+      channel.close();
+      throw exception;
+    }
+    return register(channel, listener);
+  }
+
+}
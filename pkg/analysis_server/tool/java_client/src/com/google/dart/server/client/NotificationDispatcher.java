@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import com.google.dart.server.client.NotificationQueue.Notification;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * The class {@code NotificationDispatcher} runs the decoding and delivery of notifications on an
+ * executor instead of the thread that reads them, so that a slow listener does not stall the
+ * reading of the connection. The tasks for the same file are run one at a time in the order in
+ * which they were dispatched, while the tasks for different files can run in parallel, so that a
+ * slow consumer of the outlines of one file does not delay the errors of other files. Tasks for
+ * notifications that are not about a single file are run in order with each other. An
+ * {@code analysis.flushResults} notification is delivered once for each of its files, as a
+ * notification about that file alone, so that it stays in order with the results it flushes.
+ *
+ * A file whose tasks keep arriving yields its thread after {@link #MAX_TASKS_PER_TURN} tasks, so
+ * that it cannot monopolize a thread of a small pool. The executor can use virtual threads, see
+ * {@link #newVirtualThreadExecutor()}.
+ *
+ * @coverage dart.server.client
+ */
+public class NotificationDispatcher {
+
+  /**
+   * The maximum number of tasks for a file that are run before the thread is yielded.
+   */
+  private static final int MAX_TASKS_PER_TURN = 64;
+
+  /**
+   * The event of the notifications that flush the results of several files.
+   */
+  private static final String FLUSH_RESULTS = "analysis.flushResults";
+
+  /**
+   * The key of the tasks for notifications that are not about a single file.
+   */
+  private static final String NO_FILE_KEY = "";
+
+  /**
+   * The executor used to run the tasks.
+   */
+  private final Executor executor;
+
+  /**
+   * The tasks that have not yet been run for each file whose tasks are scheduled. A file is in the
+   * map if and only if a drain of its tasks has been submitted to the executor.
+   */
+  private final Map<String, ArrayDeque<Runnable>> pendingTasks =
+      new HashMap<String, ArrayDeque<Runnable>>();
+
+  /**
+   * Initialize a newly created dispatcher to run the tasks using the given executor.
+   */
+  public NotificationDispatcher(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Dispatch the given notification to the given handler, which decodes it and delivers it to the
+   * listeners, in order with the other notifications about the same file.
+   */
+  public void dispatch(Notification notification, Consumer<Notification> handler) {
+    if (FLUSH_RESULTS.equals(notification.getEvent())) {
+      for (JsonElement flushedFile : notification.getParams().get("files").getAsJsonArray()) {
+        JsonArray files = new JsonArray();
+        files.add(flushedFile);
+        JsonObject params = new JsonObject();
+        params.add("files", files);
+        Notification fileNotification = new Notification(FLUSH_RESULTS, params);
+        execute(flushedFile.getAsString(), () -> {
+          handler.accept(fileNotification);
+        });
+      }
+      return;
+    }
+    JsonElement file = notification.getParams().get("file");
+    execute(file != null && file.isJsonPrimitive() ? file.getAsString() : null, () -> {
+      handler.accept(notification);
+    });
+  }
+
+  /**
+   * Run the given task after the tasks previously dispatched for the given file, which is
+   * {@code null} if the task is not about a single file.
+   */
+  public void execute(String file, Runnable task) {
+    String key = file != null ? file : NO_FILE_KEY;
+    synchronized (pendingTasks) {
+      ArrayDeque<Runnable> tasks = pendingTasks.get(key);
+      if (tasks != null) {
+        tasks.add(task);
+        return;
+      }
+      tasks = new ArrayDeque<Runnable>();
+      tasks.add(task);
+      pendingTasks.put(key, tasks);
+    }
+    submitDrain(key);
+  }
+
+  /**
+   * Return an executor that runs each task on a new virtual thread.
+   *
+   * @throws UnsupportedOperationException if the runtime does not support virtual threads
+   */
+  public static ExecutorService newVirtualThreadExecutor() {
+    try {
+      // virtual threads were added in Java 21, so the method is looked up reflectively
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) method.invoke(null);
+    } catch (ReflectiveOperationException exception) {
+      throw new UnsupportedOperationException("Virtual threads are not supported", exception);
+    }
+  }
+
+  /**
+   * Run the pending tasks for the given key, submitting another drain if there are still tasks
+   * after {@link #MAX_TASKS_PER_TURN} of them.
+   */
+  private void drain(String key) {
+    for (int i = 0; i < MAX_TASKS_PER_TURN; i++) {
+      Runnable task;
+      synchronized (pendingTasks) {
+        task = pendingTasks.get(key).poll();
+        if (task == null) {
+          pendingTasks.remove(key);
+          return;
+        }
+      }
+      boolean isFinished = false;
+      try {
+        task.run();
+        isFinished = true;
+      } catch (RuntimeException exception) {
+        isFinished = true;
+        // a failing listener must not stop the delivery of later notifications
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+      } finally {
+        if (!isFinished) {
+          // an error ends this drain, so another one runs the remaining tasks for the key
+          resubmitDrain(key);
+        }
+      }
+    }
+    submitDrain(key);
+  }
+
+  /**
+   * Submit to the executor a drain of the pending tasks for the given key after a task has thrown
+   * an error, without replacing the error if the executor rejects the drain.
+   */
+  private void resubmitDrain(String key) {
+    try {
+      submitDrain(key);
+    } catch (RuntimeException exception) {
+      // the key has been removed, so later tasks for it start a new drain
+    }
+  }
+
+  /**
+   * Submit to the executor a drain of the pending tasks for the given key.
+   */
+  private void submitDrain(String key) {
+    try {
+      executor.execute(() -> {
+        drain(key);
+      });
+    } catch (RuntimeException exception) {
+      synchronized (pendingTasks) {
+        pendingTasks.remove(key);
+      }
+      throw exception;
+    }
+  }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The class {@code NotificationQueue} is a queue of notifications between the thread that reads
+ * them from the server and the threads that decode them and deliver them to listeners. The
+ * notifications are delivered in the order in which they were received.
+ *
+ * Notifications that carry the complete current results for a file, such as
+ * {@code analysis.outline}, are coalesced: a notification replaces the undelivered notification
+ * with the same key, made of the event and the file of the notifications, which is counted as
+ * dropped, and moves to the end of the queue so that it is still delivered after the notifications
+ * that were received before it. There is at most one of them for each key, so a burst of them for
+ * one file neither grows the queue nor holds back the notifications for other files. The number
+ * of coalesced notifications in the queue is bounded, and a coalesced notification for a new key
+ * that would exceed that capacity is rejected: {@link #put(String, JsonObject)} returns
+ * {@code false} and counts it as an overflow. The results of that file are then missing until the
+ * server sends them again, which it does the next time it analyzes the file.
+ *
+ * The other notifications, such as {@code completion.results}, {@code search.results},
+ * {@code server.error} and {@code analysis.flushResults}, are never rejected, because each of them
+ * is the only report of what it carries and nothing would send it again. Most of them answer the
+ * requests of the client, which bounds their number. {@link #put(String, JsonObject)} never blocks,
+ * because it is called on the thread that also reads the responses, and a listener that waited for
+ * a response while that thread waited for room would deadlock the connection. The depth, the
+ * number of dropped notifications and the number of overflows of each key are exposed along with
+ * the totals.
+ *
+ * @coverage dart.server.client
+ */
+public class NotificationQueue {
+
+  /**
+   * The events of the notifications that carry the complete current results for a file.
+   */
+  private static final Set<String> COALESCED_EVENTS = new HashSet<String>(Arrays.asList(
+      "analysis.closingLabels",
+      "analysis.errors",
+      "analysis.folding",
+      "analysis.highlights",
+      "analysis.implemented",
+      "analysis.navigation",
+      "analysis.occurrences",
+      "analysis.outline",
+      "analysis.overrides",
+      "execution.launchData",
+      "flutter.outline"));
+
+  /**
+   * The maximum number of coalesced notifications in the queue.
+   */
+  private final int capacity;
+
+  /**
+   * The number of coalesced notifications in the queue.
+   */
+  private int coalescedCount;
+
+  /**
+   * The queued notifications, in the order in which they are to be delivered, keyed by their key
+   * if they are coalesced, or by a unique object otherwise.
+   */
+  private final LinkedHashMap<Object, Notification> notifications =
+      new LinkedHashMap<Object, Notification>();
+
+  /**
+   * The number of queued notifications for each key that has any.
+   */
+  private final Map<List<String>, Integer> depths = new HashMap<List<String>, Integer>();
+
+  /**
+   * The number of notifications that have been dropped for each event.
+   */
+  private final Map<String, Long> dropCounts = new HashMap<String, Long>();
+
+  /**
+   * The number of notifications that have been dropped for each key.
+   */
+  private final Map<List<String>, Long> keyDropCounts = new HashMap<List<String>, Long>();
+
+  /**
+   * The total number of notifications that have been dropped.
+   */
+  private long dropCount;
+
+  /**
+   * The number of notifications that have been rejected for each key.
+   */
+  private final Map<List<String>, Long> keyOverflowCounts = new HashMap<List<String>, Long>();
+
+  /**
+   * The total number of notifications that have been rejected.
+   */
+  private long overflowCount;
+
+  /**
+   * The largest number of notifications that have been in the queue at the same time.
+   */
+  private int maxDepth;
+
+  /**
+   * Initialize a newly created queue to hold at most {@code capacity} coalesced notifications, and
+   * any number of other notifications.
+   */
+  public NotificationQueue(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * A notification that has been read but not yet decoded.
+   */
+  public static class Notification {
+    private final String event;
+    private final JsonObject params;
+
+    Notification(String event, JsonObject params) {
+      this.event = event;
+      this.params = params;
+    }
+
+    /**
+     * Return the event of the notification, such as {@code analysis.outline}.
+     */
+    public String getEvent() {
+      return event;
+    }
+
+    /**
+     * Return the parameters of the notification.
+     */
+    public JsonObject getParams() {
+      return params;
+    }
+  }
+
+  /**
+   * Return the number of notifications in the queue.
+   */
+  public synchronized int getDepth() {
+    return notifications.size();
+  }
+
+  /**
+   * Return the number of notifications in the queue with the given event and file, which is
+   * {@code null} for the notifications that are not about a single file.
+   */
+  public synchronized int getDepth(String event, String file) {
+    Integer depth = depths.get(Arrays.asList(event, file));
+    return depth != null ? depth : 0;
+  }
+
+  /**
+   * Return the total number of notifications that have been replaced by newer ones before being
+   * delivered.
+   */
+  public synchronized long getDropCount() {
+    return dropCount;
+  }
+
+  /**
+   * Return the number of notifications with the given event that have been replaced by newer ones
+   * before being delivered.
+   */
+  public synchronized long getDropCount(String event) {
+    Long count = dropCounts.get(event);
+    return count != null ? count : 0;
+  }
+
+  /**
+   * Return the number of notifications with the given event and file that have been replaced by
+   * newer ones before being delivered.
+   */
+  public synchronized long getDropCount(String event, String file) {
+    Long count = keyDropCounts.get(Arrays.asList(event, file));
+    return count != null ? count : 0;
+  }
+
+  /**
+   * Return the largest number of notifications that have been in the queue at the same time.
+   */
+  public synchronized int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Return the total number of coalesced notifications that have been rejected because the queue
+   * was full.
+   */
+  public synchronized long getOverflowCount() {
+    return overflowCount;
+  }
+
+  /**
+   * Return the number of coalesced notifications with the given event and file that have been
+   * rejected because the queue was full.
+   */
+  public synchronized long getOverflowCount(String event, String file) {
+    Long count = keyOverflowCounts.get(Arrays.asList(event, file));
+    return count != null ? count : 0;
+  }
+
+  /**
+   * Remove and return the next notification, or return {@code null} if the queue is empty.
+   */
+  public synchronized Notification poll() {
+    if (notifications.isEmpty()) {
+      return null;
+    }
+    Iterator<Notification> iterator = notifications.values().iterator();
+    Notification notification = iterator.next();
+    iterator.remove();
+    if (COALESCED_EVENTS.contains(notification.event)) {
+      coalescedCount--;
+    }
+    List<String> key = getKey(notification.event, notification.params);
+    int depth = depths.get(key);
+    if (depth == 1) {
+      depths.remove(key);
+    } else {
+      depths.put(key, depth - 1);
+    }
+    return notification;
+  }
+
+  /**
+   * Add the notification with the given event and parameters to the queue, and return
+   * {@code true}, or return {@code false} without waiting if it is a coalesced notification that
+   * does not replace a queued one and the queue holds as many coalesced notifications as it can,
+   * in which case the notification is counted as an overflow.
+   */
+  public synchronized boolean put(String event, JsonObject params) {
+    Notification notification = new Notification(event, params);
+    List<String> key = getKey(event, params);
+    Object orderKey;
+    if (COALESCED_EVENTS.contains(event)) {
+      if (notifications.remove(key) != null) {
+        dropCount++;
+        Long count = dropCounts.get(event);
+        dropCounts.put(event, count != null ? count + 1 : 1);
+        Long keyCount = keyDropCounts.get(key);
+        keyDropCounts.put(key, keyCount != null ? keyCount + 1 : 1);
+        notifications.put(key, notification);
+        return true;
+      }
+      if (coalescedCount >= capacity) {
+        overflowCount++;
+        keyOverflowCounts.merge(key, 1L, Long::sum);
+        return false;
+      }
+      coalescedCount++;
+      orderKey = key;
+    } else {
+      orderKey = new Object();
+    }
+    notifications.put(orderKey, notification);
+    depths.merge(key, 1, Integer::sum);
+    maxDepth = Math.max(maxDepth, notifications.size());
+    notifyAll();
+    return true;
+  }
+
+  /**
+   * Remove and return the next notification, waiting for one if the queue is empty.
+   */
+  public synchronized Notification take() throws InterruptedException {
+    while (notifications.isEmpty()) {
+      wait();
+    }
+    return poll();
+  }
+
+  /**
+   * Return the key of the notification with the given event and parameters, which is made of its
+   * event and its file, or {@code null} if it is not about a single file.
+   */
+  private static List<String> getKey(String event, JsonObject params) {
+    JsonElement file = params.get("file");
+    return Arrays.asList(event, file != null && file.isJsonPrimitive() ? file.getAsString() : null);
+  }
+
+}
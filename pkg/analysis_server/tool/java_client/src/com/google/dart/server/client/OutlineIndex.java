@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The class {@code OutlineIndex} maps offsets in a file to the innermost {@link Outline} node that
+ * encloses them, so that queries such as breadcrumbs and the current symbol, which are performed
+ * whenever the caret moves, do not need to walk the outline tree.
+ *
+ * The nodes are flattened in pre-order when the index is built, without recursion, and the ranges
+ * of the nodes are indexed by a {@link RegionIndex}. As with {@link RegionIndex}, both ends of the
+ * range of a node are inclusive.
+ *
+ * @coverage dart.server.client
+ */
+public class OutlineIndex {
+
+  /**
+   * The nodes of the outline, in pre-order.
+   */
+  private final Outline[] outlines;
+
+  /**
+   * The index over the ranges of the nodes in {@link #outlines}.
+   */
+  private final RegionIndex regionIndex;
+
+  private OutlineIndex(Outline[] outlines, RegionIndex regionIndex) {
+    this.outlines = outlines;
+    this.regionIndex = regionIndex;
+  }
+
+  /**
+   * Return the innermost node that encloses the given offset, or {@code null} if there is no such
+   * node.
+   */
+  public Outline findInnermostAt(int offset) {
+    int index = regionIndex.findInnermostAt(offset);
+    return index != -1 ? outlines[index] : null;
+  }
+
+  /**
+   * Return the nodes that enclose the given offset, from the root of the outline to the innermost
+   * node, or an empty list if there are no such nodes.
+   */
+  public List<Outline> findPathAt(int offset) {
+    Outline outline = findInnermostAt(offset);
+    if (outline == null) {
+      return Collections.emptyList();
+    }
+    List<Outline> path = new ArrayList<Outline>();
+    while (outline != null) {
+      path.add(outline);
+      outline = outline.getParent();
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  /**
+   * Return an index over the given outline and all of its descendants.
+   */
+  public static OutlineIndex forOutline(Outline root) {
+    List<Outline> outlines = new ArrayList<Outline>();
+    // the nodes whose children are still to be visited, in reverse order of visiting
+    List<Outline> pending = new ArrayList<Outline>();
+    pending.add(root);
+    while (!pending.isEmpty()) {
+      Outline outline = pending.remove(pending.size() - 1);
+      outlines.add(outline);
+      List<Outline> children = outline.getChildren();
+      if (children != null) {
+        for (int i = children.size() - 1; i >= 0; i--) {
+          pending.add(children.get(i));
+        }
+      }
+    }
+    int count = outlines.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      Outline outline = outlines.get(i);
+      offsets[i] = outline.getOffset();
+      lengths[i] = outline.getLength();
+    }
+    return new OutlineIndex(outlines.toArray(new Outline[count]),
+        RegionIndex.fromArrays(offsets, lengths));
+  }
+
+  /**
+   * Return the number of nodes in this index.
+   */
+  public int getOutlineCount() {
+    return outlines.length;
+  }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The class {@code PendingRequests} matches the responses received from an analysis server with the
+ * requests that were sent to it, and expires the requests that are not answered within the
+ * deadline for their method, such as after a server crash, so that their consumers do not wait
+ * forever. An expired request is completed with a {@link AsyncAnalysisServer.RequestErrorException}
+ * whose {@link RequestError} has the code {@link RequestErrorCode#SERVER_ERROR}.
+ *
+ * The requests are kept in a concurrent map from their ids, and their deadlines in a hashed timing
+ * wheel whose buckets are lists that requests are pushed onto by compare-and-set, so adding,
+ * answering and expiring a request each take constant time without taking a lock. The wheel is
+ * advanced by a single periodic task to the tick of the time that has elapsed, so a tick that the
+ * task is late for is caught up on its next run rather than delaying the later deadlines. A
+ * deadline is rounded up to the next tick of the wheel. The futures returned by
+ * {@link #add(String, String)} are suitable as the results of
+ * {@link AsyncAnalysisServer.RequestSender#sendRequest}.
+ *
+ * @coverage dart.server.client
+ */
+public class PendingRequests {
+
+  /**
+   * The pending requests, keyed by their ids.
+   */
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+  /**
+   * The deadlines, in milliseconds, of the methods that have a deadline other than the default.
+   */
+  private final Map<String, Long> deadlines = new ConcurrentHashMap<String, Long>();
+
+  /**
+   * The deadline, in milliseconds, of the methods that have no deadline of their own.
+   */
+  private final long defaultDeadlineMillis;
+
+  /**
+   * The number of nanoseconds between ticks of the wheel.
+   */
+  private final long tickNanos;
+
+  /**
+   * The value of {@link System#nanoTime()} at tick zero of the wheel.
+   */
+  private final long startNanos;
+
+  /**
+   * The buckets of the wheel, each of which is the head of a list of requests linked by their
+   * {@code next} fields. The requests whose deadlines fall on a tick are in the bucket at the index
+   * of the tick modulo the number of buckets.
+   */
+  private final AtomicReferenceArray<Entry> wheel;
+
+  /**
+   * The number of ticks of the wheel that have been processed, which is only changed by the
+   * periodic task, before it processes the bucket of the tick.
+   */
+  private volatile long tick;
+
+  /**
+   * The id of the next request.
+   */
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  /**
+   * The number of requests that have expired.
+   */
+  private final AtomicLong expiredCount = new AtomicLong();
+
+  /**
+   * The periodic task that advances the wheel.
+   */
+  private final ScheduledFuture<?> ticker;
+
+  /**
+   * Initialize a newly created table whose wheel has the given number of buckets and advances
+   * every {@code tickMillis} milliseconds on the given scheduler. Requests expire after the given
+   * default deadline unless a deadline is set for their method.
+   */
+  public PendingRequests(ScheduledExecutorService scheduler, long tickMillis, int bucketCount,
+      long defaultDeadlineMillis) {
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    this.startNanos = System.nanoTime();
+    this.defaultDeadlineMillis = defaultDeadlineMillis;
+    this.wheel = new AtomicReferenceArray<Entry>(bucketCount);
+    this.ticker = scheduler.scheduleAtFixedRate(
+        this::advance,
+        tickMillis,
+        tickMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Add a request with the given id and method, and return a future that is completed with the
+   * result of the response, or exceptionally with the error of the response or when the request
+   * expires. If the returned future is cancelled the request is removed.
+   *
+   * @throws IllegalArgumentException if a request with the same id is already pending
+   */
+  public CompletableFuture<JsonObject> add(String id, String method) {
+    Long methodDeadline = deadlines.get(method);
+    long deadlineMillis = methodDeadline != null ? methodDeadline : defaultDeadlineMillis;
+    long deadlineNanos = System.nanoTime() - startNanos
+        + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+    Entry entry = new Entry(id, method, deadlineMillis, deadlineTick);
+    if (entries.putIfAbsent(id, entry) != null) {
+      throw new IllegalArgumentException("A request with the id " + id + " is already pending");
+    }
+    entry.future.whenComplete((value, exception) -> {
+      entries.remove(id, entry);
+    });
+    push(entry);
+    // the tick is set before its bucket is taken, so if the tick of the deadline has not been
+    // reached the request will be seen, and otherwise the deadline has passed
+    if (tick >= deadlineTick) {
+      expire(entry);
+    }
+    return entry.future;
+  }
+
+  /**
+   * Stop advancing the wheel, and complete all of the pending requests with the given error, such
+   * as when the server has stopped.
+   */
+  public void close(RequestError error) {
+    ticker.cancel(false);
+    failAll(error);
+  }
+
+  /**
+   * Complete all of the pending requests with the given error, such as when the connection to the
+   * server has been lost. The wheel is left alone, so that a request added concurrently keeps its
+   * deadline, and the completed requests are dropped when the ticks of their buckets are processed.
+   */
+  public void failAll(RequestError error) {
+    for (Entry entry : entries.values()) {
+      if (entries.remove(entry.id, entry)) {
+        entry.future.completeExceptionally(new AsyncAnalysisServer.RequestErrorException(error));
+      }
+    }
+  }
+
+  /**
+   * Return the number of requests that have expired.
+   */
+  public long getExpiredCount() {
+    return expiredCount.get();
+  }
+
+  /**
+   * Return the number of pending requests.
+   */
+  public int getPendingCount() {
+    return entries.size();
+  }
+
+  /**
+   * Return a new request id, which is unique among the ids returned by this table.
+   */
+  public String nextId() {
+    return Integer.toString(nextId.getAndIncrement());
+  }
+
+  /**
+   * Complete the request that the given response answers. Return {@code true} if it was pending,
+   * or {@code false} if it has already expired or been cancelled or the response has no id.
+   */
+  public boolean responseReceived(JsonObject response) {
+    JsonElement idElement = response.get("id");
+    if (idElement == null) {
+      return false;
+    }
+    Entry entry = entries.remove(idElement.getAsString());
+    if (entry == null) {
+      return false;
+    }
+    AsyncAnalysisServer.completeResponse(entry.future, response);
+    return true;
+  }
+
+  /**
+   * Set the deadline, in milliseconds, of the requests with the given method that are added after
+   * this call.
+   */
+  public void setDeadline(String method, long deadlineMillis) {
+    deadlines.put(method, deadlineMillis);
+  }
+
+  /**
+   * A pending request.
+   */
+  private static class Entry {
+    final String id;
+    final String method;
+    final long deadlineMillis;
+    final long deadlineTick;
+    final CompletableFuture<JsonObject> future = new CompletableFuture<JsonObject>();
+    Entry next;
+
+    Entry(String id, String method, long deadlineMillis, long deadlineTick) {
+      this.id = id;
+      this.method = method;
+      this.deadlineMillis = deadlineMillis;
+      this.deadlineTick = deadlineTick;
+    }
+  }
+
+  /**
+   * Advance the wheel to the tick of the time that has elapsed, processing each tick since the last
+   * one processed.
+   */
+  private void advance() {
+    long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+    if (targetTick - tick > wheel.length()) {
+      // each bucket is processed once while catching up on the last turn of the wheel, which sees
+      // every request whose deadline has passed
+      tick = targetTick - wheel.length();
+    }
+    while (tick < targetTick) {
+      processTick(tick + 1);
+    }
+  }
+
+  /**
+   * Complete the given request with an error saying that it has expired, unless it has already
+   * been completed.
+   */
+  private void expire(Entry entry) {
+    if (entries.remove(entry.id, entry)) {
+      expiredCount.incrementAndGet();
+      RequestError error = new RequestError(RequestErrorCode.SERVER_ERROR,
+          entry.method + " timed out after " + entry.deadlineMillis + " ms",
+          null);
+      entry.future.completeExceptionally(new AsyncAnalysisServer.RequestErrorException(error));
+    }
+  }
+
+  /**
+   * Process the given tick, expiring the requests in its bucket whose deadlines have passed,
+   * dropping the requests that have been completed and putting back the requests whose deadlines
+   * fall on a later turn of the wheel.
+   */
+  private void processTick(long currentTick) {
+    tick = currentTick;
+    Entry entry = wheel.getAndSet((int) (currentTick % wheel.length()), null);
+    while (entry != null) {
+      Entry next = entry.next;
+      if (!entry.future.isDone()) {
+        if (entry.deadlineTick <= currentTick) {
+          expire(entry);
+        } else {
+          push(entry);
+        }
+      }
+      entry = next;
+    }
+  }
+
+  /**
+   * Push the given request onto the bucket of its deadline.
+   */
+  private void push(Entry entry) {
+    int index = (int) (entry.deadlineTick % wheel.length());
+    while (true) {
+      Entry head = wheel.get(index);
+      entry.next = head;
+      if (wheel.compareAndSet(index, head, entry)) {
+        return;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code RegionIndex} answers point and range queries over the regions of a single file,
+ * such as the regions reported by the {@code analysis.highlights}, {@code analysis.navigation},
+ * {@code analysis.folding} and {@code analysis.occurrences} notifications, in logarithmic time.
+ *
+ * The regions are kept in primitive arrays sorted by offset together with an implicit interval
+ * tree over their ends, so an index can be rebuilt for every notification without allocating an
+ * object per region. As with {@code containsInclusive(int)}, both ends of a region are inclusive.
+ * Queries return the indices of the matching regions in the list that the index was built from,
+ * ordered by the offsets of the regions.
+ *
+ * @coverage dart.server.client
+ */
+public class RegionIndex {
+
+  private static final int[] EMPTY_ARRAY = new int[0];
+
+  /**
+   * The offsets of the regions, in increasing order.
+   */
+  private final int[] starts;
+
+  /**
+   * The inclusive end offsets of the regions, in the same order as {@link #starts}.
+   */
+  private final int[] ends;
+
+  /**
+   * The index of each region in the list that this index was built from.
+   */
+  private final int[] sourceIndices;
+
+  /**
+   * For the region at the middle of each range of the implicit tree, the largest end of the
+   * regions in that range.
+   */
+  private final int[] maxEnds;
+
+  /**
+   * Initialize a newly created index over the first {@code count} regions described by the given
+   * arrays. If {@code sourceIndices} is {@code null} the index of each region in the arrays is
+   * used.
+   */
+  private RegionIndex(int count, int[] offsets, int[] lengths, int[] sourceIndices) {
+    // sort the positions by offset without boxing them
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = ((long) offsets[i] << 32) | i;
+    }
+    Arrays.sort(keys);
+    this.starts = new int[count];
+    this.ends = new int[count];
+    this.sourceIndices = new int[count];
+    this.maxEnds = new int[count];
+    for (int i = 0; i < count; i++) {
+      int index = (int) keys[i];
+      starts[i] = offsets[index];
+      ends[i] = offsets[index] + lengths[index];
+      this.sourceIndices[i] = sourceIndices != null ? sourceIndices[index] : index;
+    }
+    computeMaxEnds(0, count);
+  }
+
+  /**
+   * Return the indices of the regions that contain the given offset.
+   */
+  public int[] findAt(int offset) {
+    return findOverlapping(offset, 0);
+  }
+
+  /**
+   * Return the index of the shortest region that contains the given offset, or {@code -1} if there
+   * is no such region. If several regions have the same length, the one with the largest offset is
+   * returned.
+   */
+  public int findInnermostAt(int offset) {
+    IntBuffer buffer = new IntBuffer();
+    collect(0, starts.length, offset, offset, buffer);
+    int result = -1;
+    int resultLength = Integer.MAX_VALUE;
+    for (int i = 0; i < buffer.size; i++) {
+      int position = buffer.values[i];
+      int length = ends[position] - starts[position];
+      if (length <= resultLength) {
+        result = sourceIndices[position];
+        resultLength = length;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Return the indices of the regions that overlap the range that starts at the given offset and
+   * has the given length.
+   */
+  public int[] findOverlapping(int offset, int length) {
+    IntBuffer buffer = new IntBuffer();
+    collect(0, starts.length, offset, offset + length, buffer);
+    if (buffer.size == 0) {
+      return EMPTY_ARRAY;
+    }
+    int[] result = new int[buffer.size];
+    for (int i = 0; i < buffer.size; i++) {
+      result[i] = sourceIndices[buffer.values[i]];
+    }
+    return result;
+  }
+
+  /**
+   * Return an index over the regions reported by an {@code analysis.folding} notification.
+   */
+  public static RegionIndex forFolding(List<FoldingRegion> regions) {
+    int count = regions.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      FoldingRegion region = regions.get(i);
+      offsets[i] = region.getOffset();
+      lengths[i] = region.getLength();
+    }
+    return new RegionIndex(count, offsets, lengths, null);
+  }
+
+  /**
+   * Return an index over the regions reported by an {@code analysis.highlights} notification.
+   */
+  public static RegionIndex forHighlights(List<HighlightRegion> regions) {
+    int count = regions.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      HighlightRegion region = regions.get(i);
+      offsets[i] = region.getOffset();
+      lengths[i] = region.getLength();
+    }
+    return new RegionIndex(count, offsets, lengths, null);
+  }
+
+  /**
+   * Return an index over the regions reported by an {@code analysis.navigation} notification.
+   */
+  public static RegionIndex forNavigation(List<NavigationRegion> regions) {
+    int count = regions.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      NavigationRegion region = regions.get(i);
+      offsets[i] = region.getOffset();
+      lengths[i] = region.getLength();
+    }
+    return new RegionIndex(count, offsets, lengths, null);
+  }
+
+  /**
+   * Return an index over the occurrences reported by an {@code analysis.occurrences} notification.
+   * Each offset of each {@link Occurrences} is a separate region whose index is the index of the
+   * {@link Occurrences} in the given list.
+   */
+  public static RegionIndex forOccurrences(List<Occurrences> occurrences) {
+    int count = 0;
+    for (Occurrences element : occurrences) {
+      count += element.getOffsets().length;
+    }
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    int[] sourceIndices = new int[count];
+    int next = 0;
+    for (int i = 0; i < occurrences.size(); i++) {
+      Occurrences element = occurrences.get(i);
+      for (int offset : element.getOffsets()) {
+        offsets[next] = offset;
+        lengths[next] = element.getLength();
+        sourceIndices[next] = i;
+        next++;
+      }
+    }
+    return new RegionIndex(count, offsets, lengths, sourceIndices);
+  }
+
+  /**
+   * Return an index over the regions described by the given parallel arrays.
+   */
+  public static RegionIndex fromArrays(int[] offsets, int[] lengths) {
+    return new RegionIndex(offsets.length, offsets, lengths, null);
+  }
+
+  /**
+   * Return the number of regions in this index.
+   */
+  public int getRegionCount() {
+    return starts.length;
+  }
+
+  /**
+   * A growable list of positions in the sorted arrays.
+   */
+  private static class IntBuffer {
+    int[] values = new int[8];
+    int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+  }
+
+  /**
+   * Add to the given buffer the positions in the range {@code [low, high)} of the regions that
+   * overlap the inclusive range {@code [start, end]}.
+   */
+  private void collect(int low, int high, int start, int end, IntBuffer buffer) {
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (maxEnds[middle] < start) {
+        // no region in this range reaches the start of the query
+        return;
+      }
+      collect(low, middle, start, end, buffer);
+      if (starts[middle] > end) {
+        // neither this region nor the ones after it start before the end of the query
+        return;
+      }
+      if (ends[middle] >= start) {
+        buffer.add(middle);
+      }
+      low = middle + 1;
+    }
+  }
+
+  /**
+   * Compute the values of {@link #maxEnds} for the range {@code [low, high)}, returning the largest
+   * end in the range.
+   */
+  private int computeMaxEnds(int low, int high) {
+    if (low >= high) {
+      return Integer.MIN_VALUE;
+    }
+    int middle = (low + high) >>> 1;
+    int max = Math.max(computeMaxEnds(low, middle), computeMaxEnds(middle + 1, high));
+    max = Math.max(max, ends[middle]);
+    maxEnds[middle] = max;
+    return max;
+  }
+
+}
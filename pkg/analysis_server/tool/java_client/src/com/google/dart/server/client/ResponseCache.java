@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.client.NotificationQueue.Notification;
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.AnalysisGetNavigationResult;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.AnalysisGetSignatureResult;
+import com.google.gson.JsonElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The class {@code ResponseCache} caches the results of requests that only query the server, such
+ * as {@code analysis.getHover}, so that a request that is repeated for the same file and parameters
+ * while the file is unchanged does not go to the server. The cache is opt-in: only the requests
+ * sent through it are cached.
+ *
+ * The results are keyed by the method, the parameters and the version of the file. The version of a
+ * file is incremented by {@link #invalidate(String)}, which is called for each file of the
+ * {@code analysis.updateContent} requests sent through
+ * {@link #analysis_updateContent(AsyncAnalysisServer, Map)}, such as by a
+ * {@link ContentOverlayBuffer} given this cache, and by {@link #notificationReceived(Notification)}
+ * for the file of each notification indicating that the file has been analyzed again, such as
+ * {@code analysis.errors} or {@code analysis.navigation}, so the notifications received from the
+ * server should be passed to it. Because the server sends such notifications for every file whose
+ * results change, this also invalidates the results of files that depend on a changed file.
+ * Incrementing the version makes the previous results of the file unreachable without looking for
+ * them, and they are evicted as the least recently used results when the cache is full. The version
+ * of a file is only kept while the cache holds results for it. Pending requests are cached too, so
+ * concurrent identical requests share one response, and requests that fail are not cached. Requests
+ * are sent without holding the lock of the cache. Because the futures can be shared, they should
+ * not be cancelled by their callers.
+ *
+ * @coverage dart.server.client
+ */
+public class ResponseCache {
+
+  /**
+   * The events of the notifications indicating that the file in their {@code file} parameter has
+   * been analyzed again.
+   */
+  private static final Set<String> ANALYZED_EVENTS = new HashSet<String>(Arrays.asList(
+      "analysis.closingLabels",
+      "analysis.errors",
+      "analysis.folding",
+      "analysis.highlights",
+      "analysis.implemented",
+      "analysis.invalidate",
+      "analysis.navigation",
+      "analysis.occurrences",
+      "analysis.outline",
+      "analysis.overrides"));
+
+  /**
+   * The event of the notifications that flush the results of the files in their {@code files}
+   * parameter.
+   */
+  private static final String FLUSH_RESULTS = "analysis.flushResults";
+
+  /**
+   * The maximum number of results in the cache.
+   */
+  private final int capacity;
+
+  /**
+   * The cached futures, keyed by the method, file, file version and parameters of their requests,
+   * in order from the least to the most recently used.
+   */
+  private final LinkedHashMap<List<Object>, CompletableFuture<?>> entries;
+
+  /**
+   * The current version of each file that has been invalidated and has results in the cache.
+   */
+  private final Map<String, Integer> fileVersions = new HashMap<String, Integer>();
+
+  /**
+   * The number of results in the cache for each file that has any, including the results that are
+   * unreachable because the file has been invalidated.
+   */
+  private final Map<String, Integer> resultCounts = new HashMap<String, Integer>();
+
+  /**
+   * The number of requests whose result was found in the cache.
+   */
+  private long hitCount;
+
+  /**
+   * The number of requests whose result was not found in the cache.
+   */
+  private long missCount;
+
+  /**
+   * The number of results that were evicted because the cache was full.
+   */
+  private long evictionCount;
+
+  /**
+   * Initialize a newly created cache to hold at most the given number of results.
+   */
+  public ResponseCache(int capacity) {
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<List<Object>, CompletableFuture<?>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Object>, CompletableFuture<?>> eldest) {
+        if (size() > ResponseCache.this.capacity) {
+          evictionCount++;
+          resultRemoved(eldest.getKey());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Return the future for the {@code analysis.getHover} request with the given parameters, sending
+   * the request using the given server if its result is not cached.
+   */
+  public CompletableFuture<List<HoverInformation>> analysis_getHover(AsyncAnalysisServer server,
+      String file, int offset) {
+    return get("analysis.getHover", file, () -> server.analysis_getHover(file, offset), offset);
+  }
+
+  /**
+   * Return the future for the {@code analysis.getNavigation} request with the given parameters,
+   * sending the request using the given server if its result is not cached.
+   */
+  public CompletableFuture<AnalysisGetNavigationResult> analysis_getNavigation(
+      AsyncAnalysisServer server, String file, int offset, int length) {
+    return get("analysis.getNavigation", file,
+        () -> server.analysis_getNavigation(file, offset, length), offset, length);
+  }
+
+  /**
+   * Return the future for the {@code analysis.getSignature} request with the given parameters,
+   * sending the request using the given server if its result is not cached.
+   */
+  public CompletableFuture<AnalysisGetSignatureResult> analysis_getSignature(
+      AsyncAnalysisServer server, String file, int offset) {
+    return get("analysis.getSignature", file, () -> server.analysis_getSignature(file, offset),
+        offset);
+  }
+
+  /**
+   * Send the {@code analysis.updateContent} request with the given overlays using the given server,
+   * and invalidate the cached results for their files. Return the future for the result of the
+   * request.
+   */
+  public CompletableFuture<Void> analysis_updateContent(AsyncAnalysisServer server,
+      Map<String, Object> files) {
+    CompletableFuture<Void> future = server.analysis_updateContent(files);
+    // the results are invalidated after the request is sent, so that a result cached meanwhile
+    // for the previous content is invalidated too
+    synchronized (this) {
+      for (String file : files.keySet()) {
+        invalidate(file);
+      }
+    }
+    return future;
+  }
+
+  /**
+   * Return the future for the result of the request with the given method, file and other
+   * parameters, using the given supplier to send the request if its result is not cached.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> get(String method, String file,
+      Supplier<CompletableFuture<T>> sendRequest, Object... parameters) {
+    List<Object> key = new ArrayList<Object>(parameters.length + 3);
+    key.add(method);
+    key.add(file);
+    CompletableFuture<T> newFuture = new CompletableFuture<T>();
+    synchronized (this) {
+      key.add(fileVersions.get(file));
+      key.addAll(Arrays.asList(parameters));
+      CompletableFuture<T> future = (CompletableFuture<T>) entries.get(key);
+      if (future != null && !future.isCompletedExceptionally()) {
+        hitCount++;
+        return future;
+      }
+      missCount++;
+      // count the result first, so that evicting another result of the file keeps its version
+      resultCounts.merge(file, 1, Integer::sum);
+      if (entries.put(key, newFuture) != null) {
+        // the new future replaces one that failed
+        resultCounts.merge(file, -1, Integer::sum);
+      }
+    }
+    newFuture.whenComplete((value, exception) -> {
+      if (exception != null) {
+        synchronized (this) {
+          if (entries.remove(key, newFuture)) {
+            resultRemoved(key);
+          }
+        }
+      }
+    });
+    // the request is sent without the lock, and identical requests share the new future meanwhile
+    try {
+      sendRequest.get().whenComplete((value, exception) -> {
+        if (exception != null) {
+          newFuture.completeExceptionally(exception);
+        } else {
+          newFuture.complete(value);
+        }
+      });
+    } catch (RuntimeException exception) {
+      newFuture.completeExceptionally(exception);
+    }
+    return newFuture;
+  }
+
+  /**
+   * Return the number of results that were evicted because the cache was full.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Return the number of files whose version is kept because they have been invalidated and have
+   * results in the cache.
+   */
+  synchronized int getFileVersionCount() {
+    return fileVersions.size();
+  }
+
+  /**
+   * Return the number of requests whose result was found in the cache.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Return the number of requests whose result was not found in the cache.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Return the number of results in the cache.
+   */
+  public synchronized int getSize() {
+    return entries.size();
+  }
+
+  /**
+   * Invalidate the cached results for the given file, because its content has changed or it has
+   * been analyzed again.
+   */
+  public synchronized void invalidate(String file) {
+    if (!resultCounts.containsKey(file)) {
+      // there are no results to hide, so the file does not need a version
+      return;
+    }
+    Integer version = fileVersions.get(file);
+    fileVersions.put(file, version != null ? version + 1 : 1);
+  }
+
+  /**
+   * Invalidate the cached results for all of the files.
+   */
+  public synchronized void invalidateAll() {
+    entries.clear();
+    resultCounts.clear();
+    fileVersions.clear();
+  }
+
+  /**
+   * Invalidate the cached results for the files that the given notification indicates have been
+   * analyzed again or whose results have been flushed. Other notifications are ignored.
+   */
+  public void notificationReceived(Notification notification) {
+    String event = notification.getEvent();
+    if (ANALYZED_EVENTS.contains(event)) {
+      JsonElement file = notification.getParams().get("file");
+      if (file != null && file.isJsonPrimitive()) {
+        invalidate(file.getAsString());
+      }
+    } else if (FLUSH_RESULTS.equals(event)) {
+      JsonElement files = notification.getParams().get("files");
+      if (files != null && files.isJsonArray()) {
+        synchronized (this) {
+          for (JsonElement file : files.getAsJsonArray()) {
+            invalidate(file.getAsString());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the future for the {@code search.getTypeHierarchy} request with the given parameters,
+   * sending the request using the given server if its result is not cached.
+   */
+  public CompletableFuture<List<TypeHierarchyItem>> search_getTypeHierarchy(
+      AsyncAnalysisServer server, String file, int offset, boolean superOnly) {
+    return get("search.getTypeHierarchy", file,
+        () -> server.search_getTypeHierarchy(file, offset, superOnly), offset, superOnly);
+  }
+
+  /**
+   * Record that the result with the given key has been removed from the cache, forgetting the
+   * version of its file if it was the last result for the file.
+   */
+  private void resultRemoved(List<Object> key) {
+    String file = (String) key.get(1);
+    Integer count = resultCounts.get(file);
+    if (count == null || count <= 1) {
+      resultCounts.remove(file);
+      fileVersions.remove(file);
+    } else {
+      resultCounts.put(file, count - 1);
+    }
+  }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class {@code SourceDocument} is the content of a file, kept as a piece table so that
+ * {@link SourceEdit}s can be applied without copying the content. The pieces refer to ranges of the
+ * original content and of the replacements of the edits, and are the nodes of a randomized
+ * balanced tree ordered by offset, so that each edit is applied in expected logarithmic time.
+ *
+ * The document records the modification stamp of the file, which is checked by
+ * {@link #applyFileEdit(SourceFileEdit)}, and the edits applied since the last call to
+ * {@link #takeChangeOverlay()}, so that the new content can be sent to the server as a
+ * {@link ChangeContentOverlay}. Instances are not thread safe.
+ *
+ * @coverage dart.server.client
+ */
+public class SourceDocument {
+
+  /**
+   * The root of the tree of pieces, or {@code null} if the document is empty.
+   */
+  private Piece root;
+
+  /**
+   * The modification stamp of the file.
+   */
+  private long fileStamp;
+
+  /**
+   * The edits that have been applied since the last call to {@link #takeChangeOverlay()}.
+   */
+  private List<SourceEdit> pendingEdits = new ArrayList<SourceEdit>();
+
+  /**
+   * The state of the random number generator used for the priorities of the pieces.
+   */
+  private int seed = 0x2545F491;
+
+  /**
+   * The tree of the pieces before the offset of the last split.
+   */
+  private Piece splitLeft;
+
+  /**
+   * The tree of the pieces after the offset of the last split.
+   */
+  private Piece splitRight;
+
+  /**
+   * Initialize a newly created document with the given content and modification stamp.
+   */
+  public SourceDocument(String content, long fileStamp) {
+    this.root = content.isEmpty() ? null : new Piece(content, 0, content.length(), nextPriority());
+    this.fileStamp = fileStamp;
+  }
+
+  /**
+   * Apply the given edit to this document.
+   *
+   * @throws IndexOutOfBoundsException if the edit is not within the document
+   */
+  public void applyEdit(SourceEdit edit) {
+    int offset = edit.getOffset();
+    int length = edit.getLength();
+    if (offset < 0 || length < 0 || offset + length > getLength()) {
+      throw new IndexOutOfBoundsException("Edit " + offset + ":" + length
+          + " is not within a document of length " + getLength());
+    }
+    split(root, offset);
+    Piece left = splitLeft;
+    split(splitRight, length);
+    Piece right = splitRight;
+    String replacement = edit.getReplacement();
+    if (!replacement.isEmpty()) {
+      left = merge(left, new Piece(replacement, 0, replacement.length(), nextPriority()));
+    }
+    root = merge(left, right);
+    pendingEdits.add(edit);
+  }
+
+  /**
+   * Apply the given edits to this document, in the order in which they appear in the list, as
+   * {@link SourceEditUtilities#applySequence} does.
+   *
+   * @throws IndexOutOfBoundsException if an edit is not within the document
+   */
+  public void applyEdits(List<SourceEdit> edits) {
+    for (SourceEdit edit : edits) {
+      applyEdit(edit);
+    }
+  }
+
+  /**
+   * Apply the edits of the given file edit to this document, if the modification stamp of the file
+   * edit is the same as that of this document. Return {@code true} if the edits were applied, or
+   * {@code false} if the file edit was created for a different version of the file.
+   *
+   * @throws IndexOutOfBoundsException if an edit is not within the document
+   */
+  public boolean applyFileEdit(SourceFileEdit fileEdit) {
+    if (fileEdit.getFileStamp() != fileStamp) {
+      return false;
+    }
+    applyEdits(fileEdit.getEdits());
+    return true;
+  }
+
+  /**
+   * Return the modification stamp of the file.
+   */
+  public long getFileStamp() {
+    return fileStamp;
+  }
+
+  /**
+   * Return the length of the content of this document.
+   */
+  public int getLength() {
+    return root != null ? root.size : 0;
+  }
+
+  /**
+   * Return the content of this document.
+   */
+  public String getText() {
+    return getText(0, getLength());
+  }
+
+  /**
+   * Return the text of this document in the range that starts at the given offset and has the
+   * given length.
+   *
+   * @throws IndexOutOfBoundsException if the range is not within the document
+   */
+  public String getText(int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > getLength()) {
+      throw new IndexOutOfBoundsException("Range " + offset + ":" + length
+          + " is not within a document of length " + getLength());
+    }
+    StringBuilder builder = new StringBuilder(length);
+    appendText(root, 0, offset, offset + length, builder);
+    return builder.toString();
+  }
+
+  /**
+   * Set the modification stamp of the file, such as after the content has been sent to the server.
+   */
+  public void setFileStamp(long fileStamp) {
+    this.fileStamp = fileStamp;
+  }
+
+  /**
+   * Return an overlay that changes the content that was last sent to the server into the content
+   * of this document, and forget the edits that it contains. Return {@code null} if no edits have
+   * been applied since the last call.
+   */
+  public ChangeContentOverlay takeChangeOverlay() {
+    if (pendingEdits.isEmpty()) {
+      return null;
+    }
+    ChangeContentOverlay overlay = new ChangeContentOverlay(pendingEdits);
+    pendingEdits = new ArrayList<SourceEdit>();
+    return overlay;
+  }
+
+  /**
+   * Return an overlay that sets the content of the file to the content of this document, and
+   * forget the applied edits.
+   */
+  public AddContentOverlay toAddOverlay() {
+    pendingEdits = new ArrayList<SourceEdit>();
+    return new AddContentOverlay(getText());
+  }
+
+  /**
+   * A range of a string, which is a node in the tree of pieces.
+   */
+  private static class Piece {
+    final String text;
+    final int start;
+    int length;
+    final int priority;
+    Piece left;
+    Piece right;
+
+    /**
+     * The total length of the pieces in the subtree rooted at this piece.
+     */
+    int size;
+
+    Piece(String text, int start, int length, int priority) {
+      this.text = text;
+      this.start = start;
+      this.length = length;
+      this.priority = priority;
+      this.size = length;
+    }
+
+    void update() {
+      size = length + (left != null ? left.size : 0) + (right != null ? right.size : 0);
+    }
+  }
+
+  /**
+   * Append to the given builder the text of the pieces in the subtree rooted at the given piece,
+   * which starts at the given offset, that is in the range from the given start to the given end.
+   */
+  private static void appendText(Piece piece, int pieceOffset, int start, int end,
+      StringBuilder builder) {
+    while (piece != null && start < end) {
+      int leftSize = piece.left != null ? piece.left.size : 0;
+      int textOffset = pieceOffset + leftSize;
+      if (start < textOffset) {
+        appendText(piece.left, pieceOffset, start, end, builder);
+      }
+      int textStart = Math.max(start, textOffset);
+      int textEnd = Math.min(end, textOffset + piece.length);
+      if (textStart < textEnd) {
+        builder.append(piece.text, piece.start + textStart - textOffset,
+            piece.start + textEnd - textOffset);
+      }
+      // continue with the right subtree without recursion
+      pieceOffset = textOffset + piece.length;
+      if (end <= pieceOffset) {
+        return;
+      }
+      start = Math.max(start, pieceOffset);
+      piece = piece.right;
+    }
+  }
+
+  /**
+   * Return the tree containing the pieces of the given trees, with those of the left tree first.
+   */
+  private static Piece merge(Piece left, Piece right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      left.update();
+      return left;
+    } else {
+      right.left = merge(left, right.left);
+      right.update();
+      return right;
+    }
+  }
+
+  /**
+   * Return a pseudo-random priority for a new piece.
+   */
+  private int nextPriority() {
+    seed ^= seed << 13;
+    seed ^= seed >>> 17;
+    seed ^= seed << 5;
+    return seed;
+  }
+
+  /**
+   * Split the tree rooted at the given piece at the given offset, setting {@link #splitLeft} and
+   * {@link #splitRight} to the trees of the text before and after the offset. A piece that spans
+   * the offset is split into two pieces that share its string.
+   */
+  private void split(Piece piece, int offset) {
+    if (piece == null) {
+      splitLeft = null;
+      splitRight = null;
+      return;
+    }
+    int leftSize = piece.left != null ? piece.left.size : 0;
+    if (offset <= leftSize) {
+      split(piece.left, offset);
+      piece.left = splitRight;
+      piece.update();
+      splitRight = piece;
+    } else if (offset >= leftSize + piece.length) {
+      split(piece.right, offset - leftSize - piece.length);
+      piece.right = splitLeft;
+      piece.update();
+      splitLeft = piece;
+    } else {
+      int pieceOffset = offset - leftSize;
+      Piece rightPiece = new Piece(piece.text, piece.start + pieceOffset,
+          piece.length - pieceOffset, nextPriority());
+      Piece right = piece.right;
+      piece.length = pieceOffset;
+      piece.right = null;
+      piece.update();
+      splitLeft = piece;
+      splitRight = merge(rightPiece, right);
+    }
+  }
+
+}
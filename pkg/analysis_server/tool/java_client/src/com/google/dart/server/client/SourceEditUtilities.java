@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class {@code SourceEditUtilities} defines utility methods for working with
+ * {@link SourceEdit}s.
+ *
+ * @coverage dart.server.client
+ */
+public class SourceEditUtilities {
+
+  /**
+   * The largest number of inserted and deleted lines for which {@link #computeEdits} computes a
+   * line-level difference, bounding its cost for large rewrites. When more lines differ, the
+   * changed text is replaced by a single edit.
+   */
+  private static final int MAX_LINE_DIFFERENCE = 256;
+
+  private SourceEditUtilities() {
+  }
+
+  /**
+   * Return the result of applying the given edit to the given content.
+   */
+  public static String apply(String content, SourceEdit edit) {
+    int offset = edit.getOffset();
+    return content.substring(0, offset) + edit.getReplacement()
+        + content.substring(offset + edit.getLength());
+  }
+
+  /**
+   * Return the result of applying the given edits to the given content, in the order in which they
+   * appear in the list, so that the offset of each edit is relative to the result of applying the
+   * previous edits. This is how the edits of a {@link ChangeContentOverlay} are applied.
+   */
+  public static String applySequence(String content, List<SourceEdit> edits) {
+    if (edits.size() == 1) {
+      return apply(content, edits.get(0));
+    }
+    StringBuilder builder = new StringBuilder(content);
+    for (SourceEdit edit : edits) {
+      int offset = edit.getOffset();
+      builder.replace(offset, offset + edit.getLength(), edit.getReplacement());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Return a {@link ChangeContentOverlay} that changes the given old content into the given new
+   * content, using the edits computed by {@link #computeEdits}.
+   */
+  public static ChangeContentOverlay computeChangeOverlay(String oldContent, String newContent) {
+    return new ChangeContentOverlay(computeEdits(oldContent, newContent));
+  }
+
+  /**
+   * Return a list of edits that changes the given old content into the given new content when they
+   * are applied by {@link #applySequence}. The edits are in decreasing order of offset, so that the
+   * offset of each edit is also its offset in the old content.
+   *
+   * The common prefix and suffix of the contents are excluded first, so a change to a single region
+   * is found in linear time. If the remaining text spans several lines then the changed lines are
+   * found using a line-level difference, unless more than {@link #MAX_LINE_DIFFERENCE} lines are
+   * inserted or deleted, in which case a single edit replaces the remaining text.
+   */
+  public static List<SourceEdit> computeEdits(String oldContent, String newContent) {
+    int oldLength = oldContent.length();
+    int newLength = newContent.length();
+    int prefix = 0;
+    int maxPrefix = Math.min(oldLength, newLength);
+    while (prefix < maxPrefix && oldContent.charAt(prefix) == newContent.charAt(prefix)) {
+      prefix++;
+    }
+    int suffix = 0;
+    int maxSuffix = maxPrefix - prefix;
+    while (suffix < maxSuffix
+        && oldContent.charAt(oldLength - 1 - suffix) == newContent.charAt(newLength - 1 - suffix)) {
+      suffix++;
+    }
+    List<SourceEdit> edits = new ArrayList<SourceEdit>();
+    if (prefix == oldLength && prefix == newLength) {
+      return edits;
+    }
+    String oldText = oldContent.substring(prefix, oldLength - suffix);
+    String newText = newContent.substring(prefix, newLength - suffix);
+    if (oldText.isEmpty() || newText.isEmpty()
+        || !computeLineEdits(prefix, oldText, newText, edits)) {
+      edits.clear();
+      edits.add(new SourceEdit(prefix, oldText.length(), newText, null));
+    }
+    return edits;
+  }
+
+  /**
+   * Add to the given list an edit that replaces the lines in the given range of the old text with
+   * the lines in the given range of the new text.
+   */
+  private static void addLineEdit(int offset, String oldText, int[] oldLineStarts, int oldStart,
+      int oldEnd, String newText, int[] newLineStarts, int newStart, int newEnd,
+      List<SourceEdit> edits) {
+    int editOffset = oldLineStarts[oldStart];
+    int editLength = oldLineStarts[oldEnd] - editOffset;
+    String replacement = newText.substring(newLineStarts[newStart], newLineStarts[newEnd]);
+    edits.add(new SourceEdit(offset + editOffset, editLength, replacement, null));
+  }
+
+  /**
+   * Add to the given list the edits that change the lines of the given old text, which starts at
+   * the given offset, into the lines of the given new text, in decreasing order of offset. Return
+   * {@code false} if the line-level difference would not improve on a single edit, or is too large.
+   */
+  private static boolean computeLineEdits(int offset, String oldText, String newText,
+      List<SourceEdit> edits) {
+    int[] oldLineStarts = getLineStarts(oldText);
+    int[] newLineStarts = getLineStarts(newText);
+    int n = oldLineStarts.length - 1;
+    int m = newLineStarts.length - 1;
+    if (n == 1 && m == 1) {
+      return false;
+    }
+    // identify the lines by integers, so that they can be compared cheaply
+    Map<String, Integer> lineIds = new HashMap<String, Integer>();
+    int[] a = getLineIds(oldText, oldLineStarts, lineIds);
+    int[] b = getLineIds(newText, newLineStarts, lineIds);
+    // find the shortest edit script using the greedy algorithm of Myers, where v[max + k] is the
+    // furthest line in the old text reached on diagonal k, remembering v before each step
+    int max = Math.min(n + m, MAX_LINE_DIFFERENCE);
+    int[] v = new int[2 * max + 2];
+    List<int[]> trace = new ArrayList<int[]>();
+    int length = -1;
+    search: for (int d = 0; d <= max; d++) {
+      trace.add(v.clone());
+      for (int k = -d; k <= d; k += 2) {
+        int x;
+        if (k == -d || (k != d && v[max + k - 1] < v[max + k + 1])) {
+          x = v[max + k + 1];
+        } else {
+          x = v[max + k - 1] + 1;
+        }
+        int y = x - k;
+        while (x < n && y < m && a[x] == b[y]) {
+          x++;
+          y++;
+        }
+        v[max + k] = x;
+        if (x >= n && y >= m) {
+          length = d;
+          break search;
+        }
+      }
+    }
+    if (length == -1) {
+      return false;
+    }
+    // walk back from the end of the texts, merging adjacent inserted and deleted lines into hunks
+    int x = n;
+    int y = m;
+    int oldStart = -1;
+    int oldEnd = -1;
+    int newStart = -1;
+    int newEnd = -1;
+    for (int d = length; d > 0; d--) {
+      int[] previousV = trace.get(d);
+      int k = x - y;
+      int previousK;
+      if (k == -d || (k != d && previousV[max + k - 1] < previousV[max + k + 1])) {
+        previousK = k + 1;
+      } else {
+        previousK = k - 1;
+      }
+      int previousX = previousV[max + previousK];
+      int previousY = previousX - previousK;
+      int snakeX = previousK == k + 1 ? previousX : previousX + 1;
+      int snakeY = snakeX - k;
+      if (snakeX < x && oldStart != -1) {
+        addLineEdit(offset, oldText, oldLineStarts, oldStart, oldEnd, newText, newLineStarts,
+            newStart, newEnd, edits);
+        oldStart = -1;
+      }
+      if (oldStart == -1) {
+        oldEnd = snakeX;
+        newEnd = snakeY;
+      }
+      oldStart = previousX;
+      newStart = previousY;
+      x = previousX;
+      y = previousY;
+    }
+    if (oldStart != -1) {
+      addLineEdit(offset, oldText, oldLineStarts, oldStart, oldEnd, newText, newLineStarts,
+          newStart, newEnd, edits);
+    }
+    return true;
+  }
+
+  /**
+   * Return the integers identifying the lines of the given text, with the given line starts, using
+   * the given map to give equal lines the same integer.
+   */
+  private static int[] getLineIds(String text, int[] lineStarts, Map<String, Integer> lineIds) {
+    int[] ids = new int[lineStarts.length - 1];
+    for (int i = 0; i < ids.length; i++) {
+      String line = text.substring(lineStarts[i], lineStarts[i + 1]);
+      Integer id = lineIds.get(line);
+      if (id == null) {
+        id = lineIds.size();
+        lineIds.put(line, id);
+      }
+      ids[i] = id;
+    }
+    return ids;
+  }
+
+  /**
+   * Return the offsets of the starts of the lines of the given text, followed by its length.
+   */
+  private static int[] getLineStarts(String text) {
+    int[] lineStarts = new int[16];
+    int count = 1;
+    int length = text.length();
+    for (int i = 0; i < length; i++) {
+      if (text.charAt(i) == '\n' && i + 1 < length) {
+        if (count == lineStarts.length) {
+          lineStarts = Arrays.copyOf(lineStarts, count * 2);
+        }
+        lineStarts[count++] = i + 1;
+      }
+    }
+    if (count == lineStarts.length) {
+      lineStarts = Arrays.copyOf(lineStarts, count + 1);
+    }
+    lineStarts[count++] = length;
+    return Arrays.copyOf(lineStarts, count);
+  }
+
+}
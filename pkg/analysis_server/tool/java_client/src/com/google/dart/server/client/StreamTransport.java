@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class {@code StreamTransport} carries the messages of the analysis server protocol over a
+ * pair of byte streams, such as the standard input and output of a server process. The messages
+ * received are read by a daemon thread, which delivers them to the listener, and the messages sent
+ * are written on the thread that sends them. An exception thrown by the listener closes the
+ * transport.
+ *
+ * @coverage dart.server.client
+ */
+public class StreamTransport implements Transport {
+
+  /**
+   * The stream from which the messages are received.
+   */
+  private final InputStream input;
+
+  /**
+   * The reader of the messages received from the server.
+   */
+  private final BufferedReader reader;
+
+  /**
+   * The writer of the messages sent to the server, which is also used as the lock for sending.
+   */
+  private final Writer writer;
+
+  /**
+   * The listener to which the messages received are delivered.
+   */
+  private final Listener listener;
+
+  /**
+   * {@code true} if the transport has been closed.
+   */
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  /**
+   * Initialize a newly created transport to receive messages from the given input stream and send
+   * them to the given output stream. The messages received are delivered to the given listener.
+   */
+  public StreamTransport(InputStream input, OutputStream output, Listener listener) {
+    this.input = input;
+    this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    this.listener = listener;
+    Thread readerThread = new Thread(this::readMessages, "Analysis server stream reader");
+    readerThread.setDaemon(true);
+    readerThread.start();
+  }
+
+  @Override
+  public void close() {
+    close(null);
+  }
+
+  /**
+   * Return a transport over the standard input and output of the given server process.
+   */
+  public static StreamTransport forProcess(Process process, Listener listener) {
+    return new StreamTransport(process.getInputStream(), process.getOutputStream(), listener);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return !closed.get();
+  }
+
+  @Override
+  public void send(String message) throws IOException {
+    synchronized (writer) {
+      if (closed.get()) {
+        throw new IOException("The transport is closed");
+      }
+      writer.write(message);
+      writer.write('\n');
+      writer.flush();
+    }
+  }
+
+  /**
+   * Close the transport, if it is not already closed, and notify the listener that it was closed
+   * because of the given exception, or {@code null} if it was closed by either end.
+   */
+  private void close(IOException exception) {
+    if (closed.compareAndSet(false, true)) {
+      closeStreams();
+      listener.closed(exception);
+    }
+  }
+
+  /**
+   * Close both streams, ignoring any exceptions.
+   */
+  private void closeStreams() {
+    // the input stream is closed rather than the reader, which is locked while a line is read
+    try {
+      input.close();
+    } catch (IOException exception) {
+      // ignored
+    }
+    synchronized (writer) {
+      try {
+        writer.close();
+      } catch (IOException exception) {
+        // ignored
+      }
+    }
+  }
+
+  /**
+   * Deliver the messages received to the listener until the input stream ends or fails.
+   */
+  private void readMessages() {
+    try {
+      String message;
+      while ((message = reader.readLine()) != null) {
+        listener.messageReceived(message);
+      }
+    } catch (IOException exception) {
+      // if the transport was closed by the client the exception is ignored
+      close(exception);
+      return;
+    } catch (RuntimeException exception) {
+      // the messages after the one that the listener failed to handle cannot be trusted
+      close(new IOException("The listener failed", exception));
+      return;
+    }
+    close(null);
+  }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.CompletionGetSuggestionDetailsResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The class {@code SuggestionDetailsPrefetcher} sends {@code completion.getSuggestionDetails}
+ * requests in the background for the best ranked available suggestions of a completion, so that
+ * the import edit of the suggestion that is accepted has usually been computed by the time it is
+ * accepted.
+ *
+ * A completion session is identified by the file and offset of its
+ * {@code completion.getSuggestions} request, and the details received during a session are cached
+ * until a request for another file or offset begins a new session. Each call of {@link #prefetch}
+ * replaces the suggestions to prefetch, such as after a keystroke, cancelling the requests for the
+ * suggestions that are no longer among them unless their details have been asked for. At most a
+ * given number of prefetch requests are sent at a time; the requests of
+ * {@link #getSuggestionDetails} are sent immediately and are not counted against that number.
+ *
+ * @coverage dart.server.client
+ */
+public class SuggestionDetailsPrefetcher {
+
+  /**
+   * The server to which the requests are sent.
+   */
+  private final AsyncAnalysisServer server;
+
+  /**
+   * The largest number of prefetch requests that are sent at a time.
+   */
+  private final int maxConcurrentRequests;
+
+  /**
+   * The file of the current session, or {@code null} if there is no session.
+   */
+  private String file;
+
+  /**
+   * The offset of the current session.
+   */
+  private int offset;
+
+  /**
+   * The suggestions of the current session that have been sent or are waiting to be sent, keyed
+   * by their set ids and labels.
+   */
+  private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+  /**
+   * The suggestions waiting to be sent, best first.
+   */
+  private final ArrayDeque<Entry> waiting = new ArrayDeque<Entry>();
+
+  /**
+   * The number of prefetch requests of the current session that have been sent and are not done.
+   */
+  private int inFlightCount;
+
+  /**
+   * Initialize a newly created prefetcher to send requests using the given server, at most the
+   * given number of prefetch requests at a time.
+   */
+  public SuggestionDetailsPrefetcher(AsyncAnalysisServer server, int maxConcurrentRequests) {
+    this.server = server;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * End the current session, cancelling its prefetch requests that are not done and discarding its
+   * cached details. The requests whose details have been asked for are not cancelled, because
+   * their futures have been returned.
+   */
+  public synchronized void clear() {
+    List<Entry> oldEntries = new ArrayList<Entry>(entries.values());
+    file = null;
+    entries.clear();
+    waiting.clear();
+    inFlightCount = 0;
+    for (Entry entry : oldEntries) {
+      if (entry.future != null && !entry.isRequested) {
+        entry.future.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Return the number of prefetch requests of the current session that have been sent and are not
+   * done.
+   */
+  public synchronized int getInFlightCount() {
+    return inFlightCount;
+  }
+
+  /**
+   * Return the future for the details of the suggestion with the given label in the set with the
+   * given id, as returned by {@link AsyncAnalysisServer#completion_getSuggestionDetails}. The
+   * cached or prefetched details are returned if there are any, and otherwise a request is sent
+   * immediately. The returned future is shared, so it should not be cancelled.
+   */
+  public synchronized CompletableFuture<CompletionGetSuggestionDetailsResult> getSuggestionDetails(
+      String file, int id, String label, int offset) {
+    beginSession(file, offset);
+    String key = getKey(id, label);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(key, id, label);
+      entries.put(key, entry);
+    } else {
+      waiting.remove(entry);
+    }
+    entry.isRequested = true;
+    if (entry.future == null) {
+      send(entry, false);
+    }
+    return entry.future;
+  }
+
+  /**
+   * Prefetch the details of the available suggestions among the given number of best candidates,
+   * which were found by the completion requested at the given offset of the given file. The
+   * requests for the suggestions of earlier calls that are not among them are cancelled, unless
+   * their details have been asked for.
+   */
+  public synchronized void prefetch(String file, int offset,
+      List<CompletionAccumulator.Candidate> candidates, int count) {
+    beginSession(file, offset);
+    List<Entry> targets = new ArrayList<Entry>();
+    Set<String> targetKeys = new HashSet<String>();
+    for (CompletionAccumulator.Candidate candidate : candidates) {
+      if (targets.size() == count) {
+        break;
+      }
+      AvailableSuggestion item = candidate.getAvailableSuggestion();
+      if (item == null) {
+        continue;
+      }
+      int id = candidate.getSuggestionSet().getId();
+      String key = getKey(id, item.getLabel());
+      if (!targetKeys.add(key)) {
+        continue;
+      }
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        entry = new Entry(key, id, item.getLabel());
+        entries.put(key, entry);
+      }
+      targets.add(entry);
+    }
+    // drop the suggestions that are no longer wanted
+    List<Entry> cancelled = new ArrayList<Entry>();
+    for (Entry entry : new ArrayList<Entry>(entries.values())) {
+      boolean isDone = entry.future != null && entry.future.isDone();
+      if (!entry.isRequested && !isDone && !targetKeys.contains(entry.key)) {
+        entries.remove(entry.key);
+        if (entry.future != null) {
+          // only prefetch requests can be in flight without having been asked for
+          inFlightCount--;
+          cancelled.add(entry);
+        }
+      }
+    }
+    waiting.clear();
+    for (Entry entry : targets) {
+      if (entry.future == null) {
+        waiting.add(entry);
+      }
+    }
+    for (Entry entry : cancelled) {
+      entry.future.cancel(false);
+    }
+    sendWaiting();
+  }
+
+  /**
+   * A suggestion whose details have been or will be requested.
+   */
+  private static class Entry {
+    final String key;
+    final int id;
+    final String label;
+    CompletableFuture<CompletionGetSuggestionDetailsResult> future;
+    boolean isRequested;
+    boolean isPrefetched;
+
+    Entry(String key, int id, String label) {
+      this.key = key;
+      this.id = id;
+      this.label = label;
+    }
+  }
+
+  /**
+   * Begin a new session for the completion requested at the given offset of the given file,
+   * unless it is the current session.
+   */
+  private void beginSession(String file, int offset) {
+    if (!file.equals(this.file) || offset != this.offset) {
+      clear();
+      this.file = file;
+      this.offset = offset;
+    }
+  }
+
+  /**
+   * Return the key of the suggestion with the given label in the set with the given id.
+   */
+  private static String getKey(int id, String label) {
+    return id + ":" + label;
+  }
+
+  /**
+   * Record that the request for the given suggestion is done, and send the next waiting request.
+   * Requests that failed or were cancelled are not cached.
+   */
+  private synchronized void requestDone(Entry entry, Throwable exception) {
+    if (entries.get(entry.key) != entry) {
+      // the entry was cancelled, or belongs to a previous session
+      return;
+    }
+    if (entry.isPrefetched) {
+      inFlightCount--;
+    }
+    if (exception != null) {
+      entries.remove(entry.key);
+    }
+    sendWaiting();
+  }
+
+  /**
+   * Send the request for the given suggestion, counting it as in flight if it is a prefetch
+   * request.
+   */
+  private void send(Entry entry, boolean isPrefetched) {
+    if (isPrefetched) {
+      entry.isPrefetched = true;
+      inFlightCount++;
+    }
+    entry.future = server.completion_getSuggestionDetails(file, entry.id, entry.label, offset);
+    entry.future.whenComplete((result, exception) -> requestDone(entry, exception));
+  }
+
+  /**
+   * Send the waiting requests, best first, while fewer than the maximum number are in flight.
+   */
+  private void sendWaiting() {
+    while (inFlightCount < maxConcurrentRequests && !waiting.isEmpty()) {
+      send(waiting.poll(), true);
+    }
+  }
+
+}
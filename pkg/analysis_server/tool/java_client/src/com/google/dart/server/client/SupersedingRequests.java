@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.EditGetRefactoringResult;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The class {@code SupersedingRequests} cancels requests whose results are no longer needed because
+ * a newer request of the same kind has been sent, such as a completion request for an earlier
+ * keystroke. Cancelling the future returned by {@link AsyncAnalysisServer} discards the response
+ * without decoding it when it arrives.
+ *
+ * The protocol does not have a request to stop the server from computing the result of a request,
+ * so a superseded request is only cancelled in the client. Completion results are delivered by
+ * {@code completion.results} notifications, which should only be decoded if
+ * {@link #isCurrentCompletion(String)} returns {@code true} for their id.
+ *
+ * @coverage dart.server.client
+ */
+public class SupersedingRequests {
+
+  /**
+   * The key of completion requests.
+   */
+  private static final String COMPLETION_KEY = "completion";
+
+  /**
+   * The first element of the keys of validating refactoring requests.
+   */
+  private static final String REFACTORING_KEY = "refactoring";
+
+  /**
+   * The most recent request that is not done for each key.
+   */
+  private final Map<Object, CompletableFuture<?>> latestRequests =
+      new HashMap<Object, CompletableFuture<?>>();
+
+  /**
+   * The most recent completion request, or {@code null} if none has been sent.
+   */
+  private CompletableFuture<String> latestCompletion;
+
+  /**
+   * The id of the most recent completion request, or {@code null} if the most recent request has
+   * not yet received its id.
+   */
+  private String currentCompletionId;
+
+  /**
+   * Send a {@code completion.getSuggestions} request using the given server, cancelling the
+   * previous completion request if it is not done, and return the future for its id.
+   */
+  public CompletableFuture<String> completion_getSuggestions(AsyncAnalysisServer server,
+      String file, int offset) {
+    CompletableFuture<String> future;
+    synchronized (this) {
+      future = supersede(COMPLETION_KEY, server.completion_getSuggestions(file, offset));
+      latestCompletion = future;
+      currentCompletionId = null;
+    }
+    future.thenAccept(id -> {
+      synchronized (this) {
+        if (latestCompletion == future) {
+          currentCompletionId = id;
+        }
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Send an {@code edit.getRefactoring} request using the given server and return the future for
+   * its result. A request that only validates the refactoring cancels the previous validating
+   * request of the same kind at the same offset of the same file if it is not done, such as when
+   * the new name of a rename is typed. A request that computes the changes is never superseded.
+   */
+  public CompletableFuture<EditGetRefactoringResult> edit_getRefactoring(
+      AsyncAnalysisServer server, String kind, String file, int offset, int length,
+      boolean validateOnly, RefactoringOptions options) {
+    CompletableFuture<EditGetRefactoringResult> future =
+        server.edit_getRefactoring(kind, file, offset, length, validateOnly, options);
+    if (!validateOnly) {
+      return future;
+    }
+    return supersede(Arrays.asList(REFACTORING_KEY, kind, file, offset), future);
+  }
+
+  /**
+   * Return {@code true} if the given id is that of the most recent completion request, so that the
+   * {@code completion.results} notifications with this id should be processed.
+   */
+  public synchronized boolean isCurrentCompletion(String completionId) {
+    return completionId != null && completionId.equals(currentCompletionId);
+  }
+
+  /**
+   * Record the given future as the most recent request for the given key, cancelling the previous
+   * request for the key if it is not done, and return the given future.
+   */
+  public synchronized <T> CompletableFuture<T> supersede(Object key, CompletableFuture<T> future) {
+    CompletableFuture<?> previous = latestRequests.put(key, future);
+    if (previous != null && previous != future) {
+      previous.cancel(false);
+    }
+    future.whenComplete((value, exception) -> {
+      synchronized (this) {
+        latestRequests.remove(key, future);
+      }
+    });
+    return future;
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import java.io.IOException;
+
+/**
+ * The interface {@code Transport} defines the behavior of objects that carry the messages of the
+ * analysis server protocol, which are JSON texts separated by newlines, between the client and a
+ * server, independent of the kind of connection.
+ *
+ * @coverage dart.server.client
+ */
+public interface Transport {
+
+  /**
+   * The interface {@code Listener} defines the behavior of objects that are notified of the
+   * messages received over a transport. The methods are invoked on a thread of the transport, and
+   * should hand off any expensive work, such as to a {@link NotificationQueue}.
+   */
+  public interface Listener {
+    /**
+     * The connection was closed, because of the given exception, or {@code null} if it was closed
+     * by either end.
+     */
+    void closed(IOException exception);
+
+    /**
+     * The given message, without its newline, was received from the server.
+     */
+    void messageReceived(String message);
+  }
+
+  /**
+   * Close the connection. The listener is notified that the connection has been closed.
+   */
+  void close();
+
+  /**
+   * Return the number of bytes of the messages that have been sent but are still queued, which
+   * callers can use to stop sending while the other end is not reading. A transport that writes
+   * each message before {@link #send(String)} returns has nothing queued.
+   */
+  default long getPendingWriteBytes() {
+    return 0;
+  }
+
+  /**
+   * Return {@code true} if the connection is open.
+   */
+  boolean isOpen();
+
+  /**
+   * Send the given message, which does not contain a newline, to the server. The message is
+   * queued if it cannot be written immediately.
+   *
+   * @throws IOException if the connection is closed, or the message cannot be queued because too
+   *           many bytes are already queued
+   */
+  void send(String message) throws IOException;
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.file.Path;
+
+/**
+ * The class {@code TransportLauncher} opens the connection to an analysis server over the kind of
+ * {@link Transport} that is chosen when {@link #start(String, Transport.Listener)} is invoked: the
+ * standard input and output of a server process that it starts, in JSON or, if the server agrees,
+ * in the {@link CborWriter} encoding of an {@link EncodedStreamTransport}, a TCP connection, or a
+ * Unix domain socket. A server on the same machine is reached with the least latency through a
+ * Unix domain socket, which bypasses both the TCP loopback stack and the buffering of the pipes of
+ * a process.
+ *
+ * The analysis server only communicates over its standard input and output, so the other kinds
+ * connect to a server, or a proxy for one, that has been started separately and that listens on the
+ * given address or path. The {@code TransportBenchmark} of the tests compares the latency of the
+ * kinds.
+ *
+ * A launcher runs at most one server process at a time: a process is only started once the one
+ * that was last started has ended, and a process whose connection cannot be negotiated is
+ * destroyed. Nothing reads the standard error of the process, so unless the builder redirects it,
+ * it is inherited from this process, which keeps a server that writes to it from blocking once
+ * the buffer of the pipe is full.
+ *
+ * @coverage dart.server.client
+ */
+public class TransportLauncher {
+
+  /**
+   * The kind of the transport over the standard input and output of a server process.
+   */
+  public static final String STDIO = "STDIO";
+
+  /**
+   * The kind of the transport over the standard input and output of a server process, which is
+   * asked to switch to the {@link EncodedStreamTransport#CBOR} encoding.
+   */
+  public static final String STDIO_CBOR = "STDIO_CBOR";
+
+  /**
+   * The kind of the transport over a TCP connection.
+   */
+  public static final String TCP = "TCP";
+
+  /**
+   * The kind of the transport over a Unix domain socket.
+   */
+  public static final String UNIX_DOMAIN_SOCKET = "UNIX_DOMAIN_SOCKET";
+
+  /**
+   * The builder of the server process started for {@link #STDIO}, or {@code null} if there is none.
+   */
+  private final ProcessBuilder processBuilder;
+
+  /**
+   * The address of the server connected to for {@link #TCP}, or {@code null} if there is none.
+   */
+  private final SocketAddress address;
+
+  /**
+   * The path of the socket of the server connected to for {@link #UNIX_DOMAIN_SOCKET}, or
+   * {@code null} if there is none.
+   */
+  private final Path socketPath;
+
+  /**
+   * The group serving the socket connections, or {@code null} if there is none.
+   */
+  private final NioTransportGroup group;
+
+  /**
+   * The server process that was last started, or {@code null} if none was started.
+   */
+  private Process process;
+
+  /**
+   * Initialize a newly created launcher to start a server process using the given builder, or to
+   * connect to the server at the given address or listening on the Unix domain socket at the given
+   * path, through the given group. Any of them can be {@code null} if the kinds of transport that
+   * use them are never chosen. The standard error of the processes started by the builder is
+   * inherited unless the builder redirects it.
+   */
+  public TransportLauncher(ProcessBuilder processBuilder, SocketAddress address, Path socketPath,
+      NioTransportGroup group) {
+    this.processBuilder = processBuilder;
+    this.address = address;
+    this.socketPath = socketPath;
+    this.group = group;
+  }
+
+  /**
+   * Return the server process that was last started, or {@code null} if none was started.
+   */
+  public synchronized Process getProcess() {
+    return process;
+  }
+
+  /**
+   * Open a transport of the given kind, which is one of {@link #STDIO}, {@link #STDIO_CBOR},
+   * {@link #TCP} and {@link #UNIX_DOMAIN_SOCKET}, whose messages are delivered to the given
+   * listener.
+   *
+   * @throws IllegalArgumentException if the kind is not known
+   * @throws IllegalStateException if this launcher was not given what the kind needs, or if the
+   *           kind starts a server process and the process that was last started is still running
+   * @throws IOException if the server process cannot be started or the connection cannot be opened
+   * @throws UnsupportedOperationException if the runtime does not support Unix domain sockets
+   */
+  public synchronized Transport start(String kind, Transport.Listener listener) throws IOException {
+    if (STDIO.equals(kind)) {
+      return StreamTransport.forProcess(startProcess(kind), listener);
+    } else if (STDIO_CBOR.equals(kind)) {
+      Process startedProcess = startProcess(kind);
+      EncodedStreamTransport transport = EncodedStreamTransport.forProcess(startedProcess);
+      try {
+        transport.negotiateEncoding(EncodedStreamTransport.CBOR);
+      } catch (IOException | RuntimeException exception) {
+        transport.close();
+        startedProcess.destroy();
+        throw exception;
+      }
+      transport.start(listener);
+      return transport;
+    } else if (TCP.equals(kind)) {
+      checkConfigured(address, kind);
+      checkConfigured(group, kind);
+      return group.connect(address, listener);
+    } else if (UNIX_DOMAIN_SOCKET.equals(kind)) {
+      checkConfigured(socketPath, kind);
+      checkConfigured(group, kind);
+      return group.connectUnixDomain(socketPath, listener);
+    }
+    throw new IllegalArgumentException("Unknown kind of transport: " + kind);
+  }
+
+  /**
+   * Check that the given value, which is needed by the given kind of transport, was given.
+   */
+  private static void checkConfigured(Object value, String kind) {
+    if (value == null) {
+      throw new IllegalStateException("The launcher cannot open a transport of kind " + kind);
+    }
+  }
+
+  /**
+   * Start a server process for the given kind of transport, and return it.
+   *
+   * @throws IllegalStateException if this launcher was not given a process builder, or if the
+   *           process that was last started is still running
+   * @throws IOException if the process cannot be started
+   */
+  private Process startProcess(String kind) throws IOException {
+    checkConfigured(processBuilder, kind);
+    if (process != null && process.isAlive()) {
+      throw new IllegalStateException("The server process that was last started is still running");
+    }
+    if (processBuilder.redirectError() == ProcessBuilder.Redirect.PIPE
+        && !processBuilder.redirectErrorStream()) {
+      processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    }
+    process = processBuilder.start();
+    return process;
+  }
+
+}
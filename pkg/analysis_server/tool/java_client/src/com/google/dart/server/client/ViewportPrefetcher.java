@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.AnalysisGetNavigationResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code ViewportPrefetcher} requests the navigation and hover information of the
+ * visible region of a file through a {@link ResponseCache} before it is asked for, so that the
+ * target of a click on an identifier and the hover of an identifier are usually cached by the time
+ * they are needed.
+ *
+ * When the visible region stops changing for a given delay, an {@code analysis.getNavigation}
+ * request is sent for the region. When its result arrives, {@code analysis.getHover} requests are
+ * sent for the navigation regions in it, which are the identifiers that refer to declarations, in
+ * order and at most a given number at a time, so that they do not delay the requests of the user.
+ * At most a given number of hovers are prefetched for each visible region, which should be well
+ * below the capacity of the cache, so that the prefetched hovers do not evict the results that the
+ * user asked for, such as the navigation information of the visible region itself. A change of the
+ * visible region discards the hover requests that have not been sent. The requests that have been
+ * sent are not cancelled, because their futures are shared through the cache.
+ *
+ * The requests of the user should be made through {@link #getNavigationTargets(String, int)} and
+ * {@link #analysis_getHover(String, int)}, which answer them from the prefetched results. Because
+ * the results are cached by file version, {@link #viewportChanged(String, int, int)} should also be
+ * invoked after the visible file has been edited.
+ *
+ * @coverage dart.server.client
+ */
+public class ViewportPrefetcher {
+
+  /**
+   * The server to which the requests are sent.
+   */
+  private final AsyncAnalysisServer server;
+
+  /**
+   * The cache through which the requests are sent.
+   */
+  private final ResponseCache cache;
+
+  /**
+   * The scheduler used to delay the navigation requests.
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * The number of milliseconds for which the visible region must not change before it is
+   * prefetched.
+   */
+  private final long delayMillis;
+
+  /**
+   * The largest number of hover requests that are sent at a time.
+   */
+  private final int maxConcurrentRequests;
+
+  /**
+   * The largest number of hover requests that are queued for each visible region.
+   */
+  private final int maxHovers;
+
+  /**
+   * The visible file, or {@code null} if no file is visible.
+   */
+  private String file;
+
+  /**
+   * The offset of the visible region.
+   */
+  private int offset;
+
+  /**
+   * The length of the visible region.
+   */
+  private int length;
+
+  /**
+   * The number of times that the visible region has changed, used to ignore the results for the
+   * previous regions.
+   */
+  private int generation;
+
+  /**
+   * The task that will send the navigation request for the visible region, or {@code null} if
+   * there is none.
+   */
+  private ScheduledFuture<?> pendingNavigation;
+
+  /**
+   * The navigation information of the visible region, or {@code null} if it has not been received
+   * since the visible region last changed.
+   */
+  private AnalysisGetNavigationResult navigationResult;
+
+  /**
+   * The index of the regions of {@link #navigationResult}, or {@code null} if there is no
+   * navigation information.
+   */
+  private RegionIndex navigationIndex;
+
+  /**
+   * The offsets of the identifiers of the visible region whose hover requests have not been sent.
+   */
+  private final ArrayDeque<Integer> waitingHovers = new ArrayDeque<Integer>();
+
+  /**
+   * The number of hover requests that have been sent and are not done.
+   */
+  private int inFlightCount;
+
+  /**
+   * Initialize a newly created prefetcher to send requests using the given server through the
+   * given cache, after the visible region has not changed for the given number of milliseconds,
+   * with at most the given number of hover requests at a time and the given number of hover
+   * requests for each visible region.
+   */
+  public ViewportPrefetcher(AsyncAnalysisServer server, ResponseCache cache,
+      ScheduledExecutorService scheduler, long delayMillis, int maxConcurrentRequests,
+      int maxHovers) {
+    this.server = server;
+    this.cache = cache;
+    this.scheduler = scheduler;
+    this.delayMillis = delayMillis;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxHovers = maxHovers;
+  }
+
+  /**
+   * Return the future for the {@code analysis.getHover} request for the given offset of the given
+   * file, sent through the cache. If the offset is in an identifier of the visible region whose
+   * navigation information has been received, the request is made for the start of the
+   * identifier, whose hover has been prefetched.
+   */
+  public CompletableFuture<List<HoverInformation>> analysis_getHover(String file, int offset) {
+    int hoverOffset = offset;
+    CompletableFuture<AnalysisGetNavigationResult> navigation = getViewportNavigation(file, offset);
+    if (navigation != null && navigation.isDone() && !navigation.isCompletedExceptionally()) {
+      NavigationRegion region = findRegion(navigation.join(), offset);
+      if (region != null) {
+        hoverOffset = region.getOffset();
+      }
+    }
+    return cache.analysis_getHover(server, file, hoverOffset);
+  }
+
+  /**
+   * Return the number of hover requests that have been sent and are not done.
+   */
+  public synchronized int getInFlightCount() {
+    return inFlightCount;
+  }
+
+  /**
+   * Return the future for the targets of the navigation region at the given offset of the given
+   * file, which are empty if there is no such region, or {@code null} if the offset is not in the
+   * visible region, in which case an {@code analysis.getNavigation} request should be sent for it.
+   */
+  public CompletableFuture<List<NavigationTarget>> getNavigationTargets(String file, int offset) {
+    CompletableFuture<AnalysisGetNavigationResult> navigation = getViewportNavigation(file, offset);
+    if (navigation == null) {
+      return null;
+    }
+    return navigation.thenApply(result -> {
+      NavigationRegion region = findRegion(result, offset);
+      if (region == null) {
+        return NavigationTarget.EMPTY_LIST;
+      }
+      List<NavigationTarget> targets = new ArrayList<NavigationTarget>(region.getTargets().length);
+      for (int index : region.getTargets()) {
+        targets.add(result.getTargets().get(index));
+      }
+      return targets;
+    });
+  }
+
+  /**
+   * Record that the region of the given file that starts at the given offset and has the given
+   * length is now the visible region, or that no file is visible if the file is {@code null}. The
+   * hover requests for the previous region that have not been sent are discarded.
+   */
+  public synchronized void viewportChanged(String file, int offset, int length) {
+    this.file = file;
+    this.offset = offset;
+    this.length = length;
+    int currentGeneration = ++generation;
+    navigationResult = null;
+    navigationIndex = null;
+    waitingHovers.clear();
+    if (pendingNavigation != null) {
+      pendingNavigation.cancel(false);
+      pendingNavigation = null;
+    }
+    if (file != null) {
+      pendingNavigation = scheduler.schedule(
+          () -> requestNavigation(currentGeneration),
+          delayMillis,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Return the innermost navigation region in the given result that contains the given offset, or
+   * {@code null} if there is no such region.
+   */
+  private NavigationRegion findRegion(AnalysisGetNavigationResult result, int offset) {
+    int index = getRegionIndex(result).findInnermostAt(offset);
+    return index != -1 ? result.getRegions().get(index) : null;
+  }
+
+  /**
+   * Return the index of the regions of the given navigation information of the visible region,
+   * which is only built once for each result.
+   */
+  private synchronized RegionIndex getRegionIndex(AnalysisGetNavigationResult result) {
+    if (result != navigationResult) {
+      navigationResult = result;
+      navigationIndex = RegionIndex.forNavigation(result.getRegions());
+    }
+    return navigationIndex;
+  }
+
+  /**
+   * Return the future for the navigation information of the visible region, sent through the
+   * cache, or {@code null} if the given offset of the given file is not in the visible region.
+   */
+  private CompletableFuture<AnalysisGetNavigationResult> getViewportNavigation(String file,
+      int offset) {
+    String visibleFile;
+    int visibleOffset;
+    int visibleLength;
+    synchronized (this) {
+      visibleFile = this.file;
+      visibleOffset = this.offset;
+      visibleLength = this.length;
+    }
+    if (!file.equals(visibleFile) || offset < visibleOffset
+        || offset > visibleOffset + visibleLength) {
+      return null;
+    }
+    return cache.analysis_getNavigation(server, visibleFile, visibleOffset, visibleLength);
+  }
+
+  /**
+   * Record that a hover request is done, and send the next waiting hover request.
+   */
+  private synchronized void hoverDone() {
+    inFlightCount--;
+    sendWaitingHovers();
+  }
+
+  /**
+   * Queue hover requests for the first navigation regions in the given result, which is the
+   * navigation information of the visible region of the given generation, up to the maximum number
+   * of hovers.
+   */
+  private synchronized void navigationReceived(int resultGeneration,
+      AnalysisGetNavigationResult result) {
+    if (resultGeneration != generation) {
+      return;
+    }
+    getRegionIndex(result);
+    int previousOffset = -1;
+    for (NavigationRegion region : result.getRegions()) {
+      if (waitingHovers.size() == maxHovers) {
+        break;
+      }
+      // nested regions that start at the same offset share a hover
+      if (region.getOffset() != previousOffset) {
+        waitingHovers.add(region.getOffset());
+        previousOffset = region.getOffset();
+      }
+    }
+    sendWaitingHovers();
+  }
+
+  /**
+   * Send the navigation request for the visible region, if it is still that of the given
+   * generation.
+   */
+  private synchronized void requestNavigation(int requestGeneration) {
+    if (requestGeneration != generation) {
+      return;
+    }
+    pendingNavigation = null;
+    cache.analysis_getNavigation(server, file, offset, length)
+        .thenAccept(result -> navigationReceived(requestGeneration, result));
+  }
+
+  /**
+   * Send the waiting hover requests while fewer than the maximum number are in flight. The
+   * requests whose results are already cached do not count.
+   */
+  private void sendWaitingHovers() {
+    while (inFlightCount < maxConcurrentRequests && !waitingHovers.isEmpty()) {
+      CompletableFuture<List<HoverInformation>> hover =
+          cache.analysis_getHover(server, file, waitingHovers.poll());
+      if (!hover.isDone()) {
+        inFlightCount++;
+        hover.whenComplete((result, exception) -> hoverDone());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.RequestErrorException;
+import com.google.gson.JsonObject;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AsyncAnalysisServerTest {
+
+  private final FakeRequestSender sender = new FakeRequestSender();
+
+  private ScheduledExecutorService scheduler;
+
+  @After
+  public void tearDown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void test_cancel_cancelsResponse() {
+    AsyncAnalysisServer server = new AsyncAnalysisServer(sender);
+    CompletableFuture<String> future = server.server_getVersion();
+    assertFalse(sender.get(0).future.isDone());
+    future.cancel(false);
+    // the response is no longer needed
+    assertTrue(sender.get(0).future.isCancelled());
+  }
+
+  @Test
+  public void test_completeResponse_error() throws Exception {
+    CompletableFuture<JsonObject> future = new CompletableFuture<JsonObject>();
+    AsyncAnalysisServer.completeResponse(future, FakeRequestSender.parse(
+        "{\"id\":\"1\",\"error\":{\"code\":\"FILE_NOT_ANALYZED\",\"message\":\"not analyzed\"}}"));
+    try {
+      future.get();
+      fail("Expected the future to complete exceptionally");
+    } catch (ExecutionException exception) {
+      RequestError error = ((RequestErrorException) exception.getCause()).getRequestError();
+      assertEquals(RequestErrorCode.FILE_NOT_ANALYZED, error.getCode());
+      assertEquals("not analyzed", error.getMessage());
+    }
+  }
+
+  @Test
+  public void test_completeResponse_result() throws Exception {
+    CompletableFuture<JsonObject> future = new CompletableFuture<JsonObject>();
+    AsyncAnalysisServer.completeResponse(
+        future, FakeRequestSender.parse("{\"id\":\"1\",\"result\":{\"version\":\"1.2.3\"}}"));
+    assertEquals("1.2.3", future.get().get("version").getAsString());
+    // a response without a result completes with an empty object
+    future = new CompletableFuture<JsonObject>();
+    AsyncAnalysisServer.completeResponse(future, FakeRequestSender.parse("{\"id\":\"2\"}"));
+    assertEquals(0, future.get().size());
+  }
+
+  @Test
+  public void test_send() throws Exception {
+    AsyncAnalysisServer server = new AsyncAnalysisServer(sender);
+    CompletableFuture<List<HoverInformation>> future = server.analysis_getHover("/a.dart", 12);
+    FakeRequestSender.SentRequest request = sender.get(0);
+    assertEquals("analysis.getHover", request.getMethod());
+    assertEquals("/a.dart", request.getParams().get("file").getAsString());
+    assertEquals(12, request.getParams().get("offset").getAsInt());
+    request.respond("{\"result\":{\"hovers\":[{\"offset\":10,\"length\":4}]}}");
+    assertEquals(1, future.get().size());
+    assertEquals(10, future.get().get(0).getOffset());
+    // an error fails the future with the error of the response
+    CompletableFuture<Void> failed = server.analysis_reanalyze();
+    sender.get(1).respond("{\"error\":{\"code\":\"SERVER_ERROR\",\"message\":\"failed\"}}");
+    try {
+      failed.get();
+      fail("Expected the request to fail");
+    } catch (ExecutionException exception) {
+      assertTrue(exception.getCause() instanceof RequestErrorException);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_timeout_noExecutor() {
+    new AsyncAnalysisServer(sender, null, 100);
+  }
+
+  @Test
+  public void test_withTimeout() throws Exception {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    AsyncAnalysisServer server = new AsyncAnalysisServer(sender, scheduler, 0).withTimeout(20);
+    CompletableFuture<String> future = server.server_getVersion();
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail("Expected the request to time out");
+    } catch (ExecutionException exception) {
+      assertTrue(exception.getCause() instanceof TimeoutException);
+      assertEquals("server.getVersion timed out after 20 ms", exception.getCause().getMessage());
+    }
+    // the response is no longer needed
+    assertTrue(sender.get(0).future.isCancelled());
+    // a response in time completes the future
+    future = server.withTimeout(60000).server_getVersion();
+    sender.get(1).respond("{\"result\":{\"version\":\"1.2.3\"}}");
+    assertEquals("1.2.3", future.get());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_withTimeout_noExecutor() {
+    new AsyncAnalysisServer(sender).withTimeout(100);
+  }
+
+}
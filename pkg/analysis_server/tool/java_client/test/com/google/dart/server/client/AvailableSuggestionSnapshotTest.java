@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AvailableSuggestionSnapshotTest {
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("suggestions", ".snapshot");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void test_computeHash() throws IOException {
+    AvailableSuggestionSet set = set(1, "package:a/a.dart", "Alpha", "beta");
+    long hash = AvailableSuggestionSnapshot.computeHash(set);
+    // the id is not part of the content
+    assertEquals(hash, AvailableSuggestionSnapshot.computeHash(
+        set(2, "package:a/a.dart", "Alpha", "beta")));
+    assertTrue(hash != AvailableSuggestionSnapshot.computeHash(
+        set(1, "package:a/b.dart", "Alpha", "beta")));
+    assertTrue(hash != AvailableSuggestionSnapshot.computeHash(
+        set(1, "package:a/a.dart", "Alpha", "gamma")));
+  }
+
+  @Test
+  public void test_open_invalid() throws IOException {
+    Files.write(file, new byte[] {0x44, 0x53, 0x53, 0x53, 0, 0, 0, 1, 0, 0, 0, 0});
+    try {
+      AvailableSuggestionSnapshot.open(file);
+      fail("Expected a snapshot of another version to be rejected");
+    } catch (IOException exception) {
+      // expected
+    }
+    Files.write(file, new byte[] {0x44, 0x53, 0x53, 0x53, 0, 0, 0, 2, 0, 0, 0, 1, 0, 0});
+    try {
+      AvailableSuggestionSnapshot.open(file);
+      fail("Expected a truncated snapshot to be rejected");
+    } catch (IOException exception) {
+      // expected
+    }
+  }
+
+  @Test
+  public void test_readSet_damaged() throws IOException {
+    List<AvailableSuggestionSet> sets = Arrays.asList(
+        set(1, "package:a/a.dart", "Alpha"), set(2, "package:a/b.dart", "Beta"));
+    AvailableSuggestionSnapshot.write(file, sets);
+    // the encoding of the last set ends the file
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - 2] ^= 1;
+    Files.write(file, bytes);
+    try (AvailableSuggestionSnapshot snapshot = AvailableSuggestionSnapshot.open(file)) {
+      assertEquals(2, snapshot.getSetCount());
+      assertTrue(snapshot.isIntact(0));
+      assertEquals(sets.get(0), snapshot.readSet(0));
+      assertFalse(snapshot.isIntact(1));
+      assertNull(snapshot.readSet(1));
+      assertEquals(AvailableSuggestionSnapshot.computeHash(sets.get(1)), snapshot.getHash(1));
+    }
+  }
+
+  @Test
+  public void test_write_open_readSet() throws IOException {
+    List<AvailableSuggestionSet> sets = Arrays.asList(
+        set(3, "package:a/a.dart", "Alpha", "alpha", "beta"),
+        set(7, "package:a/é.dart"),
+        set(5, "dart:core", "int", "String"));
+    AvailableSuggestionSnapshot.write(file, sets);
+    assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+    AvailableSuggestionSnapshot snapshot = AvailableSuggestionSnapshot.open(file);
+    assertEquals(3, snapshot.getSetCount());
+    for (int i = 0; i < sets.size(); i++) {
+      AvailableSuggestionSet set = sets.get(i);
+      assertEquals(set.getId(), snapshot.getId(i));
+      assertEquals(set.getUri(), snapshot.getUri(i));
+      assertEquals(i, snapshot.indexOf(set.getUri()));
+      assertEquals(AvailableSuggestionSnapshot.computeHash(set), snapshot.getHash(i));
+      assertTrue(snapshot.isIntact(i));
+      assertEquals(set, snapshot.readSet(i));
+    }
+    assertEquals(-1, snapshot.indexOf("package:a/c.dart"));
+    snapshot.close();
+    try {
+      snapshot.readSet(0);
+      fail("Expected a closed snapshot to refuse to read");
+    } catch (IllegalStateException exception) {
+      // expected
+    }
+    // the file can be replaced once the snapshot is closed
+    AvailableSuggestionSnapshot.write(file, Collections.<AvailableSuggestionSet>emptyList());
+    try (AvailableSuggestionSnapshot empty = AvailableSuggestionSnapshot.open(file)) {
+      assertEquals(0, empty.getSetCount());
+    }
+  }
+
+  /**
+   * Return a set with the given id and URI, whose suggestions are classes with the given labels.
+   */
+  static AvailableSuggestionSet set(int id, String uri, String... labels) {
+    List<AvailableSuggestion> items = new ArrayList<AvailableSuggestion>();
+    for (String label : labels) {
+      Element element = new Element(ElementKind.CLASS, label, null, 0, null, null, null);
+      items.add(new AvailableSuggestion(label, element, null, null, "Documentation of " + label,
+          null, null, null, Arrays.asList("tag:" + label), null));
+    }
+    return new AvailableSuggestionSet(id, uri, items);
+  }
+
+}
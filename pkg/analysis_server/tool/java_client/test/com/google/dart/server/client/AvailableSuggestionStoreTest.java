@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static com.google.dart.server.client.AvailableSuggestionSnapshotTest.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AvailableSuggestionStoreTest {
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("suggestions", ".snapshot");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void test_addMatches_prefixRange() {
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    store.applyChanges(Arrays.asList(
+        set(1, "package:a/a.dart", "Alpha", "alphabet", "Alright", "al", "Beta"),
+        set(2, "package:a/b.dart", "Alps", "Gamma", "\uffffmax")), null);
+    assertEquals(Arrays.asList("al", "Alpha", "alphabet", "Alps", "Alright"),
+        matchLabels(store, "al", 1, 2));
+    assertEquals(Arrays.asList("Alpha", "alphabet", "Alps"), matchLabels(store, "ALP", 1, 2));
+    assertEquals(Arrays.asList("alphabet"), matchLabels(store, "alphab", 1, 2));
+    assertEquals(Arrays.asList(), matchLabels(store, "alphabets", 1, 2));
+    // only the included sets are searched
+    assertEquals(Arrays.asList("al", "Alpha", "alphabet", "Alright"),
+        matchLabels(store, "al", 1));
+    // the range of a prefix that ends with the largest character
+    assertEquals(Arrays.asList("\uffffmax"), matchLabels(store, "\uffff", 1, 2));
+    assertEquals(8, matchLabels(store, "", 1, 2).size());
+  }
+
+  @Test
+  public void test_applyChanges_removed() {
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    store.applyChanges(Arrays.asList(set(1, "package:a/a.dart", "Alpha", "Beta"),
+        set(2, "package:a/b.dart", "alpha", "Gamma")), null);
+    assertEquals(3, store.getLabelCount());
+    store.applyChanges(null, new int[] {1});
+    // the labels of the removed set are removed from the index, unless another set has them
+    assertNull(store.getSet(1));
+    assertEquals(1, store.getSetCount());
+    assertEquals(2, store.getLabelCount());
+    assertEquals(Arrays.asList("alpha"), matchLabels(store, "a", 1, 2));
+    assertEquals(Arrays.asList(), matchLabels(store, "b", 1, 2));
+    store.applyChanges(null, new int[] {2, 3});
+    assertEquals(0, store.getSetCount());
+    assertEquals(0, store.getLabelCount());
+  }
+
+  @Test
+  public void test_applyChanges_replacedByUri() {
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    store.applyChanges(Arrays.asList(set(1, "package:a/a.dart", "Alpha", "Beta")), null);
+    // the server sends a new version of the library under a new id
+    store.applyChanges(Arrays.asList(set(2, "package:a/a.dart", "Alpha", "Gamma")), null);
+    assertNull(store.getSet(1));
+    assertEquals(set(2, "package:a/a.dart", "Alpha", "Gamma"), store.getSet(2));
+    assertEquals(1, store.getSetCount());
+    assertEquals(2, store.getLabelCount());
+    assertEquals(Arrays.asList(), matchLabels(store, "", 1));
+    assertEquals(Arrays.asList("Alpha", "Gamma"), matchLabels(store, "", 2));
+  }
+
+  @Test
+  public void test_applyChanges_unchanged() {
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    store.applyChanges(Arrays.asList(set(1, "package:a/a.dart", "Alpha", "Alright")), null);
+    AvailableSuggestionSet first = store.getSet(1);
+    // a set sent again unchanged is kept, under the new id if it has one
+    store.applyChanges(Arrays.asList(set(1, "package:a/a.dart", "Alpha", "Alright")), null);
+    assertSame(first, store.getSet(1));
+    store.applyChanges(Arrays.asList(set(4, "package:a/a.dart", "Alpha", "Alright")), null);
+    assertNull(store.getSet(1));
+    assertEquals(set(4, "package:a/a.dart", "Alpha", "Alright"), store.getSet(4));
+    assertEquals(1, store.getSetCount());
+    assertEquals(2, store.getLabelCount());
+    assertEquals(2, countMatches(store, 4, "al"));
+    assertEquals(0, countMatches(store, 1, "al"));
+  }
+
+  @Test
+  public void test_getSet_interned() {
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    store.applyChanges(Arrays.asList(set(1, "package:a/a.dart", new String("Widget")),
+        set(2, "package:a/b.dart", new String("Widget"))), null);
+    AvailableSuggestion first = store.getSet(1).getItems().get(0);
+    AvailableSuggestion second = store.getSet(2).getItems().get(0);
+    // the equal labels, elements and relevance tags of the sets are kept once
+    assertSame(first.getLabel(), second.getLabel());
+    assertSame(first.getElement(), second.getElement());
+    assertSame(first.getRelevanceTags().get(0), second.getRelevanceTags().get(0));
+    assertEquals(1, store.getLabelCount());
+  }
+
+  @Test
+  public void test_loadSnapshot_applyChanges() throws IOException {
+    AvailableSuggestionStore previous = new AvailableSuggestionStore();
+    previous.applyChanges(Arrays.asList(set(1, "package:a/a.dart", "Alpha", "Alright"),
+        set(2, "package:a/b.dart", "Beta"), set(3, "package:a/c.dart", "Gamma")), null);
+    previous.saveSnapshot(file);
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    AvailableSuggestionSnapshot snapshot = AvailableSuggestionSnapshot.open(file);
+    assertEquals(3, store.loadSnapshot(snapshot));
+    // the loaded sets are not served under the ids given by the previous server
+    assertEquals(0, store.getSetCount());
+    assertNull(store.getSet(1));
+    // the new server sends the first set unchanged, the second changed, and not the third
+    AvailableSuggestionSet changed = set(1, "package:a/b.dart", "Beta", "Better");
+    store.applyChanges(
+        Arrays.asList(set(7, "package:a/a.dart", "Alpha", "Alright"), changed), null);
+    assertEquals(2, store.getSetCount());
+    // the unchanged set is served from the snapshot, and is not indexed until it is needed
+    assertEquals(2, store.getLabelCount());
+    assertEquals(2, countMatches(store, 7, "al"));
+    assertEquals(4, store.getLabelCount());
+    assertEquals(set(7, "package:a/a.dart", "Alpha", "Alright"), store.getSet(7));
+    assertEquals(changed, store.getSet(1));
+    assertEquals(2, countMatches(store, 1, "be"));
+    assertEquals(1, store.removeSnapshotSets());
+    assertEquals(2, store.getSetCount());
+    // every loaded set has been decoded or removed, so the snapshot has been closed
+    try {
+      snapshot.readSet(0);
+      fail("Expected the snapshot to be closed");
+    } catch (IllegalStateException exception) {
+      // expected
+    }
+    // the next change of the set is applied
+    store.applyChanges(Arrays.asList(set(7, "package:a/a.dart", "Alpha")), null);
+    assertEquals(1, countMatches(store, 7, "al"));
+  }
+
+  @Test
+  public void test_loadSnapshot_damaged() throws IOException {
+    AvailableSuggestionSnapshot.write(file, Arrays.asList(set(1, "package:a/a.dart", "Alpha")));
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - 2] ^= 1;
+    Files.write(file, bytes);
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    assertEquals(1, store.loadSnapshot(AvailableSuggestionSnapshot.open(file)));
+    // the directory has the hash of the set, but its encoding cannot be read, so the set that the
+    // server sends is indexed
+    store.applyChanges(Arrays.asList(set(5, "package:a/a.dart", "Alpha")), null);
+    assertEquals(1, store.getLabelCount());
+    assertEquals(set(5, "package:a/a.dart", "Alpha"), store.getSet(5));
+    assertEquals(0, store.removeSnapshotSets());
+  }
+
+  @Test
+  public void test_saveSnapshot_pendingSets() throws IOException {
+    AvailableSuggestionSnapshot.write(file, Arrays.asList(set(1, "package:a/a.dart", "Alpha"),
+        set(2, "package:a/b.dart", "Beta")));
+    AvailableSuggestionStore store = new AvailableSuggestionStore();
+    store.loadSnapshot(AvailableSuggestionSnapshot.open(file));
+    store.applyChanges(Arrays.asList(set(8, "package:a/b.dart", "Beta")), null);
+    // the snapshot is replaced; the set that the server has not sent keeps its previous id
+    store.saveSnapshot(file);
+    try (AvailableSuggestionSnapshot snapshot = AvailableSuggestionSnapshot.open(file)) {
+      assertEquals(2, snapshot.getSetCount());
+      int index = snapshot.indexOf("package:a/a.dart");
+      assertEquals(set(1, "package:a/a.dart", "Alpha"), snapshot.readSet(index));
+      index = snapshot.indexOf("package:a/b.dart");
+      assertEquals(set(8, "package:a/b.dart", "Beta"), snapshot.readSet(index));
+    }
+    // the set that was read to be saved is still served once the server sends it
+    store.applyChanges(Arrays.asList(set(9, "package:a/a.dart", "Alpha")), null);
+    assertEquals(set(9, "package:a/a.dart", "Alpha"), store.getSet(9));
+    assertEquals(0, store.removeSnapshotSets());
+  }
+
+  /**
+   * Return the number of suggestions of the set with the given id that match the given prefix.
+   */
+  private static int countMatches(AvailableSuggestionStore store, int id, String prefix) {
+    CompletionAccumulator accumulator = new CompletionAccumulator(100, prefix);
+    store.addMatches(accumulator,
+        Collections.singletonList(new IncludedSuggestionSet(id, 100, null)), prefix);
+    return accumulator.getMatchedCount();
+  }
+
+  /**
+   * Return the labels of the suggestions of the sets with the given ids that match the given
+   * prefix, sorted ignoring case.
+   */
+  private static List<String> matchLabels(AvailableSuggestionStore store, String prefix,
+      int... ids) {
+    List<IncludedSuggestionSet> includedSets = new ArrayList<IncludedSuggestionSet>();
+    for (int id : ids) {
+      includedSets.add(new IncludedSuggestionSet(id, 100, null));
+    }
+    CompletionAccumulator accumulator = new CompletionAccumulator(100, prefix);
+    store.addMatches(accumulator, includedSets, prefix);
+    List<String> labels = new ArrayList<String>();
+    for (CompletionAccumulator.Candidate candidate : accumulator.getBestCandidates()) {
+      labels.add(candidate.getLabel());
+    }
+    Collections.sort(labels, String.CASE_INSENSITIVE_ORDER);
+    return labels;
+  }
+
+}
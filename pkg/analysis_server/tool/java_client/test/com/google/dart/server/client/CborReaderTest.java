@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.gson.stream.JsonToken;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class CborReaderTest {
+
+  @Test
+  public void test_longString_grows() throws IOException {
+    char[] chars = new char[100000];
+    Arrays.fill(chars, 'a');
+    String text = new String(chars);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CborWriter writer = new CborWriter(bytes);
+    writer.value(text);
+    writer.flush();
+    CborReader reader = read(bytes.toByteArray());
+    assertEquals(text, reader.nextString());
+    assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+  }
+
+  @Test
+  public void test_roundTrip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CborWriter writer = new CborWriter(bytes);
+    writer.beginObject();
+    writer.name("id").value("7");
+    writer.name("params").beginObject();
+    writer.name("offsets").beginArray().value(0).value(-1).value(1L << 40).endArray();
+    writer.name("isValid").value(true);
+    writer.name("ratio").value(0.5);
+    writer.name("scales").beginArray().value(1.25f).value(Float.valueOf(-0.1f)).endArray();
+    writer.name("missing").nullValue();
+    writer.endObject();
+    writer.endObject();
+    writer.flush();
+    CborReader reader = read(bytes.toByteArray());
+    reader.beginObject();
+    assertEquals("id", reader.nextName());
+    assertEquals("7", reader.nextString());
+    assertEquals("params", reader.nextName());
+    reader.beginObject();
+    assertEquals("offsets", reader.nextName());
+    reader.beginArray();
+    assertEquals(0, reader.nextInt());
+    assertEquals(-1, reader.nextInt());
+    assertEquals(1L << 40, reader.nextLong());
+    assertFalse(reader.hasNext());
+    reader.endArray();
+    assertEquals("isValid", reader.nextName());
+    assertTrue(reader.nextBoolean());
+    assertEquals("ratio", reader.nextName());
+    assertEquals(0.5, reader.nextDouble(), 0);
+    assertEquals("scales", reader.nextName());
+    reader.beginArray();
+    assertEquals(1.25, reader.nextDouble(), 0);
+    assertEquals(-0.1f, reader.nextDouble(), 0);
+    reader.endArray();
+    assertEquals("missing", reader.nextName());
+    reader.nextNull();
+    reader.endObject();
+    reader.endObject();
+    assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+  }
+
+  @Test
+  public void test_stringLength_beyondInput() throws IOException {
+    // a text string that declares 2 GB but is followed by a single byte
+    CborReader reader = read(new byte[] {0x7a, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xf0, 0x78});
+    try {
+      reader.nextString();
+      fail("Expected an EOFException");
+    } catch (EOFException exception) {
+      // expected
+    }
+  }
+
+  @Test
+  public void test_stringLength_outOfRange() throws IOException {
+    CborReader reader = read(new byte[] {0x7b, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+        (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+    try {
+      reader.nextString();
+      fail("Expected an IOException");
+    } catch (IOException exception) {
+      // expected
+    }
+  }
+
+  private static CborReader read(byte[] bytes) {
+    return new CborReader(new ByteArrayInputStream(bytes));
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.client.CompletionAccumulator.Candidate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class CompletionAccumulatorTest {
+
+  @Test
+  public void test_addAvailableSuggestion_includedElementKinds() {
+    CompletionAccumulator accumulator = new CompletionAccumulator(10, "");
+    accumulator.setIncludedElementKinds(Arrays.asList(ElementKind.CLASS, ElementKind.FUNCTION));
+    AvailableSuggestionSet set = new AvailableSuggestionSet(1, "package:a/a.dart", Arrays.asList(
+        available("A", ElementKind.CLASS), available("b", ElementKind.FUNCTION),
+        available("c", ElementKind.TOP_LEVEL_VARIABLE)));
+    accumulator.addSuggestionSet(set, new IncludedSuggestionSet(1, 10, null));
+    assertEquals(3, accumulator.getAddedCount());
+    assertEquals(2, accumulator.getMatchedCount());
+    assertEquals(Arrays.asList("A", "b"), labels(accumulator.getBestCandidates()));
+    // all of the kinds are included again
+    accumulator.setIncludedElementKinds(null);
+    accumulator.addSuggestionSet(set, new IncludedSuggestionSet(1, 10, null));
+    assertEquals(5, accumulator.getBestCandidates().size());
+  }
+
+  @Test
+  public void test_addAvailableSuggestion_relevanceTags() {
+    CompletionAccumulator accumulator = new CompletionAccumulator(10, "");
+    accumulator.setRelevanceTags(Arrays.asList(new IncludedSuggestionRelevanceTag("int", 5),
+        new IncludedSuggestionRelevanceTag("num", 2),
+        new IncludedSuggestionRelevanceTag("int", 3)));
+    AvailableSuggestionSet set = new AvailableSuggestionSet(1, "package:a/a.dart", Arrays.asList(
+        available("none", ElementKind.CLASS),
+        available("num", ElementKind.CLASS, "num"),
+        available("both", ElementKind.CLASS, "num", "int"),
+        available("other", ElementKind.CLASS, "String")));
+    IncludedSuggestionSet includedSet = new IncludedSuggestionSet(1, 100, null);
+    accumulator.addSuggestionSet(set, includedSet);
+    List<Candidate> candidates = accumulator.getBestCandidates();
+    // the largest boost of the tags of a suggestion is added to the relevance of its set
+    assertEquals(Arrays.asList("both", "num", "none", "other"), labels(candidates));
+    assertEquals(105, candidates.get(0).getRelevance());
+    assertEquals(102, candidates.get(1).getRelevance());
+    assertEquals(100, candidates.get(2).getRelevance());
+    assertSame(set, candidates.get(0).getSuggestionSet());
+    assertSame(includedSet, candidates.get(0).getIncludedSet());
+    // the tags can be cleared
+    accumulator.setRelevanceTags(null);
+    accumulator.addAvailableSuggestion(set.getItems().get(2), set, includedSet);
+    assertEquals(100, accumulator.getBestCandidates().get(3).getRelevance());
+  }
+
+  @Test
+  public void test_addSuggestions_ranking() {
+    CompletionAccumulator accumulator = new CompletionAccumulator(10, "ab");
+    accumulator.addSuggestions(Arrays.asList(suggestion("abX", 5), suggestion("ABc", 5),
+        suggestion("abY", 5), suggestion("Ab", 7), suggestion("xab", 9)));
+    // by relevance, then exact over case-insensitive matches, then the order of addition
+    List<Candidate> candidates = accumulator.getBestCandidates();
+    assertEquals(Arrays.asList("Ab", "abX", "abY", "ABc"), labels(candidates));
+    assertEquals(CompletionAccumulator.CASE_INSENSITIVE_PREFIX_MATCH,
+        candidates.get(0).getMatchScore());
+    assertEquals(CompletionAccumulator.EXACT_PREFIX_MATCH, candidates.get(1).getMatchScore());
+    assertEquals(5, accumulator.getAddedCount());
+    assertEquals(4, accumulator.getMatchedCount());
+  }
+
+  @Test
+  public void test_getBestCandidates_random() {
+    Random random = new Random(3);
+    String[] labels = {"a", "ab", "Ab", "abc", "aBc", "b", "ba", "abd"};
+    for (int capacity : new int[] {0, 1, 5, 20, 1000}) {
+      for (int round = 0; round < 20; round++) {
+        CompletionAccumulator accumulator = new CompletionAccumulator(capacity, "ab");
+        List<CompletionSuggestion> all = new ArrayList<CompletionSuggestion>();
+        int count = random.nextInt(200);
+        for (int i = 0; i < count; i++) {
+          all.add(suggestion(labels[random.nextInt(labels.length)], random.nextInt(10)));
+        }
+        // the candidates are added in several batches, and the best are read in between
+        for (int start = 0; start < count; start += 50) {
+          accumulator.addSuggestions(all.subList(start, Math.min(start + 50, count)));
+          accumulator.getBestCandidates();
+        }
+        // compare the top candidates with a full sort of the matching ones
+        List<CompletionSuggestion> expected = new ArrayList<CompletionSuggestion>();
+        for (CompletionSuggestion suggestion : all) {
+          if (suggestion.getCompletion().regionMatches(true, 0, "ab", 0, 2)) {
+            expected.add(suggestion);
+          }
+        }
+        // the sort is stable, which keeps the order of addition among equal candidates
+        Collections.sort(expected, Comparator
+            .comparingInt((CompletionSuggestion suggestion) -> -suggestion.getRelevance())
+            .thenComparingInt(suggestion -> suggestion.getCompletion().startsWith("ab") ? 0 : 1));
+        expected = expected.subList(0, Math.min(capacity, expected.size()));
+        List<Candidate> candidates = accumulator.getBestCandidates();
+        assertEquals(expected.size(), candidates.size());
+        for (int i = 0; i < expected.size(); i++) {
+          assertSame(expected.get(i), candidates.get(i).getSuggestion());
+        }
+      }
+    }
+  }
+
+  /**
+   * Return an available suggestion with the given label, element kind and relevance tags.
+   */
+  private static AvailableSuggestion available(String label, String kind, String... tags) {
+    Element element = new Element(kind, label, null, 0, null, null, null);
+    return new AvailableSuggestion(label, element, null, null, null, null, null, null,
+        Arrays.asList(tags), null);
+  }
+
+  /**
+   * Return the labels of the given candidates.
+   */
+  private static List<String> labels(List<Candidate> candidates) {
+    List<String> labels = new ArrayList<String>();
+    for (Candidate candidate : candidates) {
+      labels.add(candidate.getLabel());
+    }
+    return labels;
+  }
+
+  /**
+   * Return a suggestion that completes with the given text and has the given relevance.
+   */
+  private static CompletionSuggestion suggestion(String completion, int relevance) {
+    return new CompletionSuggestion(CompletionSuggestionKind.IDENTIFIER, relevance, completion,
+        null, completion.length(), 0, false, false, null, null, null, null, null, null, null, null,
+        null, null, null, null, null);
+  }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CompletionSessionTest {
+
+  @Test
+  public void test_getReplacementLength() {
+    CompletionSession session = new CompletionSession("/a.dart", 12, 10, 3, "ab");
+    assertEquals(10, session.getReplacementOffset());
+    assertEquals(3, session.getReplacementLength(12));
+    assertEquals(5, session.getReplacementLength(14));
+  }
+
+  @Test
+  public void test_isValidFor() {
+    CompletionSession session = new CompletionSession("/a.dart", 12, 10, 2, "ab");
+    assertTrue(session.isValidFor("/a.dart", 12, "ab"));
+    assertTrue(session.isValidFor("/a.dart", 15, "ab_$1"));
+    // another file
+    assertFalse(session.isValidFor("/b.dart", 12, "ab"));
+    // before the offset of the request, which shortens the prefix
+    assertFalse(session.isValidFor("/a.dart", 11, "a"));
+    // a prefix that does not end at the offset
+    assertFalse(session.isValidFor("/a.dart", 13, "ab"));
+    // a prefix that does not extend the original prefix
+    assertFalse(session.isValidFor("/a.dart", 12, "ax"));
+    // a prefix extended with a character that is not part of an identifier
+    assertFalse(session.isValidFor("/a.dart", 13, "ab."));
+    assertFalse(session.isValidFor("/a.dart", 13, "ab("));
+  }
+
+  @Test
+  public void test_refilter_afterAddSuggestions() {
+    CompletionSession session = new CompletionSession("/a.dart", 10, 10, 0, "");
+    session.addSuggestions(Arrays.asList(suggestion("abc", 1)));
+    assertEquals(Arrays.asList("abc"), completions(session.refilter("/a.dart", 11, "a", 10)));
+    // suggestions added after a refiltering are considered by the next one
+    session.addSuggestions(Arrays.asList(suggestion("abd", 2), suggestion("xyz", 3)));
+    assertEquals(3, session.getSuggestionCount());
+    assertEquals(Arrays.asList("abd", "abc"),
+        completions(session.refilter("/a.dart", 12, "ab", 10)));
+  }
+
+  @Test
+  public void test_refilter_displayText() {
+    CompletionSession session = new CompletionSession("/a.dart", 10, 10, 0, "");
+    String completion = "@override\n  void build() {}";
+    CompletionSuggestion override = new CompletionSuggestion(CompletionSuggestionKind.OVERRIDE, 1,
+        completion, "build() {…}", completion.length(), 0, false, false, null, null, null, null,
+        null, null, null, null, null, null, null, null, null);
+    session.addSuggestions(Arrays.asList(override, suggestion("other", 1)));
+    // the display text matches although the completion does not
+    assertEquals(Arrays.asList(completion),
+        completions(session.refilter("/a.dart", 13, "bui", 10)));
+  }
+
+  @Test
+  public void test_refilter_invalid() {
+    CompletionSession session = new CompletionSession("/a.dart", 12, 10, 2, "ab");
+    session.addSuggestions(Arrays.asList(suggestion("abc", 1)));
+    assertEquals(1, session.refilter("/a.dart", 12, "ab", 10).size());
+    // a character that is not part of an identifier ends the session
+    assertNull(session.refilter("/a.dart", 13, "ab.", 10));
+    assertNull(session.refilter("/b.dart", 12, "ab", 10));
+  }
+
+  @Test
+  public void test_refilter_lastMatches() {
+    Random random = new Random(5);
+    String[] completions = {"a", "ab", "abc", "aXbc", "a_b_c", "Abc", "b", "bac", "abcd", "axc"};
+    List<CompletionSuggestion> suggestions = new ArrayList<CompletionSuggestion>();
+    for (int i = 0; i < 100; i++) {
+      suggestions.add(suggestion(completions[random.nextInt(completions.length)],
+          random.nextInt(5)));
+    }
+    CompletionSession session = new CompletionSession("/a.dart", 10, 10, 0, "");
+    session.addSuggestions(suggestions);
+    // narrowing the last matches gives the same results as refiltering all of the suggestions,
+    // and a shorter prefix, as after a backspace, considers all of them again
+    for (String typedPrefix : new String[] {"", "a", "ab", "abc", "ab", "a", "ax", "axc", "b"}) {
+      CompletionSession fresh = new CompletionSession("/a.dart", 10, 10, 0, "");
+      fresh.addSuggestions(suggestions);
+      int offset = 10 + typedPrefix.length();
+      assertEquals(fresh.refilter("/a.dart", offset, typedPrefix, 100),
+          session.refilter("/a.dart", offset, typedPrefix, 100));
+    }
+  }
+
+  @Test
+  public void test_refilter_ranking() {
+    CompletionSession session = new CompletionSession("/a.dart", 10, 10, 0, "");
+    session.addSuggestions(Arrays.asList(suggestion("fooBar", 5), suggestion("FBX", 5),
+        suggestion("fb", 1), suggestion("fab", 9), suggestion("Fb2", 1), suggestion("fbz", 1),
+        suggestion("xfb", 100)));
+    // exact prefix matches first, the one that is the whole completion first among them, then
+    // case-insensitive prefix matches, then subsequences, each by relevance
+    assertEquals(Arrays.asList("fb", "fbz", "FBX", "Fb2", "fooBar", "fab"),
+        completions(session.refilter("/a.dart", 12, "fb", 10)));
+    assertEquals(Arrays.asList("fb", "fbz"),
+        completions(session.refilter("/a.dart", 12, "fb", 2)));
+  }
+
+  @Test
+  public void test_refilter_relevanceRange() {
+    CompletionSession session = new CompletionSession("/a.dart", 10, 10, 0, "");
+    session.addSuggestions(Arrays.asList(suggestion("a1", -5), suggestion("a2", 0),
+        suggestion("a3", 0x10000), suggestion("a4", 0xffff), suggestion("a5", 70000)));
+    // the relevances are clamped into the ranking key, which then keeps the order of addition
+    assertEquals(Arrays.asList("a3", "a4", "a5", "a1", "a2"),
+        completions(session.refilter("/a.dart", 11, "a", 10)));
+  }
+
+  /**
+   * Return the completions of the given suggestions.
+   */
+  private static List<String> completions(List<CompletionSuggestion> suggestions) {
+    List<String> completions = new ArrayList<String>();
+    for (CompletionSuggestion suggestion : suggestions) {
+      completions.add(suggestion.getCompletion());
+    }
+    return completions;
+  }
+
+  /**
+   * Return a suggestion that completes with the given text and has the given relevance.
+   */
+  private static CompletionSuggestion suggestion(String completion, int relevance) {
+    return new CompletionSuggestion(CompletionSuggestionKind.IDENTIFIER, relevance, completion,
+        null, completion.length(), 0, false, false, null, null, null, null, null, null, null, null,
+        null, null, null, null, null);
+  }
+
+}
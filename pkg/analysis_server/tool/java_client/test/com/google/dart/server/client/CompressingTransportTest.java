@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class CompressingTransportTest {
+
+  private static final String NEGOTIATION_REQUEST =
+      "{\"id\":\"compression\",\"method\":\"transport.enableCompression\"}";
+
+  private static final String NEGOTIATION_RESULT = "{\"id\":\"compression\",\"result\":{}}";
+
+  private static final int THRESHOLD = 100;
+
+  @Test
+  public void test_corruptMessage_closes() throws Exception {
+    MemoryTransport[] ends = MemoryTransport.pair();
+    RecordingListener listener = new RecordingListener();
+    new CompressingTransport(ends[0]::connect, listener, THRESHOLD);
+    ends[1].connect(new RecordingListener());
+    ends[1].send("{\"event\":\"server.connected\"}");
+    ends[1].send(CompressingTransport.COMPRESSED_MESSAGE_PREFIX + "AAAA");
+    // a message that was already on its way is ignored
+    ends[0].listener.messageReceived("{\"event\":\"server.status\"}");
+    assertEquals(Arrays.asList("{\"event\":\"server.connected\"}"), listener.messages);
+    assertFalse(ends[0].isOpen());
+    assertNull(listener.closed.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void test_negotiation_beforeConnected() throws Exception {
+    MemoryTransport[] ends = MemoryTransport.pair();
+    RecordingListener peer = new RecordingListener();
+    ends[1].connect(peer);
+    // the request is received while the transport is being opened
+    CompressingTransport transport = new CompressingTransport(listener -> {
+      Transport end = ends[0].connect(listener);
+      listener.messageReceived(NEGOTIATION_REQUEST);
+      return end;
+    }, new RecordingListener(), THRESHOLD);
+    assertEquals(Arrays.asList(NEGOTIATION_RESULT), peer.messages);
+    assertTrue(transport.isCompressionEnabled());
+  }
+
+  @Test
+  public void test_negotiation_refused() throws Exception {
+    MemoryTransport[] ends = MemoryTransport.pair();
+    CompressingTransport transport =
+        new CompressingTransport(ends[0]::connect, new RecordingListener(), THRESHOLD);
+    ends[1].connect(new RecordingListener() {
+      @Override
+      public void messageReceived(String message) {
+        // like the analysis server, which does not know the request
+        try {
+          ends[1].send("{\"id\":\"compression\",\"error\":{\"code\":\"UNKNOWN_REQUEST\"}}");
+        } catch (IOException exception) {
+          throw new AssertionError(exception);
+        }
+      }
+    });
+    assertFalse(transport.negotiateCompression().get(5, TimeUnit.SECONDS));
+    assertFalse(transport.isCompressionEnabled());
+  }
+
+  @Test
+  public void test_pair() throws Exception {
+    MemoryTransport[] ends = MemoryTransport.pair();
+    RecordingListener clientListener = new RecordingListener();
+    RecordingListener serverListener = new RecordingListener();
+    CompressingTransport client =
+        new CompressingTransport(ends[0]::connect, clientListener, THRESHOLD);
+    CompressingTransport server =
+        new CompressingTransport(ends[1]::connect, serverListener, THRESHOLD);
+    assertTrue(client.negotiateCompression().get(5, TimeUnit.SECONDS));
+    assertTrue(client.isCompressionEnabled());
+    assertTrue(server.isCompressionEnabled());
+    List<String> messages = new ArrayList<String>();
+    for (int i = 0; i < 10; i++) {
+      messages.add(largeMessage(i));
+    }
+    messages.add("{\"id\":\"1\",\"result\":{}}");
+    for (String message : messages) {
+      server.send(message);
+    }
+    assertEquals(messages, clientListener.messages);
+    assertTrue(server.getSentCompressedBytes() < server.getSentRawBytes() / 4);
+    assertEquals(server.getSentRawBytes(), client.getReceivedRawBytes());
+    assertEquals(server.getSentCompressedBytes(), client.getReceivedCompressedBytes());
+    // only the large messages were compressed
+    for (String sent : ends[1].sent.subList(1, 11)) {
+      assertEquals(CompressingTransport.COMPRESSED_MESSAGE_PREFIX, sent.charAt(0));
+    }
+    assertEquals(messages.get(10), ends[1].sent.get(11));
+    client.close();
+    assertNull(serverListener.closed.get(5, TimeUnit.SECONDS));
+  }
+
+  private static String largeMessage(int index) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("{\"event\":\"analysis.navigation\",\"params\":{\"regions\":[");
+    for (int i = 0; i < 200; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"offset\":").append(index * 1000 + i);
+      builder.append(",\"length\":5,\"targets\":[").append(i % 7).append("]}");
+    }
+    builder.append("]}}");
+    return builder.toString();
+  }
+
+  /**
+   * One end of an in-memory connection, which delivers the messages sent through it to the
+   * listener of the other end on the thread that sends them.
+   */
+  static class MemoryTransport implements Transport {
+    final List<String> sent = new ArrayList<String>();
+
+    MemoryTransport peer;
+
+    Listener listener;
+
+    boolean isOpen = true;
+
+    static MemoryTransport[] pair() {
+      MemoryTransport first = new MemoryTransport();
+      MemoryTransport second = new MemoryTransport();
+      first.peer = second;
+      second.peer = first;
+      return new MemoryTransport[] {first, second};
+    }
+
+    @Override
+    public void close() {
+      if (isOpen) {
+        isOpen = false;
+        listener.closed(null);
+        peer.close();
+      }
+    }
+
+    Transport connect(Listener listener) {
+      this.listener = listener;
+      return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return isOpen;
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+      if (!isOpen) {
+        throw new IOException("The transport is closed");
+      }
+      sent.add(message);
+      peer.listener.messageReceived(message);
+    }
+  }
+
+  /**
+   * A listener that records the messages and the closing of a transport.
+   */
+  static class RecordingListener implements Transport.Listener {
+    final List<String> messages = new ArrayList<String>();
+
+    final CompletableFuture<IOException> closed = new CompletableFuture<IOException>();
+
+    @Override
+    public void closed(IOException exception) {
+      closed.complete(exception);
+    }
+
+    @Override
+    public void messageReceived(String message) {
+      messages.add(message);
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class ContentOverlayBufferTest {
+
+  private final FakeRequestSender sender = new FakeRequestSender();
+
+  private final AsyncAnalysisServer server = new AsyncAnalysisServer(sender);
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void test_flush() {
+    ContentOverlayBuffer buffer = new ContentOverlayBuffer(server, scheduler, 60000);
+    assertTrue(buffer.flush().isDone());
+    assertEquals(0, sender.size());
+    buffer.updateContent("/a.dart", new AddContentOverlay("a"));
+    buffer.updateContent("/b.dart", new RemoveContentOverlay());
+    assertEquals(2, buffer.getPendingFileCount());
+    buffer.flush();
+    assertEquals(0, buffer.getPendingFileCount());
+    // the files are sent in the order in which they were first updated
+    assertEquals(1, sender.size());
+    JsonObject files = sender.get(0).getParams().getAsJsonObject("files");
+    assertEquals(Arrays.asList("/a.dart", "/b.dart"), new ArrayList<String>(files.keySet()));
+    assertEquals("remove", files.getAsJsonObject("/b.dart").get("type").getAsString());
+  }
+
+  @Test
+  public void test_merge_addChange() {
+    Object merged = ContentOverlayBuffer.merge(new AddContentOverlay("int x;"),
+        change(edit(4, 1, "yy"), edit(0, 3, "num")));
+    assertEquals("num yy;", ((AddContentOverlay) merged).getContent());
+  }
+
+  @Test
+  public void test_merge_changeChange() {
+    String content = "abcdef";
+    ChangeContentOverlay first = change(edit(1, 2, "XYZ"), edit(0, 0, "<"));
+    ChangeContentOverlay second = change(edit(6, 1, ""), edit(2, 0, "-"));
+    ChangeContentOverlay merged = (ChangeContentOverlay) ContentOverlayBuffer.merge(first, second);
+    // the edits are kept in order, and applying them is the same as applying both overlays
+    assertEquals(4, merged.getEdits().size());
+    String expected = SourceEditUtilities.applySequence(
+        SourceEditUtilities.applySequence(content, first.getEdits()), second.getEdits());
+    assertEquals(expected, SourceEditUtilities.applySequence(content, merged.getEdits()));
+    assertEquals("<a-XYZdf", expected);
+  }
+
+  @Test
+  public void test_merge_replace() {
+    AddContentOverlay add = new AddContentOverlay("a");
+    RemoveContentOverlay remove = new RemoveContentOverlay();
+    assertSame(add, ContentOverlayBuffer.merge(change(edit(0, 0, "x")), add));
+    assertSame(remove, ContentOverlayBuffer.merge(add, remove));
+    assertSame(add, ContentOverlayBuffer.merge(remove, add));
+    // a change cannot follow a removal
+    assertNull(ContentOverlayBuffer.merge(remove, change(edit(0, 0, "x"))));
+  }
+
+  @Test
+  public void test_updateContent_changeAfterRemove() {
+    ContentOverlayBuffer buffer = new ContentOverlayBuffer(server, scheduler, 60000);
+    buffer.updateContent("/a.dart", new AddContentOverlay("a"));
+    buffer.updateContent("/b.dart", new RemoveContentOverlay());
+    buffer.updateContent("/b.dart", change(edit(0, 0, "x")));
+    // the buffered overlays are sent before the change that cannot be merged
+    assertEquals(1, sender.size());
+    JsonObject files = sender.get(0).getParams().getAsJsonObject("files");
+    assertEquals(2, files.size());
+    assertEquals("remove", files.getAsJsonObject("/b.dart").get("type").getAsString());
+    assertEquals(1, buffer.getPendingFileCount());
+    buffer.flush();
+    files = sender.get(1).getParams().getAsJsonObject("files");
+    assertEquals(1, files.size());
+    assertEquals("change", files.getAsJsonObject("/b.dart").get("type").getAsString());
+  }
+
+  @Test
+  public void test_updateContent_merged() {
+    ContentOverlayBuffer buffer = new ContentOverlayBuffer(server, scheduler, 60000);
+    buffer.updateContent("/a.dart", change(edit(0, 0, "a")));
+    buffer.updateContent("/b.dart", new AddContentOverlay("b"));
+    buffer.updateContent("/a.dart", change(edit(1, 0, "b")));
+    buffer.updateContent("/b.dart", change(edit(1, 0, "c")));
+    assertEquals(0, sender.size());
+    buffer.flush();
+    assertEquals(1, sender.size());
+    JsonObject files = sender.get(0).getParams().getAsJsonObject("files");
+    JsonArray edits = files.getAsJsonObject("/a.dart").getAsJsonArray("edits");
+    assertEquals(2, edits.size());
+    assertEquals("b", edits.get(1).getAsJsonObject().get("replacement").getAsString());
+    assertEquals("bc", files.getAsJsonObject("/b.dart").get("content").getAsString());
+  }
+
+  @Test
+  public void test_updateContent_window() throws Exception {
+    ContentOverlayBuffer buffer = new ContentOverlayBuffer(server, scheduler, 10);
+    buffer.updateContent("/a.dart", new AddContentOverlay("a"));
+    buffer.updateContent("/a.dart", change(edit(1, 0, "b")));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (sender.size() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    // the overlays are sent in one request at the end of the window
+    assertEquals(1, sender.size());
+    JsonObject files = sender.get(0).getParams().getAsJsonObject("files");
+    assertEquals("ab", files.getAsJsonObject("/a.dart").get("content").getAsString());
+    assertEquals(0, buffer.getPendingFileCount());
+  }
+
+  /**
+   * Return a change overlay with the given edits.
+   */
+  private static ChangeContentOverlay change(SourceEdit... edits) {
+    List<SourceEdit> list = new ArrayList<SourceEdit>(Arrays.asList(edits));
+    return new ChangeContentOverlay(list);
+  }
+
+  /**
+   * Return an edit that replaces the given range with the given text.
+   */
+  private static SourceEdit edit(int offset, int length, String replacement) {
+    return new SourceEdit(offset, length, replacement, null);
+  }
+
+}
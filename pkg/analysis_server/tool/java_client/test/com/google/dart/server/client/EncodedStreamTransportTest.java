@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class EncodedStreamTransportTest {
+
+  private static final String NEGOTIATION_RESULT = "{\"id\":\"encoding\",\"result\":{}}\n";
+
+  private static final String REQUEST = "{\"id\":\"1\",\"method\":\"analysis.getHover\","
+      + "\"params\":{\"file\":\"/project/lib/main.dart\",\"offset\":1234}}";
+
+  private static final String RESPONSE =
+      "{\"id\":\"1\",\"result\":{\"file\":\"/project/lib/main.dart\",\"offset\":1234}}";
+
+  private EncodedStreamTransport transport;
+
+  @After
+  public void tearDown() {
+    if (transport != null) {
+      transport.close();
+    }
+  }
+
+  @Test
+  public void test_corruptStringLength_closes() throws Exception {
+    ByteArrayOutputStream input = new ByteArrayOutputStream();
+    input.write(NEGOTIATION_RESULT.getBytes(StandardCharsets.UTF_8));
+    // a text string that declares 2 GB but is followed by a single byte
+    input.write(new byte[] {0x7a, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xf0, 0x78});
+    transport = new EncodedStreamTransport(new ByteArrayInputStream(input.toByteArray()),
+        new ByteArrayOutputStream());
+    assertEquals(EncodedStreamTransport.CBOR,
+        transport.negotiateEncoding(EncodedStreamTransport.CBOR));
+    RecordingListener listener = new RecordingListener();
+    transport.start(listener);
+    assertNotNull(listener.closed.get(5, TimeUnit.SECONDS));
+    assertFalse(transport.isOpen());
+    assertTrue(listener.messages.isEmpty());
+  }
+
+  @Test
+  public void test_errorInListener_closes() throws Exception {
+    byte[] input = (RESPONSE + "\n").getBytes(StandardCharsets.UTF_8);
+    transport = new EncodedStreamTransport(new ByteArrayInputStream(input),
+        new ByteArrayOutputStream());
+    CompletableFuture<IOException> closed = new CompletableFuture<IOException>();
+    Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+    // the error still ends the reader thread, after the transport has been closed
+    Thread.setDefaultUncaughtExceptionHandler((thread, exception) -> {});
+    try {
+      transport.start(new Transport.Listener() {
+        @Override
+        public void closed(IOException exception) {
+          closed.complete(exception);
+        }
+
+        @Override
+        public void messageReceived(String message) {
+          throw new StackOverflowError();
+        }
+      });
+      IOException exception = closed.get(5, TimeUnit.SECONDS);
+      assertNotNull(exception);
+      assertTrue(exception.getCause() instanceof StackOverflowError);
+      assertFalse(transport.isOpen());
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if (thread.getName().equals("Analysis server encoded stream reader")) {
+          thread.join(5000);
+        }
+      }
+    } finally {
+      Thread.setDefaultUncaughtExceptionHandler(handler);
+    }
+  }
+
+  @Test
+  public void test_standInServer_cbor() throws Exception {
+    startStandInServer();
+    assertEquals(EncodedStreamTransport.CBOR,
+        transport.negotiateEncoding(EncodedStreamTransport.CBOR));
+    assertRoundTrip();
+  }
+
+  @Test
+  public void test_standInServer_json() throws Exception {
+    startStandInServer();
+    assertEquals(EncodedStreamTransport.JSON, transport.getEncoding());
+    assertRoundTrip();
+  }
+
+  /**
+   * Send a request to the stand-in server, and check that it sends the {@code server.connected}
+   * notification followed by the response echoing the parameters of the request.
+   */
+  private void assertRoundTrip() throws Exception {
+    RecordingListener listener = new RecordingListener();
+    transport.start(listener);
+    transport.send(REQUEST);
+    String connected = listener.messages.poll(5, TimeUnit.SECONDS);
+    assertNotNull(connected);
+    assertTrue(connected, connected.startsWith("{\"event\":\"server.connected\""));
+    assertEquals(RESPONSE, listener.messages.poll(5, TimeUnit.SECONDS));
+    transport.close();
+    assertNull(listener.closed.get(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Start a {@link ProtocolStandInServer} on another thread, connected to {@link #transport}.
+   */
+  private void startStandInServer() throws IOException {
+    PipedInputStream serverInput = new PipedInputStream(1 << 16);
+    PipedOutputStream clientOutput = new PipedOutputStream(serverInput);
+    PipedInputStream clientInput = new PipedInputStream(1 << 16);
+    PipedOutputStream serverOutput = new PipedOutputStream(clientInput);
+    Thread server = new Thread(() -> {
+      try {
+        ProtocolStandInServer.serve(serverInput, serverOutput);
+      } catch (InterruptedException | IOException exception) {
+        // the test fails when the response does not arrive
+      }
+    });
+    server.setDaemon(true);
+    server.start();
+    transport = new EncodedStreamTransport(clientInput, clientOutput);
+  }
+
+  /**
+   * A listener that records the messages and the closing of a transport.
+   */
+  static class RecordingListener implements Transport.Listener {
+    final BlockingQueue<String> messages = new LinkedBlockingQueue<String>();
+
+    final CompletableFuture<IOException> closed = new CompletableFuture<IOException>();
+
+    @Override
+    public void closed(IOException exception) {
+      closed.complete(exception);
+    }
+
+    @Override
+    public void messageReceived(String message) {
+      messages.add(message);
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.RequestWriter;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link AsyncAnalysisServer.RequestSender} that records the requests, so that tests can check
+ * them and complete their futures with the responses of their choice.
+ */
+class FakeRequestSender implements AsyncAnalysisServer.RequestSender {
+
+  /**
+   * A request that has been sent, and the future returned for its response.
+   */
+  static class SentRequest {
+    final JsonObject request;
+    final CompletableFuture<JsonObject> future = new CompletableFuture<JsonObject>();
+
+    SentRequest(JsonObject request) {
+      this.request = request;
+    }
+
+    /**
+     * Return the method of the request.
+     */
+    String getMethod() {
+      return request.get("method").getAsString();
+    }
+
+    /**
+     * Return the parameters of the request.
+     */
+    JsonObject getParams() {
+      return request.getAsJsonObject("params");
+    }
+
+    /**
+     * Complete the future of the request with the given response, which is JSON text without the
+     * id of the request.
+     */
+    void respond(String response) {
+      AsyncAnalysisServer.completeResponse(future, parse(response));
+    }
+  }
+
+  /**
+   * The requests that have been sent, in the order in which they were sent.
+   */
+  private final List<SentRequest> requests = new ArrayList<SentRequest>();
+
+  @Override
+  public synchronized CompletableFuture<JsonObject> sendRequest(
+      AsyncAnalysisServer.RequestBody body) {
+    StringWriter text = new StringWriter();
+    try {
+      body.write(new RequestWriter(text), Integer.toString(requests.size()));
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    SentRequest request = new SentRequest(parse(text.toString()));
+    requests.add(request);
+    return request.future;
+  }
+
+  /**
+   * Return the request with the given index.
+   */
+  synchronized SentRequest get(int index) {
+    return requests.get(index);
+  }
+
+  /**
+   * Return the number of requests that have been sent.
+   */
+  synchronized int size() {
+    return requests.size();
+  }
+
+  /**
+   * Return the JSON object encoded by the given text.
+   */
+  static JsonObject parse(String json) {
+    return new JsonParser().parse(json).getAsJsonObject();
+  }
+
+}
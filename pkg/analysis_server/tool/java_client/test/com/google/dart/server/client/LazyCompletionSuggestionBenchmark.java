@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code LazyCompletionSuggestionBenchmark} compares decoding the suggestions of a
+ * {@code completion.results} notification with {@link LazyCompletionSuggestion} to decoding them
+ * with {@link CompletionSuggestion#fromJsonArray(JsonReader)}. It is run with
+ *
+ * <pre>
+ * java com.google.dart.server.client.LazyCompletionSuggestionBenchmark [suggestions]
+ * </pre>
+ *
+ * and prints, for each way of decoding, the bytes allocated and the median time to decode the
+ * notification, the bytes allocated to then read the documentation and the element of the first 20
+ * suggestions, as a client that displays them does, and the heap retained by the suggestions. The
+ * bytes allocated are only measured on runtimes that support
+ * {@code com.sun.management.ThreadMXBean}.
+ *
+ * @coverage dart.server.client
+ */
+public class LazyCompletionSuggestionBenchmark {
+
+  /**
+   * The number of suggestions in the notification, unless another number is given.
+   */
+  private static final int DEFAULT_SUGGESTIONS = 5000;
+
+  /**
+   * The number of suggestions that are displayed.
+   */
+  private static final int DISPLAYED_SUGGESTIONS = 20;
+
+  /**
+   * The number of times the notification is decoded before it is measured, so that the code is
+   * compiled.
+   */
+  private static final int WARM_UP_RUNS = 50;
+
+  /**
+   * The number of measured decodings of the notification.
+   */
+  private static final int MEASURED_RUNS = 50;
+
+  /**
+   * The interface {@code Decoder} defines the behavior of a way of decoding the notification.
+   */
+  private interface Decoder {
+    List<CompletionSuggestion> decode(String message) throws IOException;
+  }
+
+  /**
+   * Run the benchmark.
+   */
+  public static void main(String[] args) throws Exception {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SUGGESTIONS;
+    String message = message(count);
+    System.out.println(count + " suggestions, " + message.length() + " characters");
+    measure("eager", message, LazyCompletionSuggestionBenchmark::decodeEagerly);
+    measure("lazy", message, LazyCompletionSuggestion::fromNotification);
+  }
+
+  /**
+   * Return the text of a {@code completion.results} notification with the given number of
+   * suggestions, which have documentation, an element and parameter lists, like the suggestions
+   * of the members of a class.
+   */
+  static String message(int count) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("{\"event\":\"completion.results\",\"params\":{\"id\":\"1\",");
+    builder.append("\"replacementOffset\":120,\"replacementLength\":0,\"results\":[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      String name = "member" + i;
+      builder.append("{\"kind\":\"INVOCATION\",\"relevance\":").append(1000 - i % 500);
+      builder.append(",\"completion\":\"").append(name).append("\",\"selectionOffset\":");
+      builder.append(name.length()).append(",\"selectionLength\":0,\"isDeprecated\":false,");
+      builder.append("\"isPotential\":false,\"docSummary\":\"Returns the value of ");
+      builder.append(name).append(".\",\"docComplete\":\"Returns the value of ").append(name);
+      builder.append(".\\n\\nThe value is computed when it is first read, and is cached ");
+      builder.append("until the \\\"source\\\" changes. See also [Widget.build] and ");
+      builder.append("[State.setState].\",\"declaringType\":\"Widget").append(i % 40);
+      builder.append("\",\"defaultArgumentListString\":\"context, index\",");
+      builder.append("\"defaultArgumentListTextRanges\":[0,7,9,5],");
+      builder.append("\"element\":{\"kind\":\"METHOD\",\"name\":\"").append(name);
+      builder.append("\",\"location\":{\"file\":\"/project/lib/src/widget");
+      builder.append(i % 40).append(".dart\",\"offset\":").append(i * 37);
+      builder.append(",\"length\":").append(name.length()).append(",\"startLine\":");
+      builder.append(i + 1).append(",\"startColumn\":3},\"flags\":0,");
+      builder.append("\"parameters\":\"(BuildContext context, int index)\",");
+      builder.append("\"returnType\":\"Widget\"},\"returnType\":\"Widget\",");
+      builder.append("\"parameterNames\":[\"context\",\"index\"],");
+      builder.append("\"parameterTypes\":[\"BuildContext\",\"int\"],");
+      builder.append("\"requiredParameterCount\":2,\"hasNamedParameters\":false}");
+    }
+    builder.append("],\"isLast\":true}}");
+    return builder.toString();
+  }
+
+  /**
+   * Return the suggestions of the given notification, decoded by the generated decoders.
+   */
+  private static List<CompletionSuggestion> decodeEagerly(String message) throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(message));
+    reader.beginObject();
+    while (!reader.nextName().equals("params")) {
+      reader.skipValue();
+    }
+    reader.beginObject();
+    while (!reader.nextName().equals("results")) {
+      reader.skipValue();
+    }
+    return CompletionSuggestion.fromJsonArray(reader);
+  }
+
+  /**
+   * Return the number of bytes allocated by the current thread, or -1 if it cannot be measured.
+   */
+  private static long getAllocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(
+          Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  /**
+   * Return the number of bytes of the heap in use after collecting the garbage.
+   */
+  private static long getUsedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Measure the decoding of the given notification by the given decoder, and print the results
+   * with the given name.
+   */
+  private static void measure(String name, String message, Decoder decoder) throws Exception {
+    for (int i = 0; i < WARM_UP_RUNS; i++) {
+      display(decoder.decode(message));
+    }
+    long[] times = new long[MEASURED_RUNS];
+    long decodeBytes = 0;
+    long displayBytes = 0;
+    for (int i = 0; i < MEASURED_RUNS; i++) {
+      long startBytes = getAllocatedBytes();
+      long start = System.nanoTime();
+      List<CompletionSuggestion> suggestions = decoder.decode(message);
+      times[i] = System.nanoTime() - start;
+      long decodedBytes = getAllocatedBytes();
+      display(suggestions);
+      decodeBytes += decodedBytes - startBytes;
+      displayBytes += getAllocatedBytes() - decodedBytes;
+    }
+    Arrays.sort(times);
+    long baseHeap = getUsedHeap();
+    // the suggestions are decoded from a copy of the text, which is retained by lazy suggestions
+    List<CompletionSuggestion> retained = decoder.decode(new String(message.toCharArray()));
+    long retainedHeap = getUsedHeap() - baseHeap;
+    System.out.println(name + ": decode " + decodeBytes / MEASURED_RUNS / 1024 + " KB allocated, "
+        + times[MEASURED_RUNS / 2] / 1000 + " us median; display " + DISPLAYED_SUGGESTIONS
+        + ": " + displayBytes / MEASURED_RUNS / 1024 + " KB allocated; "
+        + retainedHeap / 1024 + " KB retained by " + retained.size() + " suggestions");
+  }
+
+  /**
+   * Read the fields that are displayed of the first suggestions of the given list.
+   */
+  private static void display(List<CompletionSuggestion> suggestions) {
+    int length = 0;
+    for (CompletionSuggestion suggestion : suggestions.subList(0, DISPLAYED_SUGGESTIONS)) {
+      length += suggestion.getDocSummary().length();
+      length += suggestion.getElement().getParameters().length();
+      length += suggestion.getParameterNames().size();
+    }
+    if (length == 0) {
+      throw new IllegalStateException("Nothing was displayed");
+    }
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+public class LazyCompletionSuggestionTest {
+
+  @Test
+  public void test_fromJsonArray_escapes() throws IOException {
+    String text = "[ {\"kind\" : \"KEYWORD\", \"relevance\": -5, \"completion\": \"caf\\u00e9\\t\","
+        + " \"unknown\": {\"a\": [1, \"]\", {\"b\": null}]},"
+        + " \"docComplete\": \"a \\\"quoted\\\" \\\\\\\\ backslash\\\\\","
+        + " \"parameterNames\": [\"\\\"x\\\"\", \"y\"], \"isDeprecated\": true,"
+        + " \"defaultArgumentListTextRanges\": [ 0, 1,\n2 ] } ]";
+    List<CompletionSuggestion> suggestions = LazyCompletionSuggestion.fromJsonArray(text, 0);
+    assertEquals(1, suggestions.size());
+    CompletionSuggestion suggestion = suggestions.get(0);
+    assertEquals(decodeEagerly(text, 0).get(0), toCompletionSuggestion(suggestion));
+    assertEquals(CompletionSuggestionKind.KEYWORD, suggestion.getKind());
+    assertEquals(-5, suggestion.getRelevance());
+    assertEquals("café\t", suggestion.getCompletion());
+    assertEquals("a \"quoted\" \\\\ backslash\\", suggestion.getDocComplete());
+    assertEquals(Arrays.asList("\"x\"", "y"), suggestion.getParameterNames());
+    assertTrue(suggestion.isDeprecated());
+    assertArrayEquals(new int[] {0, 1, 2}, suggestion.getDefaultArgumentListTextRanges());
+  }
+
+  @Test
+  public void test_fromJsonArray_malformed() {
+    assertMalformed("[{\"kind\":\"KEYWORD\"");
+    assertMalformed("[{\"kind\":\"KEYWORD}]");
+    assertMalformed("[{\"relevance\":\"high\"}]");
+    assertMalformed("[{\"relevance\":99999999999}]");
+    assertMalformed("[{\"docComplete\":\"unterminated}]");
+    assertMalformed("{}");
+  }
+
+  @Test
+  public void test_fromJsonArray_nulls() throws IOException {
+    String text = "[{\"kind\":\"IDENTIFIER\",\"docSummary\":null,\"element\":null,"
+        + "\"requiredParameterCount\":null,\"hasNamedParameters\": null,\"completion\":\"x\"}]";
+    CompletionSuggestion suggestion = LazyCompletionSuggestion.fromJsonArray(text, 0).get(0);
+    assertEquals("x", suggestion.getCompletion());
+    assertNull(suggestion.getDocSummary());
+    assertNull(suggestion.getElement());
+    assertNull(suggestion.getRequiredParameterCount());
+    assertNull(suggestion.getHasNamedParameters());
+  }
+
+  @Test
+  public void test_fromNotification() throws IOException {
+    String message = LazyCompletionSuggestionBenchmark.message(50);
+    List<CompletionSuggestion> suggestions = LazyCompletionSuggestion.fromNotification(message);
+    int offset = message.indexOf("\"results\":") + "\"results\":".length();
+    List<CompletionSuggestion> expected = decodeEagerly(message, offset);
+    assertEquals(expected.size(), suggestions.size());
+    for (int i = 0; i < expected.size(); i++) {
+      LazyCompletionSuggestion suggestion = (LazyCompletionSuggestion) suggestions.get(i);
+      assertFalse(suggestion.isDecoded());
+      assertEquals(expected.get(i).getCompletion(), suggestion.getCompletion());
+      assertEquals(expected.get(i), suggestion.toCompletionSuggestion());
+      assertTrue(suggestion.isDecoded());
+      assertEquals(suggestion, suggestions.get(i));
+    }
+    CompletionSuggestion first = suggestions.get(0);
+    assertArrayEquals(new int[] {0, 7, 9, 5}, first.getDefaultArgumentListTextRanges());
+    assertEquals("member0", first.getElement().getName());
+    assertEquals(Arrays.asList("BuildContext", "int"), first.getParameterTypes());
+  }
+
+  @Test
+  public void test_fromNotification_noResults() throws IOException {
+    String message = "{\"event\":\"completion.results\",\"params\":{\"id\":\"1\"}}";
+    assertTrue(LazyCompletionSuggestion.fromNotification(message).isEmpty());
+  }
+
+  private static void assertMalformed(String text) {
+    try {
+      LazyCompletionSuggestion.fromJsonArray(text, 0);
+      fail("Expected " + text + " to be rejected");
+    } catch (MalformedJsonException exception) {
+      // expected
+    }
+  }
+
+  private static List<CompletionSuggestion> decodeEagerly(String text, int offset)
+      throws IOException {
+    StringReader reader = new StringReader(text);
+    reader.skip(offset);
+    return CompletionSuggestion.fromJsonArray(new JsonReader(reader));
+  }
+
+  private static CompletionSuggestion toCompletionSuggestion(CompletionSuggestion suggestion) {
+    return ((LazyCompletionSuggestion) suggestion).toCompletionSuggestion();
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class NavigationColumnsTest {
+
+  private static final String NAVIGATION_JSON = "{\"file\":\"/a.dart\",\"unknown\":[1,{}],"
+      + "\"regions\":[{\"offset\":10,\"length\":3,\"targets\":[1]},"
+      + "{\"offset\":20,\"length\":5,\"targets\":[]},"
+      + "{\"offset\":20,\"length\":2,\"targets\":[0,2,1]}],"
+      + "\"targets\":[{\"kind\":\"CLASS\",\"fileIndex\":1,\"offset\":100,\"length\":1,"
+      + "\"startLine\":3,\"startColumn\":4},"
+      + "{\"kind\":\"FUNCTION\",\"fileIndex\":0,\"offset\":200,\"length\":2,"
+      + "\"startLine\":5,\"startColumn\":6},"
+      + "{\"kind\":\"CLASS\",\"fileIndex\":0,\"offset\":300,\"length\":3,"
+      + "\"startLine\":7,\"startColumn\":8}],"
+      + "\"files\":[\"/a.dart\",\"/b.dart\"]}";
+
+  @Test
+  public void test_fromJson() throws Exception {
+    NavigationColumns columns =
+        NavigationColumns.fromJson(new JsonReader(new StringReader(NAVIGATION_JSON)));
+    assertEquals("/a.dart", columns.getFile());
+    checkColumns(columns);
+    // equal kinds share an instance
+    assertSame(columns.getTarget(0).getKind(), columns.getTarget(2).getKind());
+  }
+
+  @Test
+  public void test_fromJson_empty() throws Exception {
+    NavigationColumns columns = NavigationColumns.fromJson(new JsonReader(new StringReader(
+        "{\"file\":\"/a.dart\",\"regions\":[],\"targets\":[],\"files\":[]}")));
+    assertEquals(0, columns.getRegionCount());
+    assertEquals(0, columns.getTargetCount());
+    assertEquals(-1, columns.getRegionIndex().findInnermostAt(0));
+  }
+
+  @Test
+  public void test_fromLists() {
+    JsonObject json = new JsonParser().parse(NAVIGATION_JSON).getAsJsonObject();
+    List<String> files = new ArrayList<String>();
+    json.get("files").getAsJsonArray().forEach(file -> files.add(file.getAsString()));
+    NavigationColumns columns = NavigationColumns.fromLists("/a.dart",
+        NavigationRegion.fromJsonArray(json.get("regions").getAsJsonArray()),
+        NavigationTarget.fromJsonArray(json.get("targets").getAsJsonArray()), files);
+    assertEquals("/a.dart", columns.getFile());
+    checkColumns(columns);
+  }
+
+  @Test
+  public void test_getRegionIndex() throws Exception {
+    NavigationColumns columns =
+        NavigationColumns.fromJson(new JsonReader(new StringReader(NAVIGATION_JSON)));
+    RegionIndex index = columns.getRegionIndex();
+    assertSame(index, columns.getRegionIndex());
+    assertEquals(2, index.findInnermostAt(21));
+    assertEquals(1, index.findInnermostAt(24));
+    assertArrayEquals(new int[] {0, 1, 2}, index.findOverlapping(12, 8));
+  }
+
+  /**
+   * Check that the given columns hold the navigation information of {@link #NAVIGATION_JSON}, and
+   * that the region and target views are equal to the objects decoded from it by the generated
+   * protocol types.
+   */
+  private static void checkColumns(NavigationColumns columns) {
+    JsonObject json = new JsonParser().parse(NAVIGATION_JSON).getAsJsonObject();
+    List<NavigationRegion> regions =
+        NavigationRegion.fromJsonArray(json.get("regions").getAsJsonArray());
+    List<NavigationTarget> targets =
+        NavigationTarget.fromJsonArray(json.get("targets").getAsJsonArray());
+    String[] files = {"/a.dart", "/b.dart"};
+    assertArrayEquals(files, columns.getFiles());
+    assertEquals(targets.size(), columns.getTargetCount());
+    for (int i = 0; i < targets.size(); i++) {
+      NavigationTarget expected = targets.get(i);
+      expected.lookupFile(files);
+      NavigationTarget target = columns.getTarget(i);
+      assertEquals(expected, target);
+      assertEquals(expected.getFile(), target.getFile());
+      assertEquals(expected.getFile(), columns.getTargetFile(i));
+      assertEquals(expected.getOffset(), columns.getTargetOffset(i));
+    }
+    assertEquals(regions.size(), columns.getRegionCount());
+    for (int i = 0; i < regions.size(); i++) {
+      NavigationRegion expected = regions.get(i);
+      expected.lookupTargets(targets);
+      NavigationRegion region = columns.getRegion(i);
+      assertEquals(expected, region);
+      assertEquals(expected.getTargetObjects(), region.getTargetObjects());
+      assertEquals(expected.getOffset(), columns.getRegionOffset(i));
+      assertEquals(expected.getLength(), columns.getRegionLength(i));
+      assertArrayEquals(expected.getTargets(), columns.getRegionTargets(i));
+    }
+    assertEquals(Arrays.asList(columns.getTarget(0), columns.getTarget(2), columns.getTarget(1)),
+        columns.getRegion(2).getTargetObjects());
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class NioTransportGroupTest {
+
+  private NioTransportGroup group;
+
+  private ServerSocketChannel server;
+
+  @After
+  public void tearDown() throws IOException {
+    if (group != null) {
+      group.close();
+    }
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  @Test
+  public void test_receive_acrossReads() throws Exception {
+    group = new NioTransportGroup(1);
+    RecordingListener listener = new RecordingListener();
+    group.connect(listen(), listener);
+    try (Socket socket = accept()) {
+      OutputStream output = socket.getOutputStream();
+      // the two bytes of the last character of the first message are written separately
+      byte[] first = "{\"text\":\"café\"}\n".getBytes(StandardCharsets.UTF_8);
+      writeSlowly(output, Arrays.copyOfRange(first, 0, first.length - 2));
+      writeSlowly(output, Arrays.copyOfRange(first, first.length - 2, first.length));
+      writeSlowly(output, "{\"id\":\"1\"}\n{\"id\"".getBytes(StandardCharsets.UTF_8));
+      writeSlowly(output, ":\"2\"}\n".getBytes(StandardCharsets.UTF_8));
+      assertEquals("{\"text\":\"café\"}", listener.nextMessage());
+      assertEquals("{\"id\":\"1\"}", listener.nextMessage());
+      assertEquals("{\"id\":\"2\"}", listener.nextMessage());
+    }
+  }
+
+  @Test
+  public void test_receive_largeMessage() throws Exception {
+    group = new NioTransportGroup(1);
+    RecordingListener listener = new RecordingListener();
+    group.connect(listen(), listener);
+    try (Socket socket = accept()) {
+      OutputStream output = socket.getOutputStream();
+      String large = largeMessage(1024 * 1024);
+      output.write((large + "\n{\"id\":\"1\"}\n").getBytes(StandardCharsets.UTF_8));
+      output.flush();
+      assertEquals(large, listener.nextMessage());
+      // the message after the large one is assembled in a new buffer
+      assertEquals("{\"id\":\"1\"}", listener.nextMessage());
+      output.write("{\"id\":\"2\"}\n".getBytes(StandardCharsets.UTF_8));
+      output.flush();
+      assertEquals("{\"id\":\"2\"}", listener.nextMessage());
+    }
+  }
+
+  @Test
+  public void test_receive_partialMessageAtEnd() throws Exception {
+    group = new NioTransportGroup(1);
+    RecordingListener listener = new RecordingListener();
+    Transport transport = group.connect(listen(), listener);
+    try (Socket socket = accept()) {
+      OutputStream output = socket.getOutputStream();
+      output.write("{\"id\":\"1\"}\n{\"id\":".getBytes(StandardCharsets.UTF_8));
+      output.flush();
+    }
+    assertEquals("{\"id\":\"1\"}", listener.nextMessage());
+    // the message without a newline is not delivered
+    assertNull(listener.closed.get(5, TimeUnit.SECONDS));
+    assertTrue(listener.messages.isEmpty());
+    assertFalse(transport.isOpen());
+  }
+
+  @Test
+  public void test_send() throws Exception {
+    group = new NioTransportGroup(1);
+    Transport transport = group.connect(listen(), new RecordingListener());
+    try (Socket socket = accept()) {
+      transport.send("{\"id\":\"1\"}");
+      transport.send("{\"id\":\"2\",\"text\":\"café\"}");
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      assertEquals("{\"id\":\"1\"}", reader.readLine());
+      assertEquals("{\"id\":\"2\",\"text\":\"café\"}", reader.readLine());
+      waitForNoPendingWrites(transport);
+    }
+  }
+
+  @Test
+  public void test_send_queueFull() throws Exception {
+    long maxPendingWriteBytes = 1024 * 1024;
+    group = new NioTransportGroup(1, maxPendingWriteBytes);
+    Transport transport = group.connect(listen(), new RecordingListener());
+    try (Socket socket = accept()) {
+      // the other end does not read, so the queue fills at the latest once the socket buffers do
+      String message = largeMessage(100 * 1024);
+      int sentCount = 0;
+      try {
+        while (true) {
+          transport.send(message);
+          sentCount++;
+          assertTrue(sentCount < 1000);
+        }
+      } catch (IOException exception) {
+        assertNotNull(exception.getMessage());
+      }
+      // the refused message is not queued, and the connection stays open
+      assertTrue(transport.isOpen());
+      assertTrue(transport.getPendingWriteBytes() <= maxPendingWriteBytes);
+      // once the other end reads, the queue drains and every accepted message arrives
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      for (int i = 0; i < sentCount; i++) {
+        assertEquals(message, reader.readLine());
+      }
+      waitForNoPendingWrites(transport);
+      transport.send("{\"id\":\"1\"}");
+      assertEquals("{\"id\":\"1\"}", reader.readLine());
+    }
+  }
+
+  private Socket accept() throws IOException {
+    return server.accept().socket();
+  }
+
+  private static String largeMessage(int length) {
+    StringBuilder builder = new StringBuilder(length);
+    builder.append("{\"text\":\"");
+    while (builder.length() < length - 2) {
+      builder.append((char) ('a' + builder.length() % 26));
+    }
+    builder.append("\"}");
+    return builder.toString();
+  }
+
+  private InetSocketAddress listen() throws IOException {
+    server = ServerSocketChannel.open();
+    server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    return (InetSocketAddress) server.getLocalAddress();
+  }
+
+  private static void waitForNoPendingWrites(Transport transport) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (transport.getPendingWriteBytes() != 0) {
+      if (System.nanoTime() > deadline) {
+        fail("The queued messages were not written");
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  /**
+   * Write the given bytes and wait, so that they are read separately from the bytes written next.
+   */
+  private static void writeSlowly(OutputStream output, byte[] bytes) throws Exception {
+    output.write(bytes);
+    output.flush();
+    Thread.sleep(20);
+  }
+
+  /**
+   * A listener that records the messages and the closing of a transport.
+   */
+  static class RecordingListener implements Transport.Listener {
+    final BlockingQueue<String> messages = new LinkedBlockingQueue<String>();
+
+    final CompletableFuture<IOException> closed = new CompletableFuture<IOException>();
+
+    @Override
+    public void closed(IOException exception) {
+      closed.complete(exception);
+    }
+
+    @Override
+    public void messageReceived(String message) {
+      messages.add(message);
+    }
+
+    String nextMessage() throws InterruptedException {
+      String message = messages.poll(5, TimeUnit.SECONDS);
+      assertNotNull("Expected a message", message);
+      return message;
+    }
+  }
+
+}
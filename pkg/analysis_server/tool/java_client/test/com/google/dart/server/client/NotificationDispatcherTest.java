@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.dart.server.client.NotificationQueue.Notification;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NotificationDispatcherTest {
+
+  private final List<Throwable> uncaught = new CopyOnWriteArrayList<Throwable>();
+
+  private final ExecutorService pool = Executors.newFixedThreadPool(4, task -> {
+    Thread thread = new Thread(task);
+    thread.setUncaughtExceptionHandler((t, exception) -> {
+      uncaught.add(exception);
+    });
+    return thread;
+  });
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void test_dispatch_flushResults() {
+    ManualExecutor executor = new ManualExecutor();
+    NotificationDispatcher dispatcher = new NotificationDispatcher(executor);
+    List<String> delivered = new ArrayList<String>();
+    Notification flush = new Notification("analysis.flushResults",
+        parse("{\"files\":[\"/a.dart\",\"/b.dart\"]}"));
+    Notification other = new Notification("server.status", new JsonObject());
+    dispatcher.dispatch(flush, notification -> {
+      delivered.add(notification.getParams().toString());
+    });
+    dispatcher.dispatch(other, notification -> {
+      assertSame(other, notification);
+      delivered.add(notification.getEvent());
+    });
+    // one drain for each file, and one for the notifications that are not about a single file
+    assertEquals(3, executor.tasks.size());
+    executor.runAll();
+    assertEquals(Arrays.asList("{\"files\":[\"/a.dart\"]}", "{\"files\":[\"/b.dart\"]}",
+        "server.status"), delivered);
+  }
+
+  @Test
+  public void test_execute_error() throws Exception {
+    NotificationDispatcher dispatcher = new NotificationDispatcher(pool);
+    List<Integer> ran = new CopyOnWriteArrayList<Integer>();
+    CountDownLatch done = new CountDownLatch(1);
+    dispatcher.execute("/a.dart", () -> {
+      ran.add(0);
+    });
+    dispatcher.execute("/a.dart", () -> {
+      throw new AssertionError("listener error");
+    });
+    dispatcher.execute("/a.dart", () -> {
+      ran.add(2);
+      done.countDown();
+    });
+    // the thread that ran the error has ended, and another drain runs the last task
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList(0, 2), ran);
+    // the error reaches the handler once the thread has ended, which can be after the last task
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (uncaught.isEmpty() && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(1, uncaught.size());
+    assertEquals("listener error", uncaught.get(0).getMessage());
+  }
+
+  @Test
+  public void test_execute_exception() throws Exception {
+    NotificationDispatcher dispatcher = new NotificationDispatcher(pool);
+    List<Integer> ran = new CopyOnWriteArrayList<Integer>();
+    CountDownLatch done = new CountDownLatch(1);
+    dispatcher.execute("/a.dart", () -> {
+      ran.add(0);
+    });
+    dispatcher.execute("/a.dart", () -> {
+      throw new IllegalStateException("listener failure");
+    });
+    dispatcher.execute("/a.dart", () -> {
+      ran.add(2);
+      done.countDown();
+    });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList(0, 2), ran);
+    assertEquals(1, uncaught.size());
+    assertEquals("listener failure", uncaught.get(0).getMessage());
+  }
+
+  @Test
+  public void test_execute_order() throws Exception {
+    NotificationDispatcher dispatcher = new NotificationDispatcher(pool);
+    String[] files = {"/a.dart", "/b.dart", "/c.dart", null};
+    int taskCount = 2000;
+    Map<String, List<Integer>> ran = new ConcurrentHashMap<String, List<Integer>>();
+    Map<String, AtomicInteger> running = new HashMap<String, AtomicInteger>();
+    for (String file : files) {
+      ran.put(String.valueOf(file), new CopyOnWriteArrayList<Integer>());
+      running.put(String.valueOf(file), new AtomicInteger());
+    }
+    AtomicInteger overlapCount = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(taskCount);
+    for (int i = 0; i < taskCount; i++) {
+      String file = files[i % files.length];
+      int index = i;
+      dispatcher.execute(file, () -> {
+        AtomicInteger fileRunning = running.get(String.valueOf(file));
+        if (fileRunning.incrementAndGet() != 1) {
+          overlapCount.incrementAndGet();
+        }
+        if (index % 100 == 0) {
+          Thread.yield();
+        }
+        ran.get(String.valueOf(file)).add(index);
+        fileRunning.decrementAndGet();
+        done.countDown();
+      });
+    }
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(0, overlapCount.get());
+    for (List<Integer> indices : ran.values()) {
+      assertEquals(taskCount / files.length, indices.size());
+      List<Integer> sorted = new ArrayList<Integer>(indices);
+      Collections.sort(sorted);
+      assertEquals(sorted, indices);
+    }
+    assertTrue(uncaught.isEmpty());
+  }
+
+  @Test
+  public void test_execute_yield() {
+    ManualExecutor executor = new ManualExecutor();
+    NotificationDispatcher dispatcher = new NotificationDispatcher(executor);
+    List<Integer> ran = new ArrayList<Integer>();
+    for (int i = 0; i < 100; i++) {
+      int index = i;
+      dispatcher.execute("/a.dart", () -> {
+        ran.add(index);
+      });
+    }
+    assertEquals(1, executor.tasks.size());
+    executor.tasks.poll().run();
+    // the drain yields after 64 tasks, and submits another one for the rest
+    assertEquals(64, ran.size());
+    assertEquals(1, executor.tasks.size());
+    executor.runAll();
+    assertEquals(100, ran.size());
+  }
+
+  private static JsonObject parse(String json) {
+    return new JsonParser().parse(json).getAsJsonObject();
+  }
+
+  /**
+   * An executor that queues its tasks until they are run by the test.
+   */
+  static class ManualExecutor implements Executor {
+    final ArrayDeque<Runnable> tasks = new ArrayDeque<Runnable>();
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+
+    void runAll() {
+      Runnable task;
+      while ((task = tasks.poll()) != null) {
+        task.run();
+      }
+    }
+  }
+
+}
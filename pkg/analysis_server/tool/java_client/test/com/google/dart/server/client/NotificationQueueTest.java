@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.dart.server.client.NotificationQueue.Notification;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+public class NotificationQueueTest {
+
+  @Test
+  public void test_put_coalesced() {
+    NotificationQueue queue = new NotificationQueue(10);
+    JsonObject first = params("/a.dart");
+    JsonObject second = params("/a.dart");
+    JsonObject other = params("/b.dart");
+    assertTrue(queue.put("analysis.outline", first));
+    assertTrue(queue.put("analysis.outline", other));
+    assertTrue(queue.put("analysis.outline", second));
+    assertEquals(2, queue.getDepth());
+    assertEquals(1, queue.getDropCount());
+    assertEquals(1, queue.getDropCount("analysis.outline"));
+    assertEquals(1, queue.getDropCount("analysis.outline", "/a.dart"));
+    assertEquals(0, queue.getDropCount("analysis.outline", "/b.dart"));
+    // the newest notification is delivered after the ones received before it
+    assertSame(other, queue.poll().getParams());
+    assertSame(second, queue.poll().getParams());
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void test_put_notCoalesced() {
+    NotificationQueue queue = new NotificationQueue(1);
+    assertTrue(queue.put("analysis.errors", params("/a.dart")));
+    assertFalse(queue.put("analysis.errors", params("/b.dart")));
+    // the notifications that are not coalesced are never rejected
+    for (int i = 0; i < 100; i++) {
+      assertTrue(queue.put("completion.results", params("/a.dart")));
+    }
+    assertTrue(queue.put("search.results", new JsonObject()));
+    assertTrue(queue.put("server.error", new JsonObject()));
+    assertTrue(queue.put("analysis.flushResults", new JsonObject()));
+    assertEquals(104, queue.getDepth());
+    assertEquals(100, queue.getDepth("completion.results", "/a.dart"));
+    assertEquals(1, queue.getDepth("server.error", null));
+    assertEquals(1, queue.getOverflowCount());
+    assertEquals(0, queue.getOverflowCount("completion.results", "/a.dart"));
+    assertEquals(0, queue.getDropCount());
+    // they are delivered in order, after the coalesced notification received before them
+    assertEquals("analysis.errors", queue.poll().getEvent());
+    assertEquals("completion.results", queue.poll().getEvent());
+  }
+
+  @Test
+  public void test_put_queueFull() {
+    NotificationQueue queue = new NotificationQueue(3);
+    assertTrue(queue.put("analysis.errors", params("/a.dart")));
+    assertTrue(queue.put("analysis.errors", params("/b.dart")));
+    assertTrue(queue.put("analysis.outline", params("/c.dart")));
+    assertFalse(queue.put("analysis.errors", params("/d.dart")));
+    assertTrue(queue.put("server.status", new JsonObject()));
+    // a coalesced notification still replaces a queued one
+    assertTrue(queue.put("analysis.errors", params("/a.dart")));
+    assertEquals(4, queue.getDepth());
+    assertEquals(4, queue.getMaxDepth());
+    assertEquals(1, queue.getOverflowCount());
+    assertEquals(1, queue.getOverflowCount("analysis.errors", "/d.dart"));
+    assertEquals(0, queue.getOverflowCount("server.status", null));
+    // delivering a coalesced notification makes room for another one
+    assertEquals("/b.dart", queue.poll().getParams().get("file").getAsString());
+    assertTrue(queue.put("analysis.errors", params("/d.dart")));
+    assertFalse(queue.put("analysis.errors", params("/e.dart")));
+  }
+
+  @Test
+  public void test_take() throws Exception {
+    NotificationQueue queue = new NotificationQueue(10);
+    JsonObject params = params("/a.dart");
+    Thread producer = new Thread(() -> {
+      queue.put("analysis.highlights", params);
+    });
+    producer.start();
+    Notification notification = queue.take();
+    assertEquals("analysis.highlights", notification.getEvent());
+    assertSame(params, notification.getParams());
+    producer.join();
+  }
+
+  private static JsonObject params(String file) {
+    JsonObject params = new JsonObject();
+    params.addProperty("file", file);
+    return params;
+  }
+
+}
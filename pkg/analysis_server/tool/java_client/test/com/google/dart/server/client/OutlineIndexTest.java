@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class OutlineIndexTest {
+
+  @Test
+  public void test_findInnermostAt_random() throws Exception {
+    Random random = new Random(11);
+    for (int round = 0; round < 20; round++) {
+      Outline root = Outline.fromJson(null, randomOutline(random, 0, 200, 0));
+      OutlineIndex index = OutlineIndex.forOutline(root);
+      List<Outline> outlines = preOrder(root);
+      assertEquals(outlines.size(), index.getOutlineCount());
+      for (int offset = -1; offset <= 201; offset++) {
+        Outline expected = findInnermostAt(outlines, offset);
+        assertSame(expected, index.findInnermostAt(offset));
+        List<Outline> path = index.findPathAt(offset);
+        if (expected == null) {
+          assertTrue(path.isEmpty());
+        } else {
+          assertSame(root, path.get(0));
+          assertSame(expected, path.get(path.size() - 1));
+          for (int i = 1; i < path.size(); i++) {
+            assertSame(path.get(i - 1), path.get(i).getParent());
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void test_fromJson_deep() throws Exception {
+    // each node encloses the next one, so the innermost node at an offset is at that depth
+    int depth = 5000;
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      builder.append("{\"element\":").append(elementJson(i)).append(",\"offset\":").append(i)
+          .append(",\"length\":").append(2 * (depth - i)).append(",\"codeOffset\":").append(i)
+          .append(",\"codeLength\":1");
+      if (i < depth - 1) {
+        builder.append(",\"children\":[");
+      }
+    }
+    builder.append("}");
+    for (int i = 1; i < depth; i++) {
+      builder.append("]}");
+    }
+    String json = builder.toString();
+    Outline fromObject =
+        Outline.fromJson(null, JsonParser.parseReader(deepReader(json)).getAsJsonObject());
+    Outline fromReader = Outline.fromJson(null, deepReader(json));
+    checkEqual(fromObject, fromReader);
+    OutlineIndex index = OutlineIndex.forOutline(fromReader);
+    assertEquals(depth, index.getOutlineCount());
+    Outline innermost = index.findInnermostAt(depth - 1);
+    assertEquals(depth - 1, innermost.getOffset());
+    assertEquals(0, innermost.getChildren().size());
+    assertEquals(1001, index.findPathAt(1000).size());
+    assertEquals(1, index.findPathAt(2 * depth).size());
+  }
+
+  @Test
+  public void test_fromJson_random() throws Exception {
+    Random random = new Random(7);
+    for (int round = 0; round < 20; round++) {
+      JsonObject object = randomOutline(random, 0, 200, 0);
+      Outline expected = fromJsonRecursively(null, object);
+      checkEqual(expected, Outline.fromJson(null, object));
+      checkEqual(expected, Outline.fromJson(null, new JsonReader(new StringReader(
+          object.toString()))));
+    }
+  }
+
+  @Test
+  public void test_fromJson_unknownFields() throws Exception {
+    String json = "{\"element\":" + elementJson(0) + ",\"offset\":1,\"unknown\":[{\"a\":[]}],"
+        + "\"length\":9,\"codeOffset\":2,\"codeLength\":3,\"children\":[{\"element\":"
+        + elementJson(1) + ",\"offset\":4,\"length\":2,\"codeOffset\":4,\"codeLength\":2}]}";
+    Outline expected =
+        fromJsonRecursively(null, new JsonParser().parse(json).getAsJsonObject());
+    checkEqual(expected, Outline.fromJson(null, new JsonReader(new StringReader(json))));
+    assertNull(Outline.fromJson(null, new JsonReader(new StringReader(json))).getParent());
+  }
+
+  /**
+   * Check that the given outlines have equal fields, and equal children with the right parents,
+   * without recursion.
+   */
+  private static void checkEqual(Outline expected, Outline actual) {
+    List<Outline> expectedOutlines = preOrder(expected);
+    List<Outline> actualOutlines = preOrder(actual);
+    assertEquals(expectedOutlines.size(), actualOutlines.size());
+    for (int i = 0; i < expectedOutlines.size(); i++) {
+      Outline expectedOutline = expectedOutlines.get(i);
+      Outline actualOutline = actualOutlines.get(i);
+      assertEquals(expectedOutline.getElement(), actualOutline.getElement());
+      assertEquals(expectedOutline.getOffset(), actualOutline.getOffset());
+      assertEquals(expectedOutline.getLength(), actualOutline.getLength());
+      assertEquals(expectedOutline.getCodeOffset(), actualOutline.getCodeOffset());
+      assertEquals(expectedOutline.getCodeLength(), actualOutline.getCodeLength());
+      assertEquals(expectedOutline.getChildren().size(), actualOutline.getChildren().size());
+      for (Outline child : actualOutline.getChildren()) {
+        assertSame(actualOutline, child.getParent());
+      }
+    }
+  }
+
+  /**
+   * Return a reader of the given JSON that allows it to be nested as deeply as it is.
+   */
+  private static JsonReader deepReader(String json) {
+    JsonReader reader = new JsonReader(new StringReader(json));
+    reader.setNestingLimit(Integer.MAX_VALUE);
+    return reader;
+  }
+
+  /**
+   * Return the JSON of an element whose name is derived from the given number.
+   */
+  private static String elementJson(int number) {
+    return "{\"kind\":\"CLASS\",\"name\":\"C" + number + "\",\"flags\":" + (number % 3) + "}";
+  }
+
+  /**
+   * Return the innermost of the given outlines, which are in pre-order, that encloses the given
+   * offset by examining all of them.
+   */
+  private static Outline findInnermostAt(List<Outline> outlines, int offset) {
+    Outline result = null;
+    for (Outline outline : outlines) {
+      if (outline.containsInclusive(offset) && (result == null
+          || outline.getLength() < result.getLength()
+          || outline.getLength() == result.getLength()
+              && outline.getOffset() >= result.getOffset())) {
+        result = outline;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Return the outline decoded from the given JSON object by the recursive decoder that the
+   * generated code used before it was made iterative.
+   */
+  private static Outline fromJsonRecursively(Outline parent, JsonObject outlineObject) {
+    Element element = Element.fromJson(outlineObject.get("element").getAsJsonObject());
+    Outline outline = new Outline(parent, element, outlineObject.get("offset").getAsInt(),
+        outlineObject.get("length").getAsInt(), outlineObject.get("codeOffset").getAsInt(),
+        outlineObject.get("codeLength").getAsInt());
+    List<Outline> children = new ArrayList<Outline>();
+    JsonElement childrenArray = outlineObject.get("children");
+    if (childrenArray instanceof JsonArray) {
+      for (JsonElement child : (JsonArray) childrenArray) {
+        children.add(fromJsonRecursively(outline, child.getAsJsonObject()));
+      }
+    }
+    outline.setChildren(children);
+    return outline;
+  }
+
+  /**
+   * Return the given outline and all of its descendants in pre-order.
+   */
+  private static List<Outline> preOrder(Outline root) {
+    List<Outline> outlines = new ArrayList<Outline>();
+    List<Outline> pending = new ArrayList<Outline>();
+    pending.add(root);
+    while (!pending.isEmpty()) {
+      Outline outline = pending.remove(pending.size() - 1);
+      outlines.add(outline);
+      for (int i = outline.getChildren().size() - 1; i >= 0; i--) {
+        pending.add(outline.getChildren().get(i));
+      }
+    }
+    return outlines;
+  }
+
+  /**
+   * Return the JSON object of a random outline covering the range from the given start to the
+   * given end, whose children cover disjoint parts of it, some of them empty or starting at the
+   * same offset as their parent.
+   */
+  private static JsonObject randomOutline(Random random, int start, int end, int depth) {
+    JsonObject object = new JsonObject();
+    object.add("element", new JsonParser().parse(elementJson(random.nextInt(100))));
+    object.addProperty("offset", start);
+    object.addProperty("length", end - start);
+    object.addProperty("codeOffset", start);
+    object.addProperty("codeLength", end - start);
+    if (depth < 5 && random.nextInt(4) != 0) {
+      JsonArray children = new JsonArray();
+      int childStart = random.nextBoolean() ? start : start + random.nextInt(end - start + 1);
+      while (childStart < end && children.size() < 4) {
+        int childEnd = childStart + random.nextInt(end - childStart + 1);
+        children.add(randomOutline(random, childStart, childEnd, depth + 1));
+        childStart = childEnd + 1 + random.nextInt(5);
+      }
+      object.add("children", children);
+    }
+    return object;
+  }
+
+}
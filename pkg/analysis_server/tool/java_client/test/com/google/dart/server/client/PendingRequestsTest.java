@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class PendingRequestsTest {
+
+  private static final long TICK_MILLIS = 5;
+
+  private static final int BUCKET_COUNT = 8;
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void test_expire() throws Exception {
+    PendingRequests requests = new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, 20);
+    long start = System.nanoTime();
+    CompletableFuture<JsonObject> future = requests.add(requests.nextId(), "analysis.getHover");
+    RequestError error = getError(future);
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    assertEquals(RequestErrorCode.SERVER_ERROR, error.getCode());
+    assertEquals("analysis.getHover timed out after 20 ms", error.getMessage());
+    assertEquals(1, requests.getExpiredCount());
+    assertEquals(0, requests.getPendingCount());
+  }
+
+  @Test
+  public void test_expire_afterFailAll() throws Exception {
+    PendingRequests requests = new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, 20);
+    CompletableFuture<JsonObject> failed = requests.add("1", "analysis.getHover");
+    requests.failAll(new RequestError(RequestErrorCode.SERVER_ERROR, "Connection lost", null));
+    assertEquals("Connection lost", getError(failed).getMessage());
+    CompletableFuture<JsonObject> future = requests.add("2", "analysis.getHover");
+    assertEquals(RequestErrorCode.SERVER_ERROR, getError(future).getCode());
+    assertEquals(1, requests.getExpiredCount());
+  }
+
+  @Test
+  public void test_expire_duringFailAll() throws Exception {
+    PendingRequests requests = new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, 20);
+    RequestError error = new RequestError(RequestErrorCode.SERVER_ERROR, "Connection lost", null);
+    List<CompletableFuture<JsonObject>> futures = new ArrayList<CompletableFuture<JsonObject>>();
+    Thread adder = new Thread(() -> {
+      for (int i = 0; i < 2000; i++) {
+        futures.add(requests.add(requests.nextId(), "analysis.getHover"));
+      }
+    });
+    adder.start();
+    while (adder.isAlive()) {
+      requests.failAll(error);
+    }
+    adder.join();
+    // every request either failed or expires, none is left without a deadline
+    for (CompletableFuture<JsonObject> future : futures) {
+      getError(future);
+    }
+    assertEquals(0, requests.getPendingCount());
+  }
+
+  @Test
+  public void test_expire_methodDeadline() throws Exception {
+    PendingRequests requests = new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, 60000);
+    requests.setDeadline("edit.format", 20);
+    CompletableFuture<JsonObject> slow = requests.add("1", "analysis.getHover");
+    CompletableFuture<JsonObject> fast = requests.add("2", "edit.format");
+    assertEquals("edit.format timed out after 20 ms", getError(fast).getMessage());
+    assertFalse(slow.isDone());
+    assertEquals(1, requests.getPendingCount());
+  }
+
+  @Test
+  public void test_expire_wrapAround() throws Exception {
+    // the deadline is several turns of the wheel away
+    long deadlineMillis = TICK_MILLIS * BUCKET_COUNT * 5;
+    PendingRequests requests =
+        new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, deadlineMillis);
+    long start = System.nanoTime();
+    CompletableFuture<JsonObject> future = requests.add("1", "analysis.getHover");
+    getError(future);
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(deadlineMillis));
+    assertEquals(1, requests.getExpiredCount());
+  }
+
+  @Test
+  public void test_responseReceived() throws Exception {
+    PendingRequests requests = new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, 60000);
+    CompletableFuture<JsonObject> future = requests.add("1", "analysis.getHover");
+    JsonObject response = parse("{\"id\":\"1\",\"result\":{\"hovers\":[]}}");
+    assertTrue(requests.responseReceived(response));
+    assertEquals(parse("{\"hovers\":[]}"), future.get(5, TimeUnit.SECONDS));
+    assertFalse(requests.responseReceived(response));
+  }
+
+  @Test
+  public void test_responseReceived_error() throws Exception {
+    PendingRequests requests = new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, 60000);
+    CompletableFuture<JsonObject> future = requests.add("1", "analysis.getHover");
+    assertTrue(requests.responseReceived(parse(
+        "{\"id\":\"1\",\"error\":{\"code\":\"INVALID_FILE_PATH_FORMAT\",\"message\":\"m\"}}")));
+    assertEquals(RequestErrorCode.INVALID_FILE_PATH_FORMAT, getError(future).getCode());
+  }
+
+  @Test
+  public void test_responseReceived_unknown() throws Exception {
+    PendingRequests requests = new PendingRequests(scheduler, TICK_MILLIS, BUCKET_COUNT, 20);
+    assertFalse(requests.responseReceived(parse("{\"id\":\"7\",\"result\":{}}")));
+    assertFalse(requests.responseReceived(parse("{\"event\":\"server.connected\"}")));
+  }
+
+  private static RequestError getError(CompletableFuture<JsonObject> future) throws Exception {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException exception) {
+      return ((AsyncAnalysisServer.RequestErrorException) exception.getCause()).getRequestError();
+    }
+    fail("Expected the request to fail");
+    return null;
+  }
+
+  private static JsonObject parse(String json) {
+    return new JsonParser().parse(json).getAsJsonObject();
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The class {@code ProtocolStandInServer} is a local stand-in for the analysis server, used to
+ * test a client and the encodings of {@link EncodedStreamTransport} without a Dart SDK. Like the
+ * analysis server, it sends a {@code server.connected} notification when a client connects. It
+ * answers every request with a response whose result is the {@code params} of the request, so
+ * that any protocol type can be sent to it and read back, and unlike the analysis server it
+ * switches to the encoding requested by the client. It is run in a child process, which talks over
+ * its standard input and output, with
+ *
+ * <pre>
+ * java com.google.dart.server.client.ProtocolStandInServer
+ * </pre>
+ *
+ * or in the same process by {@link #serve(InputStream, OutputStream)}.
+ *
+ * @coverage dart.server.client
+ */
+public class ProtocolStandInServer {
+
+  /**
+   * The version sent in the {@code server.connected} notification.
+   */
+  private static final String VERSION = "0.0.0-stand-in";
+
+  /**
+   * Serve the client connected to the standard input and output until the connection is closed.
+   */
+  public static void main(String[] args) throws InterruptedException, IOException {
+    serve(System.in, System.out);
+  }
+
+  /**
+   * Serve the client that sends requests to the given input stream and receives the responses from
+   * the given output stream, until the connection is closed.
+   *
+   * @throws IOException if the {@code server.connected} notification cannot be sent
+   */
+  public static void serve(InputStream input, OutputStream output)
+      throws InterruptedException, IOException {
+    EncodedStreamTransport transport = new EncodedStreamTransport(input, output);
+    CountDownLatch closed = new CountDownLatch(1);
+    transport.send(writer -> {
+      writer.beginObject();
+      writer.name("event").value("server.connected");
+      writer.name("params");
+      writer.beginObject();
+      writer.name("version").value(VERSION);
+      writer.name("pid").value(0);
+      writer.endObject();
+      writer.endObject();
+    });
+    transport.start(new EncodedStreamTransport.Listener() {
+      @Override
+      public void closed(IOException exception) {
+        closed.countDown();
+      }
+
+      @Override
+      public void messageReceived(String message) {
+        // the messages are passed to messageReceived(JsonReader) instead
+      }
+
+      @Override
+      public void messageReceived(JsonReader reader) throws IOException {
+        transport.send(writer -> {
+          writeResponse(reader, writer);
+        });
+      }
+    });
+    closed.await();
+  }
+
+  /**
+   * Write the response to the request that is the next value of the given reader.
+   */
+  private static void writeResponse(JsonReader reader, JsonWriter writer) throws IOException {
+    boolean hasResult = false;
+    writer.beginObject();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (name.equals("id")) {
+        writer.name("id").value(reader.nextString());
+      } else if (name.equals("params")) {
+        writer.name("result");
+        EncodedStreamTransport.copyValue(reader, writer);
+        hasResult = true;
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    if (!hasResult) {
+      writer.name("result");
+      writer.beginObject();
+      writer.endObject();
+    }
+    writer.endObject();
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class RegionIndexTest {
+
+  @Test
+  public void test_findInnermostAt_random() {
+    Random random = new Random(13);
+    for (int round = 0; round < 50; round++) {
+      int count = random.nextInt(60);
+      int[] offsets = new int[count];
+      int[] lengths = new int[count];
+      fillRandom(random, offsets, lengths);
+      RegionIndex index = RegionIndex.fromArrays(offsets, lengths);
+      assertEquals(count, index.getRegionCount());
+      for (int offset = -2; offset < 110; offset++) {
+        assertEquals(findInnermostAt(offsets, lengths, offset), index.findInnermostAt(offset));
+      }
+    }
+  }
+
+  @Test
+  public void test_findOverlapping_random() {
+    Random random = new Random(17);
+    for (int round = 0; round < 50; round++) {
+      int count = random.nextInt(60);
+      int[] offsets = new int[count];
+      int[] lengths = new int[count];
+      fillRandom(random, offsets, lengths);
+      RegionIndex index = RegionIndex.fromArrays(offsets, lengths);
+      for (int offset = -2; offset < 110; offset += 3) {
+        for (int length = 0; length < 30; length += 4) {
+          assertArrayEquals(findOverlapping(offsets, lengths, offset, length),
+              index.findOverlapping(offset, length));
+        }
+        assertArrayEquals(findOverlapping(offsets, lengths, offset, 0), index.findAt(offset));
+      }
+    }
+  }
+
+  @Test
+  public void test_forOccurrences() {
+    Element element = new Element(ElementKind.LOCAL_VARIABLE, "a", null, 0, null, null, null);
+    List<Occurrences> occurrences = Arrays.asList(new Occurrences(element, new int[] {30, 10}, 1),
+        new Occurrences(element, new int[] {20}, 3));
+    RegionIndex index = RegionIndex.forOccurrences(occurrences);
+    // each offset is a region, whose index is that of its occurrences
+    assertEquals(3, index.getRegionCount());
+    assertArrayEquals(new int[] {0, 1, 0}, index.findOverlapping(0, 100));
+    assertEquals(1, index.findInnermostAt(22));
+    assertEquals(-1, index.findInnermostAt(25));
+  }
+
+  /**
+   * Fill the given arrays with random regions, some of which are nested or share an offset.
+   */
+  private static void fillRandom(Random random, int[] offsets, int[] lengths) {
+    for (int i = 0; i < offsets.length; i++) {
+      if (i > 0 && random.nextInt(4) == 0) {
+        offsets[i] = offsets[random.nextInt(i)];
+      } else {
+        offsets[i] = random.nextInt(100);
+      }
+      lengths[i] = random.nextInt(4) == 0 ? 0 : random.nextInt(20);
+    }
+  }
+
+  /**
+   * Return the result of {@link RegionIndex#findInnermostAt(int)} by examining every region.
+   */
+  private static int findInnermostAt(int[] offsets, int[] lengths, int offset) {
+    int result = -1;
+    for (int i : findOverlapping(offsets, lengths, offset, 0)) {
+      // the regions are in order of offset, so the last of the shortest has the largest offset
+      if (result == -1 || lengths[i] <= lengths[result]) {
+        result = i;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Return the result of {@link RegionIndex#findOverlapping(int, int)} by examining every region,
+   * ordered by offset and then by index.
+   */
+  private static int[] findOverlapping(int[] offsets, int[] lengths, int offset, int length) {
+    List<Integer> result = new ArrayList<Integer>();
+    for (int i = 0; i < offsets.length; i++) {
+      if (offsets[i] <= offset + length && offsets[i] + lengths[i] >= offset) {
+        result.add(i);
+      }
+    }
+    result.sort((first, second) -> offsets[first] != offsets[second]
+        ? Integer.compare(offsets[first], offsets[second]) : Integer.compare(first, second));
+    int[] array = new int[result.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = result.get(i);
+    }
+    return array;
+  }
+
+}
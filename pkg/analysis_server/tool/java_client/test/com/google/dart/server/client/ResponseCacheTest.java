@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.client.NotificationQueue.Notification;
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class ResponseCacheTest {
+
+  private static final String HOVER_RESULT = "{\"result\":{\"hovers\":[]}}";
+
+  private final FakeRequestSender sender = new FakeRequestSender();
+
+  private final AsyncAnalysisServer server = new AsyncAnalysisServer(sender);
+
+  @Test
+  public void test_analysis_updateContent() {
+    ResponseCache cache = new ResponseCache(10);
+    CompletableFuture<List<HoverInformation>> first = cache.analysis_getHover(server, "/a.dart", 1);
+    sender.get(0).respond(HOVER_RESULT);
+    cache.analysis_updateContent(server,
+        Collections.<String, Object>singletonMap("/a.dart", new AddContentOverlay("int a;")));
+    assertEquals("analysis.updateContent", sender.get(1).getMethod());
+    // the result for the previous content is no longer found
+    CompletableFuture<List<HoverInformation>> second =
+        cache.analysis_getHover(server, "/a.dart", 1);
+    assertNotSame(first, second);
+    assertEquals(3, sender.size());
+    assertEquals("analysis.getHover", sender.get(2).getMethod());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertSame(second, cache.analysis_getHover(server, "/a.dart", 1));
+  }
+
+  @Test
+  public void test_get_failed() {
+    ResponseCache cache = new ResponseCache(10);
+    CompletableFuture<List<HoverInformation>> failed =
+        cache.analysis_getHover(server, "/a.dart", 1);
+    sender.get(0).respond("{\"error\":{\"code\":\"SERVER_ERROR\",\"message\":\"failed\"}}");
+    assertTrue(failed.isCompletedExceptionally());
+    // a request that failed is not cached
+    assertEquals(0, cache.getSize());
+    assertNotSame(failed, cache.analysis_getHover(server, "/a.dart", 1));
+    assertEquals(2, sender.size());
+  }
+
+  @Test
+  public void test_get_hit() throws Exception {
+    ResponseCache cache = new ResponseCache(10);
+    CompletableFuture<List<HoverInformation>> future =
+        cache.analysis_getHover(server, "/a.dart", 1);
+    // a pending request is shared
+    assertSame(future, cache.analysis_getHover(server, "/a.dart", 1));
+    sender.get(0).respond(HOVER_RESULT);
+    assertSame(future, cache.analysis_getHover(server, "/a.dart", 1));
+    assertEquals(0, future.get().size());
+    assertEquals(1, sender.size());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    // other parameters and other files are other results
+    cache.analysis_getHover(server, "/a.dart", 2);
+    cache.analysis_getHover(server, "/b.dart", 1);
+    assertEquals(3, sender.size());
+    assertEquals(3, cache.getSize());
+  }
+
+  @Test
+  public void test_get_leastRecentlyUsed() {
+    ResponseCache cache = new ResponseCache(2);
+    CompletableFuture<List<HoverInformation>> a = cache.analysis_getHover(server, "/a.dart", 1);
+    cache.analysis_getHover(server, "/b.dart", 1);
+    // using the result of a makes b the least recently used
+    assertSame(a, cache.analysis_getHover(server, "/a.dart", 1));
+    cache.analysis_getHover(server, "/c.dart", 1);
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(2, cache.getSize());
+    assertSame(a, cache.analysis_getHover(server, "/a.dart", 1));
+    assertEquals(3, sender.size());
+    cache.analysis_getHover(server, "/b.dart", 1);
+    assertEquals(4, sender.size());
+    assertEquals(2, cache.getEvictionCount());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void test_getFileVersionCount() {
+    ResponseCache cache = new ResponseCache(1);
+    // a file without results does not need a version
+    cache.invalidate("/a.dart");
+    assertEquals(0, cache.getFileVersionCount());
+    cache.analysis_getHover(server, "/a.dart", 1);
+    cache.invalidate("/a.dart");
+    assertEquals(1, cache.getFileVersionCount());
+    // the version is forgotten with the last result of the file
+    cache.analysis_getHover(server, "/b.dart", 1);
+    assertEquals(0, cache.getFileVersionCount());
+    cache.invalidate("/b.dart");
+    assertEquals(1, cache.getFileVersionCount());
+    cache.analysis_getHover(server, "/b.dart", 1);
+    sender.get(2).respond("{\"error\":{\"code\":\"SERVER_ERROR\",\"message\":\"failed\"}}");
+    // the failed result was the last one for the file, since the previous one was evicted
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getFileVersionCount());
+  }
+
+  @Test
+  public void test_notificationReceived() {
+    ResponseCache cache = new ResponseCache(10);
+    CompletableFuture<List<HoverInformation>> a = cache.analysis_getHover(server, "/a.dart", 1);
+    CompletableFuture<List<HoverInformation>> b = cache.analysis_getHover(server, "/b.dart", 1);
+    CompletableFuture<List<HoverInformation>> c = cache.analysis_getHover(server, "/c.dart", 1);
+    // a notification that does not indicate that a file was analyzed is ignored
+    cache.notificationReceived(
+        notification("server.status", "{\"analysis\":{\"isAnalyzing\":true}}"));
+    cache.notificationReceived(
+        notification("analysis.errors", "{\"file\":\"/a.dart\",\"errors\":[]}"));
+    assertSame(b, cache.analysis_getHover(server, "/b.dart", 1));
+    assertNotSame(a, cache.analysis_getHover(server, "/a.dart", 1));
+    cache.notificationReceived(
+        notification("analysis.flushResults", "{\"files\":[\"/b.dart\",\"/c.dart\"]}"));
+    assertNotSame(b, cache.analysis_getHover(server, "/b.dart", 1));
+    assertNotSame(c, cache.analysis_getHover(server, "/c.dart", 1));
+    assertEquals(6, sender.size());
+  }
+
+  /**
+   * Return a notification with the given event and parameters.
+   */
+  private static Notification notification(String event, String params) {
+    return new Notification(event, FakeRequestSender.parse(params));
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SourceDocumentTest {
+
+  @Test
+  public void test_applyEdit_outOfBounds() {
+    SourceDocument document = new SourceDocument("abc", 0);
+    try {
+      document.applyEdit(new SourceEdit(2, 2, "x", null));
+      fail("Expected an edit past the end to be rejected");
+    } catch (IndexOutOfBoundsException exception) {
+      // expected
+    }
+    assertEquals("abc", document.getText());
+    assertNull(document.takeChangeOverlay());
+  }
+
+  @Test
+  public void test_applyEdits_random() {
+    Random random = new Random(7);
+    String content = "void main() {\n  print('hello');\n}\n";
+    SourceDocument document = new SourceDocument(content, 0);
+    for (int i = 0; i < 2000; i++) {
+      int offset = random.nextInt(content.length() + 1);
+      int length = random.nextInt(Math.min(content.length() - offset, 8) + 1);
+      String replacement = "x\ny;".substring(0, random.nextInt(5));
+      SourceEdit edit = new SourceEdit(offset, length, replacement, null);
+      document.applyEdit(edit);
+      content = content.substring(0, offset) + replacement + content.substring(offset + length);
+      assertEquals(content.length(), document.getLength());
+      if (i % 50 == 0) {
+        assertEquals(content, document.getText());
+      }
+    }
+    assertEquals(content, document.getText());
+  }
+
+  @Test
+  public void test_applyFileEdit() {
+    SourceDocument document = new SourceDocument("int a;", 3);
+    List<SourceEdit> edits = Arrays.asList(new SourceEdit(4, 1, "b", null));
+    // an edit created for another version of the file is not applied
+    assertFalse(document.applyFileEdit(new SourceFileEdit("/a.dart", 2, edits)));
+    assertEquals("int a;", document.getText());
+    assertNull(document.takeChangeOverlay());
+    assertTrue(document.applyFileEdit(new SourceFileEdit("/a.dart", 3, edits)));
+    assertEquals("int b;", document.getText());
+    document.setFileStamp(4);
+    assertEquals(4, document.getFileStamp());
+    assertFalse(document.applyFileEdit(new SourceFileEdit("/a.dart", 3, edits)));
+  }
+
+  @Test
+  public void test_getText_range() {
+    SourceDocument document = new SourceDocument("0123456789", 0);
+    document.applyEdit(new SourceEdit(3, 2, "abc", null));
+    document.applyEdit(new SourceEdit(8, 0, "XY", null));
+    String content = "012abc56XY789";
+    assertEquals(content, document.getText());
+    // every range, including those that start or end within a piece
+    for (int offset = 0; offset <= content.length(); offset++) {
+      for (int length = 0; offset + length <= content.length(); length++) {
+        assertEquals(content.substring(offset, offset + length), document.getText(offset, length));
+      }
+    }
+    try {
+      document.getText(10, 4);
+      fail("Expected a range past the end to be rejected");
+    } catch (IndexOutOfBoundsException exception) {
+      // expected
+    }
+    assertEquals("", new SourceDocument("", 0).getText(0, 0));
+  }
+
+  @Test
+  public void test_takeChangeOverlay() {
+    Random random = new Random(11);
+    String sent = "class A {}\n";
+    SourceDocument document = new SourceDocument(sent, 0);
+    assertNull(document.takeChangeOverlay());
+    for (int round = 0; round < 20; round++) {
+      List<SourceEdit> edits = new ArrayList<SourceEdit>();
+      int length = document.getLength();
+      for (int i = 0; i < 10; i++) {
+        int offset = random.nextInt(length + 1);
+        int removed = random.nextInt(length - offset + 1);
+        edits.add(new SourceEdit(offset, removed, "m" + i, null));
+        length += 2 - removed;
+      }
+      document.applyEdits(edits);
+      // the overlay replayed on the content last sent yields the content of the document
+      ChangeContentOverlay overlay = document.takeChangeOverlay();
+      sent = SourceEditUtilities.applySequence(sent, overlay.getEdits());
+      assertEquals(document.getText(), sent);
+      assertNull(document.takeChangeOverlay());
+    }
+    document.applyEdit(new SourceEdit(0, 0, "// ", null));
+    assertEquals("// " + sent, document.toAddOverlay().getContent());
+    assertNull(document.takeChangeOverlay());
+  }
+
+}
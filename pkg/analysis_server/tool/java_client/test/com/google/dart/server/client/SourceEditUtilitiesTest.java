@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SourceEditUtilitiesTest {
+
+  @Test
+  public void test_computeEdits_crlf() {
+    String oldContent = "class A {\r\n  int a;\r\n  int b;\r\n  int c;\r\n}\r\n";
+    String newContent = "class A {\r\n  int x;\r\n  int b;\r\n  int y;\r\n}\r\n";
+    List<SourceEdit> edits = checkEdits(oldContent, newContent);
+    // the common prefix and suffix are excluded, and each line keeps its carriage return
+    assertEquals(Arrays.asList(new SourceEdit(31, 7, "  int y", null),
+        new SourceEdit(17, 4, "x;\r\n", null)), edits);
+  }
+
+  @Test
+  public void test_computeEdits_empty() {
+    assertEquals(0, checkEdits("", "").size());
+    assertEquals(0, checkEdits("same\ntext\n", "same\ntext\n").size());
+    assertEquals(Arrays.asList(new SourceEdit(0, 0, "a\nb\n", null)), checkEdits("", "a\nb\n"));
+    assertEquals(Arrays.asList(new SourceEdit(0, 4, "", null)), checkEdits("a\nb\n", ""));
+  }
+
+  @Test
+  public void test_computeEdits_fallback() {
+    // every other line between the first and the last differs, which would be hundreds of hunks
+    // and is more than the line-level difference computes, so a single edit replaces the text
+    StringBuilder oldContent = new StringBuilder("first\n");
+    StringBuilder newContent = new StringBuilder("first\n");
+    for (int i = 0; i < 300; i++) {
+      oldContent.append("old ").append(i).append("\nkept\n");
+      newContent.append("new ").append(i).append("\nkept\n");
+    }
+    oldContent.append("last\n");
+    newContent.append("last\n");
+    List<SourceEdit> edits = checkEdits(oldContent.toString(), newContent.toString());
+    assertEquals(1, edits.size());
+    assertEquals(6, edits.get(0).getOffset());
+    // with fewer differing lines, each of them is an edit
+    String oldPart = oldContent.substring(0, oldContent.indexOf("old 10\n")) + "last\n";
+    String newPart = newContent.substring(0, newContent.indexOf("new 10\n")) + "last\n";
+    assertEquals(10, checkEdits(oldPart, newPart).size());
+  }
+
+  @Test
+  public void test_computeEdits_multipleHunks() {
+    String oldContent = "a\nb\nc\nd\ne\nf\ng\n";
+    String newContent = "a\nB\nc\nd\ne\nf\nG\nH\n";
+    List<SourceEdit> edits = checkEdits(oldContent, newContent);
+    // the edits are in decreasing order of offset, and only the changed lines are replaced, up to
+    // the common suffix
+    assertEquals(Arrays.asList(new SourceEdit(12, 1, "G\nH", null),
+        new SourceEdit(2, 2, "B\n", null)), edits);
+  }
+
+  @Test
+  public void test_computeEdits_prefixOnly() {
+    assertEquals(Arrays.asList(new SourceEdit(5, 0, " world", null)),
+        checkEdits("hello", "hello world"));
+    assertEquals(Arrays.asList(new SourceEdit(5, 6, "", null)),
+        checkEdits("hello world", "hello"));
+  }
+
+  @Test
+  public void test_computeEdits_random() {
+    Random random = new Random(42);
+    String[] lines = {"a\n", "b\n", "c\r\n", "dd\n", "", "e"};
+    for (int i = 0; i < 500; i++) {
+      String oldContent = randomText(random, lines);
+      String newContent = randomText(random, lines);
+      for (SourceEdit edit : checkEdits(oldContent, newContent)) {
+        assertTrue(edit.getOffset() + edit.getLength() <= oldContent.length());
+      }
+    }
+  }
+
+  @Test
+  public void test_computeEdits_suffixOnly() {
+    assertEquals(Arrays.asList(new SourceEdit(0, 0, "// ", null)),
+        checkEdits("int a;", "// int a;"));
+    assertEquals(Arrays.asList(new SourceEdit(0, 3, "", null)),
+        checkEdits("// int a;", "int a;"));
+  }
+
+  /**
+   * Check that the edits computed for the given contents change the old content into the new one,
+   * both when applied in sequence and when applied one at a time, and return them.
+   */
+  private static List<SourceEdit> checkEdits(String oldContent, String newContent) {
+    List<SourceEdit> edits = SourceEditUtilities.computeEdits(oldContent, newContent);
+    assertEquals(newContent, SourceEditUtilities.applySequence(oldContent, edits));
+    String content = oldContent;
+    int previousOffset = Integer.MAX_VALUE;
+    for (SourceEdit edit : edits) {
+      assertTrue(edit.getOffset() < previousOffset);
+      previousOffset = edit.getOffset();
+      content = SourceEditUtilities.apply(content, edit);
+    }
+    assertEquals(newContent, content);
+    assertEquals(newContent, SourceEditUtilities.applySequence(oldContent,
+        SourceEditUtilities.computeChangeOverlay(oldContent, newContent).getEdits()));
+    return edits;
+  }
+
+  /**
+   * Return a text made of up to ten of the given lines, chosen at random.
+   */
+  private static String randomText(Random random, String[] lines) {
+    StringBuilder builder = new StringBuilder();
+    int count = random.nextInt(10);
+    for (int i = 0; i < count; i++) {
+      builder.append(lines[random.nextInt(lines.length)]);
+    }
+    return builder.toString();
+  }
+
+}
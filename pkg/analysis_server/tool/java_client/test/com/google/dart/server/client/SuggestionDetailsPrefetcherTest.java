@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static com.google.dart.server.client.AvailableSuggestionSnapshotTest.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.CompletionGetSuggestionDetailsResult;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class SuggestionDetailsPrefetcherTest {
+
+  private static final String DETAILS_RESULT = "{\"result\":{\"completion\":\"A\"}}";
+
+  private final FakeRequestSender sender = new FakeRequestSender();
+
+  private final AsyncAnalysisServer server = new AsyncAnalysisServer(sender);
+
+  @Test
+  public void test_getSuggestionDetails() throws Exception {
+    SuggestionDetailsPrefetcher prefetcher = new SuggestionDetailsPrefetcher(server, 1);
+    prefetcher.prefetch("/a.dart", 5, candidates("A", "B"), 2);
+    assertEquals(1, sender.size());
+    // the details that are asked for are sent immediately, even if the limit has been reached
+    CompletableFuture<CompletionGetSuggestionDetailsResult> future =
+        prefetcher.getSuggestionDetails("/a.dart", 1, "B", 5);
+    assertEquals(2, sender.size());
+    assertEquals("B", sender.get(1).getParams().get("label").getAsString());
+    assertEquals(1, prefetcher.getInFlightCount());
+    sender.get(1).respond(DETAILS_RESULT);
+    assertEquals("A", future.get().getCompletion());
+    // the prefetched details are returned without another request
+    sender.get(0).respond(DETAILS_RESULT);
+    assertTrue(prefetcher.getSuggestionDetails("/a.dart", 1, "A", 5).isDone());
+    assertSame(future, prefetcher.getSuggestionDetails("/a.dart", 1, "B", 5));
+    assertEquals(2, sender.size());
+  }
+
+  @Test
+  public void test_getSuggestionDetails_failed() {
+    SuggestionDetailsPrefetcher prefetcher = new SuggestionDetailsPrefetcher(server, 1);
+    CompletableFuture<CompletionGetSuggestionDetailsResult> failed =
+        prefetcher.getSuggestionDetails("/a.dart", 1, "A", 5);
+    sender.get(0).respond("{\"error\":{\"code\":\"SERVER_ERROR\",\"message\":\"failed\"}}");
+    assertTrue(failed.isCompletedExceptionally());
+    // a request that failed is not cached
+    prefetcher.getSuggestionDetails("/a.dart", 1, "A", 5);
+    assertEquals(2, sender.size());
+  }
+
+  @Test
+  public void test_getSuggestionDetails_newSession() {
+    SuggestionDetailsPrefetcher prefetcher = new SuggestionDetailsPrefetcher(server, 2);
+    prefetcher.prefetch("/a.dart", 5, candidates("A", "B"), 2);
+    CompletableFuture<CompletionGetSuggestionDetailsResult> requested =
+        prefetcher.getSuggestionDetails("/a.dart", 1, "B", 5);
+    // a request at another offset begins a new session, which cancels the prefetch requests
+    prefetcher.getSuggestionDetails("/a.dart", 1, "A", 6);
+    assertTrue(sender.get(0).future.isCancelled());
+    assertFalse(requested.isCancelled());
+    assertEquals(3, sender.size());
+    assertEquals(6, sender.get(2).getParams().get("offset").getAsInt());
+    assertEquals(0, prefetcher.getInFlightCount());
+  }
+
+  @Test
+  public void test_prefetch_maxConcurrentRequests() {
+    SuggestionDetailsPrefetcher prefetcher = new SuggestionDetailsPrefetcher(server, 2);
+    prefetcher.prefetch("/a.dart", 5, candidates("A", "B", "C", "D", "E"), 4);
+    // the best candidates are sent first, at most two at a time
+    assertEquals(2, sender.size());
+    assertEquals(2, prefetcher.getInFlightCount());
+    assertEquals("A", sender.get(0).getParams().get("label").getAsString());
+    assertEquals("B", sender.get(1).getParams().get("label").getAsString());
+    sender.get(1).respond(DETAILS_RESULT);
+    assertEquals(3, sender.size());
+    assertEquals("C", sender.get(2).getParams().get("label").getAsString());
+    for (int i = 0; i < sender.size(); i++) {
+      assertTrue(prefetcher.getInFlightCount() <= 2);
+      sender.get(i).respond(DETAILS_RESULT);
+    }
+    // only the given number of candidates are prefetched
+    assertEquals(4, sender.size());
+    assertEquals(0, prefetcher.getInFlightCount());
+  }
+
+  @Test
+  public void test_prefetch_superseded() {
+    SuggestionDetailsPrefetcher prefetcher = new SuggestionDetailsPrefetcher(server, 3);
+    prefetcher.prefetch("/a.dart", 5, candidates("A", "B", "C"), 3);
+    CompletableFuture<CompletionGetSuggestionDetailsResult> requested =
+        prefetcher.getSuggestionDetails("/a.dart", 1, "B", 5);
+    assertEquals(3, sender.size());
+    // after a keystroke, the requests that are no longer wanted are cancelled, unless their
+    // details have been asked for, and those still wanted are not sent again
+    prefetcher.prefetch("/a.dart", 5, candidates("C", "D"), 2);
+    assertTrue(sender.get(0).future.isCancelled());
+    assertFalse(requested.isCancelled());
+    assertFalse(sender.get(2).future.isCancelled());
+    assertEquals(4, sender.size());
+    assertEquals("D", sender.get(3).getParams().get("label").getAsString());
+    assertEquals(3, prefetcher.getInFlightCount());
+    sender.get(1).respond(DETAILS_RESULT);
+    assertEquals(2, prefetcher.getInFlightCount());
+  }
+
+  /**
+   * Return the candidates for the suggestions with the given labels in the set with the id 1, in
+   * order.
+   */
+  private static List<CompletionAccumulator.Candidate> candidates(String... labels) {
+    AvailableSuggestionSet set = set(1, "package:a/a.dart", labels);
+    CompletionAccumulator accumulator = new CompletionAccumulator(labels.length, "");
+    accumulator.addSuggestionSet(set, new IncludedSuggestionSet(1, 100, null));
+    return accumulator.getBestCandidates();
+  }
+
+}
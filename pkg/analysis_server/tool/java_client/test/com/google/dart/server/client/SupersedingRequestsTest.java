@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+import com.google.dart.server.generated.client.AsyncAnalysisServer.EditGetRefactoringResult;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+public class SupersedingRequestsTest {
+
+  private static final String REFACTORING_RESULT =
+      "{\"result\":{\"initialProblems\":[],\"optionsProblems\":[],\"finalProblems\":[]}}";
+
+  private final FakeRequestSender sender = new FakeRequestSender();
+
+  private final AsyncAnalysisServer server = new AsyncAnalysisServer(sender);
+
+  private final SupersedingRequests requests = new SupersedingRequests();
+
+  @Test
+  public void test_completion_getSuggestions() throws Exception {
+    CompletableFuture<String> first = requests.completion_getSuggestions(server, "/a.dart", 5);
+    CompletableFuture<String> second = requests.completion_getSuggestions(server, "/a.dart", 6);
+    // the previous request is cancelled, which also drops its response
+    assertTrue(first.isCancelled());
+    assertTrue(sender.get(0).future.isCancelled());
+    assertFalse(requests.isCurrentCompletion("2"));
+    sender.get(1).respond("{\"result\":{\"id\":\"2\"}}");
+    assertEquals("2", second.get());
+    assertTrue(requests.isCurrentCompletion("2"));
+    assertFalse(requests.isCurrentCompletion("1"));
+    assertFalse(requests.isCurrentCompletion(null));
+    // a request that is done is not cancelled by the next one
+    requests.completion_getSuggestions(server, "/a.dart", 7);
+    assertFalse(second.isCancelled());
+    assertFalse(requests.isCurrentCompletion("2"));
+  }
+
+  @Test
+  public void test_edit_getRefactoring_computeChanges() {
+    CompletableFuture<EditGetRefactoringResult> validate = getRefactoring("/a.dart", 10, true);
+    CompletableFuture<EditGetRefactoringResult> compute = getRefactoring("/a.dart", 10, false);
+    // a request for the changes neither cancels nor is cancelled by another request
+    assertFalse(validate.isCancelled());
+    getRefactoring("/a.dart", 10, false);
+    getRefactoring("/a.dart", 10, true);
+    assertFalse(compute.isCancelled());
+    assertTrue(validate.isCancelled());
+  }
+
+  @Test
+  public void test_edit_getRefactoring_done() throws Exception {
+    CompletableFuture<EditGetRefactoringResult> first = getRefactoring("/a.dart", 10, true);
+    sender.get(0).respond(REFACTORING_RESULT);
+    getRefactoring("/a.dart", 10, true);
+    assertFalse(first.isCancelled());
+    assertEquals(0, first.get().getFinalProblems().size());
+  }
+
+  @Test
+  public void test_edit_getRefactoring_validateOnly() {
+    CompletableFuture<EditGetRefactoringResult> rename = getRefactoring("/a.dart", 10, true);
+    CompletableFuture<EditGetRefactoringResult> otherOffset = getRefactoring("/a.dart", 20, true);
+    CompletableFuture<EditGetRefactoringResult> otherFile = getRefactoring("/b.dart", 10, true);
+    CompletableFuture<EditGetRefactoringResult> otherKind = requests.edit_getRefactoring(server,
+        RefactoringKind.EXTRACT_LOCAL_VARIABLE, "/a.dart", 10, 0, true, null);
+    // only requests with the same kind, file and offset supersede each other
+    assertFalse(rename.isCancelled());
+    assertFalse(otherOffset.isCancelled());
+    assertFalse(otherFile.isCancelled());
+    assertFalse(otherKind.isCancelled());
+    CompletableFuture<EditGetRefactoringResult> latest = getRefactoring("/a.dart", 10, true);
+    assertTrue(rename.isCancelled());
+    assertTrue(sender.get(0).future.isCancelled());
+    assertFalse(otherOffset.isCancelled());
+    assertFalse(otherFile.isCancelled());
+    assertFalse(otherKind.isCancelled());
+    assertFalse(latest.isCancelled());
+  }
+
+  /**
+   * Send a rename refactoring request for the given offset of the given file.
+   */
+  private CompletableFuture<EditGetRefactoringResult> getRefactoring(String file, int offset,
+      boolean validateOnly) {
+    return requests.edit_getRefactoring(server, RefactoringKind.RENAME, file, offset, 0,
+        validateOnly, new RenameOptions("newName"));
+  }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code TransportBenchmark} measures the latency of a round trip of a request over each
+ * kind of transport of a {@link TransportLauncher}, against a local stand-in for the server that
+ * echoes each message back: a child process for {@link TransportLauncher#STDIO}, and a thread that
+ * listens on a loopback port or a Unix domain socket for the other kinds. It is run with
+ *
+ * <pre>
+ * java com.google.dart.server.client.TransportBenchmark [round trips]
+ * </pre>
+ *
+ * and prints the median and the 99th percentile of the round trip times of each kind. A kind that
+ * the runtime does not support is reported and skipped.
+ *
+ * @coverage dart.server.client
+ */
+public class TransportBenchmark {
+
+  /**
+   * The message sent in each round trip, which is a typical request.
+   */
+  private static final String MESSAGE =
+      "{\"id\":\"1\",\"method\":\"analysis.getHover\","
+          + "\"params\":{\"file\":\"/project/lib/main.dart\",\"offset\":1234}}";
+
+  /**
+   * The number of round trips measured for each kind, unless another number is given.
+   */
+  private static final int DEFAULT_ROUND_TRIPS = 10000;
+
+  /**
+   * The number of round trips made before the measured ones, so that the code is compiled.
+   */
+  private static final int WARM_UP_ROUND_TRIPS = 2000;
+
+  /**
+   * The number of seconds after which a message that was not echoed fails the benchmark.
+   */
+  private static final int TIMEOUT_SECONDS = 10;
+
+  /**
+   * The argument that makes the child process echo its standard input.
+   */
+  private static final String ECHO_ARGUMENT = "--echo";
+
+  /**
+   * Run the benchmark, or echo the standard input if the argument is {@link #ECHO_ARGUMENT}.
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && args[0].equals(ECHO_ARGUMENT)) {
+      echo(System.in, System.out);
+      return;
+    }
+    int roundTrips = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUND_TRIPS;
+    ProcessBuilder processBuilder = new ProcessBuilder(
+        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp",
+        System.getProperty("java.class.path"),
+        TransportBenchmark.class.getName(),
+        ECHO_ARGUMENT);
+    processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    ServerSocketChannel tcpServer = ServerSocketChannel.open();
+    tcpServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    startEchoThread(tcpServer);
+    Path directory = Files.createTempDirectory("transport-benchmark");
+    Path socketPath = directory.resolve("echo.sock");
+    ServerSocketChannel udsServer = openUnixDomainServer(socketPath);
+    if (udsServer != null) {
+      startEchoThread(udsServer);
+    }
+    NioTransportGroup group = new NioTransportGroup(1);
+    TransportLauncher launcher =
+        new TransportLauncher(processBuilder, tcpServer.getLocalAddress(), socketPath, group);
+    try {
+      measure(launcher, TransportLauncher.STDIO, roundTrips);
+      measure(launcher, TransportLauncher.TCP, roundTrips);
+      if (udsServer != null) {
+        measure(launcher, TransportLauncher.UNIX_DOMAIN_SOCKET, roundTrips);
+      } else {
+        System.out.println(TransportLauncher.UNIX_DOMAIN_SOCKET + " is not supported");
+      }
+    } finally {
+      group.close();
+      tcpServer.close();
+      if (udsServer != null) {
+        udsServer.close();
+      }
+      Files.deleteIfExists(socketPath);
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * Write each line read from the given input stream to the given output stream, until the input
+   * stream ends.
+   */
+  private static void echo(InputStream input, OutputStream output) throws IOException {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      writer.write(line);
+      writer.write('\n');
+      writer.flush();
+    }
+  }
+
+  /**
+   * Measure the round trips of the given number of messages over a transport of the given kind,
+   * and print the median and the 99th percentile of their times.
+   */
+  private static void measure(TransportLauncher launcher, String kind, int roundTrips)
+      throws Exception {
+    BlockingQueue<String> received = new LinkedBlockingQueue<String>();
+    Transport transport = launcher.start(kind, new Transport.Listener() {
+      @Override
+      public void closed(IOException exception) {
+      }
+
+      @Override
+      public void messageReceived(String message) {
+        received.add(message);
+      }
+    });
+    try {
+      long[] times = new long[roundTrips];
+      for (int i = -WARM_UP_ROUND_TRIPS; i < roundTrips; i++) {
+        long start = System.nanoTime();
+        transport.send(MESSAGE);
+        if (received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS) == null) {
+          throw new IOException("The message was not echoed over " + kind);
+        }
+        if (i >= 0) {
+          times[i] = System.nanoTime() - start;
+        }
+      }
+      Arrays.sort(times);
+      System.out.printf(
+          "%-18s median %7.1f us, 99th percentile %7.1f us%n",
+          kind,
+          times[roundTrips / 2] / 1000.0,
+          times[roundTrips * 99 / 100] / 1000.0);
+    } finally {
+      transport.close();
+      if (TransportLauncher.STDIO.equals(kind)) {
+        launcher.getProcess().waitFor();
+      }
+    }
+  }
+
+  /**
+   * Return a server channel listening on a Unix domain socket at the given path, or {@code null}
+   * if the runtime does not support Unix domain sockets.
+   */
+  private static ServerSocketChannel openUnixDomainServer(Path path) throws IOException {
+    try {
+      // the classes are looked up reflectively so that this class runs on older runtimes
+      Class<?> addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+      Method of = addressClass.getMethod("of", Path.class);
+      SocketAddress address = (SocketAddress) of.invoke(null, path);
+      ProtocolFamily family = StandardProtocolFamily.valueOf("UNIX");
+      Method open = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+      ServerSocketChannel server = (ServerSocketChannel) open.invoke(null, family);
+      server.bind(address);
+      return server;
+    } catch (ReflectiveOperationException | IllegalArgumentException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Start a daemon thread that echoes the messages of each connection accepted by the given server
+   * channel, one connection at a time.
+   */
+  private static void startEchoThread(ServerSocketChannel server) {
+    Thread thread = new Thread(() -> {
+      try {
+        while (true) {
+          try (SocketChannel channel = server.accept()) {
+            echo(Channels.newInputStream(channel), Channels.newOutputStream(channel));
+          }
+        }
+      } catch (IOException exception) {
+        // the server channel was closed
+      }
+    }, "Echo server");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class TransportLauncherTest {
+
+  private static final Transport.Listener LISTENER = new Transport.Listener() {
+    @Override
+    public void closed(IOException exception) {
+    }
+
+    @Override
+    public void messageReceived(String message) {
+    }
+  };
+
+  private TransportLauncher launcher;
+
+  @After
+  public void tearDown() throws InterruptedException {
+    if (launcher != null && launcher.getProcess() != null) {
+      launcher.getProcess().destroy();
+      launcher.getProcess().waitFor();
+    }
+  }
+
+  @Test
+  public void test_start_stdio_processRunning() throws Exception {
+    ProcessBuilder processBuilder = new ProcessBuilder("sleep", "30");
+    launcher = new TransportLauncher(processBuilder, null, null, null);
+    Transport transport = launcher.start(TransportLauncher.STDIO, LISTENER);
+    Process process = launcher.getProcess();
+    // nothing reads the standard error of the process
+    assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectError());
+    try {
+      launcher.start(TransportLauncher.STDIO_CBOR, LISTENER);
+      fail("Expected a second server process to be refused");
+    } catch (IllegalStateException exception) {
+      // expected
+    }
+    assertSame(process, launcher.getProcess());
+    transport.close();
+    process.destroy();
+    process.waitFor();
+    launcher.start(TransportLauncher.STDIO, LISTENER).close();
+    assertNotSame(process, launcher.getProcess());
+  }
+
+  @Test
+  public void test_start_stdioCbor_negotiationFails() throws Exception {
+    // the process closes its standard output before answering, and keeps running
+    launcher = new TransportLauncher(
+        new ProcessBuilder("sh", "-c", "exec 1>&-; exec sleep 30"), null, null, null);
+    try {
+      launcher.start(TransportLauncher.STDIO_CBOR, LISTENER);
+      fail("Expected the negotiation to fail");
+    } catch (IOException exception) {
+      // expected
+    }
+    Process process = launcher.getProcess();
+    assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+    assertFalse(process.isAlive());
+  }
+
+}
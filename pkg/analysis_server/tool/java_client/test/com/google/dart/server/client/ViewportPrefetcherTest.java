@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ */
+package com.google.dart.server.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.generated.client.AsyncAnalysisServer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class ViewportPrefetcherTest {
+
+  private static final String HOVER_RESULT = "{\"result\":{\"hovers\":[]}}";
+
+  private final FakeRequestSender sender = new FakeRequestSender();
+
+  private final AsyncAnalysisServer server = new AsyncAnalysisServer(sender);
+
+  private final ResponseCache cache = new ResponseCache(100);
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void test_getNavigationTargets() throws Exception {
+    ViewportPrefetcher prefetcher = new ViewportPrefetcher(server, cache, scheduler, 0, 2, 10);
+    prefetcher.viewportChanged("/a.dart", 0, 100);
+    awaitRequests(1);
+    sender.get(0).respond(navigationResult(10, 20, 20, 30));
+    // the requests of the user in the visible region are answered from the prefetched results
+    List<NavigationTarget> targets = prefetcher.getNavigationTargets("/a.dart", 22).get();
+    assertEquals(1, targets.size());
+    assertEquals(20, targets.get(0).getOffset());
+    assertEquals(0, prefetcher.getNavigationTargets("/a.dart", 50).get().size());
+    assertNull(prefetcher.getNavigationTargets("/a.dart", 150));
+    assertNull(prefetcher.getNavigationTargets("/b.dart", 22));
+    int count = sender.size();
+    // a hover within an identifier is asked for at its start, which has been prefetched
+    CompletableFuture<List<HoverInformation>> hover = prefetcher.analysis_getHover("/a.dart", 22);
+    assertEquals(count, sender.size());
+    for (int i = 1; i < count; i++) {
+      sender.get(i).respond(HOVER_RESULT);
+    }
+    assertTrue(hover.isDone());
+  }
+
+  @Test
+  public void test_viewportChanged_maxConcurrentRequests() throws Exception {
+    ViewportPrefetcher prefetcher = new ViewportPrefetcher(server, cache, scheduler, 0, 2, 3);
+    prefetcher.viewportChanged("/a.dart", 0, 100);
+    awaitRequests(1);
+    assertEquals("analysis.getNavigation", sender.get(0).getMethod());
+    // nested regions that start at the same offset share a hover, and at most three are queued
+    sender.get(0).respond(navigationResult(10, 20, 20, 30, 40));
+    assertEquals(3, sender.size());
+    assertEquals(2, prefetcher.getInFlightCount());
+    assertEquals(10, sender.get(1).getParams().get("offset").getAsInt());
+    assertEquals(20, sender.get(2).getParams().get("offset").getAsInt());
+    sender.get(1).respond(HOVER_RESULT);
+    assertEquals(4, sender.size());
+    assertEquals(30, sender.get(3).getParams().get("offset").getAsInt());
+    assertEquals(2, prefetcher.getInFlightCount());
+    sender.get(2).respond(HOVER_RESULT);
+    sender.get(3).respond(HOVER_RESULT);
+    assertEquals(4, sender.size());
+    assertEquals(0, prefetcher.getInFlightCount());
+  }
+
+  @Test
+  public void test_viewportChanged_staleNavigation() throws Exception {
+    ViewportPrefetcher prefetcher = new ViewportPrefetcher(server, cache, scheduler, 0, 2, 10);
+    prefetcher.viewportChanged("/a.dart", 0, 100);
+    awaitRequests(1);
+    prefetcher.viewportChanged("/a.dart", 500, 100);
+    awaitRequests(2);
+    assertEquals(500, sender.get(1).getParams().get("offset").getAsInt());
+    // the navigation information of the previous region does not queue hovers
+    sender.get(0).respond(navigationResult(10, 20));
+    assertEquals(2, sender.size());
+    assertEquals(0, prefetcher.getInFlightCount());
+    sender.get(1).respond(navigationResult(510));
+    assertEquals(3, sender.size());
+    assertEquals(510, sender.get(2).getParams().get("offset").getAsInt());
+  }
+
+  /**
+   * Wait until the given number of requests have been sent, and the scheduled task that sent them
+   * has finished, so that it has attached its handlers to their futures.
+   */
+  private void awaitRequests(int count) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (sender.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(count, sender.size());
+    scheduler.submit(() -> {}).get();
+  }
+
+  /**
+   * Return the response to an {@code analysis.getNavigation} request whose regions have the given
+   * offsets and a length of 5, each of which has a target at its offset.
+   */
+  private static String navigationResult(int... offsets) {
+    StringBuilder targets = new StringBuilder();
+    StringBuilder regions = new StringBuilder();
+    for (int i = 0; i < offsets.length; i++) {
+      String separator = i > 0 ? "," : "";
+      targets.append(separator).append("{\"kind\":\"CLASS\",\"fileIndex\":0,\"offset\":")
+          .append(offsets[i]).append(",\"length\":5,\"startLine\":1,\"startColumn\":1}");
+      regions.append(separator).append("{\"offset\":").append(offsets[i])
+          .append(",\"length\":5,\"targets\":[").append(i).append("]}");
+    }
+    return "{\"result\":{\"files\":[\"/a.dart\"],\"targets\":[" + targets + "],\"regions\":["
+        + regions + "]}}";
+  }
+
+}
@@ -0,0 +1,396 @@
+// Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "AsyncAnalysisServer.java".
+ */
+import 'api.dart';
+import 'codegen_java.dart';
+
+class CodegenAsyncAnalysisServer extends CodegenJavaVisitor {
+  CodegenAsyncAnalysisServer(Api api) : super(api);
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated.client;');
+    writeln();
+    writeln('import org.dartlang.analysis.server.protocol.*;');
+    writeln();
+    writeln('import com.google.dart.server.utilities.general.JsonUtilities;');
+    writeln('import com.google.gson.JsonElement;');
+    writeln('import com.google.gson.JsonObject;');
+    writeln();
+    writeln('import java.io.IOException;');
+    writeln('import java.util.HashMap;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.concurrent.CompletableFuture;');
+    writeln('import java.util.concurrent.ScheduledExecutorService;');
+    writeln('import java.util.concurrent.ScheduledFuture;');
+    writeln('import java.util.concurrent.TimeUnit;');
+    writeln('import java.util.concurrent.TimeoutException;');
+    writeln('import java.util.function.Function;');
+    writeln();
+    writeln('''/**
+ * The class {@code AsyncAnalysisServer} sends requests to an analysis server and returns a
+ * {@link CompletableFuture} for the result of each request, rather than taking a consumer, so that
+ * requests can be composed, raced and joined. Requests whose result has a single field complete
+ * with the value of that field, and requests whose result has several fields complete with a
+ * nested {@code Result} object.
+ *
+ * A future that is not completed within the timeout of the server is completed exceptionally with
+ * a {@link TimeoutException}. When a future is cancelled or times out, the future returned by the
+ * {@link RequestSender} is cancelled, so that the response can be discarded when it arrives.
+ *
+ * @coverage dart.server.generated.client
+ */''');
+    makeClass('public class AsyncAnalysisServer', () {
+      privateField('sender', () {
+        writeln('''/**
+ * The sender used to deliver the requests.
+ */
+private final RequestSender sender;''');
+      });
+      privateField('scheduler', () {
+        writeln('''/**
+ * The executor used to time out requests, or {@code null} if requests do not time out.
+ */
+private final ScheduledExecutorService scheduler;''');
+      });
+      privateField('timeoutMillis', () {
+        writeln('''/**
+ * The number of milliseconds after which a request times out, or {@code 0} if requests do not
+ * time out.
+ */
+private final long timeoutMillis;''');
+      });
+      constructor('AsyncAnalysisServer', () {
+        writeln('''/**
+ * Initialize a newly created server to send requests using the given sender. The requests do not
+ * time out.
+ */
+public AsyncAnalysisServer(RequestSender sender) {
+  this(sender, null, 0);
+}''');
+      });
+      constructor('AsyncAnalysisServerTimeout', () {
+        writeln('''/**
+ * Initialize a newly created server to send requests using the given sender. The requests time
+ * out after the given number of milliseconds, using the given executor.
+ *
+ * @throws IllegalArgumentException if the timeout is positive and the executor is {@code null}
+ */
+public AsyncAnalysisServer(RequestSender sender, ScheduledExecutorService scheduler, long timeoutMillis) {
+  if (timeoutMillis > 0 && scheduler == null) {
+    throw new IllegalArgumentException("An executor is required for requests to time out");
+  }
+  this.sender = sender;
+  this.scheduler = scheduler;
+  this.timeoutMillis = timeoutMillis;
+}''');
+      });
+      publicMethod('RequestBody', () {
+        writeln('''/**
+ * The interface {@code RequestBody} defines the behavior of objects that write a single request.
+ */
+public interface RequestBody {
+  /**
+   * Write the request, with the given id, using the given writer.
+   */
+  void write(RequestWriter writer, String requestId) throws IOException;
+}''');
+      });
+      publicMethod('RequestErrorException', () {
+        writeln('''/**
+ * The exception used to complete a future exceptionally when the response to a request contains
+ * an error.
+ */
+public static class RequestErrorException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  private final RequestError requestError;
+
+  public RequestErrorException(RequestError requestError) {
+    super(requestError.getMessage());
+    this.requestError = requestError;
+  }
+
+  /**
+   * Return the error contained in the response.
+   */
+  public RequestError getRequestError() {
+    return requestError;
+  }
+}''');
+      });
+      publicMethod('RequestSender', () {
+        writeln('''/**
+ * The interface {@code RequestSender} defines the behavior of objects that deliver requests to an
+ * analysis server and route the responses back to them.
+ */
+public interface RequestSender {
+  /**
+   * Assign a new id to a request, write it using the given body and return a future that is
+   * completed, typically using {@link AsyncAnalysisServer#completeResponse}, when the response to
+   * the request is received. If the returned future is cancelled then the response is no longer
+   * needed.
+   */
+  CompletableFuture<JsonObject> sendRequest(RequestBody body);
+}''');
+      });
+      publicMethod('completeResponse', () {
+        writeln('''/**
+ * Complete the given future with the result of the given response, or exceptionally with a
+ * {@link RequestErrorException} if the response contains an error. A response without a result
+ * completes the future with an empty object.
+ */
+public static void completeResponse(CompletableFuture<JsonObject> future, JsonObject response) {
+  JsonElement error = response.get("error");
+  if (error != null) {
+    future.completeExceptionally(new RequestErrorException(RequestError.fromJson(error.getAsJsonObject())));
+  } else {
+    JsonElement result = response.get("result");
+    future.complete(result != null ? result.getAsJsonObject() : new JsonObject());
+  }
+}''');
+      });
+      publicMethod('withTimeout', () {
+        writeln('''/**
+ * Return a server that sends requests using the same sender and executor as this server, but whose
+ * requests time out after the given number of milliseconds.
+ *
+ * @throws IllegalStateException if the timeout is positive and this server was created without an
+ *           executor
+ */
+public AsyncAnalysisServer withTimeout(long timeoutMillis) {
+  if (timeoutMillis > 0 && scheduler == null) {
+    throw new IllegalStateException("An executor is required for requests to time out");
+  }
+  return new AsyncAnalysisServer(sender, scheduler, timeoutMillis);
+}''');
+      });
+      privateMethod('decodeMap', () {
+        writeln(
+            '''private static <V> Map<String, V> decodeMap(JsonElement json, Function<JsonElement, V> decodeValue) {
+  Map<String, V> map = new HashMap<String, V>();
+  for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+    map.put(entry.getKey(), decodeValue.apply(entry.getValue()));
+  }
+  return map;
+}''');
+      });
+      privateMethod('send', () {
+        writeln(
+            '''private <T> CompletableFuture<T> send(String method, RequestBody body, Function<JsonObject, T> decoder) {
+  CompletableFuture<JsonObject> response = sender.sendRequest(body);
+  CompletableFuture<T> future = response.thenApply(decoder);
+  if (timeoutMillis > 0) {
+    ScheduledFuture<?> timeout = scheduler.schedule(
+        () -> future.completeExceptionally(new TimeoutException(method + " timed out after " + timeoutMillis + " ms")),
+        timeoutMillis,
+        TimeUnit.MILLISECONDS);
+    future.whenComplete((value, exception) -> timeout.cancel(false));
+  }
+  // a cancelled or timed out request no longer needs its response
+  future.whenComplete((value, exception) -> {
+    if (exception != null) {
+      response.cancel(false);
+    }
+  });
+  return future;
+}''');
+      });
+      super.visitApi();
+    });
+  }
+
+  @override
+  void visitRequest(Request request) {
+    String methodName = '${request.domainName}_${request.method}';
+    List<TypeObjectField> resultFields =
+        request.result != null ? request.result.fields : <TypeObjectField>[];
+    String resultType;
+    String decoder;
+    if (resultFields.isEmpty) {
+      resultType = 'Void';
+      decoder = 'result -> null';
+    } else if (resultFields.length == 1) {
+      TypeObjectField field = resultFields[0];
+      resultType = _boxedType(_resultType(field.type, field.optional));
+      decoder = 'result -> ${_decodeField(field, 'result')}';
+    } else {
+      resultType = _resultClassName(request);
+      decoder = '$resultType::new';
+      publicMethod(resultType, () {
+        _writeResultClass(request, resultType);
+      });
+    }
+    publicMethod(methodName, () {
+      writeln('/**');
+      writeln(' * Send the {@code ${request.longMethod}} request.');
+      if (resultFields.isEmpty) {
+        writeln(
+            ' * The returned future is completed with {@code null} when the response is received.');
+      } else if (resultFields.length == 1) {
+        writeln(
+            ' * The returned future is completed with the {@code ${resultFields[0].name}} field of the result.');
+      }
+      writeln(' */');
+      List<String> parameters = <String>[];
+      List<String> arguments = <String>['requestId'];
+      if (request.params != null) {
+        for (TypeObjectField field in request.params.fields) {
+          parameters.add('${javaType(field.type)} ${javaName(field.name)}');
+          arguments.add(javaName(field.name));
+        }
+      }
+      writeln(
+          'public CompletableFuture<$resultType> $methodName(${parameters.join(', ')}) {');
+      indent(() {
+        writeln('return send("${request.longMethod}",');
+        writeln(
+            '    (writer, requestId) -> writer.$methodName(${arguments.join(', ')}),');
+        writeln('    $decoder);');
+      });
+      writeln('}');
+    });
+  }
+
+  /**
+   * Return the boxed form of the Java type [type].
+   */
+  String _boxedType(String type) {
+    if (type == 'boolean') {
+      return 'Boolean';
+    } else if (type == 'int') {
+      return 'Integer';
+    } else if (type == 'long') {
+      return 'Long';
+    }
+    return type;
+  }
+
+  /**
+   * Return the Java expression that decodes the value of the [JsonElement]
+   * expression [json], which has the given [type]. The [depth] is used to name
+   * the parameters of nested lambdas.
+   */
+  String _decode(TypeDecl type, String json, [int depth = 0]) {
+    type = _resolve(type);
+    if (type is TypeList) {
+      TypeDecl itemType = _resolve(type.itemType);
+      if (isPrimitive(itemType)) {
+        return 'JsonUtilities.decodeIntArray($json.getAsJsonArray())';
+      } else if (isDeclaredInSpec(itemType)) {
+        return '${javaType(itemType)}.fromJsonArray($json.getAsJsonArray())';
+      } else {
+        return 'JsonUtilities.decodeStringList($json.getAsJsonArray())';
+      }
+    } else if (type is TypeMap) {
+      String name = depth == 0 ? 'entryValue' : 'entryValue$depth';
+      return 'decodeMap($json, $name -> ${_decode(type.valueType, name, depth + 1)})';
+    } else if (isDeclaredInSpec(type)) {
+      return '${javaType(type)}.fromJson($json.getAsJsonObject())';
+    } else {
+      String typeName = javaType(type);
+      if (typeName == 'boolean') {
+        return '$json.getAsBoolean()';
+      } else if (typeName == 'int') {
+        return '$json.getAsInt()';
+      } else if (typeName == 'long') {
+        return '$json.getAsLong()';
+      }
+      return '$json.getAsString()';
+    }
+  }
+
+  /**
+   * Return the Java expression that decodes the given result [field] of the
+   * [JsonObject] expression [result].
+   */
+  String _decodeField(TypeObjectField field, String result) {
+    String json = '$result.get("${field.name}")';
+    String expression = _decode(field.type, json);
+    if (field.optional) {
+      return '$json == null ? null : $expression';
+    }
+    return expression;
+  }
+
+  /**
+   * Follow the chain of references from [type] to types that are defined as
+   * other references, such as `CompletionId`, which is defined as `String`.
+   */
+  TypeDecl _resolve(TypeDecl type) {
+    while (type is TypeReference && api.types.containsKey(type.typeName)) {
+      TypeDecl referencedType =
+          api.types[(type as TypeReference).typeName].type;
+      if (referencedType is! TypeReference) {
+        break;
+      }
+      type = referencedType;
+    }
+    return type;
+  }
+
+  /**
+   * Return the name of the nested class holding the result of [request].
+   */
+  String _resultClassName(Request request) {
+    return camelJoin([request.domainName, request.method, 'result'],
+        doCapitalize: true);
+  }
+
+  /**
+   * Return the Java type of a result field with the given [type].
+   */
+  String _resultType(TypeDecl type, [bool optional = false]) {
+    type = _resolve(type);
+    if (type is TypeList && !isPrimitive(type.itemType)) {
+      return 'List<${_resultType(type.itemType)}>';
+    } else if (type is TypeMap) {
+      return 'Map<${_resultType(type.keyType)}, ${_resultType(type.valueType)}>';
+    }
+    return javaType(type, optional);
+  }
+
+  /**
+   * Write the nested class named [className] holding the result of [request].
+   */
+  void _writeResultClass(Request request, String className) {
+    List<TypeObjectField> fields = request.result.fields;
+    writeln('/**');
+    writeln(' * The result of the {@code ${request.longMethod}} request.');
+    writeln(' */');
+    writeln('public static class $className {');
+    indent(() {
+      for (TypeObjectField field in fields) {
+        writeln(
+            'private final ${_resultType(field.type, field.optional)} ${javaName(field.name)};');
+      }
+      writeln();
+      writeln('private $className(JsonObject result) {');
+      indent(() {
+        for (TypeObjectField field in fields) {
+          writeln(
+              'this.${javaName(field.name)} = ${_decodeField(field, 'result')};');
+        }
+      });
+      writeln('}');
+      for (TypeObjectField field in fields) {
+        String name = javaName(field.name);
+        writeln();
+        writeln('/**');
+        writeln(' * Return the {@code ${field.name}} field of the result.');
+        writeln(' */');
+        writeln(
+            'public ${_resultType(field.type, field.optional)} ${camelJoin(['get', name])}() {');
+        writeln('  return $name;');
+        writeln('}');
+      }
+    });
+    writeln('}');
+  }
+}
@@ -0,0 +1,39 @@
+// Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the client support classes in the directory
+ * "tool/spec/generated/java/client".
+ */
+import 'package:analysis_tool/tools.dart';
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_java_async_analysis_server.dart';
+import 'codegen_java_request_writer.dart';
+import 'from_html.dart';
+
+final String pathToGenClient = 'tool/spec/generated/java/client';
+
+final GeneratedDirectory targetDir =
+    new GeneratedDirectory(pathToGenClient, (String pkgPath) {
+  Map<String, FileContentsComputer> map =
+      new Map<String, FileContentsComputer>();
+  map['AsyncAnalysisServer.java'] =
+      _javaFile((Api api) => new CodegenAsyncAnalysisServer(api));
+  map['RequestWriter.java'] =
+      _javaFile((Api api) => new CodegenRequestWriter(api));
+  return map;
+});
+
+/**
+ * Return a [FileContentsComputer] that creates the contents of a Java file
+ * using the visitor returned by [createVisitor].
+ */
+FileContentsComputer _javaFile(CodegenJavaVisitor createVisitor(Api api)) {
+  return (String pkgPath) async {
+    CodegenJavaVisitor visitor = createVisitor(readApi(pkgPath));
+    return visitor.collectCode(visitor.visitApi);
+  };
+}
@@ -0,0 +1,260 @@
+// Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "RequestWriter.java".
+ */
+import 'api.dart';
+import 'codegen_java.dart';
+
+class CodegenRequestWriter extends CodegenJavaVisitor {
+  CodegenRequestWriter(Api api) : super(api);
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated.client;');
+    writeln();
+    writeln('import org.dartlang.analysis.server.protocol.*;');
+    writeln();
+    writeln('import com.google.dart.server.client.CborWriter;');
+    writeln('import com.google.dart.server.client.EncodedStreamTransport;');
+    writeln('import com.google.gson.stream.JsonWriter;');
+    writeln();
+    writeln('import java.io.ByteArrayOutputStream;');
+    writeln('import java.io.CharArrayWriter;');
+    writeln('import java.io.IOException;');
+    writeln('import java.io.OutputStream;');
+    writeln('import java.io.Writer;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln();
+    writeln('''/**
+ * The class {@code RequestWriter} encodes analysis server requests directly into a character
+ * stream, one request per line, without building an intermediate {@code JsonObject} tree. A single
+ * instance is expected to be reused for all of the requests sent over a connection. On a
+ * connection that uses the binary encoding the requests are encoded by a {@link CborWriter}
+ * instead.
+ *
+ * Each request is encoded into a buffer by a new {@link JsonWriter} or {@link CborWriter} before
+ * it is written to the stream, so a request whose encoding fails, such as because one of its
+ * arguments is invalid, writes nothing and does not affect the requests that follow it. A buffer
+ * that has grown for a large request, such as one with the content of a file, is replaced by a
+ * small one afterwards, rather than keeping its capacity for the life of the connection.
+ *
+ * This class is not thread-safe. The requests written by an instance must not be written
+ * concurrently, such as by only writing them while holding the lock of the connection.
+ *
+ * @coverage dart.server.generated.client
+ */''');
+    makeClass('public class RequestWriter', () {
+      privateField('MAX_RETAINED_BUFFER_SIZE', () {
+        writeln('''/**
+ * The largest size of a buffer that is reused for the next request.
+ */
+private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;''');
+      });
+      privateField('out', () {
+        writeln('private final Writer out;');
+      });
+      privateField('buffer', () {
+        writeln('private CharArrayWriter buffer;');
+      });
+      privateField('binaryOut', () {
+        writeln('private final OutputStream binaryOut;');
+      });
+      privateField('binaryBuffer', () {
+        writeln('private ByteArrayOutputStream binaryBuffer;');
+      });
+      privateField('writer', () {
+        writeln('private JsonWriter writer;');
+      });
+      constructor('RequestWriter', () {
+        writeln('''/**
+ * Initialize a newly created writer to encode requests into the given stream, which should be
+ * buffered. The stream is flushed after each request.
+ */
+public RequestWriter(Writer out) {
+  this.out = out;
+  this.buffer = new CharArrayWriter();
+  this.binaryOut = null;
+  this.binaryBuffer = null;
+}''');
+      });
+      constructor('RequestWriter2', () {
+        writeln('''/**
+ * Initialize a newly created writer to encode requests with a {@link CborWriter} into the given
+ * stream, on a connection that uses the binary encoding, whose encoding delimits the requests. The
+ * stream is flushed after each request.
+ */
+public RequestWriter(OutputStream out) {
+  this.out = null;
+  this.buffer = null;
+  this.binaryOut = out;
+  this.binaryBuffer = new ByteArrayOutputStream();
+}''');
+      });
+      constructor('RequestWriter3', () {
+        writeln('''/**
+ * Initialize a newly created writer to encode a single request with the given writer, which is
+ * discarded if the encoding fails, such as the writer given to an
+ * {@link EncodedStreamTransport.MessageWriter}. The request is not buffered, so the writer must
+ * not be shared with other messages. The writer is flushed after the request.
+ */
+public RequestWriter(JsonWriter writer) {
+  this.out = null;
+  this.buffer = null;
+  this.binaryOut = null;
+  this.binaryBuffer = null;
+  this.writer = writer;
+}''');
+      });
+      privateMethod('resetBuffers', () {
+        writeln('''/**
+ * Empty the buffers, replacing those that have grown larger than
+ * {@link #MAX_RETAINED_BUFFER_SIZE} so that their capacity is not retained.
+ */
+private void resetBuffers() {
+  if (buffer != null) {
+    if (buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+      buffer = new CharArrayWriter();
+    } else {
+      buffer.reset();
+    }
+  }
+  if (binaryBuffer != null) {
+    if (binaryBuffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+      binaryBuffer = new ByteArrayOutputStream();
+    } else {
+      binaryBuffer.reset();
+    }
+  }
+}''');
+      });
+      privateMethod('writeFooter', () {
+        writeln('''private void writeFooter() throws IOException {
+  writer.endObject();
+  if (out != null) {
+    buffer.writeTo(out);
+    out.write('\\n');
+    out.flush();
+    resetBuffers();
+  } else if (binaryOut != null) {
+    writer.flush();
+    binaryBuffer.writeTo(binaryOut);
+    binaryOut.flush();
+    resetBuffers();
+  } else {
+    writer.flush();
+  }
+}''');
+      });
+      privateMethod('writeHeader', () {
+        writeln(
+            '''private void writeHeader(String id, String method) throws IOException {
+  // discard anything left by a request whose encoding failed
+  resetBuffers();
+  if (out != null) {
+    writer = new JsonWriter(buffer);
+  } else if (binaryOut != null) {
+    writer = new CborWriter(binaryBuffer);
+  }
+  writer.beginObject();
+  writer.name("id").value(id);
+  writer.name("method").value(method);
+}''');
+      });
+      super.visitApi();
+    });
+  }
+
+  @override
+  void visitRequest(Request request) {
+    String methodName = '${request.domainName}_${request.method}';
+    publicMethod(methodName, () {
+      writeln('/**');
+      writeln(' * Write the {@code ${request.longMethod}} request.');
+      writeln(' */');
+      write('public void $methodName(');
+      List<String> arguments = ['String requestId'];
+      if (request.params != null) {
+        for (TypeObjectField field in request.params.fields) {
+          arguments.add('${javaType(field.type)} ${javaName(field.name)}');
+        }
+      }
+      write(arguments.join(', '));
+      writeln(') throws IOException {');
+      indent(() {
+        writeln('writeHeader(requestId, "${request.longMethod}");');
+        if (request.params != null) {
+          writeln('writer.name("params").beginObject();');
+          for (TypeObjectField field in request.params.fields) {
+            String name = javaName(field.name);
+            String prefix = 'writer.name("${field.name}")';
+            if (field.optional && !isPrimitive(field.type)) {
+              writeln('if ($name != null) {');
+              indent(() {
+                _writeValue(prefix, field.type, name);
+              });
+              writeln('}');
+            } else {
+              _writeValue(prefix, field.type, name);
+            }
+          }
+          writeln('writer.endObject();');
+        }
+        writeln('writeFooter();');
+      });
+      writeln('}');
+    });
+  }
+
+  /**
+   * Write the source that writes the value [expression] of the given [type]
+   * to the 'JsonWriter' named 'writer'. The [prefix] is the expression used to
+   * start the value, such as 'writer' or 'writer.name("x")'.
+   */
+  void _writeValue(String prefix, TypeDecl type, String expression) {
+    if (type is TypeList) {
+      writeln('$prefix.beginArray();');
+      writeln('for (${javaType(type.itemType)} elt : $expression) {');
+      indent(() {
+        _writeValue('writer', type.itemType, 'elt');
+      });
+      writeln('}');
+      writeln('writer.endArray();');
+    } else if (type is TypeMap) {
+      String entryType =
+          'Map.Entry<${javaType(type.keyType)}, ${javaType(type.valueType)}>';
+      writeln('$prefix.beginObject();');
+      writeln('for ($entryType entry : $expression.entrySet()) {');
+      indent(() {
+        _writeValue(
+            'writer.name(entry.getKey())', type.valueType, 'entry.getValue()');
+      });
+      writeln('}');
+      writeln('writer.endObject();');
+    } else if (type is TypeUnion) {
+      if (prefix != 'writer') {
+        writeln('$prefix;');
+      }
+      for (int i = 0; i < type.choices.length; i++) {
+        String choiceType = javaType(type.choices[i]);
+        write(i == 0 ? 'if' : '} else if');
+        writeln(' ($expression instanceof $choiceType) {');
+        writeln('  (($choiceType) $expression).writeTo(writer);');
+      }
+      writeln('} else {');
+      writeln('  writer.nullValue();');
+      writeln('}');
+    } else if (isDeclaredInSpec(type)) {
+      if (prefix != 'writer') {
+        writeln('$prefix;');
+      }
+      writeln('$expression.writeTo(writer);');
+    } else {
+      writeln('$prefix.value($expression);');
+    }
+  }
+}
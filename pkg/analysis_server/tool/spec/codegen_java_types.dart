@@ -152,6 +152,19 @@ class CodegenJavaType extends CodegenJavaVisitor {
     }
   }
 
+  /**
+   * For some [TypeObjectField] return the [String] source for the initial
+   * value of the local variable used while reading the field from a
+   * 'JsonReader'.
+   */
+  String _getDefaultValueForField(TypeObjectField field) {
+    if (isPrimitive(field.type) && !field.optional) {
+      return javaFieldType(field) == 'boolean' ? 'false' : '0';
+    } else {
+      return 'null';
+    }
+  }
+
   String _getEqualsLogicForField(TypeObjectField field, String other) {
     String name = javaName(field.name);
     if (isPrimitive(field.type) && !field.optional) {
@@ -163,6 +176,36 @@ class CodegenJavaType extends CodegenJavaVisitor {
     }
   }
 
+  /**
+   * For some [TypeObjectField] return the [String] source for the expression
+   * that reads the field value from the 'JsonReader' named 'reader'.
+   */
+  String _getReadExpressionForField(TypeObjectField field) {
+    String type = javaFieldType(field);
+    if (isDeclaredInSpec(field.type)) {
+      return '$type.fromJson(reader)';
+    } else if (isList(field.type)) {
+      if (type.endsWith('<String>')) {
+        return 'readStringList(reader)';
+      } else {
+        TypeDecl listItemType = (field.type as TypeList).itemType;
+        return '${javaType(listItemType)}.fromJsonArray(reader)';
+      }
+    } else if (isArray(field.type)) {
+      return 'readIntArray(reader)';
+    } else if (type == 'String') {
+      return 'reader.nextString()';
+    } else if (type == 'boolean' || type == 'Boolean') {
+      return 'reader.nextBoolean()';
+    } else if (type == 'int' || type == 'Integer') {
+      return 'reader.nextInt()';
+    } else if (type == 'long' || type == 'Long') {
+      return 'reader.nextLong()';
+    } else {
+      throw new Exception("Can't read field of type $type from a JsonReader");
+    }
+  }
+
   /**
    * For some [TypeObjectField] return the [String] source for the field value
    * for the toString generation.
@@ -244,6 +287,33 @@ class CodegenJavaType extends CodegenJavaVisitor {
     }
   }
 
+  /**
+   * For some [TypeObjectField] write out the source that writes the field
+   * name and value to the 'JsonWriter' named 'writer'.
+   */
+  void _writeOutJsonWriterStatement(TypeObjectField field) {
+    String name = javaName(field.name);
+    if (isDeclaredInSpec(field.type)) {
+      writeln('writer.name("$name");');
+      writeln('$name.writeTo(writer);');
+    } else if (field.type is TypeList) {
+      TypeDecl listItemType = (field.type as TypeList).itemType;
+      writeln('writer.name("$name").beginArray();');
+      writeln('for (${javaType(listItemType)} elt : $name) {');
+      indent(() {
+        if (isDeclaredInSpec(listItemType)) {
+          writeln('elt.writeTo(writer);');
+        } else {
+          writeln('writer.value(elt);');
+        }
+      });
+      writeln('}');
+      writeln('writer.endArray();');
+    } else {
+      writeln('writer.name("$name").value($name);');
+    }
+  }
+
   void _writeTypeEnum(TypeDecl type, dom.Element html) {
     javadocComment(toHtmlVisitor.collectHtml(() {
       toHtmlVisitor.translateHtml(html);
@@ -279,7 +349,10 @@ class CodegenJavaType extends CodegenJavaVisitor {
     writeln('import com.google.gson.JsonElement;');
     writeln('import com.google.gson.JsonObject;');
     writeln('import com.google.gson.JsonPrimitive;');
+    writeln('import com.google.gson.stream.JsonReader;');
+    writeln('import com.google.gson.stream.JsonWriter;');
     writeln('import org.apache.commons.lang3.builder.HashCodeBuilder;');
+    writeln('import java.io.IOException;');
     writeln('import java.util.ArrayList;');
     writeln('import java.util.Iterator;');
     writeln('import org.apache.commons.lang3.StringUtils;');
@@ -529,28 +602,103 @@ class CodegenJavaType extends CodegenJavaVisitor {
         publicMethod('fromJson', () {
           writeln(
               '''public static Outline fromJson(Outline parent, JsonObject outlineObject) {
-  JsonObject elementObject = outlineObject.get("element").getAsJsonObject();
-  Element element = Element.fromJson(elementObject);
-  int offset = outlineObject.get("offset").getAsInt();
-  int length = outlineObject.get("length").getAsInt();
-  int codeOffset = outlineObject.get("codeOffset").getAsInt();
-  int codeLength = outlineObject.get("codeLength").getAsInt();
-
-  // create outline object
-  Outline outline = new Outline(parent, element, offset, length, codeOffset, codeLength);
-
-  // compute children recursively
-  List<Outline> childrenList = Lists.newArrayList();
-  JsonElement childrenJsonArray = outlineObject.get("children");
-  if (childrenJsonArray instanceof JsonArray) {
-    Iterator<JsonElement> childrenElementIterator = ((JsonArray) childrenJsonArray).iterator();
-    while (childrenElementIterator.hasNext()) {
-      JsonObject childObject = childrenElementIterator.next().getAsJsonObject();
-      childrenList.add(fromJson(outline, childObject));
+  // create outline objects breadth first rather than recursively, so that the depth of the tree
+  // is not limited by the stack, the object at each index has the parent at the same index
+  List<JsonObject> outlineObjects = new ArrayList<JsonObject>();
+  List<Outline> parents = new ArrayList<Outline>();
+  outlineObjects.add(outlineObject);
+  parents.add(parent);
+  Outline root = null;
+  for (int i = 0; i < outlineObjects.size(); i++) {
+    JsonObject object = outlineObjects.get(i);
+    Outline outlineParent = parents.get(i);
+    outlineObjects.set(i, null);
+    parents.set(i, null);
+    JsonObject elementObject = object.get("element").getAsJsonObject();
+    Element element = Element.fromJson(elementObject);
+    int offset = object.get("offset").getAsInt();
+    int length = object.get("length").getAsInt();
+    int codeOffset = object.get("codeOffset").getAsInt();
+    int codeLength = object.get("codeLength").getAsInt();
+
+    // create outline object, and add it to the children of its parent
+    Outline outline = new Outline(outlineParent, element, offset, length, codeOffset, codeLength);
+    if (i == 0) {
+      root = outline;
+    } else {
+      outlineParent.children.add(outline);
+    }
+
+    // schedule the children
+    JsonElement childrenJsonArray = object.get("children");
+    if (childrenJsonArray instanceof JsonArray) {
+      JsonArray childrenArray = (JsonArray) childrenJsonArray;
+      outline.setChildren(new ArrayList<Outline>(childrenArray.size()));
+      Iterator<JsonElement> childrenElementIterator = childrenArray.iterator();
+      while (childrenElementIterator.hasNext()) {
+        outlineObjects.add(childrenElementIterator.next().getAsJsonObject());
+        parents.add(outline);
+      }
+    } else {
+      outline.setChildren(new ArrayList<Outline>(0));
+    }
+  }
+  return root;
+}''');
+        });
+        publicMethod('fromJsonReader', () {
+          writeln(
+              '''public static Outline fromJson(Outline parent, JsonReader reader) throws IOException {
+  // create outline objects as their JSON objects are started, the fields are set as they are
+  // read, the enclosing outlines are kept on an explicit stack rather than by recursion
+  Outline outline = new Outline(parent, null, 0, 0, 0, 0);
+  outline.setChildren(new ArrayList<Outline>());
+  List<Outline> enclosingOutlines = new ArrayList<Outline>();
+  boolean inChildren = false;
+  reader.beginObject();
+  while (true) {
+    if (inChildren) {
+      if (reader.hasNext()) {
+        // start the next child
+        Outline child = new Outline(outline, null, 0, 0, 0, 0);
+        child.setChildren(new ArrayList<Outline>());
+        outline.children.add(child);
+        enclosingOutlines.add(outline);
+        outline = child;
+        inChildren = false;
+        reader.beginObject();
+      } else {
+        reader.endArray();
+        inChildren = false;
+      }
+    } else if (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("element")) {
+        outline.setElement(Element.fromJson(reader));
+      } else if (fieldName.equals("offset")) {
+        outline.setOffset(reader.nextInt());
+      } else if (fieldName.equals("length")) {
+        outline.setLength(reader.nextInt());
+      } else if (fieldName.equals("codeOffset")) {
+        outline.setCodeOffset(reader.nextInt());
+      } else if (fieldName.equals("codeLength")) {
+        outline.setCodeLength(reader.nextInt());
+      } else if (fieldName.equals("children")) {
+        reader.beginArray();
+        inChildren = true;
+      } else {
+        reader.skipValue();
+      }
+    } else {
+      reader.endObject();
+      if (enclosingOutlines.isEmpty()) {
+        return outline;
+      }
+      // continue with the remaining children of the parent
+      outline = enclosingOutlines.remove(enclosingOutlines.size() - 1);
+      inChildren = true;
     }
   }
-  outline.setChildren(childrenList);
-  return outline;
 }''');
         });
         publicMethod('getParent', () {
@@ -560,6 +708,108 @@ class CodegenJavaType extends CodegenJavaVisitor {
         });
       }
 
+      //
+      // fromJson(JsonReader) factory constructor, example:
+//      public static Y fromJson(JsonReader reader) throws IOException {
+//          String x = null;
+//          reader.beginObject();
+//          while (reader.hasNext()) {
+//            String fieldName = reader.nextName();
+//            if (fieldName.equals("x")) {
+//              x = reader.nextString();
+//            } else {
+//              reader.skipValue();
+//            }
+//          }
+//          reader.endObject();
+//          return new Y(x);
+//        }
+      if (className != 'Outline') {
+        publicMethod('fromJsonReader', () {
+          writeln(
+              'public static $className fromJson(JsonReader reader) throws IOException {');
+          indent(() {
+            for (TypeObjectField field in fields) {
+              writeln(
+                  '${javaFieldType(field)} ${javaName(field.name)} = ${_getDefaultValueForField(field)};');
+            }
+            writeln('reader.beginObject();');
+            writeln('while (reader.hasNext()) {');
+            indent(() {
+              writeln('String fieldName = reader.nextName();');
+              if (fields.isEmpty) {
+                writeln('reader.skipValue();');
+              } else {
+                for (int i = 0; i < fields.length; i++) {
+                  String name = javaName(fields[i].name);
+                  if (i == 0) {
+                    writeln('if (fieldName.equals("$name")) {');
+                  } else {
+                    writeln('} else if (fieldName.equals("$name")) {');
+                  }
+                  writeln(
+                      '  $name = ${_getReadExpressionForField(fields[i])};');
+                }
+                writeln('} else {');
+                writeln('  reader.skipValue();');
+                writeln('}');
+              }
+            });
+            writeln('}');
+            writeln('reader.endObject();');
+            write('return new $className(');
+            List<String> parameters = new List();
+            for (TypeObjectField field in fields) {
+              if (!_isTypeFieldInUpdateContentUnionType(
+                  className, field.name)) {
+                parameters.add('${javaName(field.name)}');
+              }
+            }
+            write(parameters.join(', '));
+            writeln(');');
+          });
+          writeln('}');
+        });
+      }
+
+      //
+      // readIntArray(JsonReader) and readStringList(JsonReader) helpers for
+      // the fields decoded by fromJson(JsonReader)
+      //
+      if (fields.any((TypeObjectField field) => isArray(field.type))) {
+        privateMethod('readIntArray', () {
+          writeln(
+              '''private static int[] readIntArray(JsonReader reader) throws IOException {
+  int[] values = new int[8];
+  int count = 0;
+  reader.beginArray();
+  while (reader.hasNext()) {
+    if (count == values.length) {
+      values = Arrays.copyOf(values, count * 2);
+    }
+    values[count++] = reader.nextInt();
+  }
+  reader.endArray();
+  return count == values.length ? values : Arrays.copyOf(values, count);
+}''');
+        });
+      }
+      if (fields.any((TypeObjectField field) =>
+          isList(field.type) && javaFieldType(field).endsWith('<String>'))) {
+        privateMethod('readStringList', () {
+          writeln(
+              '''private static List<String> readStringList(JsonReader reader) throws IOException {
+  List<String> list = new ArrayList<String>();
+  reader.beginArray();
+  while (reader.hasNext()) {
+    list.add(reader.nextString());
+  }
+  reader.endArray();
+  return list;
+}''');
+        });
+      }
+
       //
       // fromJson(JsonArray) factory constructor
       //
@@ -583,6 +833,21 @@ class CodegenJavaType extends CodegenJavaVisitor {
           });
           writeln('}');
         });
+        publicMethod('fromJsonArrayReader', () {
+          writeln(
+              'public static List<$className> fromJsonArray(JsonReader reader) throws IOException {');
+          indent(() {
+            writeln(
+                'ArrayList<$className> list = new ArrayList<$className>();');
+            writeln('reader.beginArray();');
+            writeln('while (reader.hasNext()) {');
+            writeln('  list.add(fromJson(reader));');
+            writeln('}');
+            writeln('reader.endArray();');
+            writeln('return list;');
+          });
+          writeln('}');
+        });
       }
 
       //
@@ -720,6 +985,38 @@ class CodegenJavaType extends CodegenJavaVisitor {
         writeln('}');
       });
 
+      //
+      // writeTo(JsonWriter) method, example:
+//      public void writeTo(JsonWriter writer) throws IOException {
+//          writer.beginObject();
+//          writer.name("x").value(x);
+//          writer.name("y").value(y);
+//          writer.endObject();
+//        }
+      if (className != 'Outline') {
+        publicMethod('writeTo', () {
+          writeln('public void writeTo(JsonWriter writer) throws IOException {');
+          indent(() {
+            writeln('writer.beginObject();');
+            for (TypeObjectField field in fields) {
+              if (!isObject(field.type)) {
+                if (field.optional) {
+                  writeln('if (${javaName(field.name)} != null) {');
+                  indent(() {
+                    _writeOutJsonWriterStatement(field);
+                  });
+                  writeln('}');
+                } else {
+                  _writeOutJsonWriterStatement(field);
+                }
+              }
+            }
+            writeln('writer.endObject();');
+          });
+          writeln('}');
+        });
+      }
+
       if (className == 'Element') {
         _writeExtraContentInElementType();
       }
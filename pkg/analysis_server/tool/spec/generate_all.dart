@@ -12,6 +12,7 @@ import 'codegen_dart_notification_handler.dart'
     as codegen_dart_notification_handler;
 import 'codegen_dart_protocol.dart' as codegen_dart_protocol;
 import 'codegen_inttest_methods.dart' as codegen_inttest_methods;
+import 'codegen_java_client.dart' as codegen_java_client;
 import 'codegen_java_types.dart' as codegen_java_types;
 import 'codegen_matchers.dart' as codegen_matchers;
 import 'codegen_protocol_constants.dart' as codegen_protocol_constants;
@@ -36,6 +37,7 @@ List<GeneratedContent> get allTargets {
   targets.add(codegen_dart_protocol.clientTarget(false));
   targets.add(codegen_dart_protocol.serverTarget(false));
   targets.add(codegen_java_types.targetDir);
+  targets.add(codegen_java_client.targetDir);
   targets.add(codegen_inttest_methods.target);
   targets.add(codegen_matchers.target);
   targets.add(codegen_protocol_constants.clientTarget);
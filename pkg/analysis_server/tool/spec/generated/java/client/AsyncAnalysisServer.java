@@ -0,0 +1,1163 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ *
+ * This file has been automatically generated. Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.utilities.general.JsonUtilities;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * The class {@code AsyncAnalysisServer} sends requests to an analysis server and returns a
+ * {@link CompletableFuture} for the result of each request, rather than taking a consumer, so that
+ * requests can be composed, raced and joined. Requests whose result has a single field complete
+ * with the value of that field, and requests whose result has several fields complete with a
+ * nested {@code Result} object.
+ *
+ * A future that is not completed within the timeout of the server is completed exceptionally with
+ * a {@link TimeoutException}. When a future is cancelled or times out, the future returned by the
+ * {@link RequestSender} is cancelled, so that the response can be discarded when it arrives.
+ *
+ * @coverage dart.server.generated.client
+ */
+public class AsyncAnalysisServer {
+
+  /**
+   * The sender used to deliver the requests.
+   */
+  private final RequestSender sender;
+
+  /**
+   * The executor used to time out requests, or {@code null} if requests do not time out.
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * The number of milliseconds after which a request times out, or {@code 0} if requests do not
+   * time out.
+   */
+  private final long timeoutMillis;
+
+  /**
+   * Initialize a newly created server to send requests using the given sender. The requests do not
+   * time out.
+   */
+  public AsyncAnalysisServer(RequestSender sender) {
+    this(sender, null, 0);
+  }
+
+  /**
+   * Initialize a newly created server to send requests using the given sender. The requests time
+   * out after the given number of milliseconds, using the given executor.
+   *
+   * @throws IllegalArgumentException if the timeout is positive and the executor is {@code null}
+   */
+  public AsyncAnalysisServer(RequestSender sender, ScheduledExecutorService scheduler, long timeoutMillis) {
+    if (timeoutMillis > 0 && scheduler == null) {
+      throw new IllegalArgumentException("An executor is required for requests to time out");
+    }
+    this.sender = sender;
+    this.scheduler = scheduler;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * The result of the {@code analysis.getLibraryDependencies} request.
+   */
+  public static class AnalysisGetLibraryDependenciesResult {
+    private final List<String> libraries;
+    private final Map<String, Map<String, List<String>>> packageMap;
+
+    private AnalysisGetLibraryDependenciesResult(JsonObject result) {
+      this.libraries = JsonUtilities.decodeStringList(result.get("libraries").getAsJsonArray());
+      this.packageMap = decodeMap(result.get("packageMap"), entryValue -> decodeMap(entryValue, entryValue1 -> JsonUtilities.decodeStringList(entryValue1.getAsJsonArray())));
+    }
+
+    /**
+     * Return the {@code libraries} field of the result.
+     */
+    public List<String> getLibraries() {
+      return libraries;
+    }
+
+    /**
+     * Return the {@code packageMap} field of the result.
+     */
+    public Map<String, Map<String, List<String>>> getPackageMap() {
+      return packageMap;
+    }
+  }
+
+  /**
+   * The result of the {@code analysis.getNavigation} request.
+   */
+  public static class AnalysisGetNavigationResult {
+    private final List<String> files;
+    private final List<NavigationTarget> targets;
+    private final List<NavigationRegion> regions;
+
+    private AnalysisGetNavigationResult(JsonObject result) {
+      this.files = JsonUtilities.decodeStringList(result.get("files").getAsJsonArray());
+      this.targets = NavigationTarget.fromJsonArray(result.get("targets").getAsJsonArray());
+      this.regions = NavigationRegion.fromJsonArray(result.get("regions").getAsJsonArray());
+    }
+
+    /**
+     * Return the {@code files} field of the result.
+     */
+    public List<String> getFiles() {
+      return files;
+    }
+
+    /**
+     * Return the {@code targets} field of the result.
+     */
+    public List<NavigationTarget> getTargets() {
+      return targets;
+    }
+
+    /**
+     * Return the {@code regions} field of the result.
+     */
+    public List<NavigationRegion> getRegions() {
+      return regions;
+    }
+  }
+
+  /**
+   * The result of the {@code analysis.getSignature} request.
+   */
+  public static class AnalysisGetSignatureResult {
+    private final String name;
+    private final List<ParameterInfo> parameters;
+    private final String dartdoc;
+
+    private AnalysisGetSignatureResult(JsonObject result) {
+      this.name = result.get("name").getAsString();
+      this.parameters = ParameterInfo.fromJsonArray(result.get("parameters").getAsJsonArray());
+      this.dartdoc = result.get("dartdoc") == null ? null : result.get("dartdoc").getAsString();
+    }
+
+    /**
+     * Return the {@code name} field of the result.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Return the {@code parameters} field of the result.
+     */
+    public List<ParameterInfo> getParameters() {
+      return parameters;
+    }
+
+    /**
+     * Return the {@code dartdoc} field of the result.
+     */
+    public String getDartdoc() {
+      return dartdoc;
+    }
+  }
+
+  /**
+   * The result of the {@code completion.getSuggestionDetails} request.
+   */
+  public static class CompletionGetSuggestionDetailsResult {
+    private final String completion;
+    private final SourceChange change;
+
+    private CompletionGetSuggestionDetailsResult(JsonObject result) {
+      this.completion = result.get("completion").getAsString();
+      this.change = result.get("change") == null ? null : SourceChange.fromJson(result.get("change").getAsJsonObject());
+    }
+
+    /**
+     * Return the {@code completion} field of the result.
+     */
+    public String getCompletion() {
+      return completion;
+    }
+
+    /**
+     * Return the {@code change} field of the result.
+     */
+    public SourceChange getChange() {
+      return change;
+    }
+  }
+
+  /**
+   * The result of the {@code edit.dartfix} request.
+   */
+  public static class EditDartfixResult {
+    private final List<DartFixSuggestion> suggestions;
+    private final List<DartFixSuggestion> otherSuggestions;
+    private final boolean hasErrors;
+    private final List<SourceFileEdit> edits;
+
+    private EditDartfixResult(JsonObject result) {
+      this.suggestions = DartFixSuggestion.fromJsonArray(result.get("suggestions").getAsJsonArray());
+      this.otherSuggestions = DartFixSuggestion.fromJsonArray(result.get("otherSuggestions").getAsJsonArray());
+      this.hasErrors = result.get("hasErrors").getAsBoolean();
+      this.edits = SourceFileEdit.fromJsonArray(result.get("edits").getAsJsonArray());
+    }
+
+    /**
+     * Return the {@code suggestions} field of the result.
+     */
+    public List<DartFixSuggestion> getSuggestions() {
+      return suggestions;
+    }
+
+    /**
+     * Return the {@code otherSuggestions} field of the result.
+     */
+    public List<DartFixSuggestion> getOtherSuggestions() {
+      return otherSuggestions;
+    }
+
+    /**
+     * Return the {@code hasErrors} field of the result.
+     */
+    public boolean getHasErrors() {
+      return hasErrors;
+    }
+
+    /**
+     * Return the {@code edits} field of the result.
+     */
+    public List<SourceFileEdit> getEdits() {
+      return edits;
+    }
+  }
+
+  /**
+   * The result of the {@code edit.format} request.
+   */
+  public static class EditFormatResult {
+    private final List<SourceEdit> edits;
+    private final int selectionOffset;
+    private final int selectionLength;
+
+    private EditFormatResult(JsonObject result) {
+      this.edits = SourceEdit.fromJsonArray(result.get("edits").getAsJsonArray());
+      this.selectionOffset = result.get("selectionOffset").getAsInt();
+      this.selectionLength = result.get("selectionLength").getAsInt();
+    }
+
+    /**
+     * Return the {@code edits} field of the result.
+     */
+    public List<SourceEdit> getEdits() {
+      return edits;
+    }
+
+    /**
+     * Return the {@code selectionOffset} field of the result.
+     */
+    public int getSelectionOffset() {
+      return selectionOffset;
+    }
+
+    /**
+     * Return the {@code selectionLength} field of the result.
+     */
+    public int getSelectionLength() {
+      return selectionLength;
+    }
+  }
+
+  /**
+   * The result of the {@code edit.getRefactoring} request.
+   */
+  public static class EditGetRefactoringResult {
+    private final List<RefactoringProblem> initialProblems;
+    private final List<RefactoringProblem> optionsProblems;
+    private final List<RefactoringProblem> finalProblems;
+    private final RefactoringFeedback feedback;
+    private final SourceChange change;
+    private final List<String> potentialEdits;
+
+    private EditGetRefactoringResult(JsonObject result) {
+      this.initialProblems = RefactoringProblem.fromJsonArray(result.get("initialProblems").getAsJsonArray());
+      this.optionsProblems = RefactoringProblem.fromJsonArray(result.get("optionsProblems").getAsJsonArray());
+      this.finalProblems = RefactoringProblem.fromJsonArray(result.get("finalProblems").getAsJsonArray());
+      this.feedback = result.get("feedback") == null ? null : RefactoringFeedback.fromJson(result.get("feedback").getAsJsonObject());
+      this.change = result.get("change") == null ? null : SourceChange.fromJson(result.get("change").getAsJsonObject());
+      this.potentialEdits = result.get("potentialEdits") == null ? null : JsonUtilities.decodeStringList(result.get("potentialEdits").getAsJsonArray());
+    }
+
+    /**
+     * Return the {@code initialProblems} field of the result.
+     */
+    public List<RefactoringProblem> getInitialProblems() {
+      return initialProblems;
+    }
+
+    /**
+     * Return the {@code optionsProblems} field of the result.
+     */
+    public List<RefactoringProblem> getOptionsProblems() {
+      return optionsProblems;
+    }
+
+    /**
+     * Return the {@code finalProblems} field of the result.
+     */
+    public List<RefactoringProblem> getFinalProblems() {
+      return finalProblems;
+    }
+
+    /**
+     * Return the {@code feedback} field of the result.
+     */
+    public RefactoringFeedback getFeedback() {
+      return feedback;
+    }
+
+    /**
+     * Return the {@code change} field of the result.
+     */
+    public SourceChange getChange() {
+      return change;
+    }
+
+    /**
+     * Return the {@code potentialEdits} field of the result.
+     */
+    public List<String> getPotentialEdits() {
+      return potentialEdits;
+    }
+  }
+
+  /**
+   * The result of the {@code edit.getStatementCompletion} request.
+   */
+  public static class EditGetStatementCompletionResult {
+    private final SourceChange change;
+    private final boolean whitespaceOnly;
+
+    private EditGetStatementCompletionResult(JsonObject result) {
+      this.change = SourceChange.fromJson(result.get("change").getAsJsonObject());
+      this.whitespaceOnly = result.get("whitespaceOnly").getAsBoolean();
+    }
+
+    /**
+     * Return the {@code change} field of the result.
+     */
+    public SourceChange getChange() {
+      return change;
+    }
+
+    /**
+     * Return the {@code whitespaceOnly} field of the result.
+     */
+    public boolean getWhitespaceOnly() {
+      return whitespaceOnly;
+    }
+  }
+
+  /**
+   * The result of the {@code execution.getSuggestions} request.
+   */
+  public static class ExecutionGetSuggestionsResult {
+    private final List<CompletionSuggestion> suggestions;
+    private final List<RuntimeCompletionExpression> expressions;
+
+    private ExecutionGetSuggestionsResult(JsonObject result) {
+      this.suggestions = result.get("suggestions") == null ? null : CompletionSuggestion.fromJsonArray(result.get("suggestions").getAsJsonArray());
+      this.expressions = result.get("expressions") == null ? null : RuntimeCompletionExpression.fromJsonArray(result.get("expressions").getAsJsonArray());
+    }
+
+    /**
+     * Return the {@code suggestions} field of the result.
+     */
+    public List<CompletionSuggestion> getSuggestions() {
+      return suggestions;
+    }
+
+    /**
+     * Return the {@code expressions} field of the result.
+     */
+    public List<RuntimeCompletionExpression> getExpressions() {
+      return expressions;
+    }
+  }
+
+  /**
+   * The result of the {@code execution.mapUri} request.
+   */
+  public static class ExecutionMapUriResult {
+    private final String file;
+    private final String uri;
+
+    private ExecutionMapUriResult(JsonObject result) {
+      this.file = result.get("file") == null ? null : result.get("file").getAsString();
+      this.uri = result.get("uri") == null ? null : result.get("uri").getAsString();
+    }
+
+    /**
+     * Return the {@code file} field of the result.
+     */
+    public String getFile() {
+      return file;
+    }
+
+    /**
+     * Return the {@code uri} field of the result.
+     */
+    public String getUri() {
+      return uri;
+    }
+  }
+
+  /**
+   * The result of the {@code kythe.getKytheEntries} request.
+   */
+  public static class KytheGetKytheEntriesResult {
+    private final List<KytheEntry> entries;
+    private final List<String> files;
+
+    private KytheGetKytheEntriesResult(JsonObject result) {
+      this.entries = KytheEntry.fromJsonArray(result.get("entries").getAsJsonArray());
+      this.files = JsonUtilities.decodeStringList(result.get("files").getAsJsonArray());
+    }
+
+    /**
+     * Return the {@code entries} field of the result.
+     */
+    public List<KytheEntry> getEntries() {
+      return entries;
+    }
+
+    /**
+     * Return the {@code files} field of the result.
+     */
+    public List<String> getFiles() {
+      return files;
+    }
+  }
+
+  /**
+   * The interface {@code RequestBody} defines the behavior of objects that write a single request.
+   */
+  public interface RequestBody {
+    /**
+     * Write the request, with the given id, using the given writer.
+     */
+    void write(RequestWriter writer, String requestId) throws IOException;
+  }
+
+  /**
+   * The exception used to complete a future exceptionally when the response to a request contains
+   * an error.
+   */
+  public static class RequestErrorException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final RequestError requestError;
+
+    public RequestErrorException(RequestError requestError) {
+      super(requestError.getMessage());
+      this.requestError = requestError;
+    }
+
+    /**
+     * Return the error contained in the response.
+     */
+    public RequestError getRequestError() {
+      return requestError;
+    }
+  }
+
+  /**
+   * The interface {@code RequestSender} defines the behavior of objects that deliver requests to an
+   * analysis server and route the responses back to them.
+   */
+  public interface RequestSender {
+    /**
+     * Assign a new id to a request, write it using the given body and return a future that is
+     * completed, typically using {@link AsyncAnalysisServer#completeResponse}, when the response to
+     * the request is received. If the returned future is cancelled then the response is no longer
+     * needed.
+     */
+    CompletableFuture<JsonObject> sendRequest(RequestBody body);
+  }
+
+  /**
+   * The result of the {@code search.findElementReferences} request.
+   */
+  public static class SearchFindElementReferencesResult {
+    private final String id;
+    private final Element element;
+
+    private SearchFindElementReferencesResult(JsonObject result) {
+      this.id = result.get("id") == null ? null : result.get("id").getAsString();
+      this.element = result.get("element") == null ? null : Element.fromJson(result.get("element").getAsJsonObject());
+    }
+
+    /**
+     * Return the {@code id} field of the result.
+     */
+    public String getId() {
+      return id;
+    }
+
+    /**
+     * Return the {@code element} field of the result.
+     */
+    public Element getElement() {
+      return element;
+    }
+  }
+
+  /**
+   * The result of the {@code search.getElementDeclarations} request.
+   */
+  public static class SearchGetElementDeclarationsResult {
+    private final List<ElementDeclaration> declarations;
+    private final List<String> files;
+
+    private SearchGetElementDeclarationsResult(JsonObject result) {
+      this.declarations = ElementDeclaration.fromJsonArray(result.get("declarations").getAsJsonArray());
+      this.files = JsonUtilities.decodeStringList(result.get("files").getAsJsonArray());
+    }
+
+    /**
+     * Return the {@code declarations} field of the result.
+     */
+    public List<ElementDeclaration> getDeclarations() {
+      return declarations;
+    }
+
+    /**
+     * Return the {@code files} field of the result.
+     */
+    public List<String> getFiles() {
+      return files;
+    }
+  }
+
+  /**
+   * Send the {@code analysis.getErrors} request.
+   * The returned future is completed with the {@code errors} field of the result.
+   */
+  public CompletableFuture<List<AnalysisError>> analysis_getErrors(String file) {
+    return send("analysis.getErrors",
+        (writer, requestId) -> writer.analysis_getErrors(requestId, file),
+        result -> AnalysisError.fromJsonArray(result.get("errors").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code analysis.getHover} request.
+   * The returned future is completed with the {@code hovers} field of the result.
+   */
+  public CompletableFuture<List<HoverInformation>> analysis_getHover(String file, int offset) {
+    return send("analysis.getHover",
+        (writer, requestId) -> writer.analysis_getHover(requestId, file, offset),
+        result -> HoverInformation.fromJsonArray(result.get("hovers").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code analysis.getImportedElements} request.
+   * The returned future is completed with the {@code elements} field of the result.
+   */
+  public CompletableFuture<List<ImportedElements>> analysis_getImportedElements(String file, int offset, int length) {
+    return send("analysis.getImportedElements",
+        (writer, requestId) -> writer.analysis_getImportedElements(requestId, file, offset, length),
+        result -> ImportedElements.fromJsonArray(result.get("elements").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code analysis.getLibraryDependencies} request.
+   */
+  public CompletableFuture<AnalysisGetLibraryDependenciesResult> analysis_getLibraryDependencies() {
+    return send("analysis.getLibraryDependencies",
+        (writer, requestId) -> writer.analysis_getLibraryDependencies(requestId),
+        AnalysisGetLibraryDependenciesResult::new);
+  }
+
+  /**
+   * Send the {@code analysis.getNavigation} request.
+   */
+  public CompletableFuture<AnalysisGetNavigationResult> analysis_getNavigation(String file, int offset, int length) {
+    return send("analysis.getNavigation",
+        (writer, requestId) -> writer.analysis_getNavigation(requestId, file, offset, length),
+        AnalysisGetNavigationResult::new);
+  }
+
+  /**
+   * Send the {@code analysis.getReachableSources} request.
+   * The returned future is completed with the {@code sources} field of the result.
+   */
+  public CompletableFuture<Map<String, List<String>>> analysis_getReachableSources(String file) {
+    return send("analysis.getReachableSources",
+        (writer, requestId) -> writer.analysis_getReachableSources(requestId, file),
+        result -> decodeMap(result.get("sources"), entryValue -> JsonUtilities.decodeStringList(entryValue.getAsJsonArray())));
+  }
+
+  /**
+   * Send the {@code analysis.getSignature} request.
+   */
+  public CompletableFuture<AnalysisGetSignatureResult> analysis_getSignature(String file, int offset) {
+    return send("analysis.getSignature",
+        (writer, requestId) -> writer.analysis_getSignature(requestId, file, offset),
+        AnalysisGetSignatureResult::new);
+  }
+
+  /**
+   * Send the {@code analysis.reanalyze} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analysis_reanalyze() {
+    return send("analysis.reanalyze",
+        (writer, requestId) -> writer.analysis_reanalyze(requestId),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analysis.setAnalysisRoots} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analysis_setAnalysisRoots(List<String> included, List<String> excluded, Map<String, String> packageRoots) {
+    return send("analysis.setAnalysisRoots",
+        (writer, requestId) -> writer.analysis_setAnalysisRoots(requestId, included, excluded, packageRoots),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analysis.setGeneralSubscriptions} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analysis_setGeneralSubscriptions(List<String> subscriptions) {
+    return send("analysis.setGeneralSubscriptions",
+        (writer, requestId) -> writer.analysis_setGeneralSubscriptions(requestId, subscriptions),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analysis.setPriorityFiles} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analysis_setPriorityFiles(List<String> files) {
+    return send("analysis.setPriorityFiles",
+        (writer, requestId) -> writer.analysis_setPriorityFiles(requestId, files),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analysis.setSubscriptions} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analysis_setSubscriptions(Map<String, List<String>> subscriptions) {
+    return send("analysis.setSubscriptions",
+        (writer, requestId) -> writer.analysis_setSubscriptions(requestId, subscriptions),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analysis.updateContent} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analysis_updateContent(Map<String, Object> files) {
+    return send("analysis.updateContent",
+        (writer, requestId) -> writer.analysis_updateContent(requestId, files),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analysis.updateOptions} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analysis_updateOptions(AnalysisOptions options) {
+    return send("analysis.updateOptions",
+        (writer, requestId) -> writer.analysis_updateOptions(requestId, options),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analytics.enable} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analytics_enable(boolean value) {
+    return send("analytics.enable",
+        (writer, requestId) -> writer.analytics_enable(requestId, value),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analytics.isEnabled} request.
+   * The returned future is completed with the {@code enabled} field of the result.
+   */
+  public CompletableFuture<Boolean> analytics_isEnabled() {
+    return send("analytics.isEnabled",
+        (writer, requestId) -> writer.analytics_isEnabled(requestId),
+        result -> result.get("enabled").getAsBoolean());
+  }
+
+  /**
+   * Send the {@code analytics.sendEvent} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analytics_sendEvent(String action) {
+    return send("analytics.sendEvent",
+        (writer, requestId) -> writer.analytics_sendEvent(requestId, action),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code analytics.sendTiming} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> analytics_sendTiming(String event, int millis) {
+    return send("analytics.sendTiming",
+        (writer, requestId) -> writer.analytics_sendTiming(requestId, event, millis),
+        result -> null);
+  }
+
+  /**
+   * Complete the given future with the result of the given response, or exceptionally with a
+   * {@link RequestErrorException} if the response contains an error. A response without a result
+   * completes the future with an empty object.
+   */
+  public static void completeResponse(CompletableFuture<JsonObject> future, JsonObject response) {
+    JsonElement error = response.get("error");
+    if (error != null) {
+      future.completeExceptionally(new RequestErrorException(RequestError.fromJson(error.getAsJsonObject())));
+    } else {
+      JsonElement result = response.get("result");
+      future.complete(result != null ? result.getAsJsonObject() : new JsonObject());
+    }
+  }
+
+  /**
+   * Send the {@code completion.getSuggestionDetails} request.
+   */
+  public CompletableFuture<CompletionGetSuggestionDetailsResult> completion_getSuggestionDetails(String file, int id, String label, int offset) {
+    return send("completion.getSuggestionDetails",
+        (writer, requestId) -> writer.completion_getSuggestionDetails(requestId, file, id, label, offset),
+        CompletionGetSuggestionDetailsResult::new);
+  }
+
+  /**
+   * Send the {@code completion.getSuggestions} request.
+   * The returned future is completed with the {@code id} field of the result.
+   */
+  public CompletableFuture<String> completion_getSuggestions(String file, int offset) {
+    return send("completion.getSuggestions",
+        (writer, requestId) -> writer.completion_getSuggestions(requestId, file, offset),
+        result -> result.get("id").getAsString());
+  }
+
+  /**
+   * Send the {@code completion.listTokenDetails} request.
+   * The returned future is completed with the {@code tokens} field of the result.
+   */
+  public CompletableFuture<List<TokenDetails>> completion_listTokenDetails(String file) {
+    return send("completion.listTokenDetails",
+        (writer, requestId) -> writer.completion_listTokenDetails(requestId, file),
+        result -> TokenDetails.fromJsonArray(result.get("tokens").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code completion.registerLibraryPaths} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> completion_registerLibraryPaths(List<LibraryPathSet> paths) {
+    return send("completion.registerLibraryPaths",
+        (writer, requestId) -> writer.completion_registerLibraryPaths(requestId, paths),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code completion.setSubscriptions} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> completion_setSubscriptions(List<String> subscriptions) {
+    return send("completion.setSubscriptions",
+        (writer, requestId) -> writer.completion_setSubscriptions(requestId, subscriptions),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code diagnostic.getDiagnostics} request.
+   * The returned future is completed with the {@code contexts} field of the result.
+   */
+  public CompletableFuture<List<ContextData>> diagnostic_getDiagnostics() {
+    return send("diagnostic.getDiagnostics",
+        (writer, requestId) -> writer.diagnostic_getDiagnostics(requestId),
+        result -> ContextData.fromJsonArray(result.get("contexts").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code diagnostic.getServerPort} request.
+   * The returned future is completed with the {@code port} field of the result.
+   */
+  public CompletableFuture<Integer> diagnostic_getServerPort() {
+    return send("diagnostic.getServerPort",
+        (writer, requestId) -> writer.diagnostic_getServerPort(requestId),
+        result -> result.get("port").getAsInt());
+  }
+
+  /**
+   * Send the {@code edit.dartfix} request.
+   */
+  public CompletableFuture<EditDartfixResult> edit_dartfix(List<String> included, List<String> includedFixes, boolean includeRequiredFixes, List<String> excludedFixes) {
+    return send("edit.dartfix",
+        (writer, requestId) -> writer.edit_dartfix(requestId, included, includedFixes, includeRequiredFixes, excludedFixes),
+        EditDartfixResult::new);
+  }
+
+  /**
+   * Send the {@code edit.format} request.
+   */
+  public CompletableFuture<EditFormatResult> edit_format(String file, int selectionOffset, int selectionLength, int lineLength) {
+    return send("edit.format",
+        (writer, requestId) -> writer.edit_format(requestId, file, selectionOffset, selectionLength, lineLength),
+        EditFormatResult::new);
+  }
+
+  /**
+   * Send the {@code edit.getAssists} request.
+   * The returned future is completed with the {@code assists} field of the result.
+   */
+  public CompletableFuture<List<SourceChange>> edit_getAssists(String file, int offset, int length) {
+    return send("edit.getAssists",
+        (writer, requestId) -> writer.edit_getAssists(requestId, file, offset, length),
+        result -> SourceChange.fromJsonArray(result.get("assists").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code edit.getAvailableRefactorings} request.
+   * The returned future is completed with the {@code kinds} field of the result.
+   */
+  public CompletableFuture<List<String>> edit_getAvailableRefactorings(String file, int offset, int length) {
+    return send("edit.getAvailableRefactorings",
+        (writer, requestId) -> writer.edit_getAvailableRefactorings(requestId, file, offset, length),
+        result -> JsonUtilities.decodeStringList(result.get("kinds").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code edit.getDartfixInfo} request.
+   * The returned future is completed with the {@code fixes} field of the result.
+   */
+  public CompletableFuture<List<DartFix>> edit_getDartfixInfo() {
+    return send("edit.getDartfixInfo",
+        (writer, requestId) -> writer.edit_getDartfixInfo(requestId),
+        result -> DartFix.fromJsonArray(result.get("fixes").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code edit.getFixes} request.
+   * The returned future is completed with the {@code fixes} field of the result.
+   */
+  public CompletableFuture<List<AnalysisErrorFixes>> edit_getFixes(String file, int offset) {
+    return send("edit.getFixes",
+        (writer, requestId) -> writer.edit_getFixes(requestId, file, offset),
+        result -> AnalysisErrorFixes.fromJsonArray(result.get("fixes").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code edit.getPostfixCompletion} request.
+   * The returned future is completed with the {@code change} field of the result.
+   */
+  public CompletableFuture<SourceChange> edit_getPostfixCompletion(String file, String key, int offset) {
+    return send("edit.getPostfixCompletion",
+        (writer, requestId) -> writer.edit_getPostfixCompletion(requestId, file, key, offset),
+        result -> SourceChange.fromJson(result.get("change").getAsJsonObject()));
+  }
+
+  /**
+   * Send the {@code edit.getRefactoring} request.
+   */
+  public CompletableFuture<EditGetRefactoringResult> edit_getRefactoring(String kind, String file, int offset, int length, boolean validateOnly, RefactoringOptions options) {
+    return send("edit.getRefactoring",
+        (writer, requestId) -> writer.edit_getRefactoring(requestId, kind, file, offset, length, validateOnly, options),
+        EditGetRefactoringResult::new);
+  }
+
+  /**
+   * Send the {@code edit.getStatementCompletion} request.
+   */
+  public CompletableFuture<EditGetStatementCompletionResult> edit_getStatementCompletion(String file, int offset) {
+    return send("edit.getStatementCompletion",
+        (writer, requestId) -> writer.edit_getStatementCompletion(requestId, file, offset),
+        EditGetStatementCompletionResult::new);
+  }
+
+  /**
+   * Send the {@code edit.importElements} request.
+   * The returned future is completed with the {@code edit} field of the result.
+   */
+  public CompletableFuture<SourceFileEdit> edit_importElements(String file, List<ImportedElements> elements, int offset) {
+    return send("edit.importElements",
+        (writer, requestId) -> writer.edit_importElements(requestId, file, elements, offset),
+        result -> result.get("edit") == null ? null : SourceFileEdit.fromJson(result.get("edit").getAsJsonObject()));
+  }
+
+  /**
+   * Send the {@code edit.isPostfixCompletionApplicable} request.
+   * The returned future is completed with the {@code value} field of the result.
+   */
+  public CompletableFuture<Boolean> edit_isPostfixCompletionApplicable(String file, String key, int offset) {
+    return send("edit.isPostfixCompletionApplicable",
+        (writer, requestId) -> writer.edit_isPostfixCompletionApplicable(requestId, file, key, offset),
+        result -> result.get("value").getAsBoolean());
+  }
+
+  /**
+   * Send the {@code edit.listPostfixCompletionTemplates} request.
+   * The returned future is completed with the {@code templates} field of the result.
+   */
+  public CompletableFuture<List<PostfixTemplateDescriptor>> edit_listPostfixCompletionTemplates() {
+    return send("edit.listPostfixCompletionTemplates",
+        (writer, requestId) -> writer.edit_listPostfixCompletionTemplates(requestId),
+        result -> PostfixTemplateDescriptor.fromJsonArray(result.get("templates").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code edit.organizeDirectives} request.
+   * The returned future is completed with the {@code edit} field of the result.
+   */
+  public CompletableFuture<SourceFileEdit> edit_organizeDirectives(String file) {
+    return send("edit.organizeDirectives",
+        (writer, requestId) -> writer.edit_organizeDirectives(requestId, file),
+        result -> SourceFileEdit.fromJson(result.get("edit").getAsJsonObject()));
+  }
+
+  /**
+   * Send the {@code edit.sortMembers} request.
+   * The returned future is completed with the {@code edit} field of the result.
+   */
+  public CompletableFuture<SourceFileEdit> edit_sortMembers(String file) {
+    return send("edit.sortMembers",
+        (writer, requestId) -> writer.edit_sortMembers(requestId, file),
+        result -> SourceFileEdit.fromJson(result.get("edit").getAsJsonObject()));
+  }
+
+  /**
+   * Send the {@code execution.createContext} request.
+   * The returned future is completed with the {@code id} field of the result.
+   */
+  public CompletableFuture<String> execution_createContext(String contextRoot) {
+    return send("execution.createContext",
+        (writer, requestId) -> writer.execution_createContext(requestId, contextRoot),
+        result -> result.get("id").getAsString());
+  }
+
+  /**
+   * Send the {@code execution.deleteContext} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> execution_deleteContext(String id) {
+    return send("execution.deleteContext",
+        (writer, requestId) -> writer.execution_deleteContext(requestId, id),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code execution.getSuggestions} request.
+   */
+  public CompletableFuture<ExecutionGetSuggestionsResult> execution_getSuggestions(String code, int offset, String contextFile, int contextOffset, List<RuntimeCompletionVariable> variables, List<RuntimeCompletionExpression> expressions) {
+    return send("execution.getSuggestions",
+        (writer, requestId) -> writer.execution_getSuggestions(requestId, code, offset, contextFile, contextOffset, variables, expressions),
+        ExecutionGetSuggestionsResult::new);
+  }
+
+  /**
+   * Send the {@code execution.mapUri} request.
+   */
+  public CompletableFuture<ExecutionMapUriResult> execution_mapUri(String id, String file, String uri) {
+    return send("execution.mapUri",
+        (writer, requestId) -> writer.execution_mapUri(requestId, id, file, uri),
+        ExecutionMapUriResult::new);
+  }
+
+  /**
+   * Send the {@code execution.setSubscriptions} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> execution_setSubscriptions(List<String> subscriptions) {
+    return send("execution.setSubscriptions",
+        (writer, requestId) -> writer.execution_setSubscriptions(requestId, subscriptions),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code flutter.getChangeAddForDesignTimeConstructor} request.
+   * The returned future is completed with the {@code change} field of the result.
+   */
+  public CompletableFuture<SourceChange> flutter_getChangeAddForDesignTimeConstructor(String file, int offset) {
+    return send("flutter.getChangeAddForDesignTimeConstructor",
+        (writer, requestId) -> writer.flutter_getChangeAddForDesignTimeConstructor(requestId, file, offset),
+        result -> SourceChange.fromJson(result.get("change").getAsJsonObject()));
+  }
+
+  /**
+   * Send the {@code flutter.setSubscriptions} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> flutter_setSubscriptions(Map<String, List<String>> subscriptions) {
+    return send("flutter.setSubscriptions",
+        (writer, requestId) -> writer.flutter_setSubscriptions(requestId, subscriptions),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code kythe.getKytheEntries} request.
+   */
+  public CompletableFuture<KytheGetKytheEntriesResult> kythe_getKytheEntries(String file) {
+    return send("kythe.getKytheEntries",
+        (writer, requestId) -> writer.kythe_getKytheEntries(requestId, file),
+        KytheGetKytheEntriesResult::new);
+  }
+
+  /**
+   * Send the {@code search.findElementReferences} request.
+   */
+  public CompletableFuture<SearchFindElementReferencesResult> search_findElementReferences(String file, int offset, boolean includePotential) {
+    return send("search.findElementReferences",
+        (writer, requestId) -> writer.search_findElementReferences(requestId, file, offset, includePotential),
+        SearchFindElementReferencesResult::new);
+  }
+
+  /**
+   * Send the {@code search.findMemberDeclarations} request.
+   * The returned future is completed with the {@code id} field of the result.
+   */
+  public CompletableFuture<String> search_findMemberDeclarations(String name) {
+    return send("search.findMemberDeclarations",
+        (writer, requestId) -> writer.search_findMemberDeclarations(requestId, name),
+        result -> result.get("id").getAsString());
+  }
+
+  /**
+   * Send the {@code search.findMemberReferences} request.
+   * The returned future is completed with the {@code id} field of the result.
+   */
+  public CompletableFuture<String> search_findMemberReferences(String name) {
+    return send("search.findMemberReferences",
+        (writer, requestId) -> writer.search_findMemberReferences(requestId, name),
+        result -> result.get("id").getAsString());
+  }
+
+  /**
+   * Send the {@code search.findTopLevelDeclarations} request.
+   * The returned future is completed with the {@code id} field of the result.
+   */
+  public CompletableFuture<String> search_findTopLevelDeclarations(String pattern) {
+    return send("search.findTopLevelDeclarations",
+        (writer, requestId) -> writer.search_findTopLevelDeclarations(requestId, pattern),
+        result -> result.get("id").getAsString());
+  }
+
+  /**
+   * Send the {@code search.getElementDeclarations} request.
+   */
+  public CompletableFuture<SearchGetElementDeclarationsResult> search_getElementDeclarations(String file, String pattern, int maxResults) {
+    return send("search.getElementDeclarations",
+        (writer, requestId) -> writer.search_getElementDeclarations(requestId, file, pattern, maxResults),
+        SearchGetElementDeclarationsResult::new);
+  }
+
+  /**
+   * Send the {@code search.getTypeHierarchy} request.
+   * The returned future is completed with the {@code hierarchyItems} field of the result.
+   */
+  public CompletableFuture<List<TypeHierarchyItem>> search_getTypeHierarchy(String file, int offset, boolean superOnly) {
+    return send("search.getTypeHierarchy",
+        (writer, requestId) -> writer.search_getTypeHierarchy(requestId, file, offset, superOnly),
+        result -> result.get("hierarchyItems") == null ? null : TypeHierarchyItem.fromJsonArray(result.get("hierarchyItems").getAsJsonArray()));
+  }
+
+  /**
+   * Send the {@code server.getVersion} request.
+   * The returned future is completed with the {@code version} field of the result.
+   */
+  public CompletableFuture<String> server_getVersion() {
+    return send("server.getVersion",
+        (writer, requestId) -> writer.server_getVersion(requestId),
+        result -> result.get("version").getAsString());
+  }
+
+  /**
+   * Send the {@code server.setSubscriptions} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> server_setSubscriptions(List<String> subscriptions) {
+    return send("server.setSubscriptions",
+        (writer, requestId) -> writer.server_setSubscriptions(requestId, subscriptions),
+        result -> null);
+  }
+
+  /**
+   * Send the {@code server.shutdown} request.
+   * The returned future is completed with {@code null} when the response is received.
+   */
+  public CompletableFuture<Void> server_shutdown() {
+    return send("server.shutdown",
+        (writer, requestId) -> writer.server_shutdown(requestId),
+        result -> null);
+  }
+
+  /**
+   * Return a server that sends requests using the same sender and executor as this server, but whose
+   * requests time out after the given number of milliseconds.
+   *
+   * @throws IllegalStateException if the timeout is positive and this server was created without an
+   *           executor
+   */
+  public AsyncAnalysisServer withTimeout(long timeoutMillis) {
+    if (timeoutMillis > 0 && scheduler == null) {
+      throw new IllegalStateException("An executor is required for requests to time out");
+    }
+    return new AsyncAnalysisServer(sender, scheduler, timeoutMillis);
+  }
+
+  private static <V> Map<String, V> decodeMap(JsonElement json, Function<JsonElement, V> decodeValue) {
+    Map<String, V> map = new HashMap<String, V>();
+    for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+      map.put(entry.getKey(), decodeValue.apply(entry.getValue()));
+    }
+    return map;
+  }
+
+  private <T> CompletableFuture<T> send(String method, RequestBody body, Function<JsonObject, T> decoder) {
+    CompletableFuture<JsonObject> response = sender.sendRequest(body);
+    CompletableFuture<T> future = response.thenApply(decoder);
+    if (timeoutMillis > 0) {
+      ScheduledFuture<?> timeout = scheduler.schedule(
+          () -> future.completeExceptionally(new TimeoutException(method + " timed out after " + timeoutMillis + " ms")),
+          timeoutMillis,
+          TimeUnit.MILLISECONDS);
+      future.whenComplete((value, exception) -> timeout.cancel(false));
+    }
+    // a cancelled or timed out request no longer needs its response
+    future.whenComplete((value, exception) -> {
+      if (exception != null) {
+        response.cancel(false);
+      }
+    });
+    return future;
+  }
+
+}
@@ -0,0 +1,898 @@
+/*
+ * Copyright (c) 2019, the Dart project authors. Please see the AUTHORS file
+ * for details. All rights reserved. Use of this source code is governed by a
+ * BSD-style license that can be found in the LICENSE file.
+ *
+ * This file has been automatically generated. Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated.client;
+
+import org.dartlang.analysis.server.protocol.*;
+
+import com.google.dart.server.client.CborWriter;
+import com.google.dart.server.client.EncodedStreamTransport;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class {@code RequestWriter} encodes analysis server requests directly into a character
+ * stream, one request per line, without building an intermediate {@code JsonObject} tree. A single
+ * instance is expected to be reused for all of the requests sent over a connection. On a
+ * connection that uses the binary encoding the requests are encoded by a {@link CborWriter}
+ * instead.
+ *
+ * Each request is encoded into a buffer by a new {@link JsonWriter} or {@link CborWriter} before
+ * it is written to the stream, so a request whose encoding fails, such as because one of its
+ * arguments is invalid, writes nothing and does not affect the requests that follow it. A buffer
+ * that has grown for a large request, such as one with the content of a file, is replaced by a
+ * small one afterwards, rather than keeping its capacity for the life of the connection.
+ *
+ * This class is not thread-safe. The requests written by an instance must not be written
+ * concurrently, such as by only writing them while holding the lock of the connection.
+ *
+ * @coverage dart.server.generated.client
+ */
+public class RequestWriter {
+
+  /**
+   * The largest size of a buffer that is reused for the next request.
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+
+  private final Writer out;
+
+  private CharArrayWriter buffer;
+
+  private final OutputStream binaryOut;
+
+  private ByteArrayOutputStream binaryBuffer;
+
+  private JsonWriter writer;
+
+  /**
+   * Initialize a newly created writer to encode requests into the given stream, which should be
+   * buffered. The stream is flushed after each request.
+   */
+  public RequestWriter(Writer out) {
+    this.out = out;
+    this.buffer = new CharArrayWriter();
+    this.binaryOut = null;
+    this.binaryBuffer = null;
+  }
+
+  /**
+   * Initialize a newly created writer to encode requests with a {@link CborWriter} into the given
+   * stream, on a connection that uses the binary encoding, whose encoding delimits the requests. The
+   * stream is flushed after each request.
+   */
+  public RequestWriter(OutputStream out) {
+    this.out = null;
+    this.buffer = null;
+    this.binaryOut = out;
+    this.binaryBuffer = new ByteArrayOutputStream();
+  }
+
+  /**
+   * Initialize a newly created writer to encode a single request with the given writer, which is
+   * discarded if the encoding fails, such as the writer given to an
+   * {@link EncodedStreamTransport.MessageWriter}. The request is not buffered, so the writer must
+   * not be shared with other messages. The writer is flushed after the request.
+   */
+  public RequestWriter(JsonWriter writer) {
+    this.out = null;
+    this.buffer = null;
+    this.binaryOut = null;
+    this.binaryBuffer = null;
+    this.writer = writer;
+  }
+
+  /**
+   * Write the {@code analysis.getErrors} request.
+   */
+  public void analysis_getErrors(String requestId, String file) throws IOException {
+    writeHeader(requestId, "analysis.getErrors");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.getHover} request.
+   */
+  public void analysis_getHover(String requestId, String file, int offset) throws IOException {
+    writeHeader(requestId, "analysis.getHover");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.getImportedElements} request.
+   */
+  public void analysis_getImportedElements(String requestId, String file, int offset, int length) throws IOException {
+    writeHeader(requestId, "analysis.getImportedElements");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.getLibraryDependencies} request.
+   */
+  public void analysis_getLibraryDependencies(String requestId) throws IOException {
+    writeHeader(requestId, "analysis.getLibraryDependencies");
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.getNavigation} request.
+   */
+  public void analysis_getNavigation(String requestId, String file, int offset, int length) throws IOException {
+    writeHeader(requestId, "analysis.getNavigation");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.getReachableSources} request.
+   */
+  public void analysis_getReachableSources(String requestId, String file) throws IOException {
+    writeHeader(requestId, "analysis.getReachableSources");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.getSignature} request.
+   */
+  public void analysis_getSignature(String requestId, String file, int offset) throws IOException {
+    writeHeader(requestId, "analysis.getSignature");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.reanalyze} request.
+   */
+  public void analysis_reanalyze(String requestId) throws IOException {
+    writeHeader(requestId, "analysis.reanalyze");
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.setAnalysisRoots} request.
+   */
+  public void analysis_setAnalysisRoots(String requestId, List<String> included, List<String> excluded, Map<String, String> packageRoots) throws IOException {
+    writeHeader(requestId, "analysis.setAnalysisRoots");
+    writer.name("params").beginObject();
+    writer.name("included").beginArray();
+    for (String elt : included) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("excluded").beginArray();
+    for (String elt : excluded) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    if (packageRoots != null) {
+      writer.name("packageRoots").beginObject();
+      for (Map.Entry<String, String> entry : packageRoots.entrySet()) {
+        writer.name(entry.getKey()).value(entry.getValue());
+      }
+      writer.endObject();
+    }
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.setGeneralSubscriptions} request.
+   */
+  public void analysis_setGeneralSubscriptions(String requestId, List<String> subscriptions) throws IOException {
+    writeHeader(requestId, "analysis.setGeneralSubscriptions");
+    writer.name("params").beginObject();
+    writer.name("subscriptions").beginArray();
+    for (String elt : subscriptions) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.setPriorityFiles} request.
+   */
+  public void analysis_setPriorityFiles(String requestId, List<String> files) throws IOException {
+    writeHeader(requestId, "analysis.setPriorityFiles");
+    writer.name("params").beginObject();
+    writer.name("files").beginArray();
+    for (String elt : files) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.setSubscriptions} request.
+   */
+  public void analysis_setSubscriptions(String requestId, Map<String, List<String>> subscriptions) throws IOException {
+    writeHeader(requestId, "analysis.setSubscriptions");
+    writer.name("params").beginObject();
+    writer.name("subscriptions").beginObject();
+    for (Map.Entry<String, List<String>> entry : subscriptions.entrySet()) {
+      writer.name(entry.getKey()).beginArray();
+      for (String elt : entry.getValue()) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.updateContent} request.
+   */
+  public void analysis_updateContent(String requestId, Map<String, Object> files) throws IOException {
+    writeHeader(requestId, "analysis.updateContent");
+    writer.name("params").beginObject();
+    writer.name("files").beginObject();
+    for (Map.Entry<String, Object> entry : files.entrySet()) {
+      writer.name(entry.getKey());
+      if (entry.getValue() instanceof AddContentOverlay) {
+        ((AddContentOverlay) entry.getValue()).writeTo(writer);
+      } else if (entry.getValue() instanceof ChangeContentOverlay) {
+        ((ChangeContentOverlay) entry.getValue()).writeTo(writer);
+      } else if (entry.getValue() instanceof RemoveContentOverlay) {
+        ((RemoveContentOverlay) entry.getValue()).writeTo(writer);
+      } else {
+        writer.nullValue();
+      }
+    }
+    writer.endObject();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analysis.updateOptions} request.
+   */
+  public void analysis_updateOptions(String requestId, AnalysisOptions options) throws IOException {
+    writeHeader(requestId, "analysis.updateOptions");
+    writer.name("params").beginObject();
+    writer.name("options");
+    options.writeTo(writer);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analytics.enable} request.
+   */
+  public void analytics_enable(String requestId, boolean value) throws IOException {
+    writeHeader(requestId, "analytics.enable");
+    writer.name("params").beginObject();
+    writer.name("value").value(value);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analytics.isEnabled} request.
+   */
+  public void analytics_isEnabled(String requestId) throws IOException {
+    writeHeader(requestId, "analytics.isEnabled");
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analytics.sendEvent} request.
+   */
+  public void analytics_sendEvent(String requestId, String action) throws IOException {
+    writeHeader(requestId, "analytics.sendEvent");
+    writer.name("params").beginObject();
+    writer.name("action").value(action);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code analytics.sendTiming} request.
+   */
+  public void analytics_sendTiming(String requestId, String event, int millis) throws IOException {
+    writeHeader(requestId, "analytics.sendTiming");
+    writer.name("params").beginObject();
+    writer.name("event").value(event);
+    writer.name("millis").value(millis);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code completion.getSuggestionDetails} request.
+   */
+  public void completion_getSuggestionDetails(String requestId, String file, int id, String label, int offset) throws IOException {
+    writeHeader(requestId, "completion.getSuggestionDetails");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("id").value(id);
+    writer.name("label").value(label);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code completion.getSuggestions} request.
+   */
+  public void completion_getSuggestions(String requestId, String file, int offset) throws IOException {
+    writeHeader(requestId, "completion.getSuggestions");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code completion.listTokenDetails} request.
+   */
+  public void completion_listTokenDetails(String requestId, String file) throws IOException {
+    writeHeader(requestId, "completion.listTokenDetails");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code completion.registerLibraryPaths} request.
+   */
+  public void completion_registerLibraryPaths(String requestId, List<LibraryPathSet> paths) throws IOException {
+    writeHeader(requestId, "completion.registerLibraryPaths");
+    writer.name("params").beginObject();
+    writer.name("paths").beginArray();
+    for (LibraryPathSet elt : paths) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code completion.setSubscriptions} request.
+   */
+  public void completion_setSubscriptions(String requestId, List<String> subscriptions) throws IOException {
+    writeHeader(requestId, "completion.setSubscriptions");
+    writer.name("params").beginObject();
+    writer.name("subscriptions").beginArray();
+    for (String elt : subscriptions) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code diagnostic.getDiagnostics} request.
+   */
+  public void diagnostic_getDiagnostics(String requestId) throws IOException {
+    writeHeader(requestId, "diagnostic.getDiagnostics");
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code diagnostic.getServerPort} request.
+   */
+  public void diagnostic_getServerPort(String requestId) throws IOException {
+    writeHeader(requestId, "diagnostic.getServerPort");
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.dartfix} request.
+   */
+  public void edit_dartfix(String requestId, List<String> included, List<String> includedFixes, boolean includeRequiredFixes, List<String> excludedFixes) throws IOException {
+    writeHeader(requestId, "edit.dartfix");
+    writer.name("params").beginObject();
+    writer.name("included").beginArray();
+    for (String elt : included) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    if (includedFixes != null) {
+      writer.name("includedFixes").beginArray();
+      for (String elt : includedFixes) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.name("includeRequiredFixes").value(includeRequiredFixes);
+    if (excludedFixes != null) {
+      writer.name("excludedFixes").beginArray();
+      for (String elt : excludedFixes) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.format} request.
+   */
+  public void edit_format(String requestId, String file, int selectionOffset, int selectionLength, int lineLength) throws IOException {
+    writeHeader(requestId, "edit.format");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("selectionOffset").value(selectionOffset);
+    writer.name("selectionLength").value(selectionLength);
+    writer.name("lineLength").value(lineLength);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.getAssists} request.
+   */
+  public void edit_getAssists(String requestId, String file, int offset, int length) throws IOException {
+    writeHeader(requestId, "edit.getAssists");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.getAvailableRefactorings} request.
+   */
+  public void edit_getAvailableRefactorings(String requestId, String file, int offset, int length) throws IOException {
+    writeHeader(requestId, "edit.getAvailableRefactorings");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.getDartfixInfo} request.
+   */
+  public void edit_getDartfixInfo(String requestId) throws IOException {
+    writeHeader(requestId, "edit.getDartfixInfo");
+    writer.name("params").beginObject();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.getFixes} request.
+   */
+  public void edit_getFixes(String requestId, String file, int offset) throws IOException {
+    writeHeader(requestId, "edit.getFixes");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.getPostfixCompletion} request.
+   */
+  public void edit_getPostfixCompletion(String requestId, String file, String key, int offset) throws IOException {
+    writeHeader(requestId, "edit.getPostfixCompletion");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("key").value(key);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.getRefactoring} request.
+   */
+  public void edit_getRefactoring(String requestId, String kind, String file, int offset, int length, boolean validateOnly, RefactoringOptions options) throws IOException {
+    writeHeader(requestId, "edit.getRefactoring");
+    writer.name("params").beginObject();
+    writer.name("kind").value(kind);
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("validateOnly").value(validateOnly);
+    if (options != null) {
+      writer.name("options");
+      options.writeTo(writer);
+    }
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.getStatementCompletion} request.
+   */
+  public void edit_getStatementCompletion(String requestId, String file, int offset) throws IOException {
+    writeHeader(requestId, "edit.getStatementCompletion");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.importElements} request.
+   */
+  public void edit_importElements(String requestId, String file, List<ImportedElements> elements, int offset) throws IOException {
+    writeHeader(requestId, "edit.importElements");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("elements").beginArray();
+    for (ImportedElements elt : elements) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.isPostfixCompletionApplicable} request.
+   */
+  public void edit_isPostfixCompletionApplicable(String requestId, String file, String key, int offset) throws IOException {
+    writeHeader(requestId, "edit.isPostfixCompletionApplicable");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("key").value(key);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.listPostfixCompletionTemplates} request.
+   */
+  public void edit_listPostfixCompletionTemplates(String requestId) throws IOException {
+    writeHeader(requestId, "edit.listPostfixCompletionTemplates");
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.organizeDirectives} request.
+   */
+  public void edit_organizeDirectives(String requestId, String file) throws IOException {
+    writeHeader(requestId, "edit.organizeDirectives");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code edit.sortMembers} request.
+   */
+  public void edit_sortMembers(String requestId, String file) throws IOException {
+    writeHeader(requestId, "edit.sortMembers");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code execution.createContext} request.
+   */
+  public void execution_createContext(String requestId, String contextRoot) throws IOException {
+    writeHeader(requestId, "execution.createContext");
+    writer.name("params").beginObject();
+    writer.name("contextRoot").value(contextRoot);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code execution.deleteContext} request.
+   */
+  public void execution_deleteContext(String requestId, String id) throws IOException {
+    writeHeader(requestId, "execution.deleteContext");
+    writer.name("params").beginObject();
+    writer.name("id").value(id);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code execution.getSuggestions} request.
+   */
+  public void execution_getSuggestions(String requestId, String code, int offset, String contextFile, int contextOffset, List<RuntimeCompletionVariable> variables, List<RuntimeCompletionExpression> expressions) throws IOException {
+    writeHeader(requestId, "execution.getSuggestions");
+    writer.name("params").beginObject();
+    writer.name("code").value(code);
+    writer.name("offset").value(offset);
+    writer.name("contextFile").value(contextFile);
+    writer.name("contextOffset").value(contextOffset);
+    writer.name("variables").beginArray();
+    for (RuntimeCompletionVariable elt : variables) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    if (expressions != null) {
+      writer.name("expressions").beginArray();
+      for (RuntimeCompletionExpression elt : expressions) {
+        elt.writeTo(writer);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code execution.mapUri} request.
+   */
+  public void execution_mapUri(String requestId, String id, String file, String uri) throws IOException {
+    writeHeader(requestId, "execution.mapUri");
+    writer.name("params").beginObject();
+    writer.name("id").value(id);
+    if (file != null) {
+      writer.name("file").value(file);
+    }
+    if (uri != null) {
+      writer.name("uri").value(uri);
+    }
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code execution.setSubscriptions} request.
+   */
+  public void execution_setSubscriptions(String requestId, List<String> subscriptions) throws IOException {
+    writeHeader(requestId, "execution.setSubscriptions");
+    writer.name("params").beginObject();
+    writer.name("subscriptions").beginArray();
+    for (String elt : subscriptions) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code flutter.getChangeAddForDesignTimeConstructor} request.
+   */
+  public void flutter_getChangeAddForDesignTimeConstructor(String requestId, String file, int offset) throws IOException {
+    writeHeader(requestId, "flutter.getChangeAddForDesignTimeConstructor");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code flutter.setSubscriptions} request.
+   */
+  public void flutter_setSubscriptions(String requestId, Map<String, List<String>> subscriptions) throws IOException {
+    writeHeader(requestId, "flutter.setSubscriptions");
+    writer.name("params").beginObject();
+    writer.name("subscriptions").beginObject();
+    for (Map.Entry<String, List<String>> entry : subscriptions.entrySet()) {
+      writer.name(entry.getKey()).beginArray();
+      for (String elt : entry.getValue()) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code kythe.getKytheEntries} request.
+   */
+  public void kythe_getKytheEntries(String requestId, String file) throws IOException {
+    writeHeader(requestId, "kythe.getKytheEntries");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code search.findElementReferences} request.
+   */
+  public void search_findElementReferences(String requestId, String file, int offset, boolean includePotential) throws IOException {
+    writeHeader(requestId, "search.findElementReferences");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("includePotential").value(includePotential);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code search.findMemberDeclarations} request.
+   */
+  public void search_findMemberDeclarations(String requestId, String name) throws IOException {
+    writeHeader(requestId, "search.findMemberDeclarations");
+    writer.name("params").beginObject();
+    writer.name("name").value(name);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code search.findMemberReferences} request.
+   */
+  public void search_findMemberReferences(String requestId, String name) throws IOException {
+    writeHeader(requestId, "search.findMemberReferences");
+    writer.name("params").beginObject();
+    writer.name("name").value(name);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code search.findTopLevelDeclarations} request.
+   */
+  public void search_findTopLevelDeclarations(String requestId, String pattern) throws IOException {
+    writeHeader(requestId, "search.findTopLevelDeclarations");
+    writer.name("params").beginObject();
+    writer.name("pattern").value(pattern);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code search.getElementDeclarations} request.
+   */
+  public void search_getElementDeclarations(String requestId, String file, String pattern, int maxResults) throws IOException {
+    writeHeader(requestId, "search.getElementDeclarations");
+    writer.name("params").beginObject();
+    if (file != null) {
+      writer.name("file").value(file);
+    }
+    if (pattern != null) {
+      writer.name("pattern").value(pattern);
+    }
+    writer.name("maxResults").value(maxResults);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code search.getTypeHierarchy} request.
+   */
+  public void search_getTypeHierarchy(String requestId, String file, int offset, boolean superOnly) throws IOException {
+    writeHeader(requestId, "search.getTypeHierarchy");
+    writer.name("params").beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("superOnly").value(superOnly);
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code server.getVersion} request.
+   */
+  public void server_getVersion(String requestId) throws IOException {
+    writeHeader(requestId, "server.getVersion");
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code server.setSubscriptions} request.
+   */
+  public void server_setSubscriptions(String requestId, List<String> subscriptions) throws IOException {
+    writeHeader(requestId, "server.setSubscriptions");
+    writer.name("params").beginObject();
+    writer.name("subscriptions").beginArray();
+    for (String elt : subscriptions) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+    writeFooter();
+  }
+
+  /**
+   * Write the {@code server.shutdown} request.
+   */
+  public void server_shutdown(String requestId) throws IOException {
+    writeHeader(requestId, "server.shutdown");
+    writeFooter();
+  }
+
+  /**
+   * Empty the buffers, replacing those that have grown larger than
+   * {@link #MAX_RETAINED_BUFFER_SIZE} so that their capacity is not retained.
+   */
+  private void resetBuffers() {
+    if (buffer != null) {
+      if (buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+        buffer = new CharArrayWriter();
+      } else {
+        buffer.reset();
+      }
+    }
+    if (binaryBuffer != null) {
+      if (binaryBuffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+        binaryBuffer = new ByteArrayOutputStream();
+      } else {
+        binaryBuffer.reset();
+      }
+    }
+  }
+
+  private void writeFooter() throws IOException {
+    writer.endObject();
+    if (out != null) {
+      buffer.writeTo(out);
+      out.write('\n');
+      out.flush();
+      resetBuffers();
+    } else if (binaryOut != null) {
+      writer.flush();
+      binaryBuffer.writeTo(binaryOut);
+      binaryOut.flush();
+      resetBuffers();
+    } else {
+      writer.flush();
+    }
+  }
+
+  private void writeHeader(String id, String method) throws IOException {
+    // discard anything left by a request whose encoding failed
+    resetBuffers();
+    if (out != null) {
+      writer = new JsonWriter(buffer);
+    } else if (binaryOut != null) {
+      writer = new CborWriter(binaryBuffer);
+    }
+    writer.beginObject();
+    writer.name("id").value(id);
+    writer.name("method").value(method);
+  }
+
+}
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -83,6 +86,34 @@ public class AddContentOverlay {
     return list;
   }
 
+  public static List<AddContentOverlay> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<AddContentOverlay> list = new ArrayList<AddContentOverlay>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static AddContentOverlay fromJson(JsonReader reader) throws IOException {
+    String type = null;
+    String content = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else if (fieldName.equals("content")) {
+        content = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new AddContentOverlay(content);
+  }
+
   /**
    * The new content of the file.
    */
@@ -121,4 +152,11 @@ public class AddContentOverlay {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("type").value(type);
+    writer.name("content").value(content);
+    writer.endObject();
+  }
+
 }
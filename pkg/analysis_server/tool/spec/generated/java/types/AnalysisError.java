@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -139,6 +142,52 @@ public class AnalysisError {
     return list;
   }
 
+  public static List<AnalysisError> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<AnalysisError> list = new ArrayList<AnalysisError>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static AnalysisError fromJson(JsonReader reader) throws IOException {
+    String severity = null;
+    String type = null;
+    Location location = null;
+    String message = null;
+    String correction = null;
+    String code = null;
+    String url = null;
+    Boolean hasFix = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("severity")) {
+        severity = reader.nextString();
+      } else if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else if (fieldName.equals("location")) {
+        location = Location.fromJson(reader);
+      } else if (fieldName.equals("message")) {
+        message = reader.nextString();
+      } else if (fieldName.equals("correction")) {
+        correction = reader.nextString();
+      } else if (fieldName.equals("code")) {
+        code = reader.nextString();
+      } else if (fieldName.equals("url")) {
+        url = reader.nextString();
+      } else if (fieldName.equals("hasFix")) {
+        hasFix = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new AnalysisError(severity, type, location, message, correction, code, url, hasFix);
+  }
+
   /**
    * The name, as a string, of the error code associated with this error.
    */
@@ -261,4 +310,24 @@ public class AnalysisError {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("severity").value(severity);
+    writer.name("type").value(type);
+    writer.name("location");
+    location.writeTo(writer);
+    writer.name("message").value(message);
+    if (correction != null) {
+      writer.name("correction").value(correction);
+    }
+    writer.name("code").value(code);
+    if (url != null) {
+      writer.name("url").value(url);
+    }
+    if (hasFix != null) {
+      writer.name("hasFix").value(hasFix);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class AnalysisErrorFixes {
     return list;
   }
 
+  public static List<AnalysisErrorFixes> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<AnalysisErrorFixes> list = new ArrayList<AnalysisErrorFixes>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static AnalysisErrorFixes fromJson(JsonReader reader) throws IOException {
+    AnalysisError error = null;
+    List<SourceChange> fixes = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("error")) {
+        error = AnalysisError.fromJson(reader);
+      } else if (fieldName.equals("fixes")) {
+        fixes = SourceChange.fromJsonArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new AnalysisErrorFixes(error, fixes);
+  }
+
   /**
    * The error with which the fixes are associated.
    */
@@ -127,4 +158,16 @@ public class AnalysisErrorFixes {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("error");
+    error.writeTo(writer);
+    writer.name("fixes").beginArray();
+    for (SourceChange elt : fixes) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
 }
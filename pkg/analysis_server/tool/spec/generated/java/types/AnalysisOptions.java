@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -143,6 +146,52 @@ public class AnalysisOptions {
     return list;
   }
 
+  public static List<AnalysisOptions> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<AnalysisOptions> list = new ArrayList<AnalysisOptions>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static AnalysisOptions fromJson(JsonReader reader) throws IOException {
+    Boolean enableAsync = null;
+    Boolean enableDeferredLoading = null;
+    Boolean enableEnums = null;
+    Boolean enableNullAwareOperators = null;
+    Boolean enableSuperMixins = null;
+    Boolean generateDart2jsHints = null;
+    Boolean generateHints = null;
+    Boolean generateLints = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("enableAsync")) {
+        enableAsync = reader.nextBoolean();
+      } else if (fieldName.equals("enableDeferredLoading")) {
+        enableDeferredLoading = reader.nextBoolean();
+      } else if (fieldName.equals("enableEnums")) {
+        enableEnums = reader.nextBoolean();
+      } else if (fieldName.equals("enableNullAwareOperators")) {
+        enableNullAwareOperators = reader.nextBoolean();
+      } else if (fieldName.equals("enableSuperMixins")) {
+        enableSuperMixins = reader.nextBoolean();
+      } else if (fieldName.equals("generateDart2jsHints")) {
+        generateDart2jsHints = reader.nextBoolean();
+      } else if (fieldName.equals("generateHints")) {
+        generateHints = reader.nextBoolean();
+      } else if (fieldName.equals("generateLints")) {
+        generateLints = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new AnalysisOptions(enableAsync, enableDeferredLoading, enableEnums, enableNullAwareOperators, enableSuperMixins, generateDart2jsHints, generateHints, generateLints);
+  }
+
   /**
    * Deprecated: this feature is always enabled.
    *
@@ -276,4 +325,33 @@ public class AnalysisOptions {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    if (enableAsync != null) {
+      writer.name("enableAsync").value(enableAsync);
+    }
+    if (enableDeferredLoading != null) {
+      writer.name("enableDeferredLoading").value(enableDeferredLoading);
+    }
+    if (enableEnums != null) {
+      writer.name("enableEnums").value(enableEnums);
+    }
+    if (enableNullAwareOperators != null) {
+      writer.name("enableNullAwareOperators").value(enableNullAwareOperators);
+    }
+    if (enableSuperMixins != null) {
+      writer.name("enableSuperMixins").value(enableSuperMixins);
+    }
+    if (generateDart2jsHints != null) {
+      writer.name("generateDart2jsHints").value(generateDart2jsHints);
+    }
+    if (generateHints != null) {
+      writer.name("generateHints").value(generateHints);
+    }
+    if (generateLints != null) {
+      writer.name("generateLints").value(generateLints);
+    }
+    writer.endObject();
+  }
+
 }
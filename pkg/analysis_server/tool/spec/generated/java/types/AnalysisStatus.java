@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class AnalysisStatus {
     return list;
   }
 
+  public static List<AnalysisStatus> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<AnalysisStatus> list = new ArrayList<AnalysisStatus>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static AnalysisStatus fromJson(JsonReader reader) throws IOException {
+    boolean isAnalyzing = false;
+    String analysisTarget = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("isAnalyzing")) {
+        isAnalyzing = reader.nextBoolean();
+      } else if (fieldName.equals("analysisTarget")) {
+        analysisTarget = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new AnalysisStatus(isAnalyzing, analysisTarget);
+  }
+
   /**
    * The name of the current target of analysis. This field is omitted if analyzing is false.
    */
@@ -125,4 +156,13 @@ public class AnalysisStatus {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("isAnalyzing").value(isAnalyzing);
+    if (analysisTarget != null) {
+      writer.name("analysisTarget").value(analysisTarget);
+    }
+    writer.endObject();
+  }
+
 }
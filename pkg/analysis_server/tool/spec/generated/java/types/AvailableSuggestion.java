@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -154,6 +157,58 @@ public class AvailableSuggestion {
     return list;
   }
 
+  public static List<AvailableSuggestion> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<AvailableSuggestion> list = new ArrayList<AvailableSuggestion>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static AvailableSuggestion fromJson(JsonReader reader) throws IOException {
+    String label = null;
+    Element element = null;
+    String defaultArgumentListString = null;
+    int[] defaultArgumentListTextRanges = null;
+    String docComplete = null;
+    String docSummary = null;
+    List<String> parameterNames = null;
+    List<String> parameterTypes = null;
+    List<String> relevanceTags = null;
+    Integer requiredParameterCount = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("label")) {
+        label = reader.nextString();
+      } else if (fieldName.equals("element")) {
+        element = Element.fromJson(reader);
+      } else if (fieldName.equals("defaultArgumentListString")) {
+        defaultArgumentListString = reader.nextString();
+      } else if (fieldName.equals("defaultArgumentListTextRanges")) {
+        defaultArgumentListTextRanges = readIntArray(reader);
+      } else if (fieldName.equals("docComplete")) {
+        docComplete = reader.nextString();
+      } else if (fieldName.equals("docSummary")) {
+        docSummary = reader.nextString();
+      } else if (fieldName.equals("parameterNames")) {
+        parameterNames = readStringList(reader);
+      } else if (fieldName.equals("parameterTypes")) {
+        parameterTypes = readStringList(reader);
+      } else if (fieldName.equals("relevanceTags")) {
+        relevanceTags = readStringList(reader);
+      } else if (fieldName.equals("requiredParameterCount")) {
+        requiredParameterCount = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new AvailableSuggestion(label, element, defaultArgumentListString, defaultArgumentListTextRanges, docComplete, docSummary, parameterNames, parameterTypes, relevanceTags, requiredParameterCount);
+  }
+
   /**
    * A default String for use in generating argument list source contents on the client side.
    */
@@ -322,4 +377,76 @@ public class AvailableSuggestion {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("label").value(label);
+    writer.name("element");
+    element.writeTo(writer);
+    if (defaultArgumentListString != null) {
+      writer.name("defaultArgumentListString").value(defaultArgumentListString);
+    }
+    if (defaultArgumentListTextRanges != null) {
+      writer.name("defaultArgumentListTextRanges").beginArray();
+      for (int elt : defaultArgumentListTextRanges) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (docComplete != null) {
+      writer.name("docComplete").value(docComplete);
+    }
+    if (docSummary != null) {
+      writer.name("docSummary").value(docSummary);
+    }
+    if (parameterNames != null) {
+      writer.name("parameterNames").beginArray();
+      for (String elt : parameterNames) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (parameterTypes != null) {
+      writer.name("parameterTypes").beginArray();
+      for (String elt : parameterTypes) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (relevanceTags != null) {
+      writer.name("relevanceTags").beginArray();
+      for (String elt : relevanceTags) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (requiredParameterCount != null) {
+      writer.name("requiredParameterCount").value(requiredParameterCount);
+    }
+    writer.endObject();
+  }
+
+  private static int[] readIntArray(JsonReader reader) throws IOException {
+    int[] values = new int[8];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = reader.nextInt();
+    }
+    reader.endArray();
+    return count == values.length ? values : Arrays.copyOf(values, count);
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
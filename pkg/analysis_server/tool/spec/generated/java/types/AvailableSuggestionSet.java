@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -85,6 +88,37 @@ public class AvailableSuggestionSet {
     return list;
   }
 
+  public static List<AvailableSuggestionSet> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<AvailableSuggestionSet> list = new ArrayList<AvailableSuggestionSet>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static AvailableSuggestionSet fromJson(JsonReader reader) throws IOException {
+    int id = 0;
+    String uri = null;
+    List<AvailableSuggestion> items = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("id")) {
+        id = reader.nextInt();
+      } else if (fieldName.equals("uri")) {
+        uri = reader.nextString();
+      } else if (fieldName.equals("items")) {
+        items = AvailableSuggestion.fromJsonArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new AvailableSuggestionSet(id, uri, items);
+  }
+
   /**
    * The id associated with the library.
    */
@@ -138,4 +172,16 @@ public class AvailableSuggestionSet {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("id").value(id);
+    writer.name("uri").value(uri);
+    writer.name("items").beginArray();
+    for (AvailableSuggestion elt : items) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
 }
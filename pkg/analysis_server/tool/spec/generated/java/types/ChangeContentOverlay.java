@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -89,6 +92,34 @@ public class ChangeContentOverlay {
     return list;
   }
 
+  public static List<ChangeContentOverlay> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ChangeContentOverlay> list = new ArrayList<ChangeContentOverlay>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ChangeContentOverlay fromJson(JsonReader reader) throws IOException {
+    String type = null;
+    List<SourceEdit> edits = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else if (fieldName.equals("edits")) {
+        edits = SourceEdit.fromJsonArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ChangeContentOverlay(edits);
+  }
+
   /**
    * The edits to be applied to the file.
    */
@@ -131,4 +162,15 @@ public class ChangeContentOverlay {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("type").value(type);
+    writer.name("edits").beginArray();
+    for (SourceEdit elt : edits) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -93,6 +96,37 @@ public class ClosingLabel {
     return list;
   }
 
+  public static List<ClosingLabel> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ClosingLabel> list = new ArrayList<ClosingLabel>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ClosingLabel fromJson(JsonReader reader) throws IOException {
+    int offset = 0;
+    int length = 0;
+    String label = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("label")) {
+        label = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ClosingLabel(offset, length, label);
+  }
+
   /**
    * The label associated with this range that should be displayed to the user.
    */
@@ -145,4 +179,12 @@ public class ClosingLabel {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("label").value(label);
+    writer.endObject();
+  }
+
 }
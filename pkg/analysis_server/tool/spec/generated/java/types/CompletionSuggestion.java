@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -254,6 +257,91 @@ public class CompletionSuggestion {
     return list;
   }
 
+  public static List<CompletionSuggestion> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<CompletionSuggestion> list = new ArrayList<CompletionSuggestion>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static CompletionSuggestion fromJson(JsonReader reader) throws IOException {
+    String kind = null;
+    int relevance = 0;
+    String completion = null;
+    String displayText = null;
+    int selectionOffset = 0;
+    int selectionLength = 0;
+    boolean isDeprecated = false;
+    boolean isPotential = false;
+    String docSummary = null;
+    String docComplete = null;
+    String declaringType = null;
+    String defaultArgumentListString = null;
+    int[] defaultArgumentListTextRanges = null;
+    Element element = null;
+    String returnType = null;
+    List<String> parameterNames = null;
+    List<String> parameterTypes = null;
+    Integer requiredParameterCount = null;
+    Boolean hasNamedParameters = null;
+    String parameterName = null;
+    String parameterType = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("relevance")) {
+        relevance = reader.nextInt();
+      } else if (fieldName.equals("completion")) {
+        completion = reader.nextString();
+      } else if (fieldName.equals("displayText")) {
+        displayText = reader.nextString();
+      } else if (fieldName.equals("selectionOffset")) {
+        selectionOffset = reader.nextInt();
+      } else if (fieldName.equals("selectionLength")) {
+        selectionLength = reader.nextInt();
+      } else if (fieldName.equals("isDeprecated")) {
+        isDeprecated = reader.nextBoolean();
+      } else if (fieldName.equals("isPotential")) {
+        isPotential = reader.nextBoolean();
+      } else if (fieldName.equals("docSummary")) {
+        docSummary = reader.nextString();
+      } else if (fieldName.equals("docComplete")) {
+        docComplete = reader.nextString();
+      } else if (fieldName.equals("declaringType")) {
+        declaringType = reader.nextString();
+      } else if (fieldName.equals("defaultArgumentListString")) {
+        defaultArgumentListString = reader.nextString();
+      } else if (fieldName.equals("defaultArgumentListTextRanges")) {
+        defaultArgumentListTextRanges = readIntArray(reader);
+      } else if (fieldName.equals("element")) {
+        element = Element.fromJson(reader);
+      } else if (fieldName.equals("returnType")) {
+        returnType = reader.nextString();
+      } else if (fieldName.equals("parameterNames")) {
+        parameterNames = readStringList(reader);
+      } else if (fieldName.equals("parameterTypes")) {
+        parameterTypes = readStringList(reader);
+      } else if (fieldName.equals("requiredParameterCount")) {
+        requiredParameterCount = reader.nextInt();
+      } else if (fieldName.equals("hasNamedParameters")) {
+        hasNamedParameters = reader.nextBoolean();
+      } else if (fieldName.equals("parameterName")) {
+        parameterName = reader.nextString();
+      } else if (fieldName.equals("parameterType")) {
+        parameterType = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new CompletionSuggestion(kind, relevance, completion, displayText, selectionOffset, selectionLength, isDeprecated, isPotential, docSummary, docComplete, declaringType, defaultArgumentListString, defaultArgumentListTextRanges, element, returnType, parameterNames, parameterTypes, requiredParameterCount, hasNamedParameters, parameterName, parameterType);
+  }
+
   /**
    * The identifier to be inserted if the suggestion is selected. If the suggestion is for a method
    * or function, the client might want to additionally insert a template for the parameters. The
@@ -563,4 +651,95 @@ public class CompletionSuggestion {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("kind").value(kind);
+    writer.name("relevance").value(relevance);
+    writer.name("completion").value(completion);
+    if (displayText != null) {
+      writer.name("displayText").value(displayText);
+    }
+    writer.name("selectionOffset").value(selectionOffset);
+    writer.name("selectionLength").value(selectionLength);
+    writer.name("isDeprecated").value(isDeprecated);
+    writer.name("isPotential").value(isPotential);
+    if (docSummary != null) {
+      writer.name("docSummary").value(docSummary);
+    }
+    if (docComplete != null) {
+      writer.name("docComplete").value(docComplete);
+    }
+    if (declaringType != null) {
+      writer.name("declaringType").value(declaringType);
+    }
+    if (defaultArgumentListString != null) {
+      writer.name("defaultArgumentListString").value(defaultArgumentListString);
+    }
+    if (defaultArgumentListTextRanges != null) {
+      writer.name("defaultArgumentListTextRanges").beginArray();
+      for (int elt : defaultArgumentListTextRanges) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (element != null) {
+      writer.name("element");
+      element.writeTo(writer);
+    }
+    if (returnType != null) {
+      writer.name("returnType").value(returnType);
+    }
+    if (parameterNames != null) {
+      writer.name("parameterNames").beginArray();
+      for (String elt : parameterNames) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (parameterTypes != null) {
+      writer.name("parameterTypes").beginArray();
+      for (String elt : parameterTypes) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (requiredParameterCount != null) {
+      writer.name("requiredParameterCount").value(requiredParameterCount);
+    }
+    if (hasNamedParameters != null) {
+      writer.name("hasNamedParameters").value(hasNamedParameters);
+    }
+    if (parameterName != null) {
+      writer.name("parameterName").value(parameterName);
+    }
+    if (parameterType != null) {
+      writer.name("parameterType").value(parameterType);
+    }
+    writer.endObject();
+  }
+
+  private static int[] readIntArray(JsonReader reader) throws IOException {
+    int[] values = new int[8];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = reader.nextInt();
+    }
+    reader.endArray();
+    return count == values.length ? values : Arrays.copyOf(values, count);
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -106,6 +109,43 @@ public class ContextData {
     return list;
   }
 
+  public static List<ContextData> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ContextData> list = new ArrayList<ContextData>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ContextData fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    int explicitFileCount = 0;
+    int implicitFileCount = 0;
+    int workItemQueueLength = 0;
+    List<String> cacheEntryExceptions = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("explicitFileCount")) {
+        explicitFileCount = reader.nextInt();
+      } else if (fieldName.equals("implicitFileCount")) {
+        implicitFileCount = reader.nextInt();
+      } else if (fieldName.equals("workItemQueueLength")) {
+        workItemQueueLength = reader.nextInt();
+      } else if (fieldName.equals("cacheEntryExceptions")) {
+        cacheEntryExceptions = readStringList(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ContextData(name, explicitFileCount, implicitFileCount, workItemQueueLength, cacheEntryExceptions);
+  }
+
   /**
    * Exceptions associated with cache entries.
    */
@@ -184,4 +224,28 @@ public class ContextData {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.name("explicitFileCount").value(explicitFileCount);
+    writer.name("implicitFileCount").value(implicitFileCount);
+    writer.name("workItemQueueLength").value(workItemQueueLength);
+    writer.name("cacheEntryExceptions").beginArray();
+    for (String elt : cacheEntryExceptions) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -90,6 +93,37 @@ public class DartFix {
     return list;
   }
 
+  public static List<DartFix> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<DartFix> list = new ArrayList<DartFix>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static DartFix fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    String description = null;
+    Boolean isRequired = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("description")) {
+        description = reader.nextString();
+      } else if (fieldName.equals("isRequired")) {
+        isRequired = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new DartFix(name, description, isRequired);
+  }
+
   /**
    * A human readable description of the fix.
    */
@@ -146,4 +180,16 @@ public class DartFix {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    if (description != null) {
+      writer.name("description").value(description);
+    }
+    if (isRequired != null) {
+      writer.name("isRequired").value(isRequired);
+    }
+    writer.endObject();
+  }
+
 }
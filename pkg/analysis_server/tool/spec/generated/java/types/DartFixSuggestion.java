@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class DartFixSuggestion {
     return list;
   }
 
+  public static List<DartFixSuggestion> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<DartFixSuggestion> list = new ArrayList<DartFixSuggestion>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static DartFixSuggestion fromJson(JsonReader reader) throws IOException {
+    String description = null;
+    Location location = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("description")) {
+        description = reader.nextString();
+      } else if (fieldName.equals("location")) {
+        location = Location.fromJson(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new DartFixSuggestion(description, location);
+  }
+
   /**
    * A human readable description of the suggested change.
    */
@@ -125,4 +156,14 @@ public class DartFixSuggestion {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("description").value(description);
+    if (location != null) {
+      writer.name("location");
+      location.writeTo(writer);
+    }
+    writer.endObject();
+  }
+
 }
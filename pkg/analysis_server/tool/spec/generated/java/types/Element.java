@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -146,6 +149,49 @@ public class Element {
     return list;
   }
 
+  public static List<Element> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<Element> list = new ArrayList<Element>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static Element fromJson(JsonReader reader) throws IOException {
+    String kind = null;
+    String name = null;
+    Location location = null;
+    int flags = 0;
+    String parameters = null;
+    String returnType = null;
+    String typeParameters = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("location")) {
+        location = Location.fromJson(reader);
+      } else if (fieldName.equals("flags")) {
+        flags = reader.nextInt();
+      } else if (fieldName.equals("parameters")) {
+        parameters = reader.nextString();
+      } else if (fieldName.equals("returnType")) {
+        returnType = reader.nextString();
+      } else if (fieldName.equals("typeParameters")) {
+        typeParameters = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new Element(kind, name, location, flags, parameters, returnType, typeParameters);
+  }
+
   /**
    * A bit-map containing the following flags:
    *
@@ -286,4 +332,25 @@ public class Element {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("kind").value(kind);
+    writer.name("name").value(name);
+    if (location != null) {
+      writer.name("location");
+      location.writeTo(writer);
+    }
+    writer.name("flags").value(flags);
+    if (parameters != null) {
+      writer.name("parameters").value(parameters);
+    }
+    if (returnType != null) {
+      writer.name("returnType").value(returnType);
+    }
+    if (typeParameters != null) {
+      writer.name("typeParameters").value(typeParameters);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -160,6 +163,61 @@ public class ElementDeclaration {
     return list;
   }
 
+  public static List<ElementDeclaration> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ElementDeclaration> list = new ArrayList<ElementDeclaration>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ElementDeclaration fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    String kind = null;
+    int fileIndex = 0;
+    int offset = 0;
+    int line = 0;
+    int column = 0;
+    int codeOffset = 0;
+    int codeLength = 0;
+    String className = null;
+    String mixinName = null;
+    String parameters = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("fileIndex")) {
+        fileIndex = reader.nextInt();
+      } else if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("line")) {
+        line = reader.nextInt();
+      } else if (fieldName.equals("column")) {
+        column = reader.nextInt();
+      } else if (fieldName.equals("codeOffset")) {
+        codeOffset = reader.nextInt();
+      } else if (fieldName.equals("codeLength")) {
+        codeLength = reader.nextInt();
+      } else if (fieldName.equals("className")) {
+        className = reader.nextString();
+      } else if (fieldName.equals("mixinName")) {
+        mixinName = reader.nextString();
+      } else if (fieldName.equals("parameters")) {
+        parameters = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ElementDeclaration(name, kind, fileIndex, offset, line, column, codeOffset, codeLength, className, mixinName, parameters);
+  }
+
   /**
    * The name of the class enclosing this declaration. If the declaration is not a class member, this
    * field will be absent.
@@ -312,4 +370,26 @@ public class ElementDeclaration {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.name("kind").value(kind);
+    writer.name("fileIndex").value(fileIndex);
+    writer.name("offset").value(offset);
+    writer.name("line").value(line);
+    writer.name("column").value(column);
+    writer.name("codeOffset").value(codeOffset);
+    writer.name("codeLength").value(codeLength);
+    if (className != null) {
+      writer.name("className").value(className);
+    }
+    if (mixinName != null) {
+      writer.name("mixinName").value(mixinName);
+    }
+    if (parameters != null) {
+      writer.name("parameters").value(parameters);
+    }
+    writer.endObject();
+  }
+
 }
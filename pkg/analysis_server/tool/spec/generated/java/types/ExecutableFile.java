@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class ExecutableFile {
     return list;
   }
 
+  public static List<ExecutableFile> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ExecutableFile> list = new ArrayList<ExecutableFile>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ExecutableFile fromJson(JsonReader reader) throws IOException {
+    String file = null;
+    String kind = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("file")) {
+        file = reader.nextString();
+      } else if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ExecutableFile(file, kind);
+  }
+
   /**
    * The path of the executable file.
    */
@@ -123,4 +154,11 @@ public class ExecutableFile {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("file").value(file);
+    writer.name("kind").value(kind);
+    writer.endObject();
+  }
+
 }
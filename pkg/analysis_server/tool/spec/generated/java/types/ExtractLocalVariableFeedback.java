@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -108,6 +111,43 @@ public class ExtractLocalVariableFeedback extends RefactoringFeedback {
     return list;
   }
 
+  public static List<ExtractLocalVariableFeedback> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ExtractLocalVariableFeedback> list = new ArrayList<ExtractLocalVariableFeedback>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ExtractLocalVariableFeedback fromJson(JsonReader reader) throws IOException {
+    int[] coveringExpressionOffsets = null;
+    int[] coveringExpressionLengths = null;
+    List<String> names = null;
+    int[] offsets = null;
+    int[] lengths = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("coveringExpressionOffsets")) {
+        coveringExpressionOffsets = readIntArray(reader);
+      } else if (fieldName.equals("coveringExpressionLengths")) {
+        coveringExpressionLengths = readIntArray(reader);
+      } else if (fieldName.equals("names")) {
+        names = readStringList(reader);
+      } else if (fieldName.equals("offsets")) {
+        offsets = readIntArray(reader);
+      } else if (fieldName.equals("lengths")) {
+        lengths = readIntArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ExtractLocalVariableFeedback(coveringExpressionOffsets, coveringExpressionLengths, names, offsets, lengths);
+  }
+
   /**
    * The lengths of the expressions that cover the specified selection, from the down most to the up
    * most.
@@ -210,4 +250,62 @@ public class ExtractLocalVariableFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    if (coveringExpressionOffsets != null) {
+      writer.name("coveringExpressionOffsets").beginArray();
+      for (int elt : coveringExpressionOffsets) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    if (coveringExpressionLengths != null) {
+      writer.name("coveringExpressionLengths").beginArray();
+      for (int elt : coveringExpressionLengths) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.name("names").beginArray();
+    for (String elt : names) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("offsets").beginArray();
+    for (int elt : offsets) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("lengths").beginArray();
+    for (int elt : lengths) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  private static int[] readIntArray(JsonReader reader) throws IOException {
+    int[] values = new int[8];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = reader.nextInt();
+    }
+    reader.endArray();
+    return count == values.length ? values : Arrays.copyOf(values, count);
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class ExtractLocalVariableOptions extends RefactoringOptions {
     return list;
   }
 
+  public static List<ExtractLocalVariableOptions> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ExtractLocalVariableOptions> list = new ArrayList<ExtractLocalVariableOptions>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ExtractLocalVariableOptions fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    boolean extractAll = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("extractAll")) {
+        extractAll = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ExtractLocalVariableOptions(name, extractAll);
+  }
+
   /**
    * True if all occurrences of the expression within the scope in which the variable will be defined
    * should be replaced by a reference to the local variable. The expression used to initiate the
@@ -141,4 +172,11 @@ public class ExtractLocalVariableOptions extends RefactoringOptions {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.name("extractAll").value(extractAll);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -133,6 +136,52 @@ public class ExtractMethodFeedback extends RefactoringFeedback {
     return list;
   }
 
+  public static List<ExtractMethodFeedback> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ExtractMethodFeedback> list = new ArrayList<ExtractMethodFeedback>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ExtractMethodFeedback fromJson(JsonReader reader) throws IOException {
+    int offset = 0;
+    int length = 0;
+    String returnType = null;
+    List<String> names = null;
+    boolean canCreateGetter = false;
+    List<RefactoringMethodParameter> parameters = null;
+    int[] offsets = null;
+    int[] lengths = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("returnType")) {
+        returnType = reader.nextString();
+      } else if (fieldName.equals("names")) {
+        names = readStringList(reader);
+      } else if (fieldName.equals("canCreateGetter")) {
+        canCreateGetter = reader.nextBoolean();
+      } else if (fieldName.equals("parameters")) {
+        parameters = RefactoringMethodParameter.fromJsonArray(reader);
+      } else if (fieldName.equals("offsets")) {
+        offsets = readIntArray(reader);
+      } else if (fieldName.equals("lengths")) {
+        lengths = readIntArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ExtractMethodFeedback(offset, length, returnType, names, canCreateGetter, parameters, offsets, lengths);
+  }
+
   /**
    * True if a getter could be created rather than a method.
    */
@@ -261,4 +310,57 @@ public class ExtractMethodFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("returnType").value(returnType);
+    writer.name("names").beginArray();
+    for (String elt : names) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("canCreateGetter").value(canCreateGetter);
+    writer.name("parameters").beginArray();
+    for (RefactoringMethodParameter elt : parameters) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.name("offsets").beginArray();
+    for (int elt : offsets) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("lengths").beginArray();
+    for (int elt : lengths) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  private static int[] readIntArray(JsonReader reader) throws IOException {
+    int[] values = new int[8];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = reader.nextInt();
+    }
+    reader.endArray();
+    return count == values.length ? values : Arrays.copyOf(values, count);
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -115,6 +118,43 @@ public class ExtractMethodOptions extends RefactoringOptions {
     return list;
   }
 
+  public static List<ExtractMethodOptions> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ExtractMethodOptions> list = new ArrayList<ExtractMethodOptions>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ExtractMethodOptions fromJson(JsonReader reader) throws IOException {
+    String returnType = null;
+    boolean createGetter = false;
+    String name = null;
+    List<RefactoringMethodParameter> parameters = null;
+    boolean extractAll = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("returnType")) {
+        returnType = reader.nextString();
+      } else if (fieldName.equals("createGetter")) {
+        createGetter = reader.nextBoolean();
+      } else if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("parameters")) {
+        parameters = RefactoringMethodParameter.fromJsonArray(reader);
+      } else if (fieldName.equals("extractAll")) {
+        extractAll = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ExtractMethodOptions(returnType, createGetter, name, parameters, extractAll);
+  }
+
   /**
    * True if a getter should be created rather than a method. It is an error if this field is true
    * and the list of parameters is non-empty.
@@ -250,4 +290,18 @@ public class ExtractMethodOptions extends RefactoringOptions {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("returnType").value(returnType);
+    writer.name("createGetter").value(createGetter);
+    writer.name("name").value(name);
+    writer.name("parameters").beginArray();
+    for (RefactoringMethodParameter elt : parameters) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.name("extractAll").value(extractAll);
+    writer.endObject();
+  }
+
 }
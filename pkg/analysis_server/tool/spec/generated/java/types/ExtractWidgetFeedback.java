@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -65,6 +68,26 @@ public class ExtractWidgetFeedback extends RefactoringFeedback {
     return list;
   }
 
+  public static List<ExtractWidgetFeedback> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ExtractWidgetFeedback> list = new ArrayList<ExtractWidgetFeedback>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ExtractWidgetFeedback fromJson(JsonReader reader) throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      reader.skipValue();
+    }
+    reader.endObject();
+    return new ExtractWidgetFeedback();
+  }
+
   @Override
   public int hashCode() {
     HashCodeBuilder builder = new HashCodeBuilder();
@@ -84,4 +107,9 @@ public class ExtractWidgetFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -72,6 +75,31 @@ public class ExtractWidgetOptions extends RefactoringOptions {
     return list;
   }
 
+  public static List<ExtractWidgetOptions> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ExtractWidgetOptions> list = new ArrayList<ExtractWidgetOptions>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ExtractWidgetOptions fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ExtractWidgetOptions(name);
+  }
+
   /**
    * The name that the widget class should be given.
    */
@@ -109,4 +137,10 @@ public class ExtractWidgetOptions extends RefactoringOptions {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.endObject();
+  }
+
 }
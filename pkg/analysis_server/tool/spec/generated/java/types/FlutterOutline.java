@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -225,6 +228,82 @@ public class FlutterOutline {
     return list;
   }
 
+  public static List<FlutterOutline> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<FlutterOutline> list = new ArrayList<FlutterOutline>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static FlutterOutline fromJson(JsonReader reader) throws IOException {
+    String kind = null;
+    int offset = 0;
+    int length = 0;
+    int codeOffset = 0;
+    int codeLength = 0;
+    String label = null;
+    Element dartElement = null;
+    List<FlutterOutlineAttribute> attributes = null;
+    String className = null;
+    String parentAssociationLabel = null;
+    String variableName = null;
+    List<FlutterOutline> children = null;
+    Integer id = null;
+    Boolean isWidgetClass = null;
+    String renderConstructor = null;
+    String stateClassName = null;
+    Integer stateOffset = null;
+    Integer stateLength = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("codeOffset")) {
+        codeOffset = reader.nextInt();
+      } else if (fieldName.equals("codeLength")) {
+        codeLength = reader.nextInt();
+      } else if (fieldName.equals("label")) {
+        label = reader.nextString();
+      } else if (fieldName.equals("dartElement")) {
+        dartElement = Element.fromJson(reader);
+      } else if (fieldName.equals("attributes")) {
+        attributes = FlutterOutlineAttribute.fromJsonArray(reader);
+      } else if (fieldName.equals("className")) {
+        className = reader.nextString();
+      } else if (fieldName.equals("parentAssociationLabel")) {
+        parentAssociationLabel = reader.nextString();
+      } else if (fieldName.equals("variableName")) {
+        variableName = reader.nextString();
+      } else if (fieldName.equals("children")) {
+        children = FlutterOutline.fromJsonArray(reader);
+      } else if (fieldName.equals("id")) {
+        id = reader.nextInt();
+      } else if (fieldName.equals("isWidgetClass")) {
+        isWidgetClass = reader.nextBoolean();
+      } else if (fieldName.equals("renderConstructor")) {
+        renderConstructor = reader.nextString();
+      } else if (fieldName.equals("stateClassName")) {
+        stateClassName = reader.nextString();
+      } else if (fieldName.equals("stateOffset")) {
+        stateOffset = reader.nextInt();
+      } else if (fieldName.equals("stateLength")) {
+        stateLength = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new FlutterOutline(kind, offset, length, codeOffset, codeLength, label, dartElement, attributes, className, parentAssociationLabel, variableName, children, id, isWidgetClass, renderConstructor, stateClassName, stateOffset, stateLength);
+  }
+
   /**
    * Additional attributes for this node, which might be interesting to display on the client. These
    * attributes are usually arguments for the instance creation or the invocation that created the
@@ -491,4 +570,62 @@ public class FlutterOutline {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("kind").value(kind);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("codeOffset").value(codeOffset);
+    writer.name("codeLength").value(codeLength);
+    if (label != null) {
+      writer.name("label").value(label);
+    }
+    if (dartElement != null) {
+      writer.name("dartElement");
+      dartElement.writeTo(writer);
+    }
+    if (attributes != null) {
+      writer.name("attributes").beginArray();
+      for (FlutterOutlineAttribute elt : attributes) {
+        elt.writeTo(writer);
+      }
+      writer.endArray();
+    }
+    if (className != null) {
+      writer.name("className").value(className);
+    }
+    if (parentAssociationLabel != null) {
+      writer.name("parentAssociationLabel").value(parentAssociationLabel);
+    }
+    if (variableName != null) {
+      writer.name("variableName").value(variableName);
+    }
+    if (children != null) {
+      writer.name("children").beginArray();
+      for (FlutterOutline elt : children) {
+        elt.writeTo(writer);
+      }
+      writer.endArray();
+    }
+    if (id != null) {
+      writer.name("id").value(id);
+    }
+    if (isWidgetClass != null) {
+      writer.name("isWidgetClass").value(isWidgetClass);
+    }
+    if (renderConstructor != null) {
+      writer.name("renderConstructor").value(renderConstructor);
+    }
+    if (stateClassName != null) {
+      writer.name("stateClassName").value(stateClassName);
+    }
+    if (stateOffset != null) {
+      writer.name("stateOffset").value(stateOffset);
+    }
+    if (stateLength != null) {
+      writer.name("stateLength").value(stateLength);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -110,6 +113,43 @@ public class FlutterOutlineAttribute {
     return list;
   }
 
+  public static List<FlutterOutlineAttribute> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<FlutterOutlineAttribute> list = new ArrayList<FlutterOutlineAttribute>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static FlutterOutlineAttribute fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    String label = null;
+    Boolean literalValueBoolean = null;
+    Integer literalValueInteger = null;
+    String literalValueString = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("label")) {
+        label = reader.nextString();
+      } else if (fieldName.equals("literalValueBoolean")) {
+        literalValueBoolean = reader.nextBoolean();
+      } else if (fieldName.equals("literalValueInteger")) {
+        literalValueInteger = reader.nextInt();
+      } else if (fieldName.equals("literalValueString")) {
+        literalValueString = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new FlutterOutlineAttribute(name, label, literalValueBoolean, literalValueInteger, literalValueString);
+  }
+
   /**
    * The label of the attribute value, usually the Dart code. It might be quite long, the client
    * should abbreviate as needed.
@@ -194,4 +234,20 @@ public class FlutterOutlineAttribute {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.name("label").value(label);
+    if (literalValueBoolean != null) {
+      writer.name("literalValueBoolean").value(literalValueBoolean);
+    }
+    if (literalValueInteger != null) {
+      writer.name("literalValueInteger").value(literalValueInteger);
+    }
+    if (literalValueString != null) {
+      writer.name("literalValueString").value(literalValueString);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -90,6 +93,37 @@ public class FoldingRegion {
     return list;
   }
 
+  public static List<FoldingRegion> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<FoldingRegion> list = new ArrayList<FoldingRegion>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static FoldingRegion fromJson(JsonReader reader) throws IOException {
+    String kind = null;
+    int offset = 0;
+    int length = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new FoldingRegion(kind, offset, length);
+  }
+
   /**
    * The kind of the region.
    */
@@ -142,4 +176,12 @@ public class FoldingRegion {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("kind").value(kind);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.endObject();
+  }
+
 }
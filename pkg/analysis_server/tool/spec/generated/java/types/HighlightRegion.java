@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -94,6 +97,37 @@ public class HighlightRegion {
     return list;
   }
 
+  public static List<HighlightRegion> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<HighlightRegion> list = new ArrayList<HighlightRegion>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static HighlightRegion fromJson(JsonReader reader) throws IOException {
+    String type = null;
+    int offset = 0;
+    int length = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new HighlightRegion(type, offset, length);
+  }
+
   /**
    * The length of the region to be highlighted.
    */
@@ -146,4 +180,12 @@ public class HighlightRegion {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("type").value(type);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -176,6 +179,64 @@ public class HoverInformation {
     return list;
   }
 
+  public static List<HoverInformation> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<HoverInformation> list = new ArrayList<HoverInformation>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static HoverInformation fromJson(JsonReader reader) throws IOException {
+    int offset = 0;
+    int length = 0;
+    String containingLibraryPath = null;
+    String containingLibraryName = null;
+    String containingClassDescription = null;
+    String dartdoc = null;
+    String elementDescription = null;
+    String elementKind = null;
+    Boolean isDeprecated = null;
+    String parameter = null;
+    String propagatedType = null;
+    String staticType = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("containingLibraryPath")) {
+        containingLibraryPath = reader.nextString();
+      } else if (fieldName.equals("containingLibraryName")) {
+        containingLibraryName = reader.nextString();
+      } else if (fieldName.equals("containingClassDescription")) {
+        containingClassDescription = reader.nextString();
+      } else if (fieldName.equals("dartdoc")) {
+        dartdoc = reader.nextString();
+      } else if (fieldName.equals("elementDescription")) {
+        elementDescription = reader.nextString();
+      } else if (fieldName.equals("elementKind")) {
+        elementKind = reader.nextString();
+      } else if (fieldName.equals("isDeprecated")) {
+        isDeprecated = reader.nextBoolean();
+      } else if (fieldName.equals("parameter")) {
+        parameter = reader.nextString();
+      } else if (fieldName.equals("propagatedType")) {
+        propagatedType = reader.nextString();
+      } else if (fieldName.equals("staticType")) {
+        staticType = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new HoverInformation(offset, length, containingLibraryPath, containingLibraryName, containingClassDescription, dartdoc, elementDescription, elementKind, isDeprecated, parameter, propagatedType, staticType);
+  }
+
   /**
    * A human-readable description of the class declaring the element being referenced. This data is
    * omitted if there is no referenced element, or if the element is not a class member.
@@ -361,4 +422,41 @@ public class HoverInformation {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    if (containingLibraryPath != null) {
+      writer.name("containingLibraryPath").value(containingLibraryPath);
+    }
+    if (containingLibraryName != null) {
+      writer.name("containingLibraryName").value(containingLibraryName);
+    }
+    if (containingClassDescription != null) {
+      writer.name("containingClassDescription").value(containingClassDescription);
+    }
+    if (dartdoc != null) {
+      writer.name("dartdoc").value(dartdoc);
+    }
+    if (elementDescription != null) {
+      writer.name("elementDescription").value(elementDescription);
+    }
+    if (elementKind != null) {
+      writer.name("elementKind").value(elementKind);
+    }
+    if (isDeprecated != null) {
+      writer.name("isDeprecated").value(isDeprecated);
+    }
+    if (parameter != null) {
+      writer.name("parameter").value(parameter);
+    }
+    if (propagatedType != null) {
+      writer.name("propagatedType").value(propagatedType);
+    }
+    if (staticType != null) {
+      writer.name("staticType").value(staticType);
+    }
+    writer.endObject();
+  }
+
 }
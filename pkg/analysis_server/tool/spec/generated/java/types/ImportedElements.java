@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -91,6 +94,37 @@ public class ImportedElements {
     return list;
   }
 
+  public static List<ImportedElements> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ImportedElements> list = new ArrayList<ImportedElements>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ImportedElements fromJson(JsonReader reader) throws IOException {
+    String path = null;
+    String prefix = null;
+    List<String> elements = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("path")) {
+        path = reader.nextString();
+      } else if (fieldName.equals("prefix")) {
+        prefix = reader.nextString();
+      } else if (fieldName.equals("elements")) {
+        elements = readStringList(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ImportedElements(path, prefix, elements);
+  }
+
   /**
    * The names of the elements imported from the library.
    */
@@ -147,4 +181,26 @@ public class ImportedElements {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("path").value(path);
+    writer.name("prefix").value(prefix);
+    writer.name("elements").beginArray();
+    for (String elt : elements) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
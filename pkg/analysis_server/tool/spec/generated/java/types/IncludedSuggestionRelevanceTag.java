@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -85,6 +88,34 @@ public class IncludedSuggestionRelevanceTag {
     return list;
   }
 
+  public static List<IncludedSuggestionRelevanceTag> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<IncludedSuggestionRelevanceTag> list = new ArrayList<IncludedSuggestionRelevanceTag>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static IncludedSuggestionRelevanceTag fromJson(JsonReader reader) throws IOException {
+    String tag = null;
+    int relevanceBoost = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("tag")) {
+        tag = reader.nextString();
+      } else if (fieldName.equals("relevanceBoost")) {
+        relevanceBoost = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new IncludedSuggestionRelevanceTag(tag, relevanceBoost);
+  }
+
   /**
    * The boost to the relevance of the completion suggestions that match this tag, which is added to
    * the relevance of the containing IncludedSuggestionSet.
@@ -127,4 +158,11 @@ public class IncludedSuggestionRelevanceTag {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("tag").value(tag);
+    writer.name("relevanceBoost").value(relevanceBoost);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -97,6 +100,37 @@ public class IncludedSuggestionSet {
     return list;
   }
 
+  public static List<IncludedSuggestionSet> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<IncludedSuggestionSet> list = new ArrayList<IncludedSuggestionSet>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static IncludedSuggestionSet fromJson(JsonReader reader) throws IOException {
+    int id = 0;
+    int relevance = 0;
+    String displayUri = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("id")) {
+        id = reader.nextInt();
+      } else if (fieldName.equals("relevance")) {
+        relevance = reader.nextInt();
+      } else if (fieldName.equals("displayUri")) {
+        displayUri = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new IncludedSuggestionSet(id, relevance, displayUri);
+  }
+
   /**
    * The optional string that should be displayed instead of the uri of the referenced
    * AvailableSuggestionSet.
@@ -157,4 +191,14 @@ public class IncludedSuggestionSet {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("id").value(id);
+    writer.name("relevance").value(relevance);
+    if (displayUri != null) {
+      writer.name("displayUri").value(displayUri);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -80,6 +83,34 @@ public class InlineLocalVariableFeedback extends RefactoringFeedback {
     return list;
   }
 
+  public static List<InlineLocalVariableFeedback> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<InlineLocalVariableFeedback> list = new ArrayList<InlineLocalVariableFeedback>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static InlineLocalVariableFeedback fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    int occurrences = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("occurrences")) {
+        occurrences = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new InlineLocalVariableFeedback(name, occurrences);
+  }
+
   /**
    * The name of the variable being inlined.
    */
@@ -121,4 +152,11 @@ public class InlineLocalVariableFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.name("occurrences").value(occurrences);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -89,6 +92,37 @@ public class InlineMethodFeedback extends RefactoringFeedback {
     return list;
   }
 
+  public static List<InlineMethodFeedback> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<InlineMethodFeedback> list = new ArrayList<InlineMethodFeedback>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static InlineMethodFeedback fromJson(JsonReader reader) throws IOException {
+    String className = null;
+    String methodName = null;
+    boolean isDeclaration = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("className")) {
+        className = reader.nextString();
+      } else if (fieldName.equals("methodName")) {
+        methodName = reader.nextString();
+      } else if (fieldName.equals("isDeclaration")) {
+        isDeclaration = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new InlineMethodFeedback(className, methodName, isDeclaration);
+  }
+
   /**
    * The name of the class enclosing the method being inlined. If not a class member is being
    * inlined, this field will be absent.
@@ -144,4 +178,14 @@ public class InlineMethodFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    if (className != null) {
+      writer.name("className").value(className);
+    }
+    writer.name("methodName").value(methodName);
+    writer.name("isDeclaration").value(isDeclaration);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class InlineMethodOptions extends RefactoringOptions {
     return list;
   }
 
+  public static List<InlineMethodOptions> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<InlineMethodOptions> list = new ArrayList<InlineMethodOptions>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static InlineMethodOptions fromJson(JsonReader reader) throws IOException {
+    boolean deleteSource = false;
+    boolean inlineAll = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("deleteSource")) {
+        deleteSource = reader.nextBoolean();
+      } else if (fieldName.equals("inlineAll")) {
+        inlineAll = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new InlineMethodOptions(deleteSource, inlineAll);
+  }
+
   /**
    * True if the method being inlined should be removed. It is an error if this field is true and
    * inlineAll is false.
@@ -141,4 +172,11 @@ public class InlineMethodOptions extends RefactoringOptions {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("deleteSource").value(deleteSource);
+    writer.name("inlineAll").value(inlineAll);
+    writer.endObject();
+  }
+
 }
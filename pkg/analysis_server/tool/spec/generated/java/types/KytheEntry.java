@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -107,6 +110,43 @@ public class KytheEntry {
     return list;
   }
 
+  public static List<KytheEntry> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<KytheEntry> list = new ArrayList<KytheEntry>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static KytheEntry fromJson(JsonReader reader) throws IOException {
+    KytheVName source = null;
+    String kind = null;
+    KytheVName target = null;
+    String fact = null;
+    int[] value = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("source")) {
+        source = KytheVName.fromJson(reader);
+      } else if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("target")) {
+        target = KytheVName.fromJson(reader);
+      } else if (fieldName.equals("fact")) {
+        fact = reader.nextString();
+      } else if (fieldName.equals("value")) {
+        value = readIntArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new KytheEntry(source, kind, target, fact, value);
+  }
+
   /**
    * A fact label. The schema defines which fact labels are meaningful.
    */
@@ -191,4 +231,40 @@ public class KytheEntry {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("source");
+    source.writeTo(writer);
+    if (kind != null) {
+      writer.name("kind").value(kind);
+    }
+    if (target != null) {
+      writer.name("target");
+      target.writeTo(writer);
+    }
+    writer.name("fact").value(fact);
+    if (value != null) {
+      writer.name("value").beginArray();
+      for (int elt : value) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+  }
+
+  private static int[] readIntArray(JsonReader reader) throws IOException {
+    int[] values = new int[8];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = reader.nextInt();
+    }
+    reader.endArray();
+    return count == values.length ? values : Arrays.copyOf(values, count);
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -111,6 +114,43 @@ public class KytheVName {
     return list;
   }
 
+  public static List<KytheVName> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<KytheVName> list = new ArrayList<KytheVName>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static KytheVName fromJson(JsonReader reader) throws IOException {
+    String signature = null;
+    String corpus = null;
+    String root = null;
+    String path = null;
+    String language = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("signature")) {
+        signature = reader.nextString();
+      } else if (fieldName.equals("corpus")) {
+        corpus = reader.nextString();
+      } else if (fieldName.equals("root")) {
+        root = reader.nextString();
+      } else if (fieldName.equals("path")) {
+        path = reader.nextString();
+      } else if (fieldName.equals("language")) {
+        language = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new KytheVName(signature, corpus, root, path, language);
+  }
+
   /**
    * The corpus of source code this KytheVName belongs to. Loosely, a corpus is a collection of
    * related files, such as the contents of a given source repository.
@@ -189,4 +229,14 @@ public class KytheVName {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("signature").value(signature);
+    writer.name("corpus").value(corpus);
+    writer.name("root").value(root);
+    writer.name("path").value(path);
+    writer.name("language").value(language);
+    writer.endObject();
+  }
+
 }
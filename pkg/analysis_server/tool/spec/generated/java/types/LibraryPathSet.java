@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -85,6 +88,34 @@ public class LibraryPathSet {
     return list;
   }
 
+  public static List<LibraryPathSet> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<LibraryPathSet> list = new ArrayList<LibraryPathSet>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static LibraryPathSet fromJson(JsonReader reader) throws IOException {
+    String scope = null;
+    List<String> libraryPaths = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("scope")) {
+        scope = reader.nextString();
+      } else if (fieldName.equals("libraryPaths")) {
+        libraryPaths = readStringList(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new LibraryPathSet(scope, libraryPaths);
+  }
+
   /**
    * The paths of the libraries of interest to the client for completion suggestions.
    */
@@ -132,4 +163,25 @@ public class LibraryPathSet {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("scope").value(scope);
+    writer.name("libraryPaths").beginArray();
+    for (String elt : libraryPaths) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
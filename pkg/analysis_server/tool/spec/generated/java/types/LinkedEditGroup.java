@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -94,6 +97,37 @@ public class LinkedEditGroup {
     return list;
   }
 
+  public static List<LinkedEditGroup> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<LinkedEditGroup> list = new ArrayList<LinkedEditGroup>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static LinkedEditGroup fromJson(JsonReader reader) throws IOException {
+    List<Position> positions = null;
+    int length = 0;
+    List<LinkedEditSuggestion> suggestions = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("positions")) {
+        positions = Position.fromJsonArray(reader);
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("suggestions")) {
+        suggestions = LinkedEditSuggestion.fromJsonArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new LinkedEditGroup(positions, length, suggestions);
+  }
+
   /**
    * The length of the regions that should be edited simultaneously.
    */
@@ -154,4 +188,20 @@ public class LinkedEditGroup {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("positions").beginArray();
+    for (Position elt : positions) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.name("length").value(length);
+    writer.name("suggestions").beginArray();
+    for (LinkedEditSuggestion elt : suggestions) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -83,6 +86,34 @@ public class LinkedEditSuggestion {
     return list;
   }
 
+  public static List<LinkedEditSuggestion> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<LinkedEditSuggestion> list = new ArrayList<LinkedEditSuggestion>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static LinkedEditSuggestion fromJson(JsonReader reader) throws IOException {
+    String value = null;
+    String kind = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("value")) {
+        value = reader.nextString();
+      } else if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new LinkedEditSuggestion(value, kind);
+  }
+
   /**
    * The kind of value being proposed.
    */
@@ -124,4 +155,11 @@ public class LinkedEditSuggestion {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("value").value(value);
+    writer.name("kind").value(kind);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -106,6 +109,43 @@ public class Location {
     return list;
   }
 
+  public static List<Location> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<Location> list = new ArrayList<Location>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static Location fromJson(JsonReader reader) throws IOException {
+    String file = null;
+    int offset = 0;
+    int length = 0;
+    int startLine = 0;
+    int startColumn = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("file")) {
+        file = reader.nextString();
+      } else if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("startLine")) {
+        startLine = reader.nextInt();
+      } else if (fieldName.equals("startColumn")) {
+        startColumn = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new Location(file, offset, length, startLine, startColumn);
+  }
+
   /**
    * The file containing the range.
    */
@@ -180,4 +220,14 @@ public class Location {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("startLine").value(startLine);
+    writer.name("startColumn").value(startColumn);
+    writer.endObject();
+  }
+
 }
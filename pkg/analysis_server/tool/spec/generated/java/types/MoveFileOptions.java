@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -72,6 +75,31 @@ public class MoveFileOptions extends RefactoringOptions {
     return list;
   }
 
+  public static List<MoveFileOptions> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<MoveFileOptions> list = new ArrayList<MoveFileOptions>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static MoveFileOptions fromJson(JsonReader reader) throws IOException {
+    String newFile = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("newFile")) {
+        newFile = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new MoveFileOptions(newFile);
+  }
+
   /**
    * The new file path to which the given file is being moved.
    */
@@ -109,4 +137,10 @@ public class MoveFileOptions extends RefactoringOptions {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("newFile").value(newFile);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -116,6 +119,46 @@ public class NavigationTarget {
     return list;
   }
 
+  public static List<NavigationTarget> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<NavigationTarget> list = new ArrayList<NavigationTarget>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static NavigationTarget fromJson(JsonReader reader) throws IOException {
+    String kind = null;
+    int fileIndex = 0;
+    int offset = 0;
+    int length = 0;
+    int startLine = 0;
+    int startColumn = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("fileIndex")) {
+        fileIndex = reader.nextInt();
+      } else if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("startLine")) {
+        startLine = reader.nextInt();
+      } else if (fieldName.equals("startColumn")) {
+        startColumn = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new NavigationTarget(kind, fileIndex, offset, length, startLine, startColumn);
+  }
+
   public String getFile() {
     return file;
   }
@@ -209,4 +252,15 @@ public class NavigationTarget {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("kind").value(kind);
+    writer.name("fileIndex").value(fileIndex);
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("startLine").value(startLine);
+    writer.name("startColumn").value(startColumn);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -99,6 +102,37 @@ public class Occurrences {
     return list;
   }
 
+  public static List<Occurrences> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<Occurrences> list = new ArrayList<Occurrences>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static Occurrences fromJson(JsonReader reader) throws IOException {
+    Element element = null;
+    int[] offsets = null;
+    int length = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("element")) {
+        element = Element.fromJson(reader);
+      } else if (fieldName.equals("offsets")) {
+        offsets = readIntArray(reader);
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new Occurrences(element, offsets, length);
+  }
+
   /**
    * The element that was referenced.
    */
@@ -155,4 +189,31 @@ public class Occurrences {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("element");
+    element.writeTo(writer);
+    writer.name("offsets").beginArray();
+    for (int elt : offsets) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("length").value(length);
+    writer.endObject();
+  }
+
+  private static int[] readIntArray(JsonReader reader) throws IOException {
+    int[] values = new int[8];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = reader.nextInt();
+    }
+    reader.endArray();
+    return count == values.length ? values : Arrays.copyOf(values, count);
+  }
+
 }
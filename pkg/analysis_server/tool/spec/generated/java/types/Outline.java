@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -99,28 +102,101 @@ public class Outline {
   }
 
   public static Outline fromJson(Outline parent, JsonObject outlineObject) {
-    JsonObject elementObject = outlineObject.get("element").getAsJsonObject();
-    Element element = Element.fromJson(elementObject);
-    int offset = outlineObject.get("offset").getAsInt();
-    int length = outlineObject.get("length").getAsInt();
-    int codeOffset = outlineObject.get("codeOffset").getAsInt();
-    int codeLength = outlineObject.get("codeLength").getAsInt();
-
-    // create outline object
-    Outline outline = new Outline(parent, element, offset, length, codeOffset, codeLength);
-
-    // compute children recursively
-    List<Outline> childrenList = Lists.newArrayList();
-    JsonElement childrenJsonArray = outlineObject.get("children");
-    if (childrenJsonArray instanceof JsonArray) {
-      Iterator<JsonElement> childrenElementIterator = ((JsonArray) childrenJsonArray).iterator();
-      while (childrenElementIterator.hasNext()) {
-        JsonObject childObject = childrenElementIterator.next().getAsJsonObject();
-        childrenList.add(fromJson(outline, childObject));
+    // create outline objects breadth first rather than recursively, so that the depth of the tree
+    // is not limited by the stack, the object at each index has the parent at the same index
+    List<JsonObject> outlineObjects = new ArrayList<JsonObject>();
+    List<Outline> parents = new ArrayList<Outline>();
+    outlineObjects.add(outlineObject);
+    parents.add(parent);
+    Outline root = null;
+    for (int i = 0; i < outlineObjects.size(); i++) {
+      JsonObject object = outlineObjects.get(i);
+      Outline outlineParent = parents.get(i);
+      outlineObjects.set(i, null);
+      parents.set(i, null);
+      JsonObject elementObject = object.get("element").getAsJsonObject();
+      Element element = Element.fromJson(elementObject);
+      int offset = object.get("offset").getAsInt();
+      int length = object.get("length").getAsInt();
+      int codeOffset = object.get("codeOffset").getAsInt();
+      int codeLength = object.get("codeLength").getAsInt();
+
+      // create outline object, and add it to the children of its parent
+      Outline outline = new Outline(outlineParent, element, offset, length, codeOffset, codeLength);
+      if (i == 0) {
+        root = outline;
+      } else {
+        outlineParent.children.add(outline);
+      }
+
+      // schedule the children
+      JsonElement childrenJsonArray = object.get("children");
+      if (childrenJsonArray instanceof JsonArray) {
+        JsonArray childrenArray = (JsonArray) childrenJsonArray;
+        outline.setChildren(new ArrayList<Outline>(childrenArray.size()));
+        Iterator<JsonElement> childrenElementIterator = childrenArray.iterator();
+        while (childrenElementIterator.hasNext()) {
+          outlineObjects.add(childrenElementIterator.next().getAsJsonObject());
+          parents.add(outline);
+        }
+      } else {
+        outline.setChildren(new ArrayList<Outline>(0));
+      }
+    }
+    return root;
+  }
+
+  public static Outline fromJson(Outline parent, JsonReader reader) throws IOException {
+    // create outline objects as their JSON objects are started, the fields are set as they are
+    // read, the enclosing outlines are kept on an explicit stack rather than by recursion
+    Outline outline = new Outline(parent, null, 0, 0, 0, 0);
+    outline.setChildren(new ArrayList<Outline>());
+    List<Outline> enclosingOutlines = new ArrayList<Outline>();
+    boolean inChildren = false;
+    reader.beginObject();
+    while (true) {
+      if (inChildren) {
+        if (reader.hasNext()) {
+          // start the next child
+          Outline child = new Outline(outline, null, 0, 0, 0, 0);
+          child.setChildren(new ArrayList<Outline>());
+          outline.children.add(child);
+          enclosingOutlines.add(outline);
+          outline = child;
+          inChildren = false;
+          reader.beginObject();
+        } else {
+          reader.endArray();
+          inChildren = false;
+        }
+      } else if (reader.hasNext()) {
+        String fieldName = reader.nextName();
+        if (fieldName.equals("element")) {
+          outline.setElement(Element.fromJson(reader));
+        } else if (fieldName.equals("offset")) {
+          outline.setOffset(reader.nextInt());
+        } else if (fieldName.equals("length")) {
+          outline.setLength(reader.nextInt());
+        } else if (fieldName.equals("codeOffset")) {
+          outline.setCodeOffset(reader.nextInt());
+        } else if (fieldName.equals("codeLength")) {
+          outline.setCodeLength(reader.nextInt());
+        } else if (fieldName.equals("children")) {
+          reader.beginArray();
+          inChildren = true;
+        } else {
+          reader.skipValue();
+        }
+      } else {
+        reader.endObject();
+        if (enclosingOutlines.isEmpty()) {
+          return outline;
+        }
+        // continue with the remaining children of the parent
+        outline = enclosingOutlines.remove(enclosingOutlines.size() - 1);
+        inChildren = true;
       }
     }
-    outline.setChildren(childrenList);
-    return outline;
   }
 
   public Outline getParent() {
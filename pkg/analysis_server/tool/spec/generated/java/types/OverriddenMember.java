@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class OverriddenMember {
     return list;
   }
 
+  public static List<OverriddenMember> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<OverriddenMember> list = new ArrayList<OverriddenMember>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static OverriddenMember fromJson(JsonReader reader) throws IOException {
+    Element element = null;
+    String className = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("element")) {
+        element = Element.fromJson(reader);
+      } else if (fieldName.equals("className")) {
+        className = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new OverriddenMember(element, className);
+  }
+
   /**
    * The name of the class in which the member is defined.
    */
@@ -123,4 +154,12 @@ public class OverriddenMember {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("element");
+    element.writeTo(writer);
+    writer.name("className").value(className);
+    writer.endObject();
+  }
+
 }
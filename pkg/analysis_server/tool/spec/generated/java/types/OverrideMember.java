@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -101,6 +104,40 @@ public class OverrideMember {
     return list;
   }
 
+  public static List<OverrideMember> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<OverrideMember> list = new ArrayList<OverrideMember>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static OverrideMember fromJson(JsonReader reader) throws IOException {
+    int offset = 0;
+    int length = 0;
+    OverriddenMember superclassMember = null;
+    List<OverriddenMember> interfaceMembers = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("superclassMember")) {
+        superclassMember = OverriddenMember.fromJson(reader);
+      } else if (fieldName.equals("interfaceMembers")) {
+        interfaceMembers = OverriddenMember.fromJsonArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new OverrideMember(offset, length, superclassMember, interfaceMembers);
+  }
+
   /**
    * The members inherited from interfaces that are overridden by the overriding member. The field is
    * omitted if there are no interface members, in which case there must be a superclass member.
@@ -175,4 +212,22 @@ public class OverrideMember {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    if (superclassMember != null) {
+      writer.name("superclassMember");
+      superclassMember.writeTo(writer);
+    }
+    if (interfaceMembers != null) {
+      writer.name("interfaceMembers").beginArray();
+      for (OverriddenMember elt : interfaceMembers) {
+        elt.writeTo(writer);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+  }
+
 }
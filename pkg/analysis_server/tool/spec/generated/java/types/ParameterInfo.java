@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -99,6 +102,40 @@ public class ParameterInfo {
     return list;
   }
 
+  public static List<ParameterInfo> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<ParameterInfo> list = new ArrayList<ParameterInfo>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static ParameterInfo fromJson(JsonReader reader) throws IOException {
+    String kind = null;
+    String name = null;
+    String type = null;
+    String defaultValue = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else if (fieldName.equals("defaultValue")) {
+        defaultValue = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new ParameterInfo(kind, name, type, defaultValue);
+  }
+
   /**
    * The default value for this parameter. This value will be omitted if the parameter does not have
    * a default value.
@@ -165,4 +202,15 @@ public class ParameterInfo {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("kind").value(kind);
+    writer.name("name").value(name);
+    writer.name("type").value(type);
+    if (defaultValue != null) {
+      writer.name("defaultValue").value(defaultValue);
+    }
+    writer.endObject();
+  }
+
 }
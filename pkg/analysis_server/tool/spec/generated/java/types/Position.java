@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -82,6 +85,34 @@ public class Position {
     return list;
   }
 
+  public static List<Position> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<Position> list = new ArrayList<Position>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static Position fromJson(JsonReader reader) throws IOException {
+    String file = null;
+    int offset = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("file")) {
+        file = reader.nextString();
+      } else if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new Position(file, offset);
+  }
+
   /**
    * The file containing the position.
    */
@@ -123,4 +154,11 @@ public class Position {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("file").value(file);
+    writer.name("offset").value(offset);
+    writer.endObject();
+  }
+
 }
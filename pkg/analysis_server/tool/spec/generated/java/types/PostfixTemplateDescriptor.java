@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -90,6 +93,37 @@ public class PostfixTemplateDescriptor {
     return list;
   }
 
+  public static List<PostfixTemplateDescriptor> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<PostfixTemplateDescriptor> list = new ArrayList<PostfixTemplateDescriptor>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static PostfixTemplateDescriptor fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    String key = null;
+    String example = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("key")) {
+        key = reader.nextString();
+      } else if (fieldName.equals("example")) {
+        example = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new PostfixTemplateDescriptor(name, key, example);
+  }
+
   /**
    * A short example of the transformation performed when the template is applied.
    */
@@ -142,4 +176,12 @@ public class PostfixTemplateDescriptor {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.name("key").value(key);
+    writer.name("example").value(example);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -74,6 +77,31 @@ public class PubStatus {
     return list;
   }
 
+  public static List<PubStatus> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<PubStatus> list = new ArrayList<PubStatus>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static PubStatus fromJson(JsonReader reader) throws IOException {
+    boolean isListingPackageDirs = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("isListingPackageDirs")) {
+        isListingPackageDirs = reader.nextBoolean();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new PubStatus(isListingPackageDirs);
+  }
+
   /**
    * True if the server is currently running pub to produce a list of package directories.
    */
@@ -104,4 +132,10 @@ public class PubStatus {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("isListingPackageDirs").value(isListingPackageDirs);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -110,6 +113,43 @@ public class RefactoringMethodParameter {
     return list;
   }
 
+  public static List<RefactoringMethodParameter> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RefactoringMethodParameter> list = new ArrayList<RefactoringMethodParameter>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RefactoringMethodParameter fromJson(JsonReader reader) throws IOException {
+    String id = null;
+    String kind = null;
+    String type = null;
+    String name = null;
+    String parameters = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("id")) {
+        id = reader.nextString();
+      } else if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("parameters")) {
+        parameters = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RefactoringMethodParameter(id, kind, type, name, parameters);
+  }
+
   /**
    * The unique identifier of the parameter. Clients may omit this field for the parameters they want
    * to add.
@@ -231,4 +271,18 @@ public class RefactoringMethodParameter {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    if (id != null) {
+      writer.name("id").value(id);
+    }
+    writer.name("kind").value(kind);
+    writer.name("type").value(type);
+    writer.name("name").value(name);
+    if (parameters != null) {
+      writer.name("parameters").value(parameters);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -92,6 +95,37 @@ public class RefactoringProblem {
     return list;
   }
 
+  public static List<RefactoringProblem> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RefactoringProblem> list = new ArrayList<RefactoringProblem>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RefactoringProblem fromJson(JsonReader reader) throws IOException {
+    String severity = null;
+    String message = null;
+    Location location = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("severity")) {
+        severity = reader.nextString();
+      } else if (fieldName.equals("message")) {
+        message = reader.nextString();
+      } else if (fieldName.equals("location")) {
+        location = Location.fromJson(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RefactoringProblem(severity, message, location);
+  }
+
   /**
    * The location of the problem being represented. This field is omitted unless there is a specific
    * location associated with the problem (such as a location where an element being renamed will be
@@ -148,4 +182,15 @@ public class RefactoringProblem {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("severity").value(severity);
+    writer.name("message").value(message);
+    if (location != null) {
+      writer.name("location");
+      location.writeTo(writer);
+    }
+    writer.endObject();
+  }
+
 }
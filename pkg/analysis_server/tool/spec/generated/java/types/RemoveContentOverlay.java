@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -75,6 +78,31 @@ public class RemoveContentOverlay {
     return list;
   }
 
+  public static List<RemoveContentOverlay> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RemoveContentOverlay> list = new ArrayList<RemoveContentOverlay>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RemoveContentOverlay fromJson(JsonReader reader) throws IOException {
+    String type = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RemoveContentOverlay();
+  }
+
   public String getType() {
     return type;
   }
@@ -102,4 +130,10 @@ public class RemoveContentOverlay {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("type").value(type);
+    writer.endObject();
+  }
+
 }
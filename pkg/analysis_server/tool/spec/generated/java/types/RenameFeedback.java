@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -98,6 +101,40 @@ public class RenameFeedback extends RefactoringFeedback {
     return list;
   }
 
+  public static List<RenameFeedback> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RenameFeedback> list = new ArrayList<RenameFeedback>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RenameFeedback fromJson(JsonReader reader) throws IOException {
+    int offset = 0;
+    int length = 0;
+    String elementKindName = null;
+    String oldName = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("elementKindName")) {
+        elementKindName = reader.nextString();
+      } else if (fieldName.equals("oldName")) {
+        oldName = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RenameFeedback(offset, length, elementKindName, oldName);
+  }
+
   /**
    * The human-readable description of the kind of element being renamed (such as "class" or
    * "function type alias").
@@ -163,4 +200,13 @@ public class RenameFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("elementKindName").value(elementKindName);
+    writer.name("oldName").value(oldName);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -72,6 +75,31 @@ public class RenameOptions extends RefactoringOptions {
     return list;
   }
 
+  public static List<RenameOptions> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RenameOptions> list = new ArrayList<RenameOptions>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RenameOptions fromJson(JsonReader reader) throws IOException {
+    String newName = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("newName")) {
+        newName = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RenameOptions(newName);
+  }
+
   /**
    * The name that the element should have after the refactoring.
    */
@@ -109,4 +137,10 @@ public class RenameOptions extends RefactoringOptions {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("newName").value(newName);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -90,6 +93,37 @@ public class RequestError {
     return list;
   }
 
+  public static List<RequestError> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RequestError> list = new ArrayList<RequestError>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RequestError fromJson(JsonReader reader) throws IOException {
+    String code = null;
+    String message = null;
+    String stackTrace = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("code")) {
+        code = reader.nextString();
+      } else if (fieldName.equals("message")) {
+        message = reader.nextString();
+      } else if (fieldName.equals("stackTrace")) {
+        stackTrace = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RequestError(code, message, stackTrace);
+  }
+
   /**
    * A code that uniquely identifies the error that occurred.
    */
@@ -144,4 +178,14 @@ public class RequestError {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("code").value(code);
+    writer.name("message").value(message);
+    if (stackTrace != null) {
+      writer.name("stackTrace").value(stackTrace);
+    }
+    writer.endObject();
+  }
+
 }
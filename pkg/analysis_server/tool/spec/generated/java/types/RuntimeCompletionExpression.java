@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -93,6 +96,37 @@ public class RuntimeCompletionExpression {
     return list;
   }
 
+  public static List<RuntimeCompletionExpression> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RuntimeCompletionExpression> list = new ArrayList<RuntimeCompletionExpression>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RuntimeCompletionExpression fromJson(JsonReader reader) throws IOException {
+    int offset = 0;
+    int length = 0;
+    RuntimeCompletionExpressionType type = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("type")) {
+        type = RuntimeCompletionExpressionType.fromJson(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RuntimeCompletionExpression(offset, length, type);
+  }
+
   /**
    * The length of the expression in the code for completion.
    */
@@ -148,4 +182,15 @@ public class RuntimeCompletionExpression {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    if (type != null) {
+      writer.name("type");
+      type.writeTo(writer);
+    }
+    writer.endObject();
+  }
+
 }
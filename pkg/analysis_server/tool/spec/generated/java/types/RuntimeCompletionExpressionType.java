@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -127,6 +130,49 @@ public class RuntimeCompletionExpressionType {
     return list;
   }
 
+  public static List<RuntimeCompletionExpressionType> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RuntimeCompletionExpressionType> list = new ArrayList<RuntimeCompletionExpressionType>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RuntimeCompletionExpressionType fromJson(JsonReader reader) throws IOException {
+    String libraryPath = null;
+    String kind = null;
+    String name = null;
+    List<RuntimeCompletionExpressionType> typeArguments = null;
+    RuntimeCompletionExpressionType returnType = null;
+    List<RuntimeCompletionExpressionType> parameterTypes = null;
+    List<String> parameterNames = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("libraryPath")) {
+        libraryPath = reader.nextString();
+      } else if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("typeArguments")) {
+        typeArguments = RuntimeCompletionExpressionType.fromJsonArray(reader);
+      } else if (fieldName.equals("returnType")) {
+        returnType = RuntimeCompletionExpressionType.fromJson(reader);
+      } else if (fieldName.equals("parameterTypes")) {
+        parameterTypes = RuntimeCompletionExpressionType.fromJsonArray(reader);
+      } else if (fieldName.equals("parameterNames")) {
+        parameterNames = readStringList(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RuntimeCompletionExpressionType(libraryPath, kind, name, typeArguments, returnType, parameterTypes, parameterNames);
+  }
+
   /**
    * The kind of the type.
    */
@@ -252,4 +298,51 @@ public class RuntimeCompletionExpressionType {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    if (libraryPath != null) {
+      writer.name("libraryPath").value(libraryPath);
+    }
+    writer.name("kind").value(kind);
+    if (name != null) {
+      writer.name("name").value(name);
+    }
+    if (typeArguments != null) {
+      writer.name("typeArguments").beginArray();
+      for (RuntimeCompletionExpressionType elt : typeArguments) {
+        elt.writeTo(writer);
+      }
+      writer.endArray();
+    }
+    if (returnType != null) {
+      writer.name("returnType");
+      returnType.writeTo(writer);
+    }
+    if (parameterTypes != null) {
+      writer.name("parameterTypes").beginArray();
+      for (RuntimeCompletionExpressionType elt : parameterTypes) {
+        elt.writeTo(writer);
+      }
+      writer.endArray();
+    }
+    if (parameterNames != null) {
+      writer.name("parameterNames").beginArray();
+      for (String elt : parameterNames) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -83,6 +86,34 @@ public class RuntimeCompletionVariable {
     return list;
   }
 
+  public static List<RuntimeCompletionVariable> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<RuntimeCompletionVariable> list = new ArrayList<RuntimeCompletionVariable>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static RuntimeCompletionVariable fromJson(JsonReader reader) throws IOException {
+    String name = null;
+    RuntimeCompletionExpressionType type = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("name")) {
+        name = reader.nextString();
+      } else if (fieldName.equals("type")) {
+        type = RuntimeCompletionExpressionType.fromJson(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new RuntimeCompletionVariable(name, type);
+  }
+
   /**
    * The name of the variable. The name "this" has a special meaning and is used as an implicit
    * target for runtime completion, and in explicit "this" references.
@@ -125,4 +156,12 @@ public class RuntimeCompletionVariable {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("name").value(name);
+    writer.name("type");
+    type.writeTo(writer);
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -101,6 +104,40 @@ public class SearchResult {
     return list;
   }
 
+  public static List<SearchResult> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<SearchResult> list = new ArrayList<SearchResult>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static SearchResult fromJson(JsonReader reader) throws IOException {
+    Location location = null;
+    String kind = null;
+    boolean isPotential = false;
+    List<Element> path = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("location")) {
+        location = Location.fromJson(reader);
+      } else if (fieldName.equals("kind")) {
+        kind = reader.nextString();
+      } else if (fieldName.equals("isPotential")) {
+        isPotential = reader.nextBoolean();
+      } else if (fieldName.equals("path")) {
+        path = Element.fromJsonArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new SearchResult(location, kind, isPotential, path);
+  }
+
   /**
    * True if the result is a potential match but cannot be confirmed to be a match. For example, if
    * all references to a method m defined in some class were requested, and a reference to a method m
@@ -171,4 +208,18 @@ public class SearchResult {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("location");
+    location.writeTo(writer);
+    writer.name("kind").value(kind);
+    writer.name("isPotential").value(isPotential);
+    writer.name("path").beginArray();
+    for (Element elt : path) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -107,6 +110,43 @@ public class SourceChange {
     return list;
   }
 
+  public static List<SourceChange> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<SourceChange> list = new ArrayList<SourceChange>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static SourceChange fromJson(JsonReader reader) throws IOException {
+    String message = null;
+    List<SourceFileEdit> edits = null;
+    List<LinkedEditGroup> linkedEditGroups = null;
+    Position selection = null;
+    String id = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("message")) {
+        message = reader.nextString();
+      } else if (fieldName.equals("edits")) {
+        edits = SourceFileEdit.fromJsonArray(reader);
+      } else if (fieldName.equals("linkedEditGroups")) {
+        linkedEditGroups = LinkedEditGroup.fromJsonArray(reader);
+      } else if (fieldName.equals("selection")) {
+        selection = Position.fromJson(reader);
+      } else if (fieldName.equals("id")) {
+        id = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new SourceChange(message, edits, linkedEditGroups, selection, id);
+  }
+
   /**
    * A list of the edits used to effect the change, grouped by file.
    */
@@ -194,4 +234,27 @@ public class SourceChange {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("message").value(message);
+    writer.name("edits").beginArray();
+    for (SourceFileEdit elt : edits) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.name("linkedEditGroups").beginArray();
+    for (LinkedEditGroup elt : linkedEditGroups) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    if (selection != null) {
+      writer.name("selection");
+      selection.writeTo(writer);
+    }
+    if (id != null) {
+      writer.name("id").value(id);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -104,6 +107,40 @@ public class SourceEdit {
     return list;
   }
 
+  public static List<SourceEdit> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<SourceEdit> list = new ArrayList<SourceEdit>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static SourceEdit fromJson(JsonReader reader) throws IOException {
+    int offset = 0;
+    int length = 0;
+    String replacement = null;
+    String id = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("offset")) {
+        offset = reader.nextInt();
+      } else if (fieldName.equals("length")) {
+        length = reader.nextInt();
+      } else if (fieldName.equals("replacement")) {
+        replacement = reader.nextString();
+      } else if (fieldName.equals("id")) {
+        id = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new SourceEdit(offset, length, replacement, id);
+  }
+
   /**
    * An identifier that uniquely identifies this source edit from other edits in the same response.
    * This field is omitted unless a containing structure needs to be able to identify the edit for
@@ -175,4 +212,15 @@ public class SourceEdit {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("offset").value(offset);
+    writer.name("length").value(length);
+    writer.name("replacement").value(replacement);
+    if (id != null) {
+      writer.name("id").value(id);
+    }
+    writer.endObject();
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -93,6 +96,37 @@ public class SourceFileEdit {
     return list;
   }
 
+  public static List<SourceFileEdit> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<SourceFileEdit> list = new ArrayList<SourceFileEdit>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static SourceFileEdit fromJson(JsonReader reader) throws IOException {
+    String file = null;
+    long fileStamp = 0;
+    List<SourceEdit> edits = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("file")) {
+        file = reader.nextString();
+      } else if (fieldName.equals("fileStamp")) {
+        fileStamp = reader.nextLong();
+      } else if (fieldName.equals("edits")) {
+        edits = SourceEdit.fromJsonArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new SourceFileEdit(file, fileStamp, edits);
+  }
+
   /**
    * A list of the edits used to effect the change.
    */
@@ -152,4 +186,16 @@ public class SourceFileEdit {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("file").value(file);
+    writer.name("fileStamp").value(fileStamp);
+    writer.name("edits").beginArray();
+    for (SourceEdit elt : edits) {
+      elt.writeTo(writer);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
 }
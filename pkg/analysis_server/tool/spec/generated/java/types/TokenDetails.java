@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -93,6 +96,37 @@ public class TokenDetails {
     return list;
   }
 
+  public static List<TokenDetails> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<TokenDetails> list = new ArrayList<TokenDetails>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static TokenDetails fromJson(JsonReader reader) throws IOException {
+    String lexeme = null;
+    String type = null;
+    List<String> validElementKinds = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("lexeme")) {
+        lexeme = reader.nextString();
+      } else if (fieldName.equals("type")) {
+        type = reader.nextString();
+      } else if (fieldName.equals("validElementKinds")) {
+        validElementKinds = readStringList(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new TokenDetails(lexeme, type, validElementKinds);
+  }
+
   /**
    * The token's lexeme.
    */
@@ -156,4 +190,30 @@ public class TokenDetails {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("lexeme").value(lexeme);
+    if (type != null) {
+      writer.name("type").value(type);
+    }
+    if (validElementKinds != null) {
+      writer.name("validElementKinds").beginArray();
+      for (String elt : validElementKinds) {
+        writer.value(elt);
+      }
+      writer.endArray();
+    }
+    writer.endObject();
+  }
+
+  private static List<String> readStringList(JsonReader reader) throws IOException {
+    List<String> list = new ArrayList<String>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(reader.nextString());
+    }
+    reader.endArray();
+    return list;
+  }
+
 }
@@ -18,7 +18,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -130,6 +133,49 @@ public class TypeHierarchyItem {
     return list;
   }
 
+  public static List<TypeHierarchyItem> fromJsonArray(JsonReader reader) throws IOException {
+    ArrayList<TypeHierarchyItem> list = new ArrayList<TypeHierarchyItem>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      list.add(fromJson(reader));
+    }
+    reader.endArray();
+    return list;
+  }
+
+  public static TypeHierarchyItem fromJson(JsonReader reader) throws IOException {
+    Element classElement = null;
+    String displayName = null;
+    Element memberElement = null;
+    Integer superclass = null;
+    int[] interfaces = null;
+    int[] mixins = null;
+    int[] subclasses = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String fieldName = reader.nextName();
+      if (fieldName.equals("classElement")) {
+        classElement = Element.fromJson(reader);
+      } else if (fieldName.equals("displayName")) {
+        displayName = reader.nextString();
+      } else if (fieldName.equals("memberElement")) {
+        memberElement = Element.fromJson(reader);
+      } else if (fieldName.equals("superclass")) {
+        superclass = reader.nextInt();
+      } else if (fieldName.equals("interfaces")) {
+        interfaces = readIntArray(reader);
+      } else if (fieldName.equals("mixins")) {
+        mixins = readIntArray(reader);
+      } else if (fieldName.equals("subclasses")) {
+        subclasses = readIntArray(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return new TypeHierarchyItem(classElement, displayName, memberElement, superclass, interfaces, mixins, subclasses);
+  }
+
   public String getBestName() {
     if (displayName == null) {
       return classElement.getName();
@@ -260,4 +306,50 @@ public class TypeHierarchyItem {
     return builder.toString();
   }
 
+  public void writeTo(JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("classElement");
+    classElement.writeTo(writer);
+    if (displayName != null) {
+      writer.name("displayName").value(displayName);
+    }
+    if (memberElement != null) {
+      writer.name("memberElement");
+      memberElement.writeTo(writer);
+    }
+    if (superclass != null) {
+      writer.name("superclass").value(superclass);
+    }
+    writer.name("interfaces").beginArray();
+    for (int elt : interfaces) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("mixins").beginArray();
+    for (int elt : mixins) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.name("subclasses").beginArray();
+    for (int elt : subclasses) {
+      writer.value(elt);
+    }
+    writer.endArray();
+    writer.endObject();
+  }
+
+  private static int[] readIntArray(JsonReader reader) throws IOException {
+    int[] values = new int[8];
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = reader.nextInt();
+    }
+    reader.endArray();
+    return count == values.length ? values : Arrays.copyOf(values, count);
+  }
+
 }